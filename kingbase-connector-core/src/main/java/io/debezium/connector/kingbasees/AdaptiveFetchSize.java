@@ -0,0 +1,163 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.connector.kingbasees.connection.PostgresConnection;
+import io.debezium.relational.TableId;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Sizes the fetches of a snapshot result set to a number of bytes rather than a number of rows, so a wide table does
+ * not exhaust the memory and a narrow table is not read in needlessly small round trips.
+ * <p>
+ * The first fetch is sized by the row width the catalog statistics give for the table, each following fetch by the
+ * average size of the rows of the previous fetch. Sizes are approximate: a row is counted by the length of its values
+ * plus a fixed overhead per column, where numbers, booleans and temporals count with a fixed size, decimals by their
+ * digits, arrays by their elements and all other values, such as json, geometry or array literals held by driver
+ * objects, by the length of their text.
+ */
+class AdaptiveFetchSize {
+
+    static final int MIN_FETCH_SIZE = 16;
+    static final int MAX_FETCH_SIZE = 100_000;
+
+    private static final long ROW_OVERHEAD = 24;
+    private static final long COLUMN_OVERHEAD = 16;
+    private static final long FIXED_VALUE_SIZE = 8;
+
+    /**
+     * The row width of an analyzed table by {@code pg_stats}, otherwise the average size of a row on disk.
+     */
+    private static final String ROW_WIDTH_QUERY = "SELECT (SELECT sum(s.avg_width) FROM pg_catalog.pg_stats s "
+            + "WHERE s.schemaname = n.nspname AND s.tablename = c.relname), "
+            + "CASE WHEN c.reltuples > 0 AND c.relpages > 0 "
+            + "THEN (c.relpages::numeric * current_setting('block_size')::numeric / c.reltuples::numeric)::bigint END "
+            + "FROM pg_catalog.pg_class c JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace "
+            + "WHERE n.nspname = ? AND c.relname = ?";
+
+    private final long fetchBytes;
+    private int fetchSize;
+    private long windowRows;
+    private long windowBytes;
+
+    /**
+     * @param estimatedRowSize the estimated size of a row, or a non-positive value if unknown
+     * @param defaultFetchSize the fetch size used until the size of the rows is known
+     */
+    AdaptiveFetchSize(long fetchBytes, long estimatedRowSize, int defaultFetchSize) {
+        this.fetchBytes = fetchBytes;
+        this.fetchSize = estimatedRowSize > 0 ? fetchSize(fetchBytes, estimatedRowSize) : Math.min(defaultFetchSize, MAX_FETCH_SIZE);
+    }
+
+    int fetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Records a row read from the result set.
+     *
+     * @return {@code true} if the fetch size changed with the completion of a fetch
+     */
+    boolean rowRead(long rowSize) {
+        windowRows++;
+        windowBytes += rowSize;
+        if (windowRows < fetchSize) {
+            return false;
+        }
+        final int observed = fetchSize(fetchBytes, Math.max(1, windowBytes / windowRows));
+        windowRows = 0;
+        windowBytes = 0;
+        // ignore small deviations, each change is logged and the rows of a table usually vary a little
+        if (Math.abs(observed - fetchSize) * 4 < fetchSize) {
+            return false;
+        }
+        fetchSize = observed;
+        return true;
+    }
+
+    static int fetchSize(long fetchBytes, long rowSize) {
+        final long rows = fetchBytes / Math.max(1, rowSize);
+        return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, rows));
+    }
+
+    /**
+     * Returns the estimated size of a row of the given table as held by the driver, or -1 if the table has neither
+     * been analyzed nor has any pages.
+     */
+    static long estimateRowSize(PostgresConnection connection, TableId tableId, int columnCount) throws SQLException {
+        try (PreparedStatement statement = connection.connection().prepareStatement(ROW_WIDTH_QUERY)) {
+            statement.setString(1, tableId.schema());
+            statement.setString(2, tableId.table());
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    return -1;
+                }
+                long width = rs.getLong(1);
+                if (rs.wasNull() || width <= 0) {
+                    width = rs.getLong(2);
+                    if (rs.wasNull() || width <= 0) {
+                        return -1;
+                    }
+                }
+                return ROW_OVERHEAD + COLUMN_OVERHEAD * columnCount + width;
+            }
+        }
+    }
+
+    static long sizeOf(Object[] row) {
+        long size = ROW_OVERHEAD;
+        for (Object value : row) {
+            size += COLUMN_OVERHEAD + valueSize(value);
+        }
+        return size;
+    }
+
+    private static long valueSize(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).precision();
+        }
+        if (value instanceof BigInteger) {
+            return ((BigInteger) value).bitLength() / 8 + 1;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Date || value instanceof Temporal) {
+            return FIXED_VALUE_SIZE;
+        }
+        if (value instanceof Object[]) {
+            long size = 0;
+            for (Object element : (Object[]) value) {
+                size += FIXED_VALUE_SIZE + valueSize(element);
+            }
+            return size;
+        }
+        if (value instanceof Collection) {
+            long size = 0;
+            for (Object element : (Collection<?>) value) {
+                size += FIXED_VALUE_SIZE + valueSize(element);
+            }
+            return size;
+        }
+        // driver objects such as KBobject and KbArray hold the value as text
+        return value.toString().length();
+    }
+}
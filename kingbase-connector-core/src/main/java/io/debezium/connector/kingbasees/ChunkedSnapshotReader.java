@@ -0,0 +1,526 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.connector.kingbasees.PostgresSnapshotChangeEventSource.ColumnReader;
+import io.debezium.connector.kingbasees.SnapshotProgress.KeyRange;
+import io.debezium.connector.kingbasees.connection.PostgresConnection;
+import io.debezium.pipeline.source.spi.ChangeEventSource.ChangeEventSourceContext;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Reads the data of a snapshot in chunks on a pool of connections. Every connection imports the snapshot exported by
+ * the snapshot transaction ({@code SET TRANSACTION SNAPSHOT}), so all chunks see the same consistent view of the data
+ * as the schema snapshot and the streaming start position.
+ * <p>
+ * Tables with a single integer primary key column are split into key ranges of about the configured chunk size, all
+ * other tables are read as one chunk. The rows are handed to the calling thread, which dispatches them, as the event
+ * dispatcher and the offset are not thread-safe.
+ * <p>
+ * With a fetch byte budget the fetches are sized by {@link AdaptiveFetchSize}; with a memory budget half of it is split
+ * among the fetches of the readers and the other half bounds the rows queued for dispatching.
+ */
+class ChunkedSnapshotReader implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedSnapshotReader.class);
+
+    private static final int ROWS_PER_BATCH = 256;
+    private static final int QUEUED_BATCHES_PER_THREAD = 8;
+
+    private static final String ROW_ESTIMATE_QUERY = "SELECT c.reltuples::bigint FROM pg_catalog.pg_class c "
+            + "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = ? AND c.relname = ?";
+
+    /**
+     * Receives the rows of the chunks on the calling thread.
+     */
+    interface RowHandler {
+        void row(TableId tableId, Object[] row) throws InterruptedException;
+
+        void chunkCompleted(Chunk chunk) throws InterruptedException;
+
+        void tableCompleted(TableId tableId, long rows) throws InterruptedException;
+    }
+
+    private final Supplier<PostgresConnection> connectionFactory;
+    private final String snapshotId;
+    private final int maxThreads;
+    private final Map<String, Integer> maxThreadsPerTable;
+    private final int fetchSize;
+    private final long fetchBytes;
+    private final long memoryBytes;
+    private final TypeRegistry typeRegistry;
+    private final Map<TableId, Long> rowSizes = new ConcurrentHashMap<>();
+
+    private final LinkedList<Chunk> pending = new LinkedList<>();
+    private final Map<TableId, Integer> running = new HashMap<>();
+    private BlockingQueue<Batch> batches;
+    private ByteBudget queuedBytes;
+    private long readerFetchBytes;
+    private long batchBytes;
+    private ExecutorService executor;
+
+    /**
+     * @param fetchBytes the approximate size of a fetch, or 0 to fetch {@code fetchSize} rows at a time
+     * @param memoryBytes the approximate memory all readers may hold, or 0 if unbounded
+     */
+    ChunkedSnapshotReader(Supplier<PostgresConnection> connectionFactory, String snapshotId, int maxThreads, Map<String, Integer> maxThreadsPerTable,
+                          int fetchSize, long fetchBytes, long memoryBytes, TypeRegistry typeRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.snapshotId = snapshotId;
+        this.maxThreads = maxThreads;
+        this.maxThreadsPerTable = maxThreadsPerTable;
+        // without a fetch size the driver would read the whole chunk into memory
+        this.fetchSize = fetchSize > 0 ? fetchSize : PostgresConnectorConfig.DEFAULT_SNAPSHOT_FETCH_SIZE;
+        this.fetchBytes = fetchBytes;
+        this.memoryBytes = memoryBytes;
+        this.typeRegistry = typeRegistry;
+    }
+
+    /**
+     * Splits a table into chunks, leaving out the key ranges the given progress has already completed; must be called
+     * on the snapshot transaction so the key range matches the exported snapshot.
+     *
+     * @param select the statement selecting the rows of the table; an overridden statement that projects columns must
+     *        keep the primary key, as the chunks are filtered on it
+     */
+    static List<Chunk> plan(PostgresConnection connection, Table table, String select, long chunkSize, SnapshotProgress progress) throws SQLException {
+        if (progress.isTableCompleted(table.id())) {
+            return Collections.emptyList();
+        }
+        final List<Column> keyColumns = table.primaryKeyColumns();
+        if (keyColumns.size() != 1 || !isIntegerType(keyColumns.get(0))) {
+            return Collections.singletonList(new Chunk(table, select, null, 0, 1));
+        }
+        final String keyColumn = quote(keyColumns.get(0).name());
+        final List<KeyRange> planned = new ArrayList<>();
+        long min;
+        long max;
+        // the key range of the selected rows, so a row filter of an overridden statement does not produce empty chunks
+        try (Statement statement = connection.connection().createStatement();
+                ResultSet rs = statement.executeQuery("SELECT min(" + keyColumn + "), max(" + keyColumn + ") FROM (" + select + ") AS snapshot_source")) {
+            rs.next();
+            min = rs.getLong(1);
+            if (rs.wasNull()) {
+                return Collections.singletonList(new Chunk(table, select, null, 0, 1));
+            }
+            max = rs.getLong(2);
+        }
+        long estimatedRows = -1;
+        try (PreparedStatement statement = connection.connection().prepareStatement(ROW_ESTIMATE_QUERY)) {
+            statement.setString(1, table.id().schema());
+            statement.setString(2, table.id().table());
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                    estimatedRows = rs.getLong(1);
+                }
+            }
+        }
+        Long from = null;
+        for (Long boundary : boundaries(min, max, estimatedRows, chunkSize)) {
+            planned.add(new KeyRange(from, boundary));
+            from = boundary;
+        }
+        planned.add(new KeyRange(from, null));
+
+        final List<KeyRange> remaining = progress.remaining(table.id(), planned);
+        final List<Chunk> chunks = new ArrayList<>(remaining.size());
+        for (int i = 0; i < remaining.size(); i++) {
+            chunks.add(new Chunk(table, query(select, keyColumn, remaining.get(i)), remaining.get(i), i, remaining.size()));
+        }
+        if (remaining.size() < planned.size()) {
+            LOGGER.info("Resuming table '{}' with {} of {} chunks of key range [{}, {}], completed ranges are skipped",
+                    table.id(), remaining.size(), planned.size(), min, max);
+        }
+        else {
+            LOGGER.info("Split table '{}' into {} chunks by key range [{}, {}] with an estimate of {} rows", table.id(), planned.size(), min, max, estimatedRows);
+        }
+        return chunks;
+    }
+
+    private static String query(String select, String keyColumn, KeyRange range) {
+        if (range.from == null && range.to == null) {
+            return select;
+        }
+        final StringBuilder query = new StringBuilder("SELECT * FROM (").append(select).append(") AS snapshot_chunk WHERE ");
+        if (range.from != null) {
+            query.append(keyColumn).append(" >= ").append(range.from);
+        }
+        if (range.from != null && range.to != null) {
+            query.append(" AND ");
+        }
+        if (range.to != null) {
+            query.append(keyColumn).append(" < ").append(range.to);
+        }
+        return query.toString();
+    }
+
+    /**
+     * Returns the exclusive upper bounds of all but the last chunk of a key range.
+     *
+     * @param estimatedRows the row estimate of the catalog, or a non-positive value if the table was never analyzed, in
+     *            which case the key range is assumed to be dense
+     */
+    static List<Long> boundaries(long min, long max, long estimatedRows, long chunkSize) {
+        final BigInteger range = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min)).add(BigInteger.ONE);
+        final BigInteger rows = estimatedRows > 0 ? BigInteger.valueOf(estimatedRows) : range;
+        final BigInteger chunks = rows.add(BigInteger.valueOf(chunkSize - 1)).divide(BigInteger.valueOf(chunkSize)).min(range);
+        if (chunks.compareTo(BigInteger.ONE) <= 0) {
+            return Collections.emptyList();
+        }
+        final int count = chunks.min(BigInteger.valueOf(Integer.MAX_VALUE)).intValue();
+        final List<Long> boundaries = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            boundaries.add(BigInteger.valueOf(min).add(range.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count))).longValue());
+        }
+        return boundaries;
+    }
+
+    /**
+     * Reads the given chunks and passes their rows to the handler until all chunks are read.
+     */
+    void read(List<Chunk> chunks, ChangeEventSourceContext context, RowHandler handler) throws InterruptedException {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        final Map<TableId, Integer> openChunks = new HashMap<>();
+        final Map<TableId, Long> rows = new HashMap<>();
+        for (Chunk chunk : chunks) {
+            openChunks.merge(chunk.table.id(), 1, Integer::sum);
+        }
+        synchronized (this) {
+            pending.addAll(chunks);
+        }
+        final int threads = Math.min(maxThreads, chunks.size());
+        final AtomicInteger threadCount = new AtomicInteger();
+        batches = new ArrayBlockingQueue<>(threads * QUEUED_BATCHES_PER_THREAD);
+        if (memoryBytes > 0) {
+            final long readerShare = memoryBytes / 2 / threads;
+            readerFetchBytes = fetchBytes > 0 ? Math.min(fetchBytes, readerShare) : readerShare;
+            queuedBytes = new ByteBudget(memoryBytes / 2);
+            batchBytes = Math.max(1, memoryBytes / 2 / (threads * QUEUED_BATCHES_PER_THREAD));
+            LOGGER.info("Bounding the snapshot readers to about {} bytes, fetching about {} bytes at a time per connection", memoryBytes, readerFetchBytes);
+        }
+        else {
+            readerFetchBytes = fetchBytes;
+            queuedBytes = null;
+            batchBytes = Long.MAX_VALUE;
+        }
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "kingbase-snapshot-reader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOGGER.info("Reading {} chunks of {} tables on {} connections", chunks.size(), openChunks.size(), threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::readChunks);
+        }
+
+        int remaining = chunks.size();
+        while (remaining > 0) {
+            if (!context.isRunning()) {
+                throw new InterruptedException("Interrupted while reading snapshot chunks");
+            }
+            final Batch batch = batches.poll(1, TimeUnit.SECONDS);
+            if (batch == null) {
+                continue;
+            }
+            if (batch.failure != null) {
+                if (batch.chunk == null) {
+                    throw new ConnectException("Failed to open a snapshot reader connection", batch.failure);
+                }
+                throw new ConnectException("Failed to read chunk " + (batch.chunk.index + 1) + " of " + batch.chunk.count + " of table '"
+                        + batch.chunk.table.id() + "'", batch.failure);
+            }
+            final TableId tableId = batch.chunk.table.id();
+            if (batch.rows != null) {
+                for (Object[] row : batch.rows) {
+                    handler.row(tableId, row);
+                }
+                if (queuedBytes != null) {
+                    queuedBytes.release(batch.bytes);
+                }
+                continue;
+            }
+            remaining--;
+            final long tableRows = rows.merge(tableId, batch.rowCount, Long::sum);
+            LOGGER.debug("Read chunk {} of {} of table '{}' with {} rows", batch.chunk.index + 1, batch.chunk.count, tableId, batch.rowCount);
+            handler.chunkCompleted(batch.chunk);
+            if (openChunks.merge(tableId, -1, Integer::sum) == 0) {
+                LOGGER.info("Finished reading {} rows of table '{}'", tableRows, tableId);
+                handler.tableCompleted(tableId, tableRows);
+            }
+        }
+    }
+
+    private void readChunks() {
+        Chunk chunk = null;
+        try (PostgresConnection connection = connectionFactory.get()) {
+            connection.connection().setAutoCommit(false);
+            connection.executeWithoutCommitting(
+                    "SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY",
+                    "SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+            while ((chunk = nextChunk()) != null) {
+                readChunk(connection, chunk);
+                chunkDone(chunk);
+                chunk = null;
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (Exception e) {
+            try {
+                batches.put(new Batch(chunk, e));
+            }
+            catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void readChunk(PostgresConnection connection, Chunk chunk) throws SQLException, InterruptedException {
+        final Table table = chunk.table;
+        final int columnCount = table.columns().size();
+        long rowCount = 0;
+        final AdaptiveFetchSize adaptive = readerFetchBytes > 0 ? new AdaptiveFetchSize(readerFetchBytes, rowSize(connection, table), fetchSize) : null;
+        final boolean measureRows = adaptive != null || queuedBytes != null;
+        try (Statement statement = connection.connection().createStatement()) {
+            statement.setFetchSize(adaptive != null ? adaptive.fetchSize() : fetchSize);
+            try (ResultSet rs = statement.executeQuery(chunk.query)) {
+                final ResultSetMetaData metaData = rs.getMetaData();
+                final Column[] columns = new Column[metaData.getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = table.columnWithName(metaData.getColumnName(i + 1));
+                }
+                final ColumnReader[] readers = PostgresSnapshotChangeEventSource.columnReaders(metaData, typeRegistry);
+                List<Object[]> rows = new ArrayList<>(ROWS_PER_BATCH);
+                long rowsSize = 0;
+                while (rs.next()) {
+                    final Object[] row = new Object[columnCount];
+                    for (int i = 0; i < columns.length; i++) {
+                        if (columns[i] != null) {
+                            row[columns[i].position() - 1] = readers[i].read(rs, i + 1);
+                        }
+                    }
+                    rows.add(row);
+                    rowCount++;
+                    if (measureRows) {
+                        final long rowSize = AdaptiveFetchSize.sizeOf(row);
+                        rowsSize += rowSize;
+                        if (adaptive != null && adaptive.rowRead(rowSize)) {
+                            rs.setFetchSize(adaptive.fetchSize());
+                            LOGGER.debug("Fetching {} rows at a time from table '{}' by the size of the rows read", adaptive.fetchSize(), table.id());
+                        }
+                    }
+                    if (rows.size() == ROWS_PER_BATCH || rowsSize >= batchBytes) {
+                        queue(new Batch(chunk, rows, rowsSize));
+                        rows = new ArrayList<>(ROWS_PER_BATCH);
+                        rowsSize = 0;
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    queue(new Batch(chunk, rows, rowsSize));
+                }
+            }
+        }
+        batches.put(new Batch(chunk, rowCount));
+    }
+
+    private void queue(Batch batch) throws InterruptedException {
+        if (queuedBytes != null) {
+            queuedBytes.acquire(batch.bytes);
+        }
+        batches.put(batch);
+    }
+
+    /**
+     * Returns the row size the catalog statistics give for a table, estimated once per table.
+     */
+    private long rowSize(PostgresConnection connection, Table table) throws SQLException {
+        Long size = rowSizes.get(table.id());
+        if (size == null) {
+            size = AdaptiveFetchSize.estimateRowSize(connection, table.id(), table.columns().size());
+            rowSizes.put(table.id(), size);
+            if (size > 0) {
+                LOGGER.info("Fetching {} rows at a time from table '{}' by an estimated row size of {} bytes",
+                        AdaptiveFetchSize.fetchSize(readerFetchBytes, size), table.id(), size);
+            }
+            else {
+                LOGGER.info("Table '{}' has no statistics, sizing its fetches by the rows read", table.id());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the next chunk whose table has not reached its limit of concurrently read chunks, waiting for a running
+     * chunk to finish if necessary.
+     *
+     * @return the next chunk, or {@code null} if all chunks were taken
+     */
+    private synchronized Chunk nextChunk() throws InterruptedException {
+        while (!pending.isEmpty()) {
+            for (Iterator<Chunk> it = pending.iterator(); it.hasNext();) {
+                final Chunk chunk = it.next();
+                final TableId tableId = chunk.table.id();
+                final int limit = maxThreadsPerTable.getOrDefault(tableId.schema() + "." + tableId.table(), maxThreads);
+                if (running.getOrDefault(tableId, 0) < limit) {
+                    it.remove();
+                    running.merge(tableId, 1, Integer::sum);
+                    return chunk;
+                }
+            }
+            wait();
+        }
+        return null;
+    }
+
+    private synchronized void chunkDone(Chunk chunk) {
+        running.merge(chunk.table.id(), -1, Integer::sum);
+        notifyAll();
+    }
+
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Snapshot reader threads did not stop within 10 seconds");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isIntegerType(Column column) {
+        switch (column.jdbcType()) {
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * A key range of a table, read by a single statement.
+     */
+    static final class Chunk {
+
+        final Table table;
+        final String query;
+        /**
+         * The key range of the chunk, or {@code null} if the table is read as a single chunk.
+         */
+        final KeyRange range;
+        final int index;
+        final int count;
+
+        Chunk(Table table, String query, KeyRange range, int index, int count) {
+            this.table = table;
+            this.query = query;
+            this.range = range;
+            this.index = index;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Rows read from a chunk, the completion of a chunk or the failure of a reader thread; the chunk of a failure is
+     * {@code null} if the reader failed before taking a chunk.
+     */
+    private static final class Batch {
+
+        private final Chunk chunk;
+        private final List<Object[]> rows;
+        private final long bytes;
+        private final long rowCount;
+        private final Exception failure;
+
+        private Batch(Chunk chunk, List<Object[]> rows, long bytes) {
+            this(chunk, rows, bytes, 0, null);
+        }
+
+        private Batch(Chunk chunk, long rowCount) {
+            this(chunk, null, 0, rowCount, null);
+        }
+
+        private Batch(Chunk chunk, Exception failure) {
+            this(chunk, null, 0, 0, failure);
+        }
+
+        private Batch(Chunk chunk, List<Object[]> rows, long bytes, long rowCount, Exception failure) {
+            this.chunk = chunk;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.rowCount = rowCount;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Bounds the size of the rows queued for dispatching. A batch larger than the whole budget is admitted once the
+     * queue is empty, so a single wide row cannot stall its reader.
+     */
+    private static final class ByteBudget {
+
+        private final long capacity;
+        private long used;
+
+        private ByteBudget(long capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized void acquire(long bytes) throws InterruptedException {
+            while (used > 0 && used + bytes > capacity) {
+                wait();
+            }
+            used += bytes;
+        }
+
+        private synchronized void release(long bytes) {
+            used -= bytes;
+            notifyAll();
+        }
+    }
+}
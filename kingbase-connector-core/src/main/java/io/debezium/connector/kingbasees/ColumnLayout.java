@@ -0,0 +1,85 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.annotation.Immutable;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column positions and toastable columns of a table, precomputed once per table definition so that mapping the
+ * columns of a replication message to value positions does not look up columns by name for every row.
+ * <p>
+ * A layout belongs to exactly one {@link Table} instance and one toastable column list; as both are replaced rather
+ * than modified on schema changes, {@link #isFor(Table, List)} detects a stale layout by identity.
+ */
+@Immutable
+final class ColumnLayout {
+
+    private final Table table;
+    private final List<String> toastableColumns;
+    private final String[] names;
+    private final int[] positions;
+    private final Map<String, Integer> positionsByName;
+    private final BitSet toastablePositions;
+
+    ColumnLayout(Table table, List<String> toastableColumns) {
+        this.table = table;
+        this.toastableColumns = toastableColumns;
+        final List<Column> columns = table.columns();
+        this.names = new String[columns.size()];
+        this.positions = new int[columns.size()];
+        this.positionsByName = new HashMap<>(columns.size() * 2);
+        for (int i = 0; i < columns.size(); i++) {
+            final Column column = columns.get(i);
+            names[i] = column.name();
+            positions[i] = column.position() - 1;
+            positionsByName.put(column.name(), column.position() - 1);
+        }
+        this.toastablePositions = new BitSet(columns.size());
+        for (String columnName : toastableColumns) {
+            final Integer position = positionsByName.get(columnName);
+            if (position != null && position >= 0) {
+                toastablePositions.set(position);
+            }
+        }
+    }
+
+    boolean isFor(Table table, List<String> toastableColumns) {
+        return this.table == table && this.toastableColumns == toastableColumns;
+    }
+
+    /**
+     * Returns the zero-based value position of a column, or -1 if the table has no such column.
+     *
+     * @param index the index of the column within the message, used as a hint as messages usually list the columns in
+     *            table order
+     * @param columnName the unquoted column name
+     */
+    int positionOf(int index, String columnName) {
+        if (index < names.length && names[index].equals(columnName)) {
+            return positions[index];
+        }
+        final Integer position = positionsByName.get(columnName);
+        return position != null ? position : -1;
+    }
+
+    int columnCount() {
+        return names.length;
+    }
+
+    /**
+     * @return the positions of the toastable columns; must not be modified
+     */
+    BitSet toastablePositions() {
+        return toastablePositions;
+    }
+}
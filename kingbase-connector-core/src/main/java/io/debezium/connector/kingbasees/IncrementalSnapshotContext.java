@@ -0,0 +1,236 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.annotation.NotThreadSafe;
+import io.debezium.relational.TableId;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of an incremental snapshot: the tables still to be read, the primary key of the last row emitted for the
+ * current table and the window of the chunk being read.
+ * <p>
+ * Each chunk is read between a low and a high watermark written to the signal table. Once the low watermark arrives in
+ * the replication stream the window is open, and a streamed change of a buffered key removes the row from the window,
+ * as the streamed change is at least as new as the row read. When the high watermark arrives the window is closed and
+ * the remaining rows are emitted as reads, so a read never overwrites a newer change.
+ * <p>
+ * For the offsets the state is encoded as the comma-separated tables on the first line and, once the first chunk of
+ * the current table has been emitted, the URL-encoded, comma-separated primary key values of its last row on the second
+ * line.
+ */
+@NotThreadSafe
+class IncrementalSnapshotContext {
+
+    private static final String CHARSET = "UTF-8";
+
+    private final Deque<TableId> tables = new ArrayDeque<>();
+    private final Map<Object, Object[]> window = new LinkedHashMap<>();
+    private String[] lastKey;
+    private String chunkId;
+    private String[] chunkLastKey;
+    private boolean lastChunk;
+    private boolean windowOpen;
+
+    static IncrementalSnapshotContext parse(String encoded) {
+        final IncrementalSnapshotContext context = new IncrementalSnapshotContext();
+        if (encoded == null || encoded.isEmpty()) {
+            return context;
+        }
+        final String[] lines = encoded.split("\n");
+        for (String table : lines[0].split(",")) {
+            if (!table.isEmpty()) {
+                context.tables.add(PostgresSchema.parse(table));
+            }
+        }
+        if (lines.length > 1 && !lines[1].isEmpty()) {
+            final String[] values = lines[1].split(",", -1);
+            context.lastKey = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                context.lastKey[i] = decode(values[i]);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * @return the tables added to the snapshot, leaving out those already contained
+     */
+    List<TableId> addTables(Collection<TableId> tableIds) {
+        final List<TableId> added = new ArrayList<>();
+        for (TableId tableId : tableIds) {
+            if (!tables.contains(tableId)) {
+                tables.add(tableId);
+                added.add(tableId);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @return the table being read, or {@code null} if the snapshot is completed
+     */
+    TableId currentTable() {
+        return tables.peek();
+    }
+
+    /**
+     * @return the primary key values of the last row emitted for the current table, or {@code null} if the table is read
+     *         from the start
+     */
+    String[] lastKey() {
+        return lastKey;
+    }
+
+    /**
+     * Skips the rest of the current table.
+     */
+    void tableCompleted() {
+        tables.poll();
+        lastKey = null;
+    }
+
+    boolean isChunkInProgress() {
+        return chunkId != null;
+    }
+
+    boolean isWindowOpen() {
+        return windowOpen;
+    }
+
+    void chunkStarted(String id) {
+        chunkId = id;
+        chunkLastKey = null;
+        lastChunk = false;
+        windowOpen = false;
+        window.clear();
+    }
+
+    void rowRead(Object key, Object[] row) {
+        window.put(key, row);
+    }
+
+    /**
+     * @param last the primary key values of the last row read, {@code null} if the chunk is empty
+     * @param completesTable whether the chunk reached the end of the table
+     */
+    void chunkRead(String[] last, boolean completesTable) {
+        chunkLastKey = last;
+        lastChunk = completesTable || last == null;
+    }
+
+    /**
+     * @return whether the given low watermark belongs to the chunk being read and opened its window
+     */
+    boolean openWindow(String id) {
+        if (chunkId == null || !chunkId.equals(id)) {
+            return false;
+        }
+        windowOpen = true;
+        return true;
+    }
+
+    /**
+     * Removes the row of a streamed change from the open window of the given table.
+     */
+    void deduplicate(TableId tableId, Object key) {
+        if (windowOpen && tableId.equals(currentTable())) {
+            window.remove(key);
+        }
+    }
+
+    /**
+     * Removes all rows of a truncated table from the open window.
+     */
+    void truncated(TableId tableId) {
+        if (windowOpen && tableId.equals(currentTable())) {
+            window.clear();
+        }
+    }
+
+    /**
+     * Closes the window of the chunk being read and moves to the next chunk.
+     *
+     * @return the rows left in the window, or {@code null} if the given high watermark does not belong to the chunk
+     *         being read or its window has not been opened
+     */
+    List<Object[]> closeWindow(String id) {
+        if (!windowOpen || !chunkId.equals(id)) {
+            return null;
+        }
+        final List<Object[]> rows = new ArrayList<>(window.values());
+        window.clear();
+        windowOpen = false;
+        chunkId = null;
+        if (lastChunk) {
+            tableCompleted();
+        }
+        else {
+            lastKey = chunkLastKey;
+        }
+        return rows;
+    }
+
+    /**
+     * @return the encoded state, or {@code null} if the snapshot is completed
+     */
+    String encoded() {
+        if (tables.isEmpty()) {
+            return null;
+        }
+        final StringBuilder builder = new StringBuilder();
+        for (TableId tableId : tables) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(SnapshotProgress.key(tableId));
+        }
+        if (lastKey != null) {
+            builder.append('\n');
+            for (int i = 0; i < lastKey.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(encode(lastKey[i]));
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        final String encoded = encoded();
+        return encoded == null ? "" : encoded.replace('\n', ';');
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, CHARSET);
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, CHARSET);
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.connector.kingbasees.PostgresSnapshotChangeEventSource.ColumnReader;
+import io.debezium.connector.kingbasees.PostgresStreamingChangeEventSource.PgConnectionSupplier;
+import io.debezium.connector.kingbasees.connection.PostgresConnection;
+import io.debezium.connector.kingbasees.connection.ReplicationMessage;
+import io.debezium.data.Envelope.Operation;
+import io.debezium.document.Array;
+import io.debezium.document.DocumentReader;
+import io.debezium.pipeline.EventDispatcher;
+import io.debezium.pipeline.spi.ChangeRecordEmitter;
+import io.debezium.pipeline.spi.OffsetContext;
+import io.debezium.relational.Column;
+import io.debezium.relational.SnapshotChangeRecordEmitter;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.TableSchema;
+import io.debezium.schema.DataCollectionSchema;
+import io.debezium.util.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the incremental snapshots requested through the signal table on the streaming thread, so that streaming keeps
+ * running while a table is backfilled chunk by chunk; see {@link IncrementalSnapshotContext} for the watermarks.
+ * <p>
+ * The chunks are read and the watermarks written on a separate connection in auto-commit mode, so that every chunk
+ * query sees the data committed after its low watermark.
+ */
+class IncrementalSnapshotter implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalSnapshotter.class);
+
+    static final String EXECUTE_SNAPSHOT = "execute-snapshot";
+    static final String WINDOW_OPEN = "snapshot-window-open";
+    static final String WINDOW_CLOSE = "snapshot-window-close";
+    private static final String DATA_COLLECTIONS = "data-collections";
+
+    private final PostgresConnectorConfig connectorConfig;
+    private final PostgresSchema schema;
+    private final EventDispatcher<TableId> dispatcher;
+    private final PostgresOffsetContext offsetContext;
+    private final Clock clock;
+    private final TableId signalTable;
+    private final int chunkSize;
+    private final IncrementalSnapshotContext context;
+    private PostgresConnection connection;
+
+    IncrementalSnapshotter(PostgresConnectorConfig connectorConfig, PostgresSchema schema, EventDispatcher<TableId> dispatcher,
+                           PostgresOffsetContext offsetContext, Clock clock) {
+        this.connectorConfig = connectorConfig;
+        this.schema = schema;
+        this.dispatcher = dispatcher;
+        this.offsetContext = offsetContext;
+        this.clock = clock;
+        this.signalTable = connectorConfig.signalDataCollection();
+        this.chunkSize = connectorConfig.incrementalSnapshotChunkSize();
+        this.context = IncrementalSnapshotContext.parse(offsetContext.incrementalSnapshot());
+    }
+
+    boolean isSignal(TableId tableId) {
+        return signalTable.equals(tableId);
+    }
+
+    /**
+     * Continues a snapshot interrupted by a restart with the chunk following the last emitted key; must be called once
+     * the replication stream has been started, so that the watermarks are received.
+     */
+    void resume() throws SQLException {
+        if (context.currentTable() != null && !context.isChunkInProgress()) {
+            LOGGER.info("Resuming incremental snapshot of {}", context);
+            readChunk();
+            offsetContext.setIncrementalSnapshot(context.encoded());
+        }
+    }
+
+    /**
+     * Handles a row inserted into the signal table.
+     */
+    void signal(ReplicationMessage message, PgConnectionSupplier connectionSupplier) throws SQLException, InterruptedException {
+        if (message.getOperation() != ReplicationMessage.Operation.INSERT) {
+            return;
+        }
+        final List<ReplicationMessage.Column> columns = message.getNewTupleList();
+        if (columns == null || columns.size() < 3) {
+            LOGGER.warn("Ignoring signal, the signal table {} must have the columns id, type and data", signalTable);
+            return;
+        }
+        final String id = value(columns.get(0), connectionSupplier);
+        final String type = value(columns.get(1), connectionSupplier);
+        if (id == null || type == null) {
+            return;
+        }
+        switch (type) {
+            case EXECUTE_SNAPSHOT:
+                executeSnapshot(id, value(columns.get(2), connectionSupplier));
+                break;
+            case WINDOW_OPEN:
+                if (context.openWindow(chunkId(id, WINDOW_OPEN))) {
+                    LOGGER.debug("Opened window of incremental snapshot chunk {}", id);
+                }
+                break;
+            case WINDOW_CLOSE:
+                closeWindow(chunkId(id, WINDOW_CLOSE));
+                break;
+            default:
+                LOGGER.warn("Ignoring signal '{}' of unknown type '{}'", id, type);
+        }
+    }
+
+    /**
+     * Wraps the emitter of a streamed change so that its key is removed from the window of the table being read.
+     */
+    ChangeRecordEmitter deduplicate(TableId tableId, ChangeRecordEmitter emitter) {
+        if (!context.isWindowOpen() || !tableId.equals(context.currentTable())) {
+            return emitter;
+        }
+        return new ChangeRecordEmitter() {
+
+            @Override
+            public void emitChangeRecords(DataCollectionSchema schema, Receiver receiver) throws InterruptedException {
+                emitter.emitChangeRecords(schema, (recordSchema, operation, key, value, offset, headers) -> {
+                    if (operation == Operation.TRUNCATE) {
+                        context.truncated(tableId);
+                    }
+                    else if (key != null) {
+                        context.deduplicate(tableId, key);
+                    }
+                    receiver.changeRecord(recordSchema, operation, key, value, offset, headers);
+                });
+            }
+
+            @Override
+            public OffsetContext getOffset() {
+                return emitter.getOffset();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            }
+            catch (SQLException e) {
+                LOGGER.debug("Exception while closing the incremental snapshot connection", e);
+            }
+            connection = null;
+        }
+    }
+
+    private void executeSnapshot(String id, String data) throws SQLException {
+        final List<TableId> requested = new ArrayList<>();
+        try {
+            final Array collections = data == null ? null : DocumentReader.defaultReader().read(data).getArray(DATA_COLLECTIONS);
+            if (collections != null) {
+                for (Array.Entry entry : collections) {
+                    requested.add(PostgresSchema.parse(entry.getValue().asString()));
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring signal '{}', the data '{}' is not valid", id, data, e);
+            return;
+        }
+        final List<TableId> accepted = new ArrayList<>();
+        for (TableId tableId : requested) {
+            final Table table = schema.tableFor(tableId);
+            if (!connectorConfig.getTableFilters().dataCollectionFilter().isIncluded(tableId) || table == null) {
+                LOGGER.warn("Skipping incremental snapshot of {}, the table is not captured", tableId);
+            }
+            else if (table.primaryKeyColumns().isEmpty()) {
+                LOGGER.warn("Skipping incremental snapshot of {}, the table has no primary key", tableId);
+            }
+            else {
+                accepted.add(tableId);
+            }
+        }
+        final List<TableId> added = context.addTables(accepted);
+        if (added.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Incremental snapshot of {} requested by signal '{}'", added, id);
+        if (!context.isChunkInProgress()) {
+            readChunk();
+        }
+        offsetContext.setIncrementalSnapshot(context.encoded());
+    }
+
+    private void closeWindow(String chunkId) throws SQLException, InterruptedException {
+        final TableId tableId = context.currentTable();
+        final List<Object[]> rows = context.closeWindow(chunkId);
+        if (rows == null) {
+            return;
+        }
+        for (Object[] row : rows) {
+            dispatcher.dispatchDataChangeEvent(tableId, new SnapshotChangeRecordEmitter(offsetContext, row, clock));
+        }
+        LOGGER.debug("Closed window of incremental snapshot chunk {} of {}, emitted {} rows", chunkId, tableId, rows.size());
+        if (!tableId.equals(context.currentTable())) {
+            LOGGER.info("Incremental snapshot of {} completed", tableId);
+        }
+        readChunk();
+        offsetContext.setIncrementalSnapshot(context.encoded());
+    }
+
+    /**
+     * Reads the next chunk of the current table between a low and a high watermark, skipping tables that are no longer
+     * captured.
+     */
+    private void readChunk() throws SQLException {
+        while (context.currentTable() != null) {
+            final TableId tableId = context.currentTable();
+            final Table table = schema.tableFor(tableId);
+            final TableSchema tableSchema = schema.schemaFor(tableId);
+            if (table == null || tableSchema == null || table.primaryKeyColumns().isEmpty()) {
+                LOGGER.warn("Skipping incremental snapshot of {}, the table is no longer captured or has no primary key", tableId);
+                context.tableCompleted();
+                continue;
+            }
+            final String chunkId = UUID.randomUUID().toString();
+            context.chunkStarted(chunkId);
+            writeWatermark(chunkId, WINDOW_OPEN);
+            readRows(table, tableSchema);
+            writeWatermark(chunkId, WINDOW_CLOSE);
+            return;
+        }
+        LOGGER.info("Incremental snapshot completed");
+    }
+
+    private void readRows(Table table, TableSchema tableSchema) throws SQLException {
+        final String[] lastKey = context.lastKey();
+        try (PreparedStatement statement = connection().connection().prepareStatement(chunkQuery(table, lastKey != null))) {
+            if (lastKey != null) {
+                for (int i = 0; i < lastKey.length; i++) {
+                    statement.setString(i + 1, lastKey[i]);
+                }
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                // an overridden snapshot statement may project the columns, so they are mapped by name
+                final ResultSetMetaData metaData = rs.getMetaData();
+                final ColumnReader[] readers = PostgresSnapshotChangeEventSource.columnReaders(metaData, schema.getTypeRegistry());
+                final Column[] columns = new Column[readers.length];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = table.columnWithName(metaData.getColumnName(i + 1));
+                }
+                final List<Column> keyColumns = table.primaryKeyColumns();
+                final int[] keyIndexes = new int[keyColumns.size()];
+                for (int i = 0; i < keyIndexes.length; i++) {
+                    keyIndexes[i] = rs.findColumn(keyColumns.get(i).name());
+                }
+                int rows = 0;
+                String[] last = null;
+                while (rs.next()) {
+                    final Object[] row = new Object[table.columns().size()];
+                    for (int i = 0; i < columns.length; i++) {
+                        if (columns[i] != null) {
+                            row[columns[i].position() - 1] = readers[i].read(rs, i + 1);
+                        }
+                    }
+                    last = new String[keyIndexes.length];
+                    for (int i = 0; i < keyIndexes.length; i++) {
+                        last[i] = rs.getString(keyIndexes[i]);
+                    }
+                    context.rowRead(tableSchema.keyFromColumnData(row), row);
+                    rows++;
+                }
+                context.chunkRead(last, rows < chunkSize);
+            }
+        }
+    }
+
+    private String chunkQuery(Table table, boolean afterLastKey) {
+        final StringBuilder sql = new StringBuilder("SELECT ");
+        final String overriddenSelect = connectorConfig.getSnapshotSelectOverridesByTable().get(table.id());
+        if (overriddenSelect != null) {
+            sql.append("* FROM (").append(overriddenSelect).append(") AS snapshot_chunk");
+        }
+        else {
+            final List<Column> columns = table.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                sql.append(i > 0 ? ", " : "").append(ChunkedSnapshotReader.quote(columns.get(i).name()));
+            }
+            sql.append(" FROM ").append(table.id().toDoubleQuotedString());
+        }
+        final List<Column> keyColumns = table.primaryKeyColumns();
+        final StringBuilder key = new StringBuilder();
+        final StringBuilder bound = new StringBuilder();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            key.append(i > 0 ? ", " : "").append(ChunkedSnapshotReader.quote(keyColumns.get(i).name()));
+            // the last key is kept as text in the offsets, so it is cast back to the column type
+            bound.append(i > 0 ? ", " : "").append("CAST(? AS ").append(keyColumns.get(i).typeName()).append(')');
+        }
+        if (afterLastKey) {
+            sql.append(" WHERE (").append(key).append(") > (").append(bound).append(')');
+        }
+        return sql.append(" ORDER BY ").append(key).append(" LIMIT ").append(chunkSize).toString();
+    }
+
+    private void writeWatermark(String chunkId, String type) throws SQLException {
+        try (PreparedStatement statement = connection().connection()
+                .prepareStatement("INSERT INTO " + signalTable.toDoubleQuotedString() + " VALUES (?, ?, NULL)")) {
+            statement.setString(1, chunkId + "-" + type);
+            statement.setString(2, type);
+            statement.executeUpdate();
+        }
+    }
+
+    private PostgresConnection connection() throws SQLException {
+        if (connection == null) {
+            connection = new PostgresConnection(connectorConfig.jdbcConfig(), schema.getTypeRegistry());
+            connection.setAutoCommit(true);
+        }
+        return connection;
+    }
+
+    private static String chunkId(String id, String type) {
+        final String suffix = "-" + type;
+        return id.endsWith(suffix) ? id.substring(0, id.length() - suffix.length()) : id;
+    }
+
+    private static String value(ReplicationMessage.Column column, PgConnectionSupplier connectionSupplier) {
+        final Object value = column.getValue(connectionSupplier, true);
+        return value == null ? null : value.toString();
+    }
+}
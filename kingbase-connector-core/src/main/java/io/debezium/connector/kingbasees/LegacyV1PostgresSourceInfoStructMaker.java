@@ -8,6 +8,7 @@ package io.debezium.connector.kingbasees;
 import io.debezium.config.CommonConnectorConfig;
 import io.debezium.connector.LegacyV1AbstractSourceInfoStructMaker;
 import io.debezium.connector.SnapshotRecord;
+import io.debezium.connector.kingbasees.connection.Lsn;
 import io.debezium.time.Conversions;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
@@ -58,8 +59,8 @@ public class LegacyV1PostgresSourceInfoStructMaker extends LegacyV1AbstractSourc
         if (sourceInfo.txId() != null) {
             result.put(SourceInfo.TXID_KEY, sourceInfo.txId());
         }
-        if (sourceInfo.lsn() != null) {
-            result.put(SourceInfo.LSN_KEY, sourceInfo.lsn().asLong());
+        if (sourceInfo.lsnAsLong() != Lsn.NO_LSN) {
+            result.put(SourceInfo.LSN_KEY, sourceInfo.lsnAsLong());
         }
         if (sourceInfo.xmin() != null) {
             result.put(SourceInfo.XMIN_KEY, sourceInfo.xmin());
@@ -0,0 +1,117 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.annotation.NotThreadSafe;
+
+/**
+ * Open addressing hash map from type OID to {@link PostgresType}, avoiding the boxing and entry objects of a
+ * {@code HashMap<Integer, PostgresType>} on the per datum lookup path.
+ * <p>
+ * The map itself is not synchronized; {@link TypeRegistry} only mutates a map before publishing it and otherwise
+ * replaces it with an updated {@link #copy()}, so readers never see a map being modified.
+ */
+@NotThreadSafe
+final class OidTypeMap {
+
+    /**
+     * OID 0 is {@code InvalidOid} and never assigned to a type, so it marks free slots.
+     */
+    private static final int FREE = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private PostgresType[] values;
+    private int size;
+
+    OidTypeMap() {
+        this(MIN_CAPACITY);
+    }
+
+    private OidTypeMap(int capacity) {
+        keys = new int[capacity];
+        values = new PostgresType[capacity];
+    }
+
+    PostgresType get(int oid) {
+        if (oid == FREE) {
+            return null;
+        }
+        final int[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int i = slot(oid, mask);; i = (i + 1) & mask) {
+            final int key = keys[i];
+            if (key == oid) {
+                return values[i];
+            }
+            if (key == FREE) {
+                return null;
+            }
+        }
+    }
+
+    void put(PostgresType type) {
+        final int oid = type.getOid();
+        if (oid == FREE) {
+            return;
+        }
+        // keep the load factor at or below one half so that probe sequences stay short
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        if (insert(keys, values, oid, type)) {
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    OidTypeMap copy() {
+        final OidTypeMap copy = new OidTypeMap(keys.length);
+        System.arraycopy(keys, 0, copy.keys, 0, keys.length);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        copy.size = size;
+        return copy;
+    }
+
+    private void resize(int capacity) {
+        final int[] newKeys = new int[capacity];
+        final PostgresType[] newValues = new PostgresType[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                insert(newKeys, newValues, keys[i], values[i]);
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    /**
+     * @return {@code true} if the key was not present before
+     */
+    private static boolean insert(int[] keys, PostgresType[] values, int oid, PostgresType type) {
+        final int mask = keys.length - 1;
+        for (int i = slot(oid, mask);; i = (i + 1) & mask) {
+            if (keys[i] == oid) {
+                values[i] = type;
+                return false;
+            }
+            if (keys[i] == FREE) {
+                keys[i] = oid;
+                values[i] = type;
+                return true;
+            }
+        }
+    }
+
+    private static int slot(int oid, int mask) {
+        // OIDs are mostly sequential, spread them before masking
+        final int h = oid * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
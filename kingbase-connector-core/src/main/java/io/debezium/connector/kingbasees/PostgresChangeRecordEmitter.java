@@ -9,7 +9,6 @@ import com.kingbase8.core.BaseConnection;
 import io.debezium.connector.kingbasees.connection.PostgresConnection;
 import io.debezium.connector.kingbasees.connection.ReplicationMessage;
 import io.debezium.data.Envelope.Operation;
-import io.debezium.function.Predicates;
 import io.debezium.pipeline.spi.ChangeRecordEmitter;
 import io.debezium.pipeline.spi.OffsetContext;
 import io.debezium.relational.*;
@@ -30,23 +29,39 @@ import java.util.stream.Collectors;
  */
 public class PostgresChangeRecordEmitter extends RelationalChangeRecordEmitter {
 
+    /**
+     * Marks toastable columns that are not part of the message until the values are complete.
+     */
+    private static final Object UNDELIVERED_VALUE = new Object();
+
     private final ReplicationMessage message;
     private final PostgresSchema schema;
     private final PostgresConnectorConfig connectorConfig;
     private final PostgresConnection connection;
+    private final SchemaReconciler schemaReconciler;
     private final TableId tableId;
     private final boolean unchangedToastColumnMarkerMissing;
     private final boolean nullToastedValuesMissingFromOld;
-    private final Map<String, Object> cachedOldToastedValues = new HashMap<>();
+    /**
+     * The old values of an update, looked up by position to resolve unchanged toasted values of the new values; the
+     * old values array is referenced rather than copied, so nothing is allocated for rows without toasted values.
+     */
+    private Object[] toastedValuesSource;
 
     public PostgresChangeRecordEmitter(OffsetContext offset, Clock clock, PostgresConnectorConfig connectorConfig, PostgresSchema schema, PostgresConnection connection,
                                        ReplicationMessage message) {
+        this(offset, clock, connectorConfig, schema, connection, message, null);
+    }
+
+    public PostgresChangeRecordEmitter(OffsetContext offset, Clock clock, PostgresConnectorConfig connectorConfig, PostgresSchema schema, PostgresConnection connection,
+                                       ReplicationMessage message, SchemaReconciler schemaReconciler) {
         super(offset, clock);
 
         this.schema = schema;
         this.message = message;
         this.connectorConfig = connectorConfig;
         this.connection = connection;
+        this.schemaReconciler = schemaReconciler;
 
         this.tableId = PostgresSchema.parse(message.getTable());
         this.unchangedToastColumnMarkerMissing = !connectorConfig.plugin().hasUnchangedToastColumnMarker();
@@ -74,6 +89,9 @@ public class PostgresChangeRecordEmitter extends RelationalChangeRecordEmitter {
 
     @Override
     public void emitChangeRecords(DataCollectionSchema schema, Receiver receiver) throws InterruptedException {
+        if (schemaReconciler != null) {
+            schemaReconciler.applyCompleted(this.schema);
+        }
         schema = synchronizeTableSchema(schema);
         super.emitChangeRecords(schema, receiver);
     }
@@ -125,6 +143,13 @@ public class PostgresChangeRecordEmitter extends RelationalChangeRecordEmitter {
         final List<ReplicationMessage.Column> columns = message.getNewTupleList();
         // check if we need to refresh our local schema due to DB schema changes for this table
         if (schemaChanged(columns, table, metadataInMessage)) {
+            if (metadataInMessage && schemaReconciler != null) {
+                // The message describes all columns; primary key and toastable columns are reconciled with the
+                // catalog in the background instead of blocking the stream on catalog queries
+                schema.refresh(tableFromFromMessage(columns, table));
+                schemaReconciler.schedule(tableId);
+                return schema.schemaFor(tableId);
+            }
             // Refresh the schema so we get information about primary keys
             refreshTableFromDatabase(tableId);
             // Update the schema with metadata coming from decoder message
@@ -143,66 +168,70 @@ public class PostgresChangeRecordEmitter extends RelationalChangeRecordEmitter {
         }
         final Table table = schema.tableFor(tableId);
         Objects.requireNonNull(table);
+        final ColumnLayout layout = schema.columnLayoutFor(table);
 
-        // based on the schema columns, create the values on the same position as the columns
-        List<Column> schemaColumns = table.columns();
+        final int columnCount = columns.size();
         // based on the replication message without toasted columns for now
-        List<ReplicationMessage.Column> columnsWithoutToasted = columns.stream().filter(Predicates.not(ReplicationMessage.Column::isToastedColumn))
-                .collect(Collectors.toList());
+        int deliveredColumnCount = 0;
+        for (int i = 0; i < columnCount; i++) {
+            if (!columns.get(i).isToastedColumn()) {
+                deliveredColumnCount++;
+            }
+        }
+        // based on the schema columns, create the values on the same position as the columns
         // JSON does not deliver a list of all columns for REPLICA IDENTITY DEFAULT
-        Object[] values = new Object[columnsWithoutToasted.size() < schemaColumns.size() ? schemaColumns.size() : columnsWithoutToasted.size()];
+        final Object[] values = new Object[Math.max(deliveredColumnCount, layout.columnCount())];
 
-        final Set<String> undeliveredToastableColumns = new HashSet<>(schema.getToastableColumnsForTableId(table.id()));
-        for (ReplicationMessage.Column column : columns) {
+        final BitSet toastablePositions = layout.toastablePositions();
+        final boolean undeliveredToastableColumns = unchangedToastColumnMarkerMissing && !toastablePositions.isEmpty();
+        if (undeliveredToastableColumns) {
+            for (int position = toastablePositions.nextSetBit(0); position >= 0 && position < values.length; position = toastablePositions.nextSetBit(position + 1)) {
+                values[position] = UNDELIVERED_VALUE;
+            }
+        }
+        for (int i = 0; i < columnCount; i++) {
+            final ReplicationMessage.Column column = columns.get(i);
             // DBZ-298 Quoted column names will be sent like that in messages, but stored unquoted in the column names
             final String columnName = Strings.unquoteIdentifierPart(column.getName());
-            undeliveredToastableColumns.remove(columnName);
 
-            int position = getPosition(columnName, table, values);
+            int position = checkPosition(layout.positionOf(i, columnName), columnName, values);
             if (position != -1) {
                 Object value = column.getValue(() -> (BaseConnection) connection.connection(), connectorConfig.includeUnknownDatatypes());
-                if (sourceOfToasted) {
-                    cachedOldToastedValues.put(columnName, value);
-                }
-                else {
-                    if (value == UnchangedToastedReplicationMessageColumn.UNCHANGED_TOAST_VALUE) {
-                        final Object candidate = cachedOldToastedValues.get(columnName);
-                        if (candidate != null) {
-                            value = candidate;
-                        }
+                if (!sourceOfToasted && value == UnchangedToastedReplicationMessageColumn.UNCHANGED_TOAST_VALUE) {
+                    final Object candidate = toastedValueCandidate(position);
+                    if (candidate != null) {
+                        value = candidate;
                     }
                 }
                 values[position] = value;
             }
         }
-        if (unchangedToastColumnMarkerMissing) {
-            for (String columnName : undeliveredToastableColumns) {
-                int position = getPosition(columnName, table, values);
-                if (position != -1) {
-                    final Object candidate = cachedOldToastedValues.get(columnName);
-                    if (oldValues && nullToastedValuesMissingFromOld) {
-                        // wal2json connector does not send null toasted value among old values
-                        values[position] = null;
-                    }
-                    else {
-                        values[position] = candidate != null ? candidate : UnchangedToastedReplicationMessageColumn.UNCHANGED_TOAST_VALUE;
-                    }
+        if (undeliveredToastableColumns) {
+            for (int position = toastablePositions.nextSetBit(0); position >= 0 && position < values.length; position = toastablePositions.nextSetBit(position + 1)) {
+                if (values[position] != UNDELIVERED_VALUE) {
+                    continue;
+                }
+                if (oldValues && nullToastedValuesMissingFromOld) {
+                    // wal2json connector does not send null toasted value among old values
+                    values[position] = null;
+                }
+                else {
+                    final Object candidate = toastedValueCandidate(position);
+                    values[position] = candidate != null ? candidate : UnchangedToastedReplicationMessageColumn.UNCHANGED_TOAST_VALUE;
                 }
             }
         }
+        if (sourceOfToasted) {
+            toastedValuesSource = values;
+        }
         return values;
     }
 
-    private int getPosition(String columnName, Table table, Object[] values) {
-        final Column tableColumn = table.columnWithName(columnName);
+    private Object toastedValueCandidate(int position) {
+        return toastedValuesSource != null && position < toastedValuesSource.length ? toastedValuesSource[position] : null;
+    }
 
-        if (tableColumn == null) {
-            logger.warn(
-                    "Internal schema is out-of-sync with incoming decoder events; column {} will be omitted from the change event.",
-                    columnName);
-            return -1;
-        }
-        int position = tableColumn.position() - 1;
+    private int checkPosition(int position, String columnName, Object[] values) {
         if (position < 0 || position >= values.length) {
             logger.warn(
                     "Internal schema is out-of-sync with incoming decoder events; column {} will be omitted from the change event.",
@@ -13,10 +13,12 @@ import io.debezium.relational.RelationalDatabaseConnectorConfig;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.common.config.ConfigValue;
 import org.apache.kafka.connect.connector.Task;
+import org.apache.kafka.connect.errors.ConnectException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -56,8 +58,35 @@ public class PostgresConnector extends RelationalBaseSourceConnector {
 
     @Override
     public List<Map<String, String>> taskConfigs(int maxTasks) {
-        // this will always have just one task with the given list of properties
-        return props == null ? Collections.emptyList() : Collections.singletonList(new HashMap<>(props));
+        if (props == null) {
+            return Collections.emptyList();
+        }
+        final Configuration config = Configuration.from(props);
+        final Map<String, String> groups = TableGroups.split(
+                config.getString(PostgresConnectorConfig.TABLE_GROUPS),
+                config.getInteger(PostgresConnectorConfig.TABLE_GROUP_COUNT),
+                config.getString(RelationalDatabaseConnectorConfig.TABLE_INCLUDE_LIST));
+        if (groups.isEmpty()) {
+            // without table groups there is just one task with the given list of properties
+            return Collections.singletonList(new HashMap<>(props));
+        }
+        if (groups.size() > maxTasks) {
+            throw new ConnectException("The " + groups.size() + " table groups need one task each, but tasks.max is " + maxTasks);
+        }
+        // one task per group, each streaming its tables through a dedicated slot and publication
+        final String slotName = config.getString(PostgresConnectorConfig.SLOT_NAME);
+        final String publicationName = config.getString(PostgresConnectorConfig.PUBLICATION_NAME);
+        final List<Map<String, String>> taskConfigs = new ArrayList<>(groups.size());
+        groups.forEach((group, tables) -> {
+            final Map<String, String> taskProps = new HashMap<>(props);
+            taskProps.put(PostgresConnectorConfig.TABLE_GROUP.name(), group);
+            taskProps.put(RelationalDatabaseConnectorConfig.TABLE_INCLUDE_LIST.name(), tables);
+            taskProps.put(PostgresConnectorConfig.SLOT_NAME.name(), TableGroups.slotName(slotName, group));
+            taskProps.put(PostgresConnectorConfig.PUBLICATION_NAME.name(), TableGroups.slotName(publicationName, group));
+            LOGGER.info("Table group '{}' is streamed through slot '{}': {}", group, taskProps.get(PostgresConnectorConfig.SLOT_NAME.name()), tables);
+            taskConfigs.add(taskProps);
+        });
+        return taskConfigs;
     }
 
     @Override
@@ -33,6 +33,7 @@ import org.apache.kafka.common.config.ConfigValue;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -456,6 +457,8 @@ public class PostgresConnectorConfig extends RelationalDatabaseConnectorConfig {
   protected static final String DATABASE_CONFIG_PREFIX = "database.";
   protected static final int DEFAULT_PORT = 5_432;
   protected static final int DEFAULT_SNAPSHOT_FETCH_SIZE = 10_240;
+  protected static final long DEFAULT_SNAPSHOT_CHUNK_SIZE = 100_000L;
+  protected static final int DEFAULT_INCREMENTAL_SNAPSHOT_CHUNK_SIZE = 1024;
   protected static final int DEFAULT_MAX_RETRIES = 6;
 
   public static final Field PORT = RelationalDatabaseConnectorConfig.PORT.withDefault(DEFAULT_PORT);
@@ -808,6 +811,17 @@ public class PostgresConnectorConfig extends RelationalDatabaseConnectorConfig {
                   + "have TOASTed data that are rarely part of these updates. However, it is possible for the in-memory schema to "
                   + "become outdated if TOASTable columns are dropped from the table.");
 
+  public static final Field SCHEMA_CACHE_FILE =
+      Field.create("schema.cache.file")
+          .withDisplayName("Schema cache file")
+          .withType(Type.STRING)
+          .withWidth(Width.LONG)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Path of a file the connector persists the type catalog, the captured table definitions and their toastable columns to. "
+                  + "On the next start they are loaded from this file instead of the database as long as a cheap fingerprint "
+                  + "of the catalog shows no changes in the meantime. Empty (the default) disables the cache.");
+
   public static final Field XMIN_FETCH_INTERVAL =
       Field.create("xmin.fetch.interval.ms")
           .withDisplayName("Xmin fetch interval (ms)")
@@ -835,6 +849,173 @@ public class PostgresConnectorConfig extends RelationalDatabaseConnectorConfig {
                   + "the original value is a toasted value not provided by the database. "
                   + "If starts with 'hex:' prefix it is expected that the rest of the string repesents hexadecimally encoded octets.");
 
+  public static final Field TABLE_GROUPS =
+      Field.create("table.groups")
+          .withDisplayName("Table groups")
+          .withType(Type.STRING)
+          .withWidth(Width.LONG)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Splits the captured tables into groups that are each streamed by a separate task through a dedicated "
+                  + "replication slot, given as 'name:schema.table,schema.table;name:schema.table'. The slot of a group is "
+                  + "named after the configured slot name with the group name appended. Takes precedence over '"
+                  + "table.group.count'. Empty (the default) streams all tables through one slot.")
+          .withValidation(PostgresConnectorConfig::validateTableGroups);
+
+  public static final Field TABLE_GROUP_COUNT =
+      Field.create("table.group.count")
+          .withDisplayName("Table group count")
+          .withType(Type.INT)
+          .withDefault(1)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Number of groups the entries of the table include list are split into by hash if no explicit '"
+                  + "table.groups' are given. Each group is streamed by a separate task through a dedicated replication slot "
+                  + "(e.g. 'debezium_g0'), so 'tasks.max' must not be lower than the number of groups. "
+                  + "The default is 1, which streams all tables through one slot.")
+          .withValidation(Field::isPositiveInteger);
+
+  public static final Field TABLE_GROUP =
+      Field.create("table.group")
+          .withDisplayName("Table group")
+          .withType(Type.STRING)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Name of the table group streamed by this task; set by the connector for each task it creates from '"
+                  + "table.groups' or 'table.group.count'. The name is part of the source partition, so every group keeps its own offsets.");
+
+  public static final Field DECODING_THREADS =
+      Field.create("decoding.threads")
+          .withDisplayName("Decoding threads")
+          .withType(Type.INT)
+          .withDefault(0)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Number of threads decoding replication messages in parallel. "
+                  + "If set to a value greater than 0, a dedicated thread reads raw messages from the replication stream, "
+                  + "the given number of threads decode them and the events are still dispatched in LSN order. "
+                  + "The default is 0, which decodes and dispatches messages on the streaming thread.")
+          .withValidation(Field::isNonNegativeInteger);
+
+  public static final Field DECODING_BUFFER_SIZE =
+      Field.create("decoding.buffer.size")
+          .withDisplayName("Decoding buffer size")
+          .withType(Type.INT)
+          .withDefault(1024)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Maximum number of replication messages read ahead of dispatching when parallel decoding is enabled "
+                  + "via 'decoding.threads'. Defaults to 1024.")
+          .withValidation(Field::isPositiveInteger);
+
+  public static final Field SNAPSHOT_MAX_THREADS =
+      Field.create("snapshot.max.threads")
+          .withDisplayName("Snapshot maximum threads")
+          .withType(Type.INT)
+          .withDefault(1)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.MEDIUM)
+          .withDescription(
+              "Number of connections reading snapshot chunks in parallel. All of them import the snapshot exported "
+                  + "by the snapshot transaction, so they read the same consistent view of the data. Tables with a single "
+                  + "integer primary key column are split into key ranges of about 'snapshot.chunk.size' rows, other tables "
+                  + "are read as one chunk. The default is 1, which reads one table after another on a single connection.")
+          .withValidation(Field::isPositiveInteger);
+
+  public static final Field SNAPSHOT_MAX_THREADS_PER_TABLE =
+      Field.create("snapshot.max.threads.per.table")
+          .withDisplayName("Snapshot maximum threads per table")
+          .withType(Type.STRING)
+          .withWidth(Width.LONG)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Limits the number of chunks of a table read at the same time, given as 'schema.table:n,schema.table:n'. "
+                  + "Tables not listed may use all of the 'snapshot.max.threads' connections.");
+
+  public static final Field SNAPSHOT_FETCH_BYTES =
+      Field.create("snapshot.fetch.bytes")
+          .withDisplayName("Snapshot fetch bytes")
+          .withType(Type.LONG)
+          .withDefault(0L)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Approximate number of bytes fetched at a time while reading the snapshot of a table. The number of rows "
+                  + "per fetch is derived from the row width of the catalog statistics (pg_stats, or pg_class if the table "
+                  + "was not analyzed) and adjusted to the size of the rows read. Reads the data with the chunked snapshot "
+                  + "reader even if 'snapshot.max.threads' is 1. The default is 0, which fetches 'snapshot.fetch.size' rows "
+                  + "at a time.")
+          .withValidation(Field::isNonNegativeLong);
+
+  public static final Field SNAPSHOT_MEMORY_BYTES =
+      Field.create("snapshot.memory.bytes")
+          .withDisplayName("Snapshot memory bytes")
+          .withType(Type.LONG)
+          .withDefault(0L)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Approximate number of bytes all snapshot reader connections together may hold in fetched and not yet "
+                  + "dispatched rows. Half of it is split among the fetches of the connections, limiting "
+                  + "'snapshot.fetch.bytes', the other half bounds the rows waiting to be dispatched. Implies adaptive fetch "
+                  + "sizing. The default is 0, which does not bound the memory.")
+          .withValidation(Field::isNonNegativeLong);
+
+  public static final Field SNAPSHOT_RESUMABLE =
+      Field.create("snapshot.resumable")
+          .withDisplayName("Resumable snapshot")
+          .withType(Type.BOOLEAN)
+          .withDefault(false)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.MEDIUM)
+          .withDescription(
+              "Whether the snapshot records the completed tables and primary key ranges in the offsets, so that a "
+                  + "restarted snapshot only reads the remaining chunks. The remaining chunks are read at a newer snapshot "
+                  + "and streaming starts at the position of the interrupted snapshot, so the changes made in between are "
+                  + "applied again; this requires the replication slot to be kept. Reads the data with the chunked snapshot "
+                  + "reader even if 'snapshot.max.threads' is 1.");
+
+  public static final Field SIGNAL_DATA_COLLECTION =
+      Field.create("signal.data.collection")
+          .withDisplayName("Signaling data collection")
+          .withType(Type.STRING)
+          .withWidth(Width.MEDIUM)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "The table used to send signals to the connector, given as 'schema.table'. The table needs three "
+                  + "text columns, the id, the type and the data of a signal, with the id as the primary key. Inserting a row of "
+                  + "type 'execute-snapshot' with the data '{\"data-collections\": [\"schema.table\"]}' starts an incremental "
+                  + "snapshot of the given tables while streaming continues. The connector writes the watermarks of the "
+                  + "incremental snapshot into the same table.");
+
+  public static final Field INCREMENTAL_SNAPSHOT_CHUNK_SIZE =
+      Field.create("incremental.snapshot.chunk.size")
+          .withDisplayName("Incremental snapshot chunk size")
+          .withType(Type.INT)
+          .withDefault(DEFAULT_INCREMENTAL_SNAPSHOT_CHUNK_SIZE)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Number of rows read per chunk of an incremental snapshot. The rows of a chunk are held in memory until "
+                  + "its window is closed in the replication stream. Defaults to " + DEFAULT_INCREMENTAL_SNAPSHOT_CHUNK_SIZE + ".")
+          .withValidation(Field::isPositiveInteger);
+
+  public static final Field SNAPSHOT_CHUNK_SIZE =
+      Field.create("snapshot.chunk.size")
+          .withDisplayName("Snapshot chunk size")
+          .withType(Type.LONG)
+          .withDefault(DEFAULT_SNAPSHOT_CHUNK_SIZE)
+          .withWidth(Width.SHORT)
+          .withImportance(Importance.LOW)
+          .withDescription(
+              "Approximate number of rows per chunk when a table is split into primary key ranges for a parallel "
+                  + "snapshot, based on the row estimate of the catalog. Defaults to " + DEFAULT_SNAPSHOT_CHUNK_SIZE + ".")
+          .withValidation(Field::isPositiveLong);
+
   private final TruncateHandlingMode truncateHandlingMode;
   private final HStoreHandlingMode hStoreHandlingMode;
   private final IntervalHandlingMode intervalHandlingMode;
@@ -947,10 +1128,119 @@ public class PostgresConnectorConfig extends RelationalDatabaseConnectorConfig {
     return SchemaRefreshMode.COLUMNS_DIFF_EXCLUDE_UNCHANGED_TOAST == this.schemaRefreshMode;
   }
 
+  protected String schemaCacheFile() {
+    final String file = getConfig().getString(SCHEMA_CACHE_FILE);
+    return file == null || file.trim().isEmpty() ? null : file.trim();
+  }
+
+  /**
+   * @return the settings the set of captured tables and their cached metadata depend on
+   */
+  protected String schemaCacheKey() {
+    return String.join(
+        "|",
+        String.valueOf(hostname()),
+        String.valueOf(port()),
+        String.valueOf(databaseName()),
+        String.valueOf(schemaIncludeList()),
+        String.valueOf(schemaExcludeList()),
+        String.valueOf(tableIncludeList()),
+        String.valueOf(tableExcludeList()),
+        schemaRefreshMode.getValue());
+  }
+
   protected Duration xminFetchInterval() {
     return Duration.ofMillis(getConfig().getLong(PostgresConnectorConfig.XMIN_FETCH_INTERVAL));
   }
 
+  /**
+   * @return the table group streamed by this task, or {@code null} if the tables are not grouped
+   */
+  protected String tableGroup() {
+    final String group = getConfig().getString(TABLE_GROUP);
+    return group == null || group.trim().isEmpty() ? null : group.trim();
+  }
+
+  protected int decodingThreads() {
+    return getConfig().getInteger(DECODING_THREADS);
+  }
+
+  protected int decodingBufferSize() {
+    return getConfig().getInteger(DECODING_BUFFER_SIZE);
+  }
+
+  protected int snapshotMaxThreads() {
+    return getConfig().getInteger(SNAPSHOT_MAX_THREADS);
+  }
+
+  protected long snapshotFetchBytes() {
+    return getConfig().getLong(SNAPSHOT_FETCH_BYTES);
+  }
+
+  protected long snapshotMemoryBytes() {
+    return getConfig().getLong(SNAPSHOT_MEMORY_BYTES);
+  }
+
+  /**
+   * @return whether the snapshot fetches are sized by bytes instead of a fixed number of rows
+   */
+  protected boolean snapshotFetchSizeAdaptive() {
+    return snapshotFetchBytes() > 0 || snapshotMemoryBytes() > 0;
+  }
+
+  protected boolean snapshotResumable() {
+    return getConfig().getBoolean(SNAPSHOT_RESUMABLE);
+  }
+
+  /**
+   * @return the signal table, or {@code null} if signals are not enabled
+   */
+  protected TableId signalDataCollection() {
+    final String table = getConfig().getString(SIGNAL_DATA_COLLECTION);
+    return table == null || table.trim().isEmpty() ? null : PostgresSchema.parse(table.trim());
+  }
+
+  protected int incrementalSnapshotChunkSize() {
+    return getConfig().getInteger(INCREMENTAL_SNAPSHOT_CHUNK_SIZE);
+  }
+
+  protected long snapshotChunkSize() {
+    return getConfig().getLong(SNAPSHOT_CHUNK_SIZE);
+  }
+
+  /**
+   * @return the maximum number of chunks read at the same time per {@code schema.table}; tables not contained are
+   *         only limited by {@link #snapshotMaxThreads()}
+   */
+  protected Map<String, Integer> snapshotMaxThreadsPerTable() {
+    return parseTableLimits(getConfig().getString(SNAPSHOT_MAX_THREADS_PER_TABLE));
+  }
+
+  static Map<String, Integer> parseTableLimits(String value) {
+    final Map<String, Integer> limits = new HashMap<>();
+    if (value == null) {
+      return limits;
+    }
+    for (String entry : value.split(",")) {
+      if (entry.trim().isEmpty()) {
+        continue;
+      }
+      final int separator = entry.lastIndexOf(':');
+      try {
+        final int limit = separator > 0 ? Integer.parseInt(entry.substring(separator + 1).trim()) : 0;
+        if (limit <= 0) {
+          throw new NumberFormatException();
+        }
+        limits.put(entry.substring(0, separator).trim(), limit);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "Entry '" + entry.trim() + "' of '" + SNAPSHOT_MAX_THREADS_PER_TABLE.name()
+                + "' must be given as schema.table:n with a positive n");
+      }
+    }
+    return limits;
+  }
+
   protected byte[] toastedValuePlaceholder() {
     final String placeholder = getConfig().getString(TOASTED_VALUE_PLACEHOLDER);
     if (placeholder.startsWith("hex:")) {
@@ -1008,7 +1298,21 @@ public class PostgresConnectorConfig extends RelationalDatabaseConnectorConfig {
               HSTORE_HANDLING_MODE,
               BINARY_HANDLING_MODE,
               INTERVAL_HANDLING_MODE,
-              SCHEMA_REFRESH_MODE)
+              SCHEMA_REFRESH_MODE,
+              SCHEMA_CACHE_FILE,
+              TABLE_GROUPS,
+              TABLE_GROUP_COUNT,
+              TABLE_GROUP,
+              DECODING_THREADS,
+              DECODING_BUFFER_SIZE,
+              SNAPSHOT_MAX_THREADS,
+              SNAPSHOT_MAX_THREADS_PER_TABLE,
+              SNAPSHOT_CHUNK_SIZE,
+              SNAPSHOT_FETCH_BYTES,
+              SNAPSHOT_MEMORY_BYTES,
+              SNAPSHOT_RESUMABLE,
+              SIGNAL_DATA_COLLECTION,
+              INCREMENTAL_SNAPSHOT_CHUNK_SIZE)
           .excluding(INCLUDE_SCHEMA_CHANGES)
           .create();
 
@@ -1037,6 +1341,23 @@ public class PostgresConnectorConfig extends RelationalDatabaseConnectorConfig {
     return errors;
   }
 
+  private static int validateTableGroups(
+      Configuration config, Field field, Field.ValidationOutput problems) {
+    try {
+      final Map<String, String> groups =
+          TableGroups.split(
+              config.getString(field),
+              config.getInteger(TABLE_GROUP_COUNT),
+              config.getString(RelationalDatabaseConnectorConfig.TABLE_INCLUDE_LIST));
+      TableGroups.checkNameLength(config.getString(SLOT_NAME), groups.keySet());
+      TableGroups.checkNameLength(config.getString(PUBLICATION_NAME), groups.keySet());
+    } catch (IllegalArgumentException e) {
+      problems.accept(field, config.getString(field), e.getMessage());
+      return 1;
+    }
+    return 0;
+  }
+
   private static int validateTruncateHandlingMode(
       Configuration config, Field field, Field.ValidationOutput problems) {
     final String value = config.getString(field);
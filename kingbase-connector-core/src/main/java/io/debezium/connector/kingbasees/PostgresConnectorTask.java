@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
@@ -69,9 +70,12 @@ public class PostgresConnectorTask extends BaseSourceTask {
             throw new ConnectException("Unable to load snapshotter, if using custom snapshot mode, double check your settings");
         }
 
+        final String schemaCacheFile = connectorConfig.schemaCacheFile();
+        final SchemaCache schemaCache = schemaCacheFile == null ? null : new SchemaCache(Paths.get(schemaCacheFile), connectorConfig.schemaCacheKey());
+
         // Global JDBC connection used both for snapshotting and streaming.
         // Must be able to resolve datatypes.
-        jdbcConnection = new PostgresConnection(connectorConfig.jdbcConfig(), true);
+        jdbcConnection = new PostgresConnection(connectorConfig.jdbcConfig(), schemaCache);
         try {
             jdbcConnection.setAutoCommit(false);
         }
@@ -82,7 +86,7 @@ public class PostgresConnectorTask extends BaseSourceTask {
         final TypeRegistry typeRegistry = jdbcConnection.getTypeRegistry();
         final Charset databaseCharset = jdbcConnection.getDatabaseCharset();
 
-        schema = new PostgresSchema(connectorConfig, typeRegistry, databaseCharset, topicSelector);
+        schema = new PostgresSchema(connectorConfig, typeRegistry, databaseCharset, topicSelector, schemaCache);
         this.taskContext = new PostgresTaskContext(connectorConfig, schema, topicSelector);
         final PostgresOffsetContext previousOffset = (PostgresOffsetContext) getPreviousOffset(new PostgresOffsetContext.Loader(connectorConfig));
         final Clock clock = Clock.system();
@@ -31,27 +31,35 @@ public class PostgresOffsetContext implements OffsetContext {
     private static final Logger LOGGER = LoggerFactory.getLogger(PostgresSnapshotChangeEventSource.class);
 
     private static final String SERVER_PARTITION_KEY = "server";
+    private static final String TABLE_GROUP_PARTITION_KEY = "table_group";
     public static final String LAST_COMPLETELY_PROCESSED_LSN_KEY = "lsn_proc";
     public static final String LAST_COMMIT_LSN_KEY = "lsn_commit";
+    public static final String SNAPSHOT_PROGRESS_KEY = "snapshot_progress";
+    public static final String INCREMENTAL_SNAPSHOT_KEY = "incremental_snapshot";
 
     private final Schema sourceInfoSchema;
     private final SourceInfo sourceInfo;
     private final Map<String, String> partition;
     private boolean lastSnapshotRecord;
-    private Lsn lastCompletelyProcessedLsn;
-    private Lsn lastCommitLsn;
+    // updated for every streamed event, so tracked as primitives with Lsn.NO_LSN for an unknown position
+    private long lastCompletelyProcessedLsn;
+    private long lastCommitLsn;
     private Lsn streamingStoppingLsn = null;
     private final TransactionContext transactionContext;
+    // the completed tables and key ranges of a chunked snapshot, null if the snapshot is not resumable
+    private SnapshotProgress snapshotProgress;
+    // the tables and the last emitted key of a running incremental snapshot, null if there is none
+    private String incrementalSnapshot;
 
     private PostgresOffsetContext(PostgresConnectorConfig connectorConfig, Lsn lsn, Lsn lastCompletelyProcessedLsn, Lsn lastCommitLsn, Long txId, Instant time,
                                   boolean snapshot,
                                   boolean lastSnapshotRecord, TransactionContext transactionContext) {
-        partition = Collections.singletonMap(SERVER_PARTITION_KEY, connectorConfig.getLogicalName());
+        partition = partition(connectorConfig);
         sourceInfo = new SourceInfo(connectorConfig);
 
-        this.lastCompletelyProcessedLsn = lastCompletelyProcessedLsn;
-        this.lastCommitLsn = lastCommitLsn;
-        sourceInfo.update(lsn, time, txId, null, sourceInfo.xmin(), lastCommitLsn);
+        this.lastCompletelyProcessedLsn = Lsn.toPrimitive(lastCompletelyProcessedLsn);
+        this.lastCommitLsn = Lsn.toPrimitive(lastCommitLsn);
+        sourceInfo.update(Lsn.toPrimitive(lsn), time, txId, null, sourceInfo.xmin(), this.lastCommitLsn);
         sourceInfoSchema = sourceInfo.schema();
 
         this.lastSnapshotRecord = lastSnapshotRecord;
@@ -69,6 +77,21 @@ public class PostgresOffsetContext implements OffsetContext {
         return partition;
     }
 
+    /**
+     * Each table group streams through its own slot, so it needs offsets of its own; without groups the partition
+     * stays the same as before so that existing offsets are still found.
+     */
+    private static Map<String, String> partition(PostgresConnectorConfig connectorConfig) {
+        final String tableGroup = connectorConfig.tableGroup();
+        if (tableGroup == null) {
+            return Collections.singletonMap(SERVER_PARTITION_KEY, connectorConfig.getLogicalName());
+        }
+        final Map<String, String> partition = new HashMap<>();
+        partition.put(SERVER_PARTITION_KEY, connectorConfig.getLogicalName());
+        partition.put(TABLE_GROUP_PARTITION_KEY, tableGroup);
+        return partition;
+    }
+
     @Override
     public Map<String, ?> getOffset() {
         Map<String, Object> result = new HashMap<>();
@@ -78,8 +101,8 @@ public class PostgresOffsetContext implements OffsetContext {
         if (sourceInfo.txId() != null) {
             result.put(SourceInfo.TXID_KEY, sourceInfo.txId());
         }
-        if (sourceInfo.lsn() != null) {
-            result.put(SourceInfo.LSN_KEY, sourceInfo.lsn().asLong());
+        if (sourceInfo.lsnAsLong() != Lsn.NO_LSN) {
+            result.put(SourceInfo.LSN_KEY, sourceInfo.lsnAsLong());
         }
         if (sourceInfo.xmin() != null) {
             result.put(SourceInfo.XMIN_KEY, sourceInfo.xmin());
@@ -87,12 +110,18 @@ public class PostgresOffsetContext implements OffsetContext {
         if (sourceInfo.isSnapshot()) {
             result.put(SourceInfo.SNAPSHOT_KEY, true);
             result.put(SourceInfo.LAST_SNAPSHOT_RECORD_KEY, lastSnapshotRecord);
+            if (snapshotProgress != null && !snapshotProgress.isEmpty()) {
+                result.put(SNAPSHOT_PROGRESS_KEY, snapshotProgress.encoded());
+            }
+        }
+        if (lastCompletelyProcessedLsn != Lsn.NO_LSN) {
+            result.put(LAST_COMPLETELY_PROCESSED_LSN_KEY, lastCompletelyProcessedLsn);
         }
-        if (lastCompletelyProcessedLsn != null) {
-            result.put(LAST_COMPLETELY_PROCESSED_LSN_KEY, lastCompletelyProcessedLsn.asLong());
+        if (lastCommitLsn != Lsn.NO_LSN) {
+            result.put(LAST_COMMIT_LSN_KEY, lastCommitLsn);
         }
-        if (lastCommitLsn != null) {
-            result.put(LAST_COMMIT_LSN_KEY, lastCommitLsn.asLong());
+        if (incrementalSnapshot != null) {
+            result.put(INCREMENTAL_SNAPSHOT_KEY, incrementalSnapshot);
         }
         return sourceInfo.isSnapshot() ? result : transactionContext.store(result);
     }
@@ -133,22 +162,34 @@ public class PostgresOffsetContext implements OffsetContext {
     }
 
     public void updateWalPosition(Lsn lsn, Lsn lastCompletelyProcessedLsn, Instant commitTime, Long txId, TableId tableId, Long xmin) {
+        updateWalPosition(Lsn.toPrimitive(lsn), Lsn.toPrimitive(lastCompletelyProcessedLsn), commitTime, txId, tableId, xmin);
+    }
+
+    /**
+     * Variant of {@link #updateWalPosition(Lsn, Lsn, Instant, Long, TableId, Long)} used by the streaming loop,
+     * positions are passed as primitives with {@link Lsn#NO_LSN} for an unknown position.
+     */
+    public void updateWalPosition(long lsn, long lastCompletelyProcessedLsn, Instant commitTime, Long txId, TableId tableId, Long xmin) {
         this.lastCompletelyProcessedLsn = lastCompletelyProcessedLsn;
         sourceInfo.update(lsn, commitTime, txId, tableId, xmin);
     }
 
     public void updateCommitPosition(Lsn lsn, Lsn lastCompletelyProcessedLsn, Instant commitTime, Long txId, TableId tableId, Long xmin) {
+        updateCommitPosition(Lsn.toPrimitive(lsn), Lsn.toPrimitive(lastCompletelyProcessedLsn), commitTime, txId, tableId, xmin);
+    }
+
+    public void updateCommitPosition(long lsn, long lastCompletelyProcessedLsn, Instant commitTime, Long txId, TableId tableId, Long xmin) {
         this.lastCompletelyProcessedLsn = lastCompletelyProcessedLsn;
         this.lastCommitLsn = lastCompletelyProcessedLsn;
         sourceInfo.update(lsn, commitTime, txId, tableId, xmin, lastCompletelyProcessedLsn);
     }
 
     boolean hasLastKnownPosition() {
-        return sourceInfo.lsn() != null;
+        return sourceInfo.lsnAsLong() != Lsn.NO_LSN;
     }
 
     boolean hasCompletelyProcessedPosition() {
-        return this.lastCompletelyProcessedLsn != null;
+        return this.lastCompletelyProcessedLsn != Lsn.NO_LSN;
     }
 
     Lsn lsn() {
@@ -156,11 +197,11 @@ public class PostgresOffsetContext implements OffsetContext {
     }
 
     Lsn lastCompletelyProcessedLsn() {
-        return lastCompletelyProcessedLsn;
+        return Lsn.fromPrimitive(lastCompletelyProcessedLsn);
     }
 
     Lsn lastCommitLsn() {
-        return lastCommitLsn;
+        return Lsn.fromPrimitive(lastCommitLsn);
     }
 
     /**
@@ -182,6 +223,28 @@ public class PostgresOffsetContext implements OffsetContext {
         return sourceInfo.xmin();
     }
 
+    /**
+     * @return the progress of an interrupted chunked snapshot, or {@code null} if there is none
+     */
+    SnapshotProgress snapshotProgress() {
+        return snapshotProgress;
+    }
+
+    void setSnapshotProgress(SnapshotProgress snapshotProgress) {
+        this.snapshotProgress = snapshotProgress;
+    }
+
+    /**
+     * @return the encoded state of a running incremental snapshot, or {@code null} if there is none
+     */
+    String incrementalSnapshot() {
+        return incrementalSnapshot;
+    }
+
+    void setIncrementalSnapshot(String incrementalSnapshot) {
+        this.incrementalSnapshot = incrementalSnapshot;
+    }
+
     public static class Loader implements OffsetContext.Loader {
 
         private final PostgresConnectorConfig connectorConfig;
@@ -192,7 +255,7 @@ public class PostgresOffsetContext implements OffsetContext {
 
         @Override
         public Map<String, ?> getPartition() {
-            return Collections.singletonMap(SERVER_PARTITION_KEY, connectorConfig.getLogicalName());
+            return partition(connectorConfig);
         }
 
         private Long readOptionalLong(Map<String, ?> offset, String key) {
@@ -211,8 +274,14 @@ public class PostgresOffsetContext implements OffsetContext {
             final Instant useconds = Conversions.toInstantFromMicros((Long) offset.get(SourceInfo.TIMESTAMP_USEC_KEY));
             final boolean snapshot = (boolean) ((Map<String, Object>) offset).getOrDefault(SourceInfo.SNAPSHOT_KEY, Boolean.FALSE);
             final boolean lastSnapshotRecord = (boolean) ((Map<String, Object>) offset).getOrDefault(SourceInfo.LAST_SNAPSHOT_RECORD_KEY, Boolean.FALSE);
-            return new PostgresOffsetContext(connectorConfig, lsn, lastCompletelyProcessedLsn, lastCommitLsn, txId, useconds, snapshot, lastSnapshotRecord,
-                    TransactionContext.load(offset));
+            final PostgresOffsetContext context = new PostgresOffsetContext(connectorConfig, lsn, lastCompletelyProcessedLsn, lastCommitLsn, txId, useconds,
+                    snapshot, lastSnapshotRecord, TransactionContext.load(offset));
+            final Object snapshotProgress = offset.get(SNAPSHOT_PROGRESS_KEY);
+            if (snapshot && snapshotProgress != null) {
+                context.setSnapshotProgress(SnapshotProgress.parse((String) snapshotProgress));
+            }
+            context.setIncrementalSnapshot((String) offset.get(INCREMENTAL_SNAPSHOT_KEY));
+            return context;
         }
     }
 
@@ -220,7 +289,9 @@ public class PostgresOffsetContext implements OffsetContext {
     public String toString() {
         return "PostgresOffsetContext [sourceInfoSchema=" + sourceInfoSchema + ", sourceInfo=" + sourceInfo
                 + ", partition=" + partition + ", lastSnapshotRecord=" + lastSnapshotRecord
-                + ", lastCompletelyProcessedLsn=" + lastCompletelyProcessedLsn + ", lastCommitLsn=" + lastCommitLsn
+                + ", lastCompletelyProcessedLsn=" + Lsn.fromPrimitive(lastCompletelyProcessedLsn) + ", lastCommitLsn=" + Lsn.fromPrimitive(lastCommitLsn)
+                + ", snapshotProgress=" + (snapshotProgress == null ? null : snapshotProgress.encoded().replace('\n', ';'))
+                + ", incrementalSnapshot=" + (incrementalSnapshot == null ? null : incrementalSnapshot.replace('\n', ';'))
                 + ", transactionContext=" + transactionContext + "]";
     }
 
@@ -42,6 +42,11 @@ public class PostgresSchema extends RelationalDatabaseSchema {
     private final Map<TableId, List<String>> tableIdToToastableColumns;
     private final Map<Integer, TableId> relationIdToTableId;
     private final boolean readToastableColumns;
+    private final Tables.ColumnNameFilter columnFilter;
+    private final Key.KeyMapper keyMapper;
+    private final SchemaCache schemaCache;
+    private final Map<TableId, ColumnLayout> columnLayouts = new HashMap<>();
+    private boolean schemaCacheConsulted;
 
     /**
      * Create a schema component given the supplied {@link PostgresConnectorConfig Postgres connector configuration}.
@@ -50,6 +55,15 @@ public class PostgresSchema extends RelationalDatabaseSchema {
      */
     protected PostgresSchema(PostgresConnectorConfig config, TypeRegistry typeRegistry, Charset databaseCharset,
                              TopicSelector<TableId> topicSelector) {
+        this(config, typeRegistry, databaseCharset, topicSelector, null);
+    }
+
+    /**
+     * @param schemaCache the cache the first {@link #refresh(PostgresConnection, boolean)} is served from while it is
+     *            valid, later refreshes such as the one under the snapshot locks always read the catalog; may be null
+     */
+    protected PostgresSchema(PostgresConnectorConfig config, TypeRegistry typeRegistry, Charset databaseCharset,
+                             TopicSelector<TableId> topicSelector, SchemaCache schemaCache) {
         super(config, topicSelector, new Filters(config).tableFilter(),
                 config.getColumnFilter(), getTableSchemaBuilder(config, typeRegistry, databaseCharset), false,
                 config.getKeyMapper());
@@ -58,6 +72,9 @@ public class PostgresSchema extends RelationalDatabaseSchema {
         this.tableIdToToastableColumns = new HashMap<>();
         this.relationIdToTableId = new HashMap<>();
         this.readToastableColumns = config.skipRefreshSchemaOnMissingToastableData();
+        this.columnFilter = config.getColumnFilter();
+        this.keyMapper = config.getKeyMapper();
+        this.schemaCache = schemaCache;
     }
 
     private static TableSchemaBuilder getTableSchemaBuilder(PostgresConnectorConfig config, TypeRegistry typeRegistry, Charset databaseCharset) {
@@ -87,27 +104,47 @@ public class PostgresSchema extends RelationalDatabaseSchema {
      * @throws SQLException if there is a problem obtaining the schema from the database server
      */
     protected PostgresSchema refresh(PostgresConnection connection, boolean printReplicaIdentityInfo) throws SQLException {
+        final boolean consultCache = schemaCache != null && !schemaCacheConsulted;
+        schemaCacheConsulted = true;
+        if (consultCache && schemaCache.loadTables(connection.connection(), tables(), tableIdToToastableColumns, getTableFilter())) {
+            // the catalog is unchanged since the cache was written, including replica identities
+            refreshSchemas();
+            return this;
+        }
         // read all the information from the DB
         connection.readSchema(tables(), null, null, getTableFilter(), null, true);
         if (printReplicaIdentityInfo) {
             // print out all the replica identity info
-            tableIds().forEach(tableId -> printReplicaIdentityInfo(connection, tableId));
+            printReplicaIdentityInfo(connection);
         }
         // and then refresh the schemas
         refreshSchemas();
         if (readToastableColumns) {
-            tableIds().forEach(tableId -> refreshToastableColumnsMap(connection, tableId));
+            refreshToastableColumnsMap(connection);
+        }
+        if (schemaCache != null) {
+            schemaCache.storeTables(tables(), tableIdToToastableColumns);
         }
         return this;
     }
 
-    private void printReplicaIdentityInfo(PostgresConnection connection, TableId tableId) {
+    private void printReplicaIdentityInfo(PostgresConnection connection) {
+        final Map<TableId, ServerInfo.ReplicaIdentity> replicaIdentities;
         try {
-            ServerInfo.ReplicaIdentity replicaIdentity = connection.readReplicaIdentityInfo(tableId);
-            LOGGER.info("REPLICA IDENTITY for '{}' is '{}'; {}", tableId, replicaIdentity, replicaIdentity.description());
+            replicaIdentities = connection.readReplicaIdentityInfo(tableIds());
         }
         catch (SQLException e) {
-            LOGGER.warn("Cannot determine REPLICA IDENTITY info for '{}'", tableId);
+            LOGGER.warn("Cannot determine REPLICA IDENTITY info", e);
+            return;
+        }
+        for (TableId tableId : tableIds()) {
+            final ServerInfo.ReplicaIdentity replicaIdentity = replicaIdentities.get(tableId);
+            if (replicaIdentity == null) {
+                LOGGER.warn("Cannot determine REPLICA IDENTITY info for '{}'", tableId);
+            }
+            else {
+                LOGGER.info("REPLICA IDENTITY for '{}' is '{}'; {}", tableId, replicaIdentity, replicaIdentity.description());
+            }
         }
     }
 
@@ -153,6 +190,24 @@ public class PostgresSchema extends RelationalDatabaseSchema {
         tableIds().forEach(this::refreshSchema);
     }
 
+    /**
+     * Bulk variant of {@link #refreshToastableColumnsMap(PostgresConnection, TableId)} for all captured tables.
+     */
+    private void refreshToastableColumnsMap(PostgresConnection connection) {
+        try {
+            final Map<TableId, List<String>> toastableColumns = connection.readToastableColumns(tableIds());
+            if (!connection.connection().getAutoCommit()) {
+                connection.connection().commit();
+            }
+            for (TableId tableId : tableIds()) {
+                tableIdToToastableColumns.put(tableId, Collections.unmodifiableList(toastableColumns.getOrDefault(tableId, Collections.emptyList())));
+            }
+        }
+        catch (SQLException e) {
+            throw new ConnectException("Unable to refresh toastable columns mapping", e);
+        }
+    }
+
     private void refreshToastableColumnsMap(PostgresConnection connection, TableId tableId) {
         // This method populates the list of 'toastable' columns for `tableId`.
         // A toastable column is one that has storage strategy 'x' (inline-compressible + secondary storage enabled),
@@ -204,7 +259,7 @@ public class PostgresSchema extends RelationalDatabaseSchema {
         tableIdToToastableColumns.put(tableId, Collections.unmodifiableList(toastableColumns));
     }
 
-    protected static TableId parse(String table) {
+    public static TableId parse(String table) {
         TableId tableId = TableId.parse(table, false);
         if (tableId == null) {
             return null;
@@ -216,10 +271,98 @@ public class PostgresSchema extends RelationalDatabaseSchema {
         return typeRegistry;
     }
 
+    /**
+     * Whether values of the given column are dropped by the configured column include/exclude lists and thus need not be
+     * decoded at all. Key columns are never reported as excluded since the key schema does not honour the column filter.
+     *
+     * @param table the table the column belongs to; may be null if the table is not known yet
+     * @param columnName the unquoted column name
+     * @return {@code true} if the column value can be skipped
+     */
+    public boolean isColumnExcluded(Table table, String columnName) {
+        return isColumnExcluded(table, columnName, columnFilter, keyMapper);
+    }
+
+    /**
+     * @param columnFilter the column include/exclude lists, or null if all columns are included
+     * @param keyMapper the custom key columns, or null for the primary key
+     * @see #isColumnExcluded(Table, String)
+     */
+    public static boolean isColumnExcluded(Table table, String columnName, Tables.ColumnNameFilter columnFilter, Key.KeyMapper keyMapper) {
+        if (table == null || columnFilter == null) {
+            return false;
+        }
+        final TableId id = table.id();
+        if (columnFilter.matches(id.catalog(), id.schema(), id.table(), columnName)) {
+            return false;
+        }
+        for (Column keyColumn : new Key.Builder(table).customKeyMapper(keyMapper).build().keyColumns()) {
+            if (keyColumn.name().equals(columnName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies the catalog definition of a table whose in-memory definition was derived from decoder messages. The
+     * columns of the messages stay authoritative, since the catalog may already reflect DDL that the stream has not
+     * reached yet; the catalog contributes the primary key and the toastable columns, which messages do not carry.
+     *
+     * @param catalogTable the table as read from the catalog; must not be null
+     * @param toastableColumns the toastable columns as read from the catalog, or null if they are not tracked
+     */
+    void reconcileTable(Table catalogTable, List<String> toastableColumns) {
+        final TableId tableId = catalogTable.id();
+        if (toastableColumns != null) {
+            tableIdToToastableColumns.put(tableId, Collections.unmodifiableList(toastableColumns));
+        }
+        final Table current = tableFor(tableId);
+        if (current == null) {
+            refresh(catalogTable);
+            return;
+        }
+        final Table reconciled = reconcile(current, catalogTable);
+        if (reconciled != current) {
+            LOGGER.info("Primary key of table '{}' reconciled with the catalog: {}", tableId, reconciled.primaryKeyColumnNames());
+            refresh(reconciled);
+        }
+    }
+
+    /**
+     * Returns the message-derived table with the primary key of the catalog, restricted to the columns the messages
+     * know about, or the given table itself if its primary key already matches.
+     */
+    static Table reconcile(Table current, Table catalogTable) {
+        final List<String> primaryKey = new ArrayList<>();
+        for (String columnName : catalogTable.primaryKeyColumnNames()) {
+            if (current.columnWithName(columnName) != null) {
+                primaryKey.add(columnName);
+            }
+        }
+        if (primaryKey.equals(current.primaryKeyColumnNames())) {
+            return current;
+        }
+        return current.edit().setPrimaryKeyNames(primaryKey).create();
+    }
+
     public List<String> getToastableColumnsForTableId(TableId tableId) {
         return tableIdToToastableColumns.getOrDefault(tableId, Collections.emptyList());
     }
 
+    /**
+     * Returns the column layout of the given table, computing it again if the table or its toastable columns changed.
+     */
+    ColumnLayout columnLayoutFor(Table table) {
+        final List<String> toastableColumns = getToastableColumnsForTableId(table.id());
+        ColumnLayout layout = columnLayouts.get(table.id());
+        if (layout == null || !layout.isFor(table, toastableColumns)) {
+            layout = new ColumnLayout(table, toastableColumns);
+            columnLayouts.put(table.id(), layout);
+        }
+        return layout;
+    }
+
     /**
      * Applies schema changes for the specified table.
      *
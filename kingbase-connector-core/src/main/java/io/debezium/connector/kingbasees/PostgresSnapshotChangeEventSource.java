@@ -15,6 +15,7 @@ import io.debezium.data.SpecialValueDecimal;
 import io.debezium.pipeline.EventDispatcher;
 import io.debezium.pipeline.source.spi.SnapshotProgressListener;
 import io.debezium.pipeline.spi.OffsetContext;
+import io.debezium.pipeline.spi.SnapshotResult;
 import io.debezium.relational.Column;
 import io.debezium.relational.RelationalSnapshotChangeEventSource;
 import io.debezium.relational.Table;
@@ -22,15 +23,24 @@ import io.debezium.relational.TableId;
 import io.debezium.schema.SchemaChangeEvent;
 import io.debezium.schema.SchemaChangeEvent.SchemaChangeEventType;
 import io.debezium.util.Clock;
+import org.apache.kafka.connect.errors.ConnectException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class PostgresSnapshotChangeEventSource extends RelationalSnapshotChangeEventSource {
@@ -44,6 +54,10 @@ public class PostgresSnapshotChangeEventSource extends RelationalSnapshotChangeE
     private final SlotCreationResult slotCreatedInfo;
     private final SlotState startingSlotInfo;
     private final PostgresOffsetContext previousOffset;
+    private final EventDispatcher<TableId> dispatcher;
+    private final SnapshotProgressListener snapshotProgressListener;
+    private ResultSet columnReadersResultSet;
+    private ColumnReader[] columnReaders;
 
     public PostgresSnapshotChangeEventSource(PostgresConnectorConfig connectorConfig, Snapshotter snapshotter, PostgresOffsetContext previousOffset,
                                              PostgresConnection jdbcConnection, PostgresSchema schema, EventDispatcher<TableId> dispatcher, Clock clock,
@@ -56,6 +70,8 @@ public class PostgresSnapshotChangeEventSource extends RelationalSnapshotChangeE
         this.slotCreatedInfo = slotCreatedInfo;
         this.startingSlotInfo = startingSlotInfo;
         this.previousOffset = previousOffset;
+        this.dispatcher = dispatcher;
+        this.snapshotProgressListener = snapshotProgressListener;
     }
 
     @Override
@@ -75,6 +91,171 @@ public class PostgresSnapshotChangeEventSource extends RelationalSnapshotChangeE
         return new SnapshottingTask(snapshotSchema, snapshotData);
     }
 
+    /**
+     * Runs the regular snapshot steps, but reads the data in chunks on several connections if
+     * {@link PostgresConnectorConfig#SNAPSHOT_MAX_THREADS} is greater than 1, and records the completed chunks in the
+     * offset if {@link PostgresConnectorConfig#SNAPSHOT_RESUMABLE} is enabled. The chunked reader is also used on a single
+     * connection to size the fetches by bytes if {@link PostgresConnectorConfig#SNAPSHOT_FETCH_BYTES} or
+     * {@link PostgresConnectorConfig#SNAPSHOT_MEMORY_BYTES} is set.
+     */
+    @Override
+    public SnapshotResult doExecute(ChangeEventSourceContext context, SnapshotContext snapshotContext, SnapshottingTask snapshottingTask)
+            throws Exception {
+        if ((connectorConfig.snapshotMaxThreads() <= 1 && !connectorConfig.snapshotResumable() && !connectorConfig.snapshotFetchSizeAdaptive())
+                || !snapshottingTask.snapshotData()) {
+            return super.doExecute(context, snapshotContext, snapshottingTask);
+        }
+        final RelationalSnapshotContext ctx = (RelationalSnapshotContext) snapshotContext;
+        Connection connection = null;
+        try {
+            LOGGER.info("Snapshot step 1 - Preparing");
+            if (previousOffset != null && previousOffset.isSnapshotRunning()) {
+                LOGGER.info("Previous snapshot was cancelled before completion; a new snapshot will be taken.");
+            }
+            connection = jdbcConnection.connection();
+            connection.setAutoCommit(false);
+            connectionCreated(ctx);
+
+            LOGGER.info("Snapshot step 2 - Determining captured tables");
+            final Set<TableId> capturedTables = new TreeSet<>();
+            for (TableId tableId : getAllTableIds(ctx)) {
+                if (connectorConfig.getTableFilters().dataCollectionFilter().isIncluded(tableId)) {
+                    capturedTables.add(tableId);
+                }
+            }
+            ctx.capturedTables = new LinkedHashSet<>(capturedTables);
+            snapshotProgressListener.monitoredDataCollectionsDetermined(ctx.capturedTables);
+
+            LOGGER.info("Snapshot step 3 - Locking captured tables {}", ctx.capturedTables);
+            lockTablesForSchemaSnapshot(context, ctx);
+
+            LOGGER.info("Snapshot step 4 - Determining snapshot offset");
+            determineSnapshotOffset(ctx);
+            final SnapshotProgress resumedProgress = resumedProgress();
+            if (resumedProgress != null) {
+                LOGGER.info("Resuming the interrupted snapshot, streaming will start at its position '{}' to reconcile the chunks read before",
+                        previousOffset.lsn());
+                final PostgresOffsetContext offset = (PostgresOffsetContext) ctx.offset;
+                offset.updateWalPosition(previousOffset.lsn(), previousOffset.lastCompletelyProcessedLsn(), clock.currentTime(),
+                        jdbcConnection.currentTransactionId().longValue(), null, offset.xmin());
+            }
+            if (connectorConfig.snapshotResumable()) {
+                ((PostgresOffsetContext) ctx.offset).setSnapshotProgress(resumedProgress != null ? resumedProgress : new SnapshotProgress());
+            }
+
+            LOGGER.info("Snapshot step 5 - Reading structure of captured tables");
+            readTableStructure(context, ctx);
+
+            LOGGER.info("Snapshot step 6 - Persisting schema history");
+            for (TableId tableId : ctx.capturedTables) {
+                if (!context.isRunning()) {
+                    throw new InterruptedException("Interrupted while capturing schema of table " + tableId);
+                }
+                final Table table = ctx.tables.forTable(tableId);
+                ctx.offset.event(tableId, getClock().currentTime());
+                dispatcher.dispatchSchemaChangeEvent(tableId, receiver -> {
+                    try {
+                        receiver.schemaChangeEvent(getCreateTableEvent(ctx, table));
+                    }
+                    catch (SQLException e) {
+                        throw new ConnectException(e);
+                    }
+                });
+            }
+            releaseSchemaSnapshotLocks(ctx);
+
+            LOGGER.info("Snapshot step 7 - Snapshotting data in chunks on {} connections", connectorConfig.snapshotMaxThreads());
+            createDataEventsInChunks(context, ctx);
+
+            dispatcher.alwaysDispatchHeartbeatEvent(ctx.offset);
+            return SnapshotResult.completed(ctx.offset);
+        }
+        finally {
+            if (connection != null) {
+                connection.rollback();
+            }
+        }
+    }
+
+    private void createDataEventsInChunks(ChangeEventSourceContext context, RelationalSnapshotContext ctx) throws Exception {
+        final SnapshotProgress progress = ((PostgresOffsetContext) ctx.offset).snapshotProgress();
+        final List<ChunkedSnapshotReader.Chunk> chunks = new ArrayList<>();
+        for (TableId tableId : ctx.capturedTables) {
+            final Table table = ctx.tables.forTable(tableId);
+            final Optional<String> select = determineSnapshotSelect(ctx, tableId);
+            if (table == null || !select.isPresent()) {
+                LOGGER.warn("For table '{}' the select statement was not provided, skipping table", tableId);
+                snapshotProgressListener.dataCollectionSnapshotCompleted(tableId, 0);
+                continue;
+            }
+            if (progress != null && progress.isTableCompleted(tableId)) {
+                LOGGER.info("Table '{}' was completed by the interrupted snapshot, skipping table", tableId);
+                snapshotProgressListener.dataCollectionSnapshotCompleted(tableId, 0);
+                continue;
+            }
+            chunks.addAll(ChunkedSnapshotReader.plan(jdbcConnection, table, select.get(), connectorConfig.snapshotChunkSize(),
+                    progress != null ? progress : new SnapshotProgress()));
+        }
+
+        final ChunkedRowDispatcher rowDispatcher = new ChunkedRowDispatcher(ctx, dispatcher.getSnapshotChangeEventReceiver(), progress);
+        ctx.offset.preSnapshotStart();
+        try (ChunkedSnapshotReader reader = new ChunkedSnapshotReader(
+                () -> new PostgresConnection(connectorConfig.jdbcConfig(), schema.getTypeRegistry()),
+                exportedSnapshotId(),
+                connectorConfig.snapshotMaxThreads(),
+                connectorConfig.snapshotMaxThreadsPerTable(),
+                connectorConfig.getSnapshotFetchSize(),
+                connectorConfig.snapshotFetchBytes(),
+                connectorConfig.snapshotMemoryBytes(),
+                schema.getTypeRegistry())) {
+            reader.read(chunks, context, rowDispatcher);
+        }
+        releaseDataSnapshotLocks(ctx);
+        ctx.offset.preSnapshotCompletion();
+        rowDispatcher.complete();
+        ctx.offset.postSnapshotCompletion();
+    }
+
+    /**
+     * Returns the progress of the interrupted snapshot this snapshot resumes, or {@code null} if it starts over.
+     * <p>
+     * The snapshot exported by the interrupted snapshot ended with its transaction, so the remaining chunks are read
+     * at a newer snapshot. Streaming then starts at the position of the interrupted snapshot, so the changes made in
+     * between are applied again to the chunks read at the older snapshot; this requires that the replication slot
+     * still retains them, i.e. that it was not created anew.
+     */
+    private SnapshotProgress resumedProgress() {
+        if (!connectorConfig.snapshotResumable() || previousOffset == null || !previousOffset.isSnapshotRunning()
+                || previousOffset.snapshotProgress() == null || !previousOffset.hasLastKnownPosition()) {
+            return null;
+        }
+        if (slotCreatedInfo != null) {
+            LOGGER.warn("The replication slot was created after the snapshot was interrupted, so the changes since then are not available; "
+                    + "taking a new snapshot instead of resuming the interrupted one");
+            return null;
+        }
+        return previousOffset.snapshotProgress();
+    }
+
+    private Optional<String> determineSnapshotSelect(RelationalSnapshotContext ctx, TableId tableId) {
+        final String overriddenSelect = connectorConfig.getSnapshotSelectOverridesByTable().get(tableId);
+        return overriddenSelect != null ? Optional.of(overriddenSelect) : getSnapshotSelect(ctx, tableId);
+    }
+
+    /**
+     * Returns the id of the snapshot the reader connections import: the snapshot exported when the replication slot
+     * was created if the snapshot transaction uses it, otherwise a snapshot exported from the snapshot transaction.
+     */
+    private String exportedSnapshotId() throws SQLException {
+        if (snapshotter.exportSnapshot() && slotCreatedInfo != null && slotCreatedInfo.snapshotName() != null) {
+            return slotCreatedInfo.snapshotName();
+        }
+        return jdbcConnection.queryAndMap("SELECT pg_export_snapshot()", rs -> {
+            rs.next();
+            return rs.getString(1);
+        });
+    }
+
     @Override
     protected SnapshotContext prepare(ChangeEventSourceContext context) throws Exception {
         return new PostgresSnapshotContext(connectorConfig.databaseName());
@@ -230,62 +411,105 @@ public class PostgresSnapshotChangeEventSource extends RelationalSnapshotChangeE
         return snapshotter.buildSnapshotQuery(tableId);
     }
 
+    /**
+     * Reads a column on the single-connection snapshot, resolving the column readers once per table.
+     */
     @Override
     protected Object getColumnValue(ResultSet rs, int columnIndex, Column column) throws SQLException {
-        try {
-            final ResultSetMetaData metaData = rs.getMetaData();
-            final String columnTypeName = metaData.getColumnTypeName(columnIndex);
-            final PostgresType type = schema.getTypeRegistry().get(columnTypeName);
+        if (rs != columnReadersResultSet) {
+            columnReaders = columnReaders(rs.getMetaData(), schema.getTypeRegistry());
+            columnReadersResultSet = rs;
+        }
+        return columnReaders[columnIndex - 1].read(rs, columnIndex);
+    }
 
-            LOGGER.trace("Type of incoming data is: {}", type.getOid());
-            LOGGER.trace("ColumnTypeName is: {}", columnTypeName);
-            LOGGER.trace("Type is: {}", type);
+    /**
+     * Reads a column of the current row of a snapshot query in the representation the value converters expect.
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+        Object read(ResultSet rs, int columnIndex) throws SQLException;
+    }
 
-            if (type.isArrayType()) {
-                return rs.getArray(columnIndex);
-            }
+    /**
+     * Resolves the readers of all columns of a snapshot query once per result set, so the column types are not looked
+     * up again for every row; also used by the incremental snapshot.
+     */
+    static ColumnReader[] columnReaders(ResultSetMetaData metaData, TypeRegistry typeRegistry) throws SQLException {
+        return columnReaders(metaData, typeRegistry::get);
+    }
 
-            switch (type.getOid()) {
-                case PgOid.MONEY:
-                    // TODO author=Horia Chiorean date=14/11/2016 description=workaround for https://github.com/pgjdbc/pgjdbc/issues/100
-                    final String sMoney = rs.getString(columnIndex);
-                    if (sMoney == null) {
-                        return sMoney;
-                    }
-                    if (sMoney.startsWith("-")) {
-                        // KBmoney expects negative values to be provided in the format of "($XXXXX.YY)"
-                        final String negativeMoney = "(" + sMoney.substring(1) + ")";
-                        return new KBmoney(negativeMoney).value;
-                    }
-                    return new KBmoney(sMoney).value;
-                case PgOid.BIT:
-                    return rs.getString(columnIndex);
-                case PgOid.NUMERIC:
-                    final String s = rs.getString(columnIndex);
-                    if (s == null) {
-                        return s;
-                    }
+    static ColumnReader[] columnReaders(ResultSetMetaData metaData, Function<String, PostgresType> typeLookup) throws SQLException {
+        final ColumnReader[] readers = new ColumnReader[metaData.getColumnCount()];
+        for (int i = 0; i < readers.length; i++) {
+            final String columnTypeName = metaData.getColumnTypeName(i + 1);
+            final PostgresType type = typeLookup.apply(columnTypeName);
+            LOGGER.trace("Column {} has type {} with OID {}", metaData.getColumnName(i + 1), columnTypeName, type.getOid());
+            readers[i] = columnReader(type);
+        }
+        return readers;
+    }
 
-                    Optional<SpecialValueDecimal> value = PostgresValueConverter.toSpecialValue(s);
-                    return value.isPresent() ? value.get() : new SpecialValueDecimal(rs.getBigDecimal(columnIndex));
-                case PgOid.TIME:
-                    // To handle time 24:00:00 supported by TIME columns, read the column as a string.
-                case PgOid.TIMETZ:
-                    // In order to guarantee that we resolve TIMETZ columns with proper microsecond precision,
-                    // read the column as a string instead and then re-parse inside the converter.
-                    return rs.getString(columnIndex);
-                default:
-                    Object x = rs.getObject(columnIndex);
-                    if (x != null) {
-                        LOGGER.trace("rs getobject returns class: {}; rs getObject value is: {}", x.getClass(), x);
-                    }
-                    return x;
+    private static ColumnReader columnReader(PostgresType type) {
+        if (type.isArrayType()) {
+            return orObject(ResultSet::getArray);
+        }
+
+        switch (type.getOid()) {
+            case PgOid.MONEY:
+                return orObject(PostgresSnapshotChangeEventSource::readMoney);
+            case PgOid.BIT:
+                return orObject(ResultSet::getString);
+            case PgOid.NUMERIC:
+                return orObject(PostgresSnapshotChangeEventSource::readNumeric);
+            case PgOid.TIME:
+                // To handle time 24:00:00 supported by TIME columns, read the column as a string.
+            case PgOid.TIMETZ:
+                // In order to guarantee that we resolve TIMETZ columns with proper microsecond precision,
+                // read the column as a string instead and then re-parse inside the converter.
+                return orObject(ResultSet::getString);
+            default:
+                return ResultSet::getObject;
+        }
+    }
+
+    /**
+     * Falls back to the value as returned by the driver if the column cannot be read as the given type.
+     */
+    private static ColumnReader orObject(ColumnReader reader) {
+        return (rs, columnIndex) -> {
+            try {
+                return reader.read(rs, columnIndex);
+            }
+            catch (SQLException e) {
+                // not a known type
+                return rs.getObject(columnIndex);
             }
+        };
+    }
+
+    private static Object readMoney(ResultSet rs, int columnIndex) throws SQLException {
+        // TODO author=Horia Chiorean date=14/11/2016 description=workaround for https://github.com/pgjdbc/pgjdbc/issues/100
+        final String sMoney = rs.getString(columnIndex);
+        if (sMoney == null) {
+            return sMoney;
+        }
+        if (sMoney.startsWith("-")) {
+            // KBmoney expects negative values to be provided in the format of "($XXXXX.YY)"
+            final String negativeMoney = "(" + sMoney.substring(1) + ")";
+            return new KBmoney(negativeMoney).value;
         }
-        catch (SQLException e) {
-            // not a known type
-            return super.getColumnValue(rs, columnIndex, column);
+        return new KBmoney(sMoney).value;
+    }
+
+    private static Object readNumeric(ResultSet rs, int columnIndex) throws SQLException {
+        final String s = rs.getString(columnIndex);
+        if (s == null) {
+            return s;
         }
+
+        Optional<SpecialValueDecimal> value = PostgresValueConverter.toSpecialValue(s);
+        return value.isPresent() ? value.get() : new SpecialValueDecimal(rs.getBigDecimal(columnIndex));
     }
 
     protected void setSnapshotTransactionIsolationLevel() throws SQLException {
@@ -295,6 +519,101 @@ public class PostgresSnapshotChangeEventSource extends RelationalSnapshotChangeE
         jdbcConnection.executeWithoutCommitting(transactionStatement);
     }
 
+    /**
+     * Dispatches the rows read by the {@link ChunkedSnapshotReader} on the snapshot thread.
+     * <p>
+     * The last row is held back until the next one arrives, so it can be marked as the last snapshot record. Completed
+     * chunks are only added to the progress once their last row has been dispatched: the snapshot receiver creates the
+     * record of a row with the offset as of the next dispatched row, so a committed offset never covers a chunk whose
+     * rows were not all processed.
+     * <p>
+     * The rows read so far are reported to the snapshot metrics every {@link #ROWS_SCANNED_REPORT_INTERVAL} rows of a
+     * table, as the single-connection snapshot does, so the progress of a parallel snapshot is visible before a table
+     * completes.
+     */
+    private class ChunkedRowDispatcher implements ChunkedSnapshotReader.RowHandler {
+
+        private static final long ROWS_SCANNED_REPORT_INTERVAL = 10_000;
+
+        private final RelationalSnapshotContext ctx;
+        private final EventDispatcher.SnapshotReceiver receiver;
+        private final SnapshotProgress progress;
+        private final List<Runnable> deferredProgress = new ArrayList<>();
+        private final Map<TableId, Long> rowsScanned = new HashMap<>();
+        private TableId pendingTable;
+        private Object[] pendingRow;
+
+        ChunkedRowDispatcher(RelationalSnapshotContext ctx, EventDispatcher.SnapshotReceiver receiver, SnapshotProgress progress) {
+            this.ctx = ctx;
+            this.receiver = receiver;
+            this.progress = progress;
+        }
+
+        @Override
+        public void row(TableId tableId, Object[] row) throws InterruptedException {
+            final long scanned = rowsScanned.merge(tableId, 1L, Long::sum);
+            if (scanned % ROWS_SCANNED_REPORT_INTERVAL == 0) {
+                snapshotProgressListener.rowsScanned(tableId, scanned);
+            }
+            dispatchPending();
+            pendingTable = tableId;
+            pendingRow = row;
+        }
+
+        @Override
+        public void chunkCompleted(ChunkedSnapshotReader.Chunk chunk) {
+            if (progress != null) {
+                final TableId tableId = chunk.table.id();
+                updateProgress(() -> {
+                    if (chunk.range == null) {
+                        progress.tableCompleted(tableId);
+                    }
+                    else {
+                        progress.rangeCompleted(tableId, chunk.range);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void tableCompleted(TableId tableId, long rows) {
+            snapshotProgressListener.dataCollectionSnapshotCompleted(tableId, rows);
+            if (progress != null) {
+                updateProgress(() -> progress.tableCompleted(tableId));
+            }
+        }
+
+        /**
+         * Dispatches the held back row as the last snapshot record.
+         */
+        void complete() throws InterruptedException {
+            if (pendingRow != null) {
+                ctx.offset.markLastSnapshotRecord();
+                dispatchPending();
+            }
+            receiver.completeSnapshot();
+        }
+
+        private void updateProgress(Runnable update) {
+            if (pendingRow == null) {
+                update.run();
+            }
+            else {
+                deferredProgress.add(update);
+            }
+        }
+
+        private void dispatchPending() throws InterruptedException {
+            if (pendingRow == null) {
+                return;
+            }
+            dispatcher.dispatchSnapshotEvent(pendingTable, getChangeRecordEmitter(ctx, pendingTable, pendingRow), receiver);
+            pendingRow = null;
+            deferredProgress.forEach(Runnable::run);
+            deferredProgress.clear();
+        }
+    }
+
     /**
      * Mutable context which is populated in the course of snapshotting.
      */
@@ -7,6 +7,7 @@ package io.debezium.connector.kingbasees;
 
 import io.debezium.config.CommonConnectorConfig;
 import io.debezium.connector.AbstractSourceInfoStructMaker;
+import io.debezium.connector.kingbasees.connection.Lsn;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.Struct;
 
@@ -43,8 +44,8 @@ public class PostgresSourceInfoStructMaker extends AbstractSourceInfoStructMaker
         if (sourceInfo.txId() != null) {
             result.put(SourceInfo.TXID_KEY, sourceInfo.txId());
         }
-        if (sourceInfo.lsn() != null) {
-            result.put(SourceInfo.LSN_KEY, sourceInfo.lsn().asLong());
+        if (sourceInfo.lsnAsLong() != Lsn.NO_LSN) {
+            result.put(SourceInfo.LSN_KEY, sourceInfo.lsnAsLong());
         }
         if (sourceInfo.xmin() != null) {
             result.put(SourceInfo.XMIN_KEY, sourceInfo.xmin());
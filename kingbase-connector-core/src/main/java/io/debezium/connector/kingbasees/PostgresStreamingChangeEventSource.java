@@ -13,6 +13,7 @@ import io.debezium.heartbeat.Heartbeat;
 import io.debezium.pipeline.ErrorHandler;
 import io.debezium.pipeline.EventDispatcher;
 import io.debezium.pipeline.source.spi.StreamingChangeEventSource;
+import io.debezium.pipeline.spi.ChangeRecordEmitter;
 import io.debezium.relational.TableId;
 import io.debezium.util.Clock;
 import io.debezium.util.DelayStrategy;
@@ -24,6 +25,7 @@ import java.sql.SQLException;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -44,6 +46,10 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
     // We thus try to read the message multiple times before we make poll pause
     private static final int THROTTLE_NO_MESSAGE_BEFORE_PAUSE = 5;
 
+    // The pause when no message arrives starts here and doubles up to the poll interval,
+    // so a burst after a short idle period isn't delayed by a full poll interval
+    private static final long INITIAL_NO_MESSAGE_PAUSE_MS = 1L;
+
     private final PostgresConnection connection;
     private final EventDispatcher<TableId> dispatcher;
     private final ErrorHandler errorHandler;
@@ -56,14 +62,19 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
     private final AtomicReference<ReplicationStream> replicationStream = new AtomicReference<>();
     private final Snapshotter snapshotter;
     private final DelayStrategy pauseNoMessage;
+    private final long idleHousekeepingIntervalMs;
     private final boolean hasStartLsnStoredInContext;
+    private final SchemaReconciler schemaReconciler;
+    // null if no signal table is configured
+    private final IncrementalSnapshotter incrementalSnapshotter;
 
     /**
      * The minimum of (number of event received since the last event sent to Kafka,
      * number of event received since last WAL growing warning issued).
      */
     private long numberOfEventsSinceLastEventSentOrWalGrowingWarning = 0;
-    private Lsn lastCompletelyProcessedLsn;
+    // kept as a primitive, the streaming loop updates it for every message
+    private long lastCompletelyProcessedLsn = Lsn.NO_LSN;
 
     public PostgresStreamingChangeEventSource(PostgresConnectorConfig connectorConfig, Snapshotter snapshotter, PostgresOffsetContext offsetContext,
                                               PostgresConnection connection, EventDispatcher<TableId> dispatcher, ErrorHandler errorHandler, Clock clock,
@@ -78,10 +89,16 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
         // replication slot could exist at the time of starting Debezium so we will stream from the position in the slot
         // instead of the last position in the database
         this.hasStartLsnStoredInContext = (offsetContext != null);
-        pauseNoMessage = DelayStrategy.constant(taskContext.getConfig().getPollInterval().toMillis());
+        final long pollIntervalMs = Math.max(INITIAL_NO_MESSAGE_PAUSE_MS, taskContext.getConfig().getPollInterval().toMillis());
+        pauseNoMessage = DelayStrategy.exponential(INITIAL_NO_MESSAGE_PAUSE_MS, pollIntervalMs);
+        idleHousekeepingIntervalMs = pollIntervalMs;
         this.taskContext = taskContext;
         this.snapshotter = snapshotter;
         this.replicationConnection = replicationConnection;
+        this.schemaReconciler = new SchemaReconciler(() -> new PostgresConnection(connectorConfig.jdbcConfig(), schema.getTypeRegistry()),
+                connectorConfig.skipRefreshSchemaOnMissingToastableData());
+        this.incrementalSnapshotter = connectorConfig.signalDataCollection() == null ? null
+                : new IncrementalSnapshotter(connectorConfig, schema, dispatcher, this.offsetContext, clock);
     }
 
     @Override
@@ -120,7 +137,7 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
                 connection.commit();
             }
 
-            this.lastCompletelyProcessedLsn = replicationStream.get().startLsn();
+            this.lastCompletelyProcessedLsn = Lsn.toPrimitive(replicationStream.get().startLsn());
 
             if (walPosition.searchingEnabled()) {
                 searchWalPosition(context, stream, walPosition);
@@ -139,12 +156,19 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
                 stream = this.replicationStream.get();
                 stream.startKeepAlive(Executors.newSingleThreadExecutor());
             }
+            if (incrementalSnapshotter != null && !isInPreSnapshotCatchUpStreaming()) {
+                incrementalSnapshotter.resume();
+            }
             processMessages(context, stream);
         }
         catch (Throwable e) {
             errorHandler.setProducerThrowable(e);
         }
         finally {
+            schemaReconciler.close();
+            if (incrementalSnapshotter != null) {
+                incrementalSnapshotter.close();
+            }
             if (replicationConnection != null) {
                 LOGGER.debug("stopping streaming...");
                 // stop the keep alive thread, this also shuts down the
@@ -173,85 +197,144 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
     private void processMessages(ChangeEventSourceContext context, final ReplicationStream stream)
             throws SQLException, InterruptedException {
         LOGGER.info("Processing messages");
-        int noMessageIterations = 0;
-        while (context.isRunning() && (offsetContext.getStreamingStoppingLsn() == null ||
-                (lastCompletelyProcessedLsn.compareTo(offsetContext.getStreamingStoppingLsn()) < 0))) {
-
-            boolean receivedMessage = stream.readPending(message -> {
-                final Lsn lsn = stream.lastReceivedLsn();
+        final ReplicationDecodingPipeline pipeline = createDecodingPipeline(stream);
+        try {
+            int noMessageIterations = 0;
+            long nextHousekeepingAt = clock.currentTimeInMillis();
+            while (context.isRunning() && !isStreamingStoppingLsnReached()) {
 
-                if (message.isLastEventForLsn()) {
-                    lastCompletelyProcessedLsn = lsn;
+                final boolean receivedMessage;
+                if (pipeline != null) {
+                    receivedMessage = processDecodedFrame(pipeline);
+                }
+                else {
+                    receivedMessage = stream.readPending(message -> processMessage(stream.lastReceivedLsnAsLong(), message));
                 }
 
-                // Tx BEGIN/END event
-                if (message.isTransactionalMessage()) {
-                    if (!connectorConfig.shouldProvideTransactionMetadata()) {
-                        LOGGER.trace("Received transactional message {}", message);
-                        // Don't skip on BEGIN message as it would flush LSN for the whole transaction
-                        // too early
-                        if (message.getOperation() == Operation.COMMIT) {
-                            commitMessage(lsn);
-                        }
-                        return;
+                if (receivedMessage) {
+                    noMessageIterations = 0;
+                    pauseNoMessage.sleepWhen(false);
+                }
+                // the pipeline already waited for up to a poll interval
+                else if (pipeline == null) {
+                    noMessageIterations++;
+                    if (noMessageIterations >= THROTTLE_NO_MESSAGE_BEFORE_PAUSE) {
+                        noMessageIterations = 0;
+                        pauseNoMessage.sleepWhen(true);
                     }
+                }
 
-                    offsetContext.updateWalPosition(lsn, lastCompletelyProcessedLsn, message.getCommitTime(), message.getTransactionId(), null,
-                            taskContext.getSlotXmin(connection));
-                    if (message.getOperation() == Operation.BEGIN) {
-                        dispatcher.dispatchTransactionStartedEvent(Long.toString(message.getTransactionId()), offsetContext);
-                    }
-                    else if (message.getOperation() == Operation.COMMIT) {
-                        commitMessage(lsn);
-                        dispatcher.dispatchTransactionCommittedEvent(offsetContext);
-                    }
-                    maybeWarnAboutGrowingWalBacklog(true);
+                // Heartbeats and committing the JDBC connection are not needed on every iteration,
+                // doing them once per poll interval saves round trips while idle and spinning
+                final long now = clock.currentTimeInMillis();
+                if (now < nextHousekeepingAt) {
+                    continue;
                 }
-                // DML event
-                else {
-                    TableId tableId = null;
-                    if (message.getOperation() != Operation.NOOP) {
-                        tableId = PostgresSchema.parse(message.getTable());
-                        Objects.requireNonNull(tableId);
-                    }
+                nextHousekeepingAt = now + idleHousekeepingIntervalMs;
+                if (!receivedMessage && offsetContext.hasCompletelyProcessedPosition()) {
+                    dispatcher.dispatchHeartbeatEvent(offsetContext);
+                }
+                if (!isInPreSnapshotCatchUpStreaming()) {
+                    // During catch up streaming, the streaming phase needs to hold a transaction open so that
+                    // the phase can stream event up to a specific lsn and the snapshot that occurs after the catch up
+                    // streaming will not lose the current view of data. Since we need to hold the transaction open
+                    // for the snapshot, this block must not commit during catch up streaming.
+                    connection.commit();
+                }
+            }
+        }
+        finally {
+            if (pipeline != null) {
+                pipeline.close();
+            }
+        }
+    }
 
-                    offsetContext.updateWalPosition(lsn, lastCompletelyProcessedLsn, message.getCommitTime(), message.getTransactionId(), tableId,
-                            taskContext.getSlotXmin(connection));
+    /**
+     * Creates the parallel decoding pipeline if enabled. Catch up streaming must stop exactly at the stopping LSN,
+     * so it always reads messages one by one.
+     */
+    private ReplicationDecodingPipeline createDecodingPipeline(ReplicationStream stream) {
+        final int decodingThreads = connectorConfig.decodingThreads();
+        if (decodingThreads <= 0 || isInPreSnapshotCatchUpStreaming()) {
+            return null;
+        }
+        LOGGER.info("Decoding replication messages with {} threads, buffering up to {} messages", decodingThreads,
+                connectorConfig.decodingBufferSize());
+        final ReplicationDecodingPipeline pipeline = new ReplicationDecodingPipeline(stream, decodingThreads, connectorConfig.decodingBufferSize(),
+                DelayStrategy.exponential(INITIAL_NO_MESSAGE_PAUSE_MS, idleHousekeepingIntervalMs), connectorConfig.includeUnknownDatatypes());
+        pipeline.start();
+        return pipeline;
+    }
 
-                    boolean dispatched = message.getOperation() != Operation.NOOP && dispatcher.dispatchDataChangeEvent(
-                            tableId,
-                            new PostgresChangeRecordEmitter(
-                                    offsetContext,
-                                    clock,
-                                    connectorConfig,
-                                    schema,
-                                    connection,
-                                    message));
+    private boolean processDecodedFrame(ReplicationDecodingPipeline pipeline) throws SQLException, InterruptedException {
+        final ReplicationDecodingPipeline.DecodedFrame frame = pipeline.next(connectorConfig.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        if (frame == null) {
+            return false;
+        }
+        for (ReplicationMessage message : frame.messages()) {
+            processMessage(frame.lsn(), message);
+        }
+        return true;
+    }
+
+    private void processMessage(final long lsn, ReplicationMessage message) throws SQLException, InterruptedException {
+        if (message.isLastEventForLsn()) {
+            lastCompletelyProcessedLsn = lsn;
+        }
 
-                    maybeWarnAboutGrowingWalBacklog(dispatched);
+        // Tx BEGIN/END event
+        if (message.isTransactionalMessage()) {
+            if (!connectorConfig.shouldProvideTransactionMetadata()) {
+                LOGGER.trace("Received transactional message {}", message);
+                // Don't skip on BEGIN message as it would flush LSN for the whole transaction
+                // too early
+                if (message.getOperation() == Operation.COMMIT) {
+                    commitMessage(lsn);
                 }
-            });
+                return;
+            }
 
-            if (receivedMessage) {
-                noMessageIterations = 0;
+            offsetContext.updateWalPosition(lsn, lastCompletelyProcessedLsn, message.getCommitTime(), message.getTransactionId(), null,
+                    taskContext.getSlotXmin(connection));
+            if (message.getOperation() == Operation.BEGIN) {
+                dispatcher.dispatchTransactionStartedEvent(Long.toString(message.getTransactionId()), offsetContext);
             }
-            else {
-                if (offsetContext.hasCompletelyProcessedPosition()) {
-                    dispatcher.dispatchHeartbeatEvent(offsetContext);
-                }
-                noMessageIterations++;
-                if (noMessageIterations >= THROTTLE_NO_MESSAGE_BEFORE_PAUSE) {
-                    noMessageIterations = 0;
-                    pauseNoMessage.sleepWhen(true);
-                }
+            else if (message.getOperation() == Operation.COMMIT) {
+                commitMessage(lsn);
+                dispatcher.dispatchTransactionCommittedEvent(offsetContext);
             }
-            if (!isInPreSnapshotCatchUpStreaming()) {
-                // During catch up streaming, the streaming phase needs to hold a transaction open so that
-                // the phase can stream event up to a specific lsn and the snapshot that occurs after the catch up
-                // streaming will not lose the current view of data. Since we need to hold the transaction open
-                // for the snapshot, this block must not commit during catch up streaming.
-                connection.commit();
+            maybeWarnAboutGrowingWalBacklog(true);
+        }
+        // DML event
+        else {
+            TableId tableId = null;
+            if (message.getOperation() != Operation.NOOP) {
+                tableId = PostgresSchema.parse(message.getTable());
+                Objects.requireNonNull(tableId);
+            }
+
+            offsetContext.updateWalPosition(lsn, lastCompletelyProcessedLsn, message.getCommitTime(), message.getTransactionId(), tableId,
+                    taskContext.getSlotXmin(connection));
+
+            if (incrementalSnapshotter != null && tableId != null && incrementalSnapshotter.isSignal(tableId)) {
+                incrementalSnapshotter.signal(message, () -> (BaseConnection) connection.connection());
             }
+
+            ChangeRecordEmitter emitter = new PostgresChangeRecordEmitter(
+                    offsetContext,
+                    clock,
+                    connectorConfig,
+                    schema,
+                    connection,
+                    message,
+                    schemaReconciler);
+            if (incrementalSnapshotter != null && tableId != null) {
+                emitter = incrementalSnapshotter.deduplicate(tableId, emitter);
+            }
+            boolean dispatched = message.getOperation() != Operation.NOOP && dispatcher.dispatchDataChangeEvent(tableId, emitter);
+
+            maybeWarnAboutGrowingWalBacklog(dispatched);
         }
     }
 
@@ -270,6 +353,7 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
 
             if (receivedMessage) {
                 noMessageIterations = 0;
+                pauseNoMessage.sleepWhen(false);
             }
             else {
                 noMessageIterations++;
@@ -282,7 +366,7 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
         LOGGER.info("WAL resume position '{}' discovered", resumeLsn.get());
     }
 
-    private void commitMessage(final Lsn lsn) throws SQLException, InterruptedException {
+    private void commitMessage(final long lsn) throws SQLException, InterruptedException {
         lastCompletelyProcessedLsn = lsn;
         offsetContext.updateCommitPosition(lsn, lastCompletelyProcessedLsn, null, null, null, taskContext.getSlotXmin(connection));
         maybeWarnAboutGrowingWalBacklog(false);
@@ -366,6 +450,15 @@ public class PostgresStreamingChangeEventSource implements StreamingChangeEventS
         return offsetContext.getStreamingStoppingLsn() != null;
     }
 
+    /**
+     * @return true if catch up streaming has processed all events up to the stopping LSN
+     */
+    private boolean isStreamingStoppingLsnReached() {
+        final Lsn stoppingLsn = offsetContext.getStreamingStoppingLsn();
+        return stoppingLsn != null && lastCompletelyProcessedLsn != Lsn.NO_LSN
+                && Lsn.compare(lastCompletelyProcessedLsn, stoppingLsn.asLong()) >= 0;
+    }
+
     @FunctionalInterface
     public static interface PgConnectionSupplier {
         BaseConnection get() throws SQLException;
@@ -40,7 +40,7 @@ public class PostgresTaskContext extends CdcSourceTaskContext {
     private Long lastXmin;
 
     protected PostgresTaskContext(PostgresConnectorConfig config, PostgresSchema schema, TopicSelector<TableId> topicSelector) {
-        super(config.getContextName(), config.getLogicalName(), Collections::emptySet);
+        super(config.getContextName(), TableGroups.metricsName(config.getLogicalName(), config.tableGroup()), Collections::emptySet);
 
         this.config = config;
         if (config.xminFetchInterval().toMillis() > 0) {
@@ -0,0 +1,371 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import io.debezium.annotation.ThreadSafe;
+import io.debezium.relational.Column;
+import io.debezium.relational.ColumnEditor;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableEditor;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import io.debezium.relational.Tables.TableFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the type catalog, the captured table definitions and their toastable columns to a file, so that a restart
+ * does not have to read the whole catalog again before the first event is streamed.
+ * <p>
+ * Each section is validated against a fingerprint of the part of the catalog it was read from. Types are checked by
+ * the number and the latest OID of the types plus a hash over the row versions ({@code xmin}) of {@code pg_type}.
+ * Tables are checked by hashes over the row versions of the {@code pg_class}, {@code pg_attribute} and primary key
+ * index rows of the relations the table filter captures, so DDL on other tables does not invalidate them, while
+ * creating, dropping or altering a captured table does. The table section is additionally bound to the table filter
+ * configuration it was read with. A stale section is discarded and the callers fall back to reading the catalog.
+ * Schema changes at runtime are not written back, the next start will simply find the fingerprint changed and
+ * refresh the cache.
+ */
+@ThreadSafe
+public class SchemaCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaCache.class);
+
+    /**
+     * Increase whenever the layout of the file changes, older files are then ignored.
+     */
+    static final int FORMAT_VERSION = 2;
+
+    private static final String RELATION_KINDS = "('r', 'p', 'v', 'm', 'f')";
+
+    static final String SQL_TYPES_FINGERPRINT = "SELECT current_database() AS db, "
+            + "(SELECT count(*) FROM pg_catalog.pg_type) AS type_count, "
+            + "(SELECT max(oid::bigint) FROM pg_catalog.pg_type) AS max_type_oid, "
+            + "(SELECT coalesce(sum(hashtext(t.oid::text || ':' || t.xmin::text)::bigint), 0) FROM pg_catalog.pg_type t) AS type_hash, "
+            + "(SELECT count(*) FROM pg_catalog.pg_enum) AS enum_count";
+
+    /**
+     * Only reads {@code pg_class}; the captured relations are then selected by the table filter.
+     */
+    static final String SQL_RELATIONS = "SELECT c.oid::bigint, n.nspname, c.relname FROM pg_catalog.pg_class c "
+            + "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace "
+            + "WHERE c.relkind IN " + RELATION_KINDS + " AND n.nspname NOT IN ('pg_catalog', 'information_schema', 'pg_toast')";
+
+    static final String SQL_TABLES_FINGERPRINT = "SELECT current_database() AS db, "
+            + "(SELECT coalesce(sum(hashtext(c.oid::text || ':' || c.xmin::text)::bigint), 0) FROM pg_catalog.pg_class c "
+            + "WHERE c.oid = ANY (?::oid[])) AS relation_hash, "
+            + "(SELECT coalesce(sum(hashtext(a.attrelid::text || ':' || a.attnum::text || ':' || a.xmin::text)::bigint), 0) "
+            + "FROM pg_catalog.pg_attribute a WHERE a.attnum > 0 AND a.attrelid = ANY (?::oid[])) AS attribute_hash, "
+            + "(SELECT coalesce(sum(hashtext(i.indexrelid::text || ':' || i.xmin::text)::bigint), 0) FROM pg_catalog.pg_index i "
+            + "WHERE i.indisprimary AND i.indrelid = ANY (?::oid[])) AS key_hash";
+
+    private final Path file;
+    private final String tablesKey;
+
+    private JSONObject content;
+    // null until computed, or if computing failed; the section is then neither used nor written
+    private String typesFingerprint;
+    private String tablesFingerprint;
+
+    /**
+     * @param file the cache file, created on the first store
+     * @param tablesKey identifies the configuration the captured tables depend on, i.e. database and table filters;
+     *            cached tables are only used when it matches
+     */
+    public SchemaCache(Path file, String tablesKey) {
+        this.file = file;
+        this.tablesKey = tablesKey;
+    }
+
+    /**
+     * @return the cached types, or {@code null} if the cache is missing or stale
+     */
+    synchronized List<TypeRegistry.TypeDescriptor> loadTypes(Connection connection) {
+        final JSONObject content = content();
+        try {
+            typesFingerprint = typesFingerprint(connection);
+        }
+        catch (SQLException e) {
+            // the cache is an optimization only, don't use it rather than failing the start
+            LOGGER.warn("Cannot fingerprint the type catalog, schema cache {} is not used for types", file, e);
+            return null;
+        }
+        final JSONArray types = content.getJSONArray("types");
+        if (types == null) {
+            return null;
+        }
+        if (!typesFingerprint.equals(content.getString("typesFingerprint"))) {
+            LOGGER.info("Types in schema cache {} are stale, the type catalog will be read from the database", file);
+            return null;
+        }
+        final List<TypeRegistry.TypeDescriptor> descriptors = new ArrayList<>(types.size());
+        for (int i = 0; i < types.size(); i++) {
+            descriptors.add(readType(types.getJSONObject(i)));
+        }
+        LOGGER.info("Loaded {} types from schema cache {}", descriptors.size(), file);
+        return descriptors;
+    }
+
+    synchronized void storeTypes(List<TypeRegistry.TypeDescriptor> descriptors) {
+        if (typesFingerprint == null) {
+            return;
+        }
+        final JSONArray types = new JSONArray(descriptors.size());
+        for (TypeRegistry.TypeDescriptor descriptor : descriptors) {
+            types.add(writeType(descriptor));
+        }
+        content().put("typesFingerprint", typesFingerprint);
+        content.put("types", types);
+        write();
+    }
+
+    /**
+     * Fills the given tables and toastable columns from the cache.
+     *
+     * @param tableFilter selects the captured relations the cached tables are validated against
+     * @return {@code true} if the cache was valid and used, {@code false} if the caller has to read the catalog
+     */
+    synchronized boolean loadTables(Connection connection, Tables tables, Map<TableId, List<String>> toastableColumns, TableFilter tableFilter) {
+        final JSONObject content = content();
+        try {
+            tablesFingerprint = tablesFingerprint(connection, tableFilter);
+        }
+        catch (SQLException e) {
+            LOGGER.warn("Cannot fingerprint the captured tables, schema cache {} is not used for tables", file, e);
+            return false;
+        }
+        final JSONArray cachedTables = content.getJSONArray("tables");
+        if (cachedTables == null || !tablesKey.equals(content.getString("tablesKey"))) {
+            return false;
+        }
+        if (!tablesFingerprint.equals(content.getString("tablesFingerprint"))) {
+            LOGGER.info("Tables in schema cache {} are stale, the captured tables will be read from the database", file);
+            return false;
+        }
+        for (int i = 0; i < cachedTables.size(); i++) {
+            final JSONObject cachedTable = cachedTables.getJSONObject(i);
+            final Table table = readTable(cachedTable);
+            tables.overwriteTable(table);
+            final JSONArray toastable = cachedTable.getJSONArray("toastable");
+            if (toastable != null) {
+                toastableColumns.put(table.id(), Collections.unmodifiableList(toastable.toJavaList(String.class)));
+            }
+        }
+        LOGGER.info("Loaded {} tables from schema cache {}", cachedTables.size(), file);
+        return true;
+    }
+
+    synchronized void storeTables(Tables tables, Map<TableId, List<String>> toastableColumns) {
+        if (tablesFingerprint == null) {
+            return;
+        }
+        final JSONArray cachedTables = new JSONArray(tables.size());
+        for (TableId tableId : tables.tableIds()) {
+            final JSONObject cachedTable = writeTable(tables.forTable(tableId));
+            final List<String> toastable = toastableColumns.get(tableId);
+            if (toastable != null) {
+                cachedTable.put("toastable", new JSONArray(toastable));
+            }
+            cachedTables.add(cachedTable);
+        }
+        content().put("tablesKey", tablesKey);
+        content.put("tablesFingerprint", tablesFingerprint);
+        content.put("tables", cachedTables);
+        write();
+    }
+
+    /**
+     * Reads the file on first use; a missing file or one of another format version yields an empty content, which
+     * the store methods then fill.
+     */
+    private JSONObject content() {
+        if (content != null) {
+            return content;
+        }
+        content = read();
+        if (content != null && content.getIntValue("version") != FORMAT_VERSION) {
+            LOGGER.info("Schema cache {} has an outdated format, the catalog will be read from the database", file);
+            content = null;
+        }
+        if (content == null) {
+            content = new JSONObject();
+            content.put("version", FORMAT_VERSION);
+        }
+        return content;
+    }
+
+    /**
+     * Computed before the catalog is read, so a change while reading it makes the written section stale.
+     */
+    private static String typesFingerprint(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(SQL_TYPES_FINGERPRINT)) {
+            return fingerprint(rs);
+        }
+    }
+
+    private static String tablesFingerprint(Connection connection, TableFilter tableFilter) throws SQLException {
+        final List<Long> captured = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(SQL_RELATIONS)) {
+            while (rs.next()) {
+                if (tableFilter == null || tableFilter.isIncluded(new TableId(null, rs.getString(2), rs.getString(3)))) {
+                    captured.add(rs.getLong(1));
+                }
+            }
+        }
+        final Array oids = connection.createArrayOf("int8", captured.toArray());
+        try (PreparedStatement statement = connection.prepareStatement(SQL_TABLES_FINGERPRINT)) {
+            for (int i = 1; i <= 3; i++) {
+                statement.setArray(i, oids);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return captured.size() + "/" + fingerprint(rs);
+            }
+        }
+    }
+
+    private static String fingerprint(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            throw new SQLException("Catalog fingerprint query returned no rows");
+        }
+        final StringBuilder fingerprint = new StringBuilder(rs.getString(1));
+        for (int i = 2; i <= rs.getMetaData().getColumnCount(); i++) {
+            fingerprint.append('/').append(rs.getLong(i));
+        }
+        return fingerprint.toString();
+    }
+
+    private JSONObject read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return JSON.parseObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+        catch (Exception e) {
+            LOGGER.warn("Ignoring unreadable schema cache {}", file, e);
+            return null;
+        }
+    }
+
+    private void write() {
+        try {
+            final Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, content.toJSONString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // the cache only speeds up the next start
+            LOGGER.warn("Failed to write schema cache {}", file, e);
+        }
+    }
+
+    private static JSONObject writeType(TypeRegistry.TypeDescriptor descriptor) {
+        final JSONObject type = new JSONObject();
+        type.put("oid", descriptor.oid);
+        type.put("name", descriptor.name);
+        type.put("jdbcId", descriptor.jdbcId);
+        type.put("modifiers", descriptor.modifiers);
+        type.put("category", descriptor.category);
+        type.put("element", descriptor.elementOid);
+        type.put("parent", descriptor.parentOid);
+        if (descriptor.enumValues != null) {
+            type.put("enumValues", new JSONArray(descriptor.enumValues));
+        }
+        return type;
+    }
+
+    private static TypeRegistry.TypeDescriptor readType(JSONObject type) {
+        final JSONArray enumValues = type.getJSONArray("enumValues");
+        return new TypeRegistry.TypeDescriptor(
+                type.getIntValue("oid"),
+                type.getString("name"),
+                type.getIntValue("jdbcId"),
+                type.getIntValue("modifiers"),
+                type.getString("category"),
+                type.getIntValue("element"),
+                type.getIntValue("parent"),
+                enumValues == null ? null : enumValues.toJavaList(String.class));
+    }
+
+    static JSONObject writeTable(Table table) {
+        final JSONObject cachedTable = new JSONObject();
+        cachedTable.put("catalog", table.id().catalog());
+        cachedTable.put("schema", table.id().schema());
+        cachedTable.put("table", table.id().table());
+        cachedTable.put("charset", table.defaultCharsetName());
+        cachedTable.put("primaryKey", new JSONArray(table.primaryKeyColumnNames()));
+        final JSONArray columns = new JSONArray(table.columns().size());
+        for (Column column : table.columns()) {
+            final JSONObject cachedColumn = new JSONObject();
+            cachedColumn.put("name", column.name());
+            cachedColumn.put("position", column.position());
+            cachedColumn.put("jdbcType", column.jdbcType());
+            cachedColumn.put("nativeType", column.nativeType());
+            cachedColumn.put("typeName", column.typeName());
+            cachedColumn.put("typeExpression", column.typeExpression());
+            cachedColumn.put("charset", column.charsetName());
+            cachedColumn.put("length", column.length());
+            cachedColumn.put("scale", column.scale().orElse(null));
+            cachedColumn.put("optional", column.isOptional());
+            cachedColumn.put("autoIncremented", column.isAutoIncremented());
+            cachedColumn.put("generated", column.isGenerated());
+            columns.add(cachedColumn);
+        }
+        cachedTable.put("columns", columns);
+        return cachedTable;
+    }
+
+    static Table readTable(JSONObject cachedTable) {
+        final TableEditor editor = Table.editor()
+                .tableId(new TableId(cachedTable.getString("catalog"), cachedTable.getString("schema"), cachedTable.getString("table")))
+                .setDefaultCharsetName(cachedTable.getString("charset"));
+        final JSONArray columns = cachedTable.getJSONArray("columns");
+        for (int i = 0; i < columns.size(); i++) {
+            final JSONObject cachedColumn = columns.getJSONObject(i);
+            final ColumnEditor column = Column.editor()
+                    .name(cachedColumn.getString("name"))
+                    .position(cachedColumn.getIntValue("position"))
+                    .jdbcType(cachedColumn.getIntValue("jdbcType"))
+                    .nativeType(cachedColumn.getIntValue("nativeType"))
+                    .type(cachedColumn.getString("typeName"), cachedColumn.getString("typeExpression"))
+                    .charsetName(cachedColumn.getString("charset"))
+                    .length(cachedColumn.getIntValue("length"))
+                    .optional(cachedColumn.getBooleanValue("optional"))
+                    .autoIncremented(cachedColumn.getBooleanValue("autoIncremented"))
+                    .generated(cachedColumn.getBooleanValue("generated"));
+            if (cachedColumn.get("scale") != null) {
+                column.scale(cachedColumn.getInteger("scale"));
+            }
+            editor.addColumn(column.create());
+        }
+        return editor.setPrimaryKeyNames(cachedTable.getJSONArray("primaryKey").toJavaList(String.class)).create();
+    }
+}
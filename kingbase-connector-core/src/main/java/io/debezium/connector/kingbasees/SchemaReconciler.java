@@ -0,0 +1,195 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.annotation.ThreadSafe;
+import io.debezium.connector.kingbasees.connection.PostgresConnection;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads the catalog definition of tables whose in-memory schema was derived from decoder messages, so the streaming
+ * thread does not block on catalog queries when it detects a schema change. The lookups run on a background thread
+ * with a dedicated connection; the streaming thread picks up the results via {@link #applyCompleted(PostgresSchema)},
+ * as {@link PostgresSchema} itself is not thread-safe.
+ * <p>
+ * Requests for a table that is already queued are coalesced, so a burst of column changes results in at most one
+ * lookup in flight and one follow-up lookup per table.
+ */
+@ThreadSafe
+class SchemaReconciler implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaReconciler.class);
+
+    private final Supplier<PostgresConnection> connectionFactory;
+    private final boolean readToastableColumns;
+    private final CatalogLookup lookup;
+    private final ThreadPoolExecutor executor;
+    private final Set<TableId> scheduled = ConcurrentHashMap.newKeySet();
+    private final Set<TableId> requestedAgain = ConcurrentHashMap.newKeySet();
+    private final Queue<Reconciliation> completed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Only used by the reconciliation thread.
+     */
+    private PostgresConnection connection;
+
+    SchemaReconciler(Supplier<PostgresConnection> connectionFactory, boolean readToastableColumns) {
+        this.connectionFactory = connectionFactory;
+        this.readToastableColumns = readToastableColumns;
+        this.lookup = this::readCatalog;
+        this.executor = newExecutor();
+    }
+
+    SchemaReconciler(CatalogLookup lookup) {
+        this.connectionFactory = null;
+        this.readToastableColumns = false;
+        this.lookup = lookup;
+        this.executor = newExecutor();
+    }
+
+    private static ThreadPoolExecutor newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "kingbase-schema-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Requests reading the catalog definition of the given table in the background.
+     */
+    void schedule(TableId tableId) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (scheduled.add(tableId)) {
+            executor.execute(() -> reconcile(tableId));
+        }
+        else {
+            requestedAgain.add(tableId);
+        }
+    }
+
+    /**
+     * Applies the finished lookups to the schema; must be called from the thread owning the schema.
+     */
+    void applyCompleted(PostgresSchema schema) {
+        applyCompleted(schema::reconcileTable);
+    }
+
+    void applyCompleted(BiConsumer<Table, List<String>> target) {
+        Reconciliation reconciliation;
+        while ((reconciliation = completed.poll()) != null) {
+            target.accept(reconciliation.table, reconciliation.toastableColumns);
+        }
+    }
+
+    private void reconcile(TableId tableId) {
+        requestedAgain.remove(tableId);
+        try {
+            final Reconciliation reconciliation = lookup.read(tableId);
+            if (reconciliation == null) {
+                LOGGER.debug("Table '{}' no longer exists, nothing to reconcile", tableId);
+                return;
+            }
+            completed.add(reconciliation);
+            LOGGER.debug("Read catalog definition of table '{}' for reconciliation", tableId);
+        }
+        catch (SQLException | RuntimeException e) {
+            LOGGER.warn("Failed to reconcile schema of table '{}' with the catalog, the definition derived from the messages is kept", tableId, e);
+            closeConnection();
+        }
+        finally {
+            scheduled.remove(tableId);
+            if (requestedAgain.remove(tableId)) {
+                schedule(tableId);
+            }
+        }
+    }
+
+    private Reconciliation readCatalog(TableId tableId) throws SQLException {
+        final Tables tables = new Tables();
+        final PostgresConnection connection = connection();
+        connection.readSchema(tables, null, null, tableId::equals, null, true);
+        final Table table = tables.forTable(tableId);
+        if (table == null) {
+            return null;
+        }
+        List<String> toastableColumns = null;
+        if (readToastableColumns) {
+            toastableColumns = connection.readToastableColumns(Collections.singleton(tableId)).getOrDefault(tableId, Collections.emptyList());
+        }
+        return new Reconciliation(table, toastableColumns);
+    }
+
+    private PostgresConnection connection() {
+        if (connection == null) {
+            connection = connectionFactory.get();
+        }
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeConnection();
+    }
+
+    /**
+     * Reads the catalog definition of a table on the reconciliation thread.
+     */
+    @FunctionalInterface
+    interface CatalogLookup {
+
+        /**
+         * @return the catalog definition of the table, or null if the table no longer exists
+         */
+        Reconciliation read(TableId tableId) throws SQLException;
+    }
+
+    static final class Reconciliation {
+
+        private final Table table;
+        private final List<String> toastableColumns;
+
+        Reconciliation(Table table, List<String> toastableColumns) {
+            this.table = table;
+            this.toastableColumns = toastableColumns;
+        }
+    }
+}
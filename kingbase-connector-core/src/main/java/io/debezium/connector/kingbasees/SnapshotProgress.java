@@ -0,0 +1,238 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import io.debezium.annotation.NotThreadSafe;
+import io.debezium.relational.TableId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The tables and primary key ranges a chunked snapshot has completed, stored in the offset so that a restarted snapshot
+ * only reads what is missing.
+ * <p>
+ * The progress is encoded as one line per table, {@code schema.table} followed by a tab and either {@code *} for a
+ * completed table or the completed key ranges as {@code from:to,from:to}, with the lower bound inclusive, the upper
+ * bound exclusive and an empty bound for an unbounded range.
+ */
+@NotThreadSafe
+class SnapshotProgress {
+
+    private static final String COMPLETED = "*";
+
+    private final Map<String, List<KeyRange>> tables = new TreeMap<>();
+    private String encoded;
+
+    static SnapshotProgress parse(String encoded) {
+        final SnapshotProgress progress = new SnapshotProgress();
+        if (encoded == null || encoded.isEmpty()) {
+            return progress;
+        }
+        for (String line : encoded.split("\n")) {
+            final int separator = line.lastIndexOf('\t');
+            if (separator <= 0) {
+                continue;
+            }
+            final String table = line.substring(0, separator);
+            final String ranges = line.substring(separator + 1);
+            if (COMPLETED.equals(ranges)) {
+                progress.tables.put(table, null);
+                continue;
+            }
+            final List<KeyRange> completed = new ArrayList<>();
+            for (String range : ranges.split(",")) {
+                final int colon = range.indexOf(':');
+                if (colon >= 0) {
+                    completed.add(new KeyRange(bound(range.substring(0, colon)), bound(range.substring(colon + 1))));
+                }
+            }
+            progress.tables.put(table, completed);
+        }
+        return progress;
+    }
+
+    static String key(TableId tableId) {
+        return tableId.schema() + "." + tableId.table();
+    }
+
+    boolean isEmpty() {
+        return tables.isEmpty();
+    }
+
+    boolean isTableCompleted(TableId tableId) {
+        final String key = key(tableId);
+        return tables.containsKey(key) && tables.get(key) == null;
+    }
+
+    void tableCompleted(TableId tableId) {
+        tables.put(key(tableId), null);
+        encoded = null;
+    }
+
+    /**
+     * Records a completed key range of a table, merging it with adjacent completed ranges.
+     */
+    void rangeCompleted(TableId tableId, KeyRange range) {
+        final String key = key(tableId);
+        if (tables.containsKey(key) && tables.get(key) == null) {
+            return;
+        }
+        final List<KeyRange> completed = new ArrayList<>(tables.getOrDefault(key, Collections.emptyList()));
+        completed.add(range);
+        completed.sort((a, b) -> compareLower(a.from, b.from));
+        final List<KeyRange> merged = new ArrayList<>(completed.size());
+        for (KeyRange next : completed) {
+            final KeyRange last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && (last.to == null || (next.from != null && next.from <= last.to))) {
+                merged.set(merged.size() - 1, new KeyRange(last.from, maxUpper(last.to, next.to)));
+            }
+            else {
+                merged.add(next);
+            }
+        }
+        if (merged.size() == 1 && merged.get(0).from == null && merged.get(0).to == null) {
+            tables.put(key, null);
+        }
+        else {
+            tables.put(key, merged);
+        }
+        encoded = null;
+    }
+
+    /**
+     * Returns the parts of the planned key ranges of a table that have not been completed yet.
+     */
+    List<KeyRange> remaining(TableId tableId, List<KeyRange> planned) {
+        final String key = key(tableId);
+        if (!tables.containsKey(key)) {
+            return planned;
+        }
+        final List<KeyRange> completed = tables.get(key);
+        if (completed == null) {
+            return Collections.emptyList();
+        }
+        final List<KeyRange> gaps = new ArrayList<>();
+        Long from = null;
+        for (KeyRange range : completed) {
+            if (range.from != null) {
+                gaps.add(new KeyRange(from, range.from));
+            }
+            if (range.to == null) {
+                from = null;
+                break;
+            }
+            from = range.to;
+        }
+        if (completed.isEmpty() || completed.get(completed.size() - 1).to != null) {
+            gaps.add(new KeyRange(from, null));
+        }
+        final List<KeyRange> remaining = new ArrayList<>();
+        for (KeyRange plannedRange : planned) {
+            for (KeyRange gap : gaps) {
+                final Long lower = compareLower(plannedRange.from, gap.from) >= 0 ? plannedRange.from : gap.from;
+                final Long upper = minUpper(plannedRange.to, gap.to);
+                if (lower == null || upper == null || lower < upper) {
+                    remaining.add(new KeyRange(lower, upper));
+                }
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * @return the encoded progress; cached, as it is included in the offset of every snapshot record
+     */
+    String encoded() {
+        if (encoded == null) {
+            final StringBuilder builder = new StringBuilder();
+            for (Map.Entry<String, List<KeyRange>> table : tables.entrySet()) {
+                if (builder.length() > 0) {
+                    builder.append('\n');
+                }
+                builder.append(table.getKey()).append('\t');
+                if (table.getValue() == null) {
+                    builder.append(COMPLETED);
+                    continue;
+                }
+                for (int i = 0; i < table.getValue().size(); i++) {
+                    final KeyRange range = table.getValue().get(i);
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    builder.append(range.from == null ? "" : range.from).append(':').append(range.to == null ? "" : range.to);
+                }
+            }
+            encoded = builder.toString();
+        }
+        return encoded;
+    }
+
+    @Override
+    public String toString() {
+        return encoded();
+    }
+
+    private static Long bound(String text) {
+        return text.isEmpty() ? null : Long.valueOf(text);
+    }
+
+    private static int compareLower(Long a, Long b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? -1 : 1);
+        }
+        return Long.compare(a, b);
+    }
+
+    private static Long maxUpper(Long a, Long b) {
+        return a == null || b == null ? null : Math.max(a, b);
+    }
+
+    private static Long minUpper(Long a, Long b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : Math.min(a, b);
+    }
+
+    /**
+     * A range of primary key values, {@code from} inclusive and {@code to} exclusive; {@code null} stands for an
+     * unbounded side.
+     */
+    static final class KeyRange {
+
+        final Long from;
+        final Long to;
+
+        KeyRange(Long from, Long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof KeyRange)) {
+                return false;
+            }
+            final KeyRange other = (KeyRange) obj;
+            return Objects.equals(from, other.from) && Objects.equals(to, other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + (from == null ? "" : from) + ", " + (to == null ? "" : to) + ")";
+        }
+    }
+}
@@ -82,8 +82,11 @@ public final class SourceInfo extends BaseSourceInfo {
 
     private final String dbName;
 
-    private Lsn lsn;
-    private Lsn[] sequence;
+    // positions are kept as primitives, Lsn.NO_LSN stands for an unknown position
+    private long lsn = Lsn.NO_LSN;
+    private long sequenceCommitLsn = Lsn.NO_LSN;
+    private long sequenceLsn = Lsn.NO_LSN;
+    private boolean hasSequence;
     private Long txId;
     private Long xmin;
     private Instant timestamp;
@@ -98,8 +101,8 @@ public final class SourceInfo extends BaseSourceInfo {
     /**
      * Updates the source with information about a particular received or read event.
      *
-     * @param lsn the position in the server WAL for a particular event; may be null indicating that this information is not
-     * available
+     * @param lsn the position in the server WAL for a particular event; may be {@link Lsn#NO_LSN} indicating that this
+     * information is not available
      * @param commitTime the commit time of the transaction that generated the event;
      * may be null indicating that this information is not available
      * @param txId the ID of the transaction that generated the transaction; may be null if this information is not available
@@ -107,13 +110,15 @@ public final class SourceInfo extends BaseSourceInfo {
      * @param xmin the xmin of the slot, may be null
      * @return this instance
      */
-    protected SourceInfo update(Lsn lsn, Instant commitTime, Long txId, TableId tableId, Long xmin, Lsn lastCommitLsn) {
+    protected SourceInfo update(long lsn, Instant commitTime, Long txId, TableId tableId, Long xmin, long lastCommitLsn) {
         update(lsn, commitTime, txId, tableId, xmin);
-        this.sequence = new Lsn[]{ lastCommitLsn, lsn };
+        this.sequenceCommitLsn = lastCommitLsn;
+        this.sequenceLsn = lsn;
+        this.hasSequence = true;
         return this;
     }
 
-    protected SourceInfo update(Lsn lsn, Instant commitTime, Long txId, TableId tableId, Long xmin) {
+    protected SourceInfo update(long lsn, Instant commitTime, Long txId, TableId tableId, Long xmin) {
         this.lsn = lsn;
         if (commitTime != null) {
             this.timestamp = commitTime;
@@ -141,6 +146,13 @@ public final class SourceInfo extends BaseSourceInfo {
     }
 
     public Lsn lsn() {
+        return Lsn.fromPrimitive(this.lsn);
+    }
+
+    /**
+     * @return the position of the event or {@link Lsn#NO_LSN} if not available
+     */
+    long lsnAsLong() {
         return this.lsn;
     }
 
@@ -150,19 +162,17 @@ public final class SourceInfo extends BaseSourceInfo {
 
     public String sequence() {
         List<String> sequence = new ArrayList<String>();
-        if (this.sequence != null) {
-            for (Lsn lsn : this.sequence) {
-                if (lsn == null) {
-                    sequence.add(null);
-                }
-                else {
-                    sequence.add(Long.toString(lsn.asLong()));
-                }
-            }
+        if (hasSequence) {
+            sequence.add(sequenceEntry(sequenceCommitLsn));
+            sequence.add(sequenceEntry(sequenceLsn));
         }
         return JSON.toJSONString(sequence);
     }
 
+    private static String sequenceEntry(long lsn) {
+        return lsn == Lsn.NO_LSN ? null : Long.toString(lsn);
+    }
+
     @Override
     protected String database() {
         return dbName;
@@ -195,8 +205,8 @@ public final class SourceInfo extends BaseSourceInfo {
         final StringBuilder sb = new StringBuilder("source_info[");
         sb.append("server='").append(serverName()).append('\'');
         sb.append("db='").append(dbName).append('\'');
-        if (lsn != null) {
-            sb.append(", lsn=").append(lsn);
+        if (lsn != Lsn.NO_LSN) {
+            sb.append(", lsn=").append(Lsn.valueOf(lsn));
         }
         if (txId != null) {
             sb.append(", txId=").append(txId);
@@ -204,8 +214,8 @@ public final class SourceInfo extends BaseSourceInfo {
         if (xmin != null) {
             sb.append(", xmin=").append(xmin);
         }
-        if (sequence != null) {
-            sb.append(", sequence=").append(sequence);
+        if (hasSequence) {
+            sb.append(", sequence=").append(sequence());
         }
         if (timestamp != null) {
             sb.append(", timestamp=").append(timestamp);
@@ -0,0 +1,151 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits the captured tables into groups that are streamed independently, each through its own replication slot,
+ * replication connection and task, so that several slots decode in parallel on the server and in the connector.
+ * <p>
+ * Groups are either listed explicitly as {@code name:schema.table,schema.table;name:schema.table}, or derived by
+ * hashing the entries of the table include list into a fixed number of groups.
+ */
+public final class TableGroups {
+
+    /**
+     * The maximum length of replication slot and publication names.
+     */
+    public static final int MAX_NAME_LENGTH = 63;
+
+    private static final String GROUP_SEPARATOR = ";";
+    private static final String NAME_SEPARATOR = ":";
+    private static final String ENTRY_SEPARATOR = ",";
+
+    private TableGroups() {
+    }
+
+    /**
+     * @param explicitGroups the explicit groups, may be null or empty
+     * @param groupCount the number of hash-based groups, used if no explicit groups are given
+     * @param tableIncludeList the table include list split by hash, may be null or empty
+     * @return the table include list per group name in a stable order; empty if the tables are not grouped
+     */
+    public static Map<String, String> split(String explicitGroups, int groupCount, String tableIncludeList) {
+        final Map<String, List<String>> groups = new LinkedHashMap<>();
+        if (!isBlank(explicitGroups)) {
+            for (String group : explicitGroups.split(GROUP_SEPARATOR)) {
+                if (isBlank(group)) {
+                    continue;
+                }
+                final int separator = group.indexOf(NAME_SEPARATOR);
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Table group '" + group.trim() + "' must be given as name:schema.table[,schema.table...]");
+                }
+                final String name = group.substring(0, separator).trim();
+                final List<String> entries = entries(group.substring(separator + 1));
+                if (groups.containsKey(name)) {
+                    throw new IllegalArgumentException("Table group '" + name + "' is defined more than once");
+                }
+                if (!entries.isEmpty()) {
+                    groups.put(name, entries);
+                }
+            }
+        }
+        else if (groupCount > 1) {
+            final List<String> entries = entries(tableIncludeList);
+            if (entries.isEmpty()) {
+                throw new IllegalArgumentException("Hash-based table groups require an explicit table include list");
+            }
+            final List<List<String>> buckets = new ArrayList<>();
+            for (int i = 0; i < groupCount; i++) {
+                buckets.add(new ArrayList<>());
+            }
+            for (String entry : entries) {
+                // String.hashCode() is specified, so every run assigns a table to the same group and slot
+                buckets.get(Math.floorMod(entry.hashCode(), groupCount)).add(entry);
+            }
+            for (int i = 0; i < groupCount; i++) {
+                if (!buckets.get(i).isEmpty()) {
+                    groups.put("g" + i, buckets.get(i));
+                }
+            }
+        }
+        if (groups.size() < 2) {
+            return Collections.emptyMap();
+        }
+        // groups streaming through the same slot and publication would consume each other's changes
+        final Map<String, String> groupsBySuffix = new HashMap<>();
+        for (String name : groups.keySet()) {
+            final String previous = groupsBySuffix.put(suffix(name), name);
+            if (previous != null) {
+                throw new IllegalArgumentException("Table groups '" + previous + "' and '" + name + "' map to the same slot and publication name suffix '"
+                        + suffix(name) + "'");
+            }
+        }
+        final Map<String, String> result = new LinkedHashMap<>();
+        groups.forEach((name, entries) -> result.put(name, String.join(ENTRY_SEPARATOR, entries)));
+        return result;
+    }
+
+    /**
+     * @return the replication slot name used by the given group; slot names may only contain lower case letters,
+     *         digits and underscores
+     */
+    public static String slotName(String slotName, String group) {
+        return slotName + "_" + suffix(group);
+    }
+
+    /**
+     * @return the name under which the task streaming the given group registers its metrics; all groups share the
+     *         logical server name, so it is suffixed with the group to keep the metrics of each group apart
+     */
+    public static String metricsName(String logicalName, String group) {
+        return group == null ? logicalName : logicalName + "." + group;
+    }
+
+    /**
+     * @param name the configured slot or publication name
+     * @param groups the group names
+     * @throws IllegalArgumentException if the name derived for one of the groups exceeds {@link #MAX_NAME_LENGTH}
+     */
+    public static void checkNameLength(String name, Collection<String> groups) {
+        for (String group : groups) {
+            final String derived = slotName(name, group);
+            if (derived.length() > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("Name '" + derived + "' derived for table group '" + group + "' is longer than "
+                        + MAX_NAME_LENGTH + " characters");
+            }
+        }
+    }
+
+    private static String suffix(String group) {
+        return group.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+    }
+
+    private static List<String> entries(String list) {
+        final List<String> entries = new ArrayList<>();
+        if (list != null) {
+            for (String entry : list.split(ENTRY_SEPARATOR)) {
+                if (!entry.trim().isEmpty()) {
+                    entries.add(entry.trim());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -11,6 +11,7 @@ import com.kingbase8.jdbc.KbDatabaseMetaData;
 import io.debezium.DebeziumException;
 import io.debezium.annotation.Immutable;
 import io.debezium.connector.kingbasees.connection.PostgresConnection;
+import io.debezium.jdbc.JdbcConfiguration;
 import io.debezium.util.Collect;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.slf4j.Logger;
@@ -18,6 +19,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * A registry of types supported by a PostgreSQL instance. Allows lookup of the types according to
@@ -64,6 +66,19 @@ public class TypeRegistry {
 
     private static final String SQL_OID_LOOKUP = SQL_TYPES + " AND t.oid = ?";
 
+    /**
+     * How long an OID that does not exist in the catalog is answered with {@link PostgresType#UNKNOWN} before it is
+     * looked up again.
+     */
+    private static final long MISSING_TYPE_RETRY_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long TYPE_LOOKUP_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Marks the lookup thread, which resolves nested types such as element or base types itself instead of queueing
+     * behind its own task.
+     */
+    private static final ThreadLocal<Boolean> LOOKUP_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
     private static final Map<String, String> LONG_TYPE_NAMES = Collections.unmodifiableMap(getLongTypeNames());
 
     private static Map<String, String> getLongTypeNames() {
@@ -97,40 +112,91 @@ public class TypeRegistry {
         return longTypeNames;
     }
 
-    private final Map<String, PostgresType> nameToType = new HashMap<>();
-    private final Map<Integer, PostgresType> oidToType = new HashMap<>();
+    private final Map<String, PostgresType> nameToType = new ConcurrentHashMap<>();
+
+    /**
+     * Read without locking on the per datum path; filled in place while priming and replaced by an updated copy
+     * afterwards, see {@link #addType(PostgresType)}.
+     */
+    private volatile OidTypeMap oidToType = new OidTypeMap();
+    private volatile boolean primed;
+
+    private final ConcurrentMap<Integer, CompletableFuture<PostgresType>> pendingOidLookups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Long> missingOidRetryTimes = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor oidLookupExecutor;
 
     private final Connection connection;
+    private final JdbcConfiguration config;
+
+    /**
+     * The connection of the lookup thread, so background lookups never run queries on the connection of the caller;
+     * opened on the first lookup and closed when the idle lookup thread ends.
+     */
+    private PostgresConnection lookupConnection;
+
     private final TypeInfo typeInfo;
-    private final SqlTypeMapper sqlTypeMapper;
+    private final SchemaCache schemaCache;
+    private SqlTypeMapper sqlTypeMapper;
 
-    private int geometryOid = Integer.MIN_VALUE;
-    private int geographyOid = Integer.MIN_VALUE;
-    private int citextOid = Integer.MIN_VALUE;
-    private int hstoreOid = Integer.MIN_VALUE;
-    private int ltreeOid = Integer.MIN_VALUE;
+    private volatile int geometryOid = Integer.MIN_VALUE;
+    private volatile int geographyOid = Integer.MIN_VALUE;
+    private volatile int citextOid = Integer.MIN_VALUE;
+    private volatile int hstoreOid = Integer.MIN_VALUE;
+    private volatile int ltreeOid = Integer.MIN_VALUE;
 
-    private int hstoreArrayOid = Integer.MIN_VALUE;
-    private int geometryArrayOid = Integer.MIN_VALUE;
-    private int geographyArrayOid = Integer.MIN_VALUE;
-    private int citextArrayOid = Integer.MIN_VALUE;
-    private int ltreeArrayOid = Integer.MIN_VALUE;
+    private volatile int hstoreArrayOid = Integer.MIN_VALUE;
+    private volatile int geometryArrayOid = Integer.MIN_VALUE;
+    private volatile int geographyArrayOid = Integer.MIN_VALUE;
+    private volatile int citextArrayOid = Integer.MIN_VALUE;
+    private volatile int ltreeArrayOid = Integer.MIN_VALUE;
 
     public TypeRegistry(PostgresConnection connection) {
+        this(connection, null);
+    }
+
+    /**
+     * @param schemaCache the cache to prime the registry from if it is still valid, may be null
+     */
+    public TypeRegistry(PostgresConnection connection, SchemaCache schemaCache) {
+        this.schemaCache = schemaCache;
         try {
             this.connection = connection.connection();
+            this.config = connection.config();
             typeInfo = ((BaseConnection) this.connection).getTypeInfo();
-            sqlTypeMapper = new SqlTypeMapper(this.connection, typeInfo);
 
             prime();
+            primed = true;
         }
         catch (SQLException e) {
             throw new DebeziumException("Couldn't initialize type registry", e);
         }
+
+        // a single idle-timed thread, so registries of closed connections do not keep threads alive
+        oidLookupExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(() -> {
+                LOOKUP_THREAD.set(Boolean.TRUE);
+                try {
+                    runnable.run();
+                }
+                finally {
+                    closeLookupConnection();
+                }
+            }, "kingbase-type-lookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        oidLookupExecutor.allowCoreThreadTimeOut(true);
     }
 
-    private void addType(PostgresType type) {
-        oidToType.put(type.getOid(), type);
+    private synchronized void addType(PostgresType type) {
+        if (primed) {
+            final OidTypeMap updated = oidToType.copy();
+            updated.put(type);
+            oidToType = updated;
+        }
+        else {
+            oidToType.put(type);
+        }
         nameToType.put(type.getName(), type);
 
         if (TYPE_NAME_GEOMETRY.equals(type.getName())) {
@@ -166,20 +232,132 @@ public class TypeRegistry {
     }
 
     /**
+     * Safe to call from multiple threads. An OID that is not cached yet is looked up once by a background thread
+     * with its own connection, concurrent callers of the same OID wait for that lookup; an OID missing from the
+     * catalog is answered with {@link PostgresType#UNKNOWN} without further queries for a while.
      *
      * @param oid - PostgreSQL OID
      * @return type associated with the given OID
+     * @throws ConnectException if the lookup fails or does not finish in time, as a value converted with an
+     *                          unknown type would be corrupt
      */
     public PostgresType get(int oid) {
         PostgresType r = oidToType.get(oid);
         if (r == null) {
-            r = resolveUnknownType(oid);
+            r = resolveMissingType(oid);
+        }
+        return r;
+    }
+
+    /**
+     * Starts looking up an OID that is not cached yet without waiting for the result, so that threads which must not
+     * use the database connection themselves can still get the type resolved ahead of {@link #get(int)}.
+     *
+     * @param oid - PostgreSQL OID
+     */
+    public void resolveInBackground(int oid) {
+        if (oidToType.get(oid) == null && !isKnownMissing(oid)) {
+            lookupInBackground(oid);
+        }
+    }
+
+    /**
+     * Unlike {@link #get(int)} this never queries the database for unknown types.
+     *
+     * @param oid - PostgreSQL OID
+     * @return {@code true} if the type with the given OID is already known to the registry
+     */
+    public boolean isKnown(int oid) {
+        return oidToType.get(oid) != null;
+    }
+
+    private PostgresType resolveMissingType(int oid) {
+        if (!primed) {
+            final PostgresType r = resolveUnknownType(oid, connection);
             if (r == null) {
                 LOGGER.warn("Unknown OID {} requested", oid);
-                r = PostgresType.UNKNOWN;
+                return PostgresType.UNKNOWN;
             }
+            return r;
+        }
+        if (LOOKUP_THREAD.get()) {
+            final PostgresType r = resolveUnknownType(oid, lookupConnection());
+            if (r == null) {
+                LOGGER.warn("Unknown OID {} requested", oid);
+                return PostgresType.UNKNOWN;
+            }
+            return r;
+        }
+        if (isKnownMissing(oid)) {
+            return PostgresType.UNKNOWN;
+        }
+        try {
+            final PostgresType r = lookupInBackground(oid).get(TYPE_LOOKUP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return r == null ? PostgresType.UNKNOWN : r;
+        }
+        catch (TimeoutException e) {
+            throw new ConnectException("Lookup of type OID " + oid + " did not finish within " + TYPE_LOOKUP_TIMEOUT_MS + " ms");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectException("Interrupted while resolving unknown type OID " + oid, e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ConnectException("Failed to resolve unknown type OID " + oid, e.getCause());
+        }
+    }
+
+    private boolean isKnownMissing(int oid) {
+        final Long retryTime = missingOidRetryTimes.get(oid);
+        return retryTime != null && System.currentTimeMillis() < retryTime;
+    }
+
+    private CompletableFuture<PostgresType> lookupInBackground(int oid) {
+        return pendingOidLookups.computeIfAbsent(oid, key -> CompletableFuture.supplyAsync(() -> lookupMissingType(key), oidLookupExecutor));
+    }
+
+    private PostgresType lookupMissingType(int oid) {
+        try {
+            final PostgresType r = resolveUnknownType(oid, lookupConnection());
+            if (r == null) {
+                LOGGER.warn("Unknown OID {} requested", oid);
+                missingOidRetryTimes.put(oid, System.currentTimeMillis() + MISSING_TYPE_RETRY_MS);
+            }
+            else {
+                missingOidRetryTimes.remove(oid);
+            }
+            return r;
+        }
+        catch (RuntimeException e) {
+            // the connection may be broken, the next lookup opens a new one
+            closeLookupConnection();
+            throw e;
+        }
+        finally {
+            pendingOidLookups.remove(oid);
+        }
+    }
+
+    private Connection lookupConnection() {
+        try {
+            if (lookupConnection == null) {
+                lookupConnection = new PostgresConnection(config, this);
+            }
+            return lookupConnection.connection();
+        }
+        catch (SQLException e) {
+            throw new ConnectException("Couldn't open connection for resolving unknown types", e);
+        }
+    }
+
+    private void closeLookupConnection() {
+        if (lookupConnection != null) {
+            lookupConnection.close();
+            lookupConnection = null;
         }
-        return r;
     }
 
     /**
@@ -326,57 +504,90 @@ public class TypeRegistry {
     }
 
     /**
-     * Prime the {@link TypeRegistry} with all existing database types
+     * Prime the {@link TypeRegistry} with all existing database types, taken from the {@link SchemaCache} if it is
+     * still valid for the database
      */
     private void prime() throws SQLException {
-        try (final Statement statement = connection.createStatement();
-                final ResultSet rs = statement.executeQuery(SQL_TYPES)) {
-            final List<PostgresType.Builder> delayResolvedBuilders = new ArrayList<>();
-            while (rs.next()) {
-                PostgresType.Builder builder = createTypeBuilderFromResultSet(rs);
-
-                // If the type does have have a base type, we can build/add immediately.
-                if (!builder.hasParentType()) {
-                    addType(builder.build());
-                    continue;
+        List<TypeDescriptor> descriptors = schemaCache != null ? schemaCache.loadTypes(connection) : null;
+        if (descriptors == null) {
+            descriptors = new ArrayList<>();
+            try (final Statement statement = connection.createStatement();
+                    final ResultSet rs = statement.executeQuery(SQL_TYPES)) {
+                while (rs.next()) {
+                    descriptors.add(createTypeDescriptorFromResultSet(rs, connection));
                 }
-
-                // For types with base type mappings, they need to be delayed.
-                delayResolvedBuilders.add(builder);
             }
+            if (schemaCache != null) {
+                schemaCache.storeTypes(descriptors);
+            }
+        }
 
-            // Resolve delayed builders
-            for (PostgresType.Builder builder : delayResolvedBuilders) {
+        final List<PostgresType.Builder> delayResolvedBuilders = new ArrayList<>();
+        for (TypeDescriptor descriptor : descriptors) {
+            PostgresType.Builder builder = createTypeBuilder(descriptor);
+
+            // If the type does have have a base type, we can build/add immediately.
+            if (!builder.hasParentType()) {
                 addType(builder.build());
+                continue;
             }
+
+            // For types with base type mappings, they need to be delayed.
+            delayResolvedBuilders.add(builder);
+        }
+
+        // Resolve delayed builders
+        for (PostgresType.Builder builder : delayResolvedBuilders) {
+            addType(builder.build());
         }
     }
 
-    private PostgresType.Builder createTypeBuilderFromResultSet(ResultSet rs) throws SQLException {
+    /**
+     * @param db the connection the result set was read from, also used for any further catalog queries
+     */
+    private TypeDescriptor createTypeDescriptorFromResultSet(ResultSet rs, Connection db) throws SQLException {
         // Coerce long to int so large unsigned values are represented as signed
         // Same technique is used in TypeInfoCache
         final int oid = (int) rs.getLong("oid");
         final int parentTypeOid = (int) rs.getLong("parentoid");
         final int modifiers = (int) rs.getLong("modifiers");
+        final int elementTypeOid = (int) rs.getLong("element");
         String typeName = rs.getString("name");
         String category = rs.getString("category");
 
+        List<String> enumValues = null;
+        if (CATEGORY_ENUM.equals(category)) {
+            enumValues = Arrays.asList((String[]) rs.getArray("enum_values").getArray());
+        }
+        return new TypeDescriptor(oid, typeName, sqlTypeMapper(db).getSqlType(typeName, ((BaseConnection) db).getTypeInfo()), modifiers, category, elementTypeOid, parentTypeOid, enumValues);
+    }
+
+    private PostgresType.Builder createTypeBuilder(TypeDescriptor descriptor) {
         PostgresType.Builder builder = new PostgresType.Builder(
                 this,
-                typeName,
-                oid,
-                sqlTypeMapper.getSqlType(typeName),
-                modifiers,
+                descriptor.name,
+                descriptor.oid,
+                descriptor.jdbcId,
+                descriptor.modifiers,
                 typeInfo);
 
-        if (CATEGORY_ENUM.equals(category)) {
-            String[] enumValues = (String[]) rs.getArray("enum_values").getArray();
-            builder = builder.enumValues(Arrays.asList(enumValues));
+        if (CATEGORY_ENUM.equals(descriptor.category)) {
+            builder = builder.enumValues(descriptor.enumValues);
         }
-        else if (CATEGORY_ARRAY.equals(category)) {
-            builder = builder.elementType((int) rs.getLong("element"));
+        else if (CATEGORY_ARRAY.equals(descriptor.category)) {
+            builder = builder.elementType(descriptor.elementOid);
         }
-        return builder.parentType(parentTypeOid);
+        return builder.parentType(descriptor.parentOid);
+    }
+
+    /**
+     * The mapper runs a catalog query of its own, so it is only created once a type has to be read from the database.
+     */
+    private synchronized SqlTypeMapper sqlTypeMapper(Connection db) throws SQLException {
+        if (sqlTypeMapper == null) {
+            sqlTypeMapper = new SqlTypeMapper(db, typeInfo);
+        }
+        return sqlTypeMapper;
     }
 
     private PostgresType resolveUnknownType(String name) {
@@ -385,7 +596,7 @@ public class TypeRegistry {
 
             try (final PreparedStatement statement = connection.prepareStatement(SQL_NAME_LOOKUP)) {
                 statement.setString(1, name);
-                return loadType(statement);
+                return loadType(statement, connection);
             }
         }
         catch (SQLException e) {
@@ -393,13 +604,13 @@ public class TypeRegistry {
         }
     }
 
-    private PostgresType resolveUnknownType(int lookupOid) {
+    private PostgresType resolveUnknownType(int lookupOid, Connection connection) {
         try {
             LOGGER.trace("Type OID '{}' not cached, attempting to lookup from database.", lookupOid);
 
             try (final PreparedStatement statement = connection.prepareStatement(SQL_OID_LOOKUP)) {
                 statement.setInt(1, lookupOid);
-                return loadType(statement);
+                return loadType(statement, connection);
             }
         }
         catch (SQLException e) {
@@ -407,10 +618,10 @@ public class TypeRegistry {
         }
     }
 
-    private PostgresType loadType(PreparedStatement statement) throws SQLException {
+    private PostgresType loadType(PreparedStatement statement, Connection db) throws SQLException {
         try (final ResultSet rs = statement.executeQuery()) {
             while (rs.next()) {
-                PostgresType result = createTypeBuilderFromResultSet(rs).build();
+                PostgresType result = createTypeBuilder(createTypeDescriptorFromResultSet(rs, db)).build();
                 addType(result);
                 return result;
             }
@@ -418,6 +629,34 @@ public class TypeRegistry {
         return null;
     }
 
+    /**
+     * A row of the type catalog as read by {@link #SQL_TYPES}, with the SQL type already resolved; this is what the
+     * {@link SchemaCache} persists.
+     */
+    @Immutable
+    static final class TypeDescriptor {
+
+        final int oid;
+        final String name;
+        final int jdbcId;
+        final int modifiers;
+        final String category;
+        final int elementOid;
+        final int parentOid;
+        final List<String> enumValues;
+
+        TypeDescriptor(int oid, String name, int jdbcId, int modifiers, String category, int elementOid, int parentOid, List<String> enumValues) {
+            this.oid = oid;
+            this.name = name;
+            this.jdbcId = jdbcId;
+            this.modifiers = modifiers;
+            this.category = category;
+            this.elementOid = elementOid;
+            this.parentOid = parentOid;
+            this.enumValues = enumValues;
+        }
+    }
+
     /**
      * Allows to obtain the SQL type corresponding to PG types. This uses a custom statement instead of going through
      * {@link KbDatabaseMetaData#getTypeInfo()} as the latter causes N+1 SELECTs, making it very slow on installations
@@ -460,7 +699,11 @@ public class TypeRegistry {
             this.sqlTypesByPgTypeNames = Collections.unmodifiableMap(getSqlTypes(db, typeInfo));
         }
 
-        public int getSqlType(String typeName) throws SQLException {
+        /**
+         * @param fallback the type info to query for types the custom statement did not return, which should belong
+         *                 to the connection of the calling thread
+         */
+        public int getSqlType(String typeName, TypeInfo fallback) throws SQLException {
             boolean isCoreType = preloadedSqlTypes.contains(typeName);
 
             // obtain core types such as bool, int2 etc. from the driver, as it correctly maps these types to the JDBC
@@ -478,7 +721,7 @@ public class TypeRegistry {
                 }
                 catch (Exception e) {
                     LOGGER.warn("Failed to obtain SQL type information for type {} via custom statement, falling back to TypeInfo#getSQLType()", typeName, e);
-                    return typeInfo.getSQLType(typeName);
+                    return fallback.getSQLType(typeName);
                 }
             }
         }
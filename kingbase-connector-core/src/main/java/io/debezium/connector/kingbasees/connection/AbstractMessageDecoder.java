@@ -46,11 +46,11 @@ public abstract class AbstractMessageDecoder implements MessageDecoder {
             throws SQLException, InterruptedException;
 
     @Override
-    public boolean shouldMessageBeSkipped(ByteBuffer buffer, Lsn lastReceivedLsn, Lsn startLsn, WalPositionLocator walPosition) {
+    public boolean shouldMessageBeSkipped(ByteBuffer buffer, long lastReceivedLsn, Lsn startLsn, WalPositionLocator walPosition) {
         // the lsn we started from is inclusive, so we need to avoid sending back the same message twice
         // but for the first record seen ever it is possible we received the same LSN as the one obtained from replication slot
         if (walPosition.skipMessage(lastReceivedLsn)) {
-            LOGGER.info("Streaming requested from LSN {}, received LSN {} identified as already processed", startLsn, lastReceivedLsn);
+            LOGGER.info("Streaming requested from LSN {}, received LSN {} identified as already processed", startLsn, Lsn.valueOf(lastReceivedLsn));
             return true;
         }
         return false;
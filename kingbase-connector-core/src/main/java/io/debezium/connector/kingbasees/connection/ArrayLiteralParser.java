@@ -0,0 +1,288 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees.connection;
+
+import io.debezium.connector.kingbasees.PgOid;
+import io.debezium.connector.kingbasees.PostgresType;
+import io.debezium.connector.kingbasees.PostgresValueConverter;
+import io.debezium.data.SpecialValueDecimal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the text representation of arrays, e.g. {@code {1,2,NULL}} or {@code {{"a b","c\"d"},{e,f}}}, into lists
+ * of the same element values the driver's {@code KbArray} produces, but without a JDBC connection. Multi-dimensional
+ * arrays are returned as nested lists and {@code NULL} elements as {@code null}.
+ * <p>
+ * Only element types with a simple and unambiguous text form are supported, see {@link #supports(PostgresType)};
+ * integers are parsed in place without creating an intermediate string per element.
+ */
+public final class ArrayLiteralParser {
+
+    private static final Map<Integer, ElementParser> ELEMENT_PARSERS = new HashMap<>();
+
+    static {
+        ELEMENT_PARSERS.put(PgOid.INT2, (text, start, end) -> Short.valueOf((short) parseInt(text, start, end, Short.MIN_VALUE, Short.MAX_VALUE)));
+        ELEMENT_PARSERS.put(PgOid.INT4, (text, start, end) -> Integer.valueOf(parseInt(text, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE)));
+        ELEMENT_PARSERS.put(PgOid.INT8, (text, start, end) -> Long.valueOf(parseLong(text, start, end)));
+        ELEMENT_PARSERS.put(PgOid.OID, (text, start, end) -> Long.valueOf(parseLong(text, start, end)));
+        ELEMENT_PARSERS.put(PgOid.FLOAT4, (text, start, end) -> Float.valueOf(text.substring(start, end)));
+        ELEMENT_PARSERS.put(PgOid.FLOAT8, (text, start, end) -> Double.valueOf(text.substring(start, end)));
+        ELEMENT_PARSERS.put(PgOid.NUMERIC, (text, start, end) -> {
+            final String s = text.substring(start, end);
+            return PostgresValueConverter.toSpecialValue(s).orElseGet(() -> new SpecialValueDecimal(new BigDecimal(s)));
+        });
+        ELEMENT_PARSERS.put(PgOid.BOOL, ArrayLiteralParser::parseBoolean);
+        final ElementParser string = String::substring;
+        ELEMENT_PARSERS.put(PgOid.TEXT, string);
+        ELEMENT_PARSERS.put(PgOid.VARCHAR, string);
+        ELEMENT_PARSERS.put(PgOid.BPCHAR, string);
+        ELEMENT_PARSERS.put(PgOid.NAME, string);
+        ELEMENT_PARSERS.put(PgOid.CHAR, string);
+    }
+
+    /**
+     * Converts the text of a single, already unquoted element.
+     */
+    @FunctionalInterface
+    private interface ElementParser {
+        Object parse(String text, int start, int end);
+    }
+
+    private ArrayLiteralParser() {
+    }
+
+    /**
+     * @param arrayType the array type or a domain over an array type
+     * @return the element type or {@code null} if the type is not an array type
+     */
+    public static PostgresType elementTypeOf(PostgresType arrayType) {
+        return arrayType.isArrayType() ? arrayType.getElementType() : arrayType.getRootType().getElementType();
+    }
+
+    /**
+     * @return {@code true} if arrays of the given element type can be parsed without a connection
+     */
+    public static boolean supports(PostgresType elementType) {
+        return parserFor(elementType) != null;
+    }
+
+    /**
+     * @param literal the text representation of the array
+     * @param elementType the element type as resolved by the type registry, domains are parsed as their base type
+     * @return the array elements
+     * @throws IllegalArgumentException if the element type is not supported or the literal is malformed
+     */
+    public static List<Object> parse(String literal, PostgresType elementType) {
+        final ElementParser elementParser = parserFor(elementType);
+        if (elementParser == null) {
+            throw new IllegalArgumentException("Unsupported array element type " + (elementType == null ? null : elementType.getName()));
+        }
+        return new Parser(literal, elementParser).parse();
+    }
+
+    private static ElementParser parserFor(PostgresType elementType) {
+        return elementType == null ? null : ELEMENT_PARSERS.get(elementType.getRootType().getOid());
+    }
+
+    private static Object parseBoolean(String text, int start, int end) {
+        if (end - start == 1) {
+            final char c = text.charAt(start);
+            if (c == 't') {
+                return Boolean.TRUE;
+            }
+            if (c == 'f') {
+                return Boolean.FALSE;
+            }
+        }
+        return Boolean.valueOf(text.substring(start, end));
+    }
+
+    private static int parseInt(String text, int start, int end, int min, int max) {
+        final long value = parseLong(text, start, end);
+        if (value < min || value > max) {
+            throw new NumberFormatException("Value out of range: " + text.substring(start, end));
+        }
+        return (int) value;
+    }
+
+    static long parseLong(String text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        // up to 18 digits cannot overflow, longer values are left to the JDK
+        if (i == end || end - i > 18) {
+            return Long.parseLong(text.substring(start, end));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + text.substring(start, end) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Recursive descent over a single literal; not thread-safe.
+     */
+    private static final class Parser {
+
+        private final String text;
+        private final ElementParser elementParser;
+        private final StringBuilder buffer = new StringBuilder();
+        private int pos;
+
+        private Parser(String text, ElementParser elementParser) {
+            this.text = text;
+            this.elementParser = elementParser;
+        }
+
+        private List<Object> parse() {
+            skipWhitespace();
+            // optional dimension decoration such as [0:2]={1,2,3}
+            if (pos < text.length() && text.charAt(pos) == '[') {
+                final int assignment = text.indexOf('=', pos);
+                if (assignment < 0) {
+                    throw malformed();
+                }
+                pos = assignment + 1;
+                skipWhitespace();
+            }
+            final List<Object> values = parseArray();
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw malformed();
+            }
+            return values;
+        }
+
+        private List<Object> parseArray() {
+            if (next() != '{') {
+                throw malformed();
+            }
+            final List<Object> values = new ArrayList<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                final char c = peek();
+                if (c == '{') {
+                    values.add(parseArray());
+                }
+                else if (c == '"') {
+                    values.add(parseQuoted());
+                }
+                else {
+                    values.add(parseUnquoted());
+                }
+                skipWhitespace();
+                final char delimiter = next();
+                if (delimiter == '}') {
+                    return values;
+                }
+                if (delimiter != ',') {
+                    throw malformed();
+                }
+            }
+        }
+
+        private Object parseQuoted() {
+            pos++;
+            buffer.setLength(0);
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    break;
+                }
+                if (c == '\\') {
+                    c = next();
+                }
+                buffer.append(c);
+            }
+            // a quoted NULL is a string
+            final String value = buffer.toString();
+            return elementParser.parse(value, 0, value.length());
+        }
+
+        private Object parseUnquoted() {
+            final int start = pos;
+            boolean escaped = false;
+            while (pos < text.length()) {
+                final char c = text.charAt(pos);
+                if (c == ',' || c == '}') {
+                    break;
+                }
+                if (c == '\\') {
+                    escaped = true;
+                    pos++;
+                }
+                pos++;
+            }
+            if (pos >= text.length()) {
+                throw malformed();
+            }
+            int end = pos;
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            if (end == start) {
+                throw malformed();
+            }
+            if (!escaped) {
+                if (end - start == 4 && text.regionMatches(true, start, "NULL", 0, 4)) {
+                    return null;
+                }
+                return elementParser.parse(text, start, end);
+            }
+            buffer.setLength(0);
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c == '\\' && i + 1 < end) {
+                    c = text.charAt(++i);
+                }
+                buffer.append(c);
+            }
+            final String value = buffer.toString();
+            return elementParser.parse(value, 0, value.length());
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw malformed();
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            final char c = peek();
+            pos++;
+            return c;
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed array literal at position " + pos + ": " + text);
+        }
+    }
+}
@@ -25,6 +25,12 @@ public class Lsn implements Comparable<Lsn> {
      */
     public static final Lsn INVALID_LSN = new Lsn(0);
 
+    /**
+     * Stands in for a {@code null} LSN where positions are tracked as primitive {@code long} values.
+     * {@code FFFFFFFF/FFFFFFFF} is the very end of the WAL address space and never assigned by the server.
+     */
+    public static final long NO_LSN = -1L;
+
     private final long value;
 
     private Lsn(long value) {
@@ -46,6 +52,41 @@ public class Lsn implements Comparable<Lsn> {
         return new Lsn(value);
     }
 
+    /**
+     * @param value
+     *            numeric represent position in the write-ahead log stream
+     * @return not null LSN instance
+     */
+    public static Lsn valueOf(long value) {
+        if (value == 0) {
+            return INVALID_LSN;
+        }
+        return new Lsn(value);
+    }
+
+    /**
+     * @param value
+     *            primitive position as tracked on the streaming path
+     * @return the LSN instance or {@code null} if the value is {@link #NO_LSN}
+     */
+    public static Lsn fromPrimitive(long value) {
+        return value == NO_LSN ? null : valueOf(value);
+    }
+
+    /**
+     * @return the numeric value of the LSN or {@link #NO_LSN} if it is {@code null}
+     */
+    public static long toPrimitive(Lsn lsn) {
+        return lsn == null ? NO_LSN : lsn.value;
+    }
+
+    /**
+     * Unsigned comparison of two primitive LSN values, consistent with {@link #compareTo(Lsn)}.
+     */
+    public static int compare(long lsn1, long lsn2) {
+        return Long.compareUnsigned(lsn1, lsn2);
+    }
+
     /**
      * @param value
      *            PostgreSQL JDBC driver domain type representing position in the write-ahead log stream
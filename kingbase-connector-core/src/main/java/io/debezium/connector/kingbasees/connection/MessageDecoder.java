@@ -68,5 +68,5 @@ public interface MessageDecoder {
      * @param walPosition wal position from which the streaming should resume
      * @return {@code true} if the incoming message should be skipped, {@code false} otherwise
      */
-    boolean shouldMessageBeSkipped(ByteBuffer buffer, Lsn lastReceivedLsn, Lsn startLsn, WalPositionLocator walPosition);
+    boolean shouldMessageBeSkipped(ByteBuffer buffer, long lastReceivedLsn, Lsn startLsn, WalPositionLocator walPosition);
 }
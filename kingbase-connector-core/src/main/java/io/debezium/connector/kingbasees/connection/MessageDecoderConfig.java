@@ -8,6 +8,7 @@ package io.debezium.connector.kingbasees.connection;
 import io.debezium.config.Configuration;
 import io.debezium.connector.kingbasees.PostgresConnectorConfig;
 import io.debezium.connector.kingbasees.PostgresSchema;
+import io.debezium.relational.Tables.TableFilter;
 
 /**
  * Configuration parameter object for a {@link MessageDecoder}
@@ -22,15 +23,25 @@ public class MessageDecoderConfig {
     private final boolean exportedSnapshot;
     private final boolean doSnapshot;
     private final PostgresConnectorConfig.TruncateHandlingMode truncateHandlingMode;
+    private final TableFilter tableFilter;
 
     public MessageDecoderConfig(Configuration configuration, PostgresSchema schema, String publicationName, boolean exportedSnapshot, boolean doSnapshot,
                                 PostgresConnectorConfig.TruncateHandlingMode truncateHandlingMode) {
+        this(configuration, schema, publicationName, exportedSnapshot, doSnapshot, truncateHandlingMode, null);
+    }
+
+    /**
+     * @param tableFilter the captured tables, may be null if all tables are captured
+     */
+    public MessageDecoderConfig(Configuration configuration, PostgresSchema schema, String publicationName, boolean exportedSnapshot, boolean doSnapshot,
+                                PostgresConnectorConfig.TruncateHandlingMode truncateHandlingMode, TableFilter tableFilter) {
         this.configuration = configuration;
         this.schema = schema;
         this.publicationName = publicationName;
         this.exportedSnapshot = exportedSnapshot;
         this.doSnapshot = doSnapshot;
         this.truncateHandlingMode = truncateHandlingMode;
+        this.tableFilter = tableFilter;
     }
 
     public Configuration getConfiguration() {
@@ -57,4 +68,11 @@ public class MessageDecoderConfig {
         return truncateHandlingMode;
     }
 
+    /**
+     * @return the captured tables, or null if all tables are captured
+     */
+    public TableFilter getTableFilter() {
+        return tableFilter;
+    }
+
 }
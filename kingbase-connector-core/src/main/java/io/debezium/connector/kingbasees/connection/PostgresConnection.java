@@ -14,6 +14,7 @@ import io.debezium.annotation.VisibleForTesting;
 import io.debezium.config.Configuration;
 import io.debezium.connector.kingbasees.PostgresConnectorConfig;
 import io.debezium.connector.kingbasees.PostgresType;
+import io.debezium.connector.kingbasees.SchemaCache;
 import io.debezium.connector.kingbasees.TypeRegistry;
 import io.debezium.connector.kingbasees.spi.SlotState;
 import io.debezium.jdbc.JdbcConfiguration;
@@ -35,7 +36,13 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
@@ -77,6 +84,28 @@ public class PostgresConnection extends JdbcConnection {
         this.typeRegistry = provideTypeRegistry ? new TypeRegistry(this) : null;
     }
 
+    /**
+     * Creates a Postgres connection that shares an existing type registry, e.g. for background catalog reads.
+     *
+     * @param config {@link Configuration} instance, may not be null.
+     * @param typeRegistry the type registry of the connector's main connection, may not be null
+     */
+    public PostgresConnection(Configuration config, TypeRegistry typeRegistry) {
+        super(config, FACTORY, PostgresConnection::validateServerVersion, PostgresConnection::defaultSettings);
+        this.typeRegistry = Objects.requireNonNull(typeRegistry);
+    }
+
+    /**
+     * Creates a Postgres connection with a type registry that is primed from the given cache while it is valid.
+     *
+     * @param config {@link Configuration} instance, may not be null.
+     * @param schemaCache the persistent schema cache, may be null
+     */
+    public PostgresConnection(Configuration config, SchemaCache schemaCache) {
+        super(config, FACTORY, PostgresConnection::validateServerVersion, PostgresConnection::defaultSettings);
+        this.typeRegistry = new TypeRegistry(this, schemaCache);
+    }
+
     /**
      * Creates a Postgres connection using the supplied configuration.
      * The connector is the regular one without datatype resolution capabilities.
@@ -124,6 +153,79 @@ public class PostgresConnection extends JdbcConnection {
         return ServerInfo.ReplicaIdentity.parseFromDB(replIdentity.toString());
     }
 
+    /**
+     * Reads the REPLICA IDENTITY of many tables with a single query instead of one query per table.
+     *
+     * @param tableIds the identifiers of the tables
+     * @return the replica identity information per table; tables that do not exist are missing
+     * @throws SQLException if there is a problem obtaining the replica identity information
+     */
+    public Map<TableId, ServerInfo.ReplicaIdentity> readReplicaIdentityInfo(Collection<TableId> tableIds) throws SQLException {
+        final Map<TableId, ServerInfo.ReplicaIdentity> replicaIdentities = new HashMap<>();
+        queryPerTable("SELECT n.nspname, c.relname, c.relreplident FROM pg_catalog.pg_class c " +
+                "JOIN pg_catalog.pg_namespace n ON c.relnamespace = n.oid " +
+                "WHERE n.nspname IN (%s)", tableIds,
+                (tableId, rs) -> replicaIdentities.put(tableId, ServerInfo.ReplicaIdentity.parseFromDB(rs.getString(3))));
+        return replicaIdentities;
+    }
+
+    /**
+     * Reads the names of the toastable columns, i.e. those with storage strategy 'x', 'e' or 'm', of many tables with
+     * a single query.
+     *
+     * @param tableIds the identifiers of the tables
+     * @return the toastable column names per table in column order; tables without such columns are missing
+     * @throws SQLException if there is a problem reading the column storage
+     */
+    public Map<TableId, List<String>> readToastableColumns(Collection<TableId> tableIds) throws SQLException {
+        final Map<TableId, List<String>> toastableColumns = new HashMap<>();
+        queryPerTable("SELECT n.nspname, c.relname, att.attname FROM pg_catalog.pg_attribute att " +
+                "JOIN pg_catalog.pg_class c ON c.oid = att.attrelid " +
+                "JOIN pg_catalog.pg_namespace n ON c.relnamespace = n.oid " +
+                "WHERE n.nspname IN (%s) " +
+                "AND att.attnum > 0 " +
+                "AND att.attstorage IN ('x', 'e', 'm') " +
+                "AND NOT att.attisdropped " +
+                "ORDER BY att.attrelid, att.attnum", tableIds,
+                (tableId, rs) -> toastableColumns.computeIfAbsent(tableId, id -> new ArrayList<>()).add(rs.getString(3)));
+        return toastableColumns;
+    }
+
+    /**
+     * Runs a catalog query for all relations of the schemas the given tables belong to and hands the rows of the given
+     * tables to the consumer; the statement has to return the schema and relation name as first two columns and take
+     * the schema names via a {@code %s} placeholder.
+     */
+    private void queryPerTable(String statementPattern, Collection<TableId> tableIds, TableRowConsumer consumer) throws SQLException {
+        final Map<String, Map<String, TableId>> tableIdsBySchema = new HashMap<>();
+        for (TableId tableId : tableIds) {
+            final String schema = tableId.schema() != null && tableId.schema().length() > 0 ? tableId.schema() : "public";
+            tableIdsBySchema.computeIfAbsent(schema, key -> new HashMap<>()).put(tableId.table(), tableId);
+        }
+        if (tableIdsBySchema.isEmpty()) {
+            return;
+        }
+        final List<String> schemas = new ArrayList<>(tableIdsBySchema.keySet());
+        final String statement = String.format(statementPattern, String.join(", ", Collections.nCopies(schemas.size(), "?")));
+        prepareQuery(statement, stmt -> {
+            for (int i = 0; i < schemas.size(); i++) {
+                stmt.setString(i + 1, schemas.get(i));
+            }
+        }, rs -> {
+            while (rs.next()) {
+                final TableId tableId = tableIdsBySchema.get(rs.getString(1)).get(rs.getString(2));
+                if (tableId != null) {
+                    consumer.accept(tableId, rs);
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface TableRowConsumer {
+        void accept(TableId tableId, ResultSet rs) throws SQLException;
+    }
+
     /**
      * Returns the current state of the replication slot
      * @param slotName the name of the slot
@@ -21,8 +21,6 @@ import io.debezium.jdbc.JdbcConnection;
 import io.debezium.jdbc.JdbcConnectionException;
 import io.debezium.relational.RelationalTableFilters;
 import io.debezium.relational.TableId;
-import io.debezium.util.Clock;
-import io.debezium.util.Metronome;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +34,6 @@ import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -122,7 +119,13 @@ public class PostgresReplicationConnection extends JdbcConnection implements Rep
     this.messageDecoder =
         plugin.messageDecoder(
             new MessageDecoderConfig(
-                config, schema, publicationName, exportSnapshot, doSnapshot, truncateHandlingMode));
+                config,
+                schema,
+                publicationName,
+                exportSnapshot,
+                doSnapshot,
+                truncateHandlingMode,
+                tableFilter == null ? null : tableFilter.dataCollectionFilter()));
     this.typeRegistry = typeRegistry;
     this.streamParams = streamParams;
     this.slotCreationInfo = null;
@@ -466,53 +469,85 @@ public class PostgresReplicationConnection extends JdbcConnection implements Rep
       private static final int CHECK_WARNINGS_AFTER_COUNT = 100;
       private int warningCheckCounter = CHECK_WARNINGS_AFTER_COUNT;
       private ExecutorService keepAliveExecutor = null;
-      private AtomicBoolean keepAliveRunning;
-      private final Metronome metronome = Metronome.sleeper(statusUpdateInterval, Clock.SYSTEM);
+      private final ReplicationStatusFeedback statusFeedback =
+          new ReplicationStatusFeedback(stream, statusUpdateInterval);
 
-      // make sure this is volatile since multiple threads may be interested in this value
-      private volatile Lsn lastReceivedLsn;
+      // make sure this is volatile since multiple threads may be interested in this value,
+      // kept as a primitive so that no Lsn instance is created per received message
+      private volatile long lastReceivedLsn = Lsn.NO_LSN;
 
       @Override
       public void read(ReplicationMessageProcessor processor)
           throws SQLException, InterruptedException {
+        statusFeedback.checkFailure();
         processWarnings(false);
         ByteBuffer read = stream.read();
-        final Lsn lastReceiveLsn = Lsn.valueOf(stream.getLastReceiveLSN());
-        LOGGER.trace("Streaming requested from LSN {}, received LSN {}", startLsn, lastReceiveLsn);
+        final long lastReceiveLsn = stream.getLastReceiveLSN().asLong();
+        traceReceived(lastReceiveLsn);
         if (messageDecoder.shouldMessageBeSkipped(read, lastReceiveLsn, startLsn, walPosition)) {
           return;
         }
-        deserializeMessages(read, processor);
+        deserializeMessages(read, lastReceiveLsn, processor);
       }
 
       @Override
       public boolean readPending(ReplicationMessageProcessor processor)
           throws SQLException, InterruptedException {
+        statusFeedback.checkFailure();
         processWarnings(false);
         ByteBuffer read = stream.readPending();
-        final Lsn lastReceiveLsn = Lsn.valueOf(stream.getLastReceiveLSN());
-        LOGGER.trace("Streaming requested from LSN {}, received LSN {}", startLsn, lastReceiveLsn);
-
         if (read == null) {
           return false;
         }
 
+        final long lastReceiveLsn = stream.getLastReceiveLSN().asLong();
+        traceReceived(lastReceiveLsn);
         if (messageDecoder.shouldMessageBeSkipped(read, lastReceiveLsn, startLsn, walPosition)) {
           return true;
         }
 
-        deserializeMessages(read, processor);
+        deserializeMessages(read, lastReceiveLsn, processor);
 
         return true;
       }
 
-      private void deserializeMessages(ByteBuffer buffer, ReplicationMessageProcessor processor)
+      @Override
+      public ReplicationFrame readPendingFrame() throws SQLException, InterruptedException {
+        statusFeedback.checkFailure();
+        processWarnings(false);
+        ByteBuffer read = stream.readPending();
+        if (read == null) {
+          return null;
+        }
+
+        final long lastReceiveLsn = stream.getLastReceiveLSN().asLong();
+        traceReceived(lastReceiveLsn);
+        if (messageDecoder.shouldMessageBeSkipped(read, lastReceiveLsn, startLsn, walPosition)) {
+          return ReplicationFrame.SKIPPED;
+        }
+        lastReceivedLsn = lastReceiveLsn;
+        return new ReplicationFrame(read, lastReceiveLsn);
+      }
+
+      @Override
+      public void decodeFrame(ReplicationFrame frame, ReplicationMessageProcessor processor)
+          throws SQLException, InterruptedException {
+        messageDecoder.processMessage(frame.buffer(), processor, typeRegistry);
+      }
+
+      private void deserializeMessages(ByteBuffer buffer, long lastReceiveLsn, ReplicationMessageProcessor processor)
           throws SQLException, InterruptedException {
-        lastReceivedLsn = Lsn.valueOf(stream.getLastReceiveLSN());
-        LOGGER.trace("Received message at LSN {}", lastReceivedLsn);
+        lastReceivedLsn = lastReceiveLsn;
         messageDecoder.processMessage(buffer, processor, typeRegistry);
       }
 
+      private void traceReceived(long lastReceiveLsn) {
+        if (LOGGER.isTraceEnabled()) {
+          LOGGER.trace(
+              "Streaming requested from LSN {}, received LSN {}", startLsn, Lsn.valueOf(lastReceiveLsn));
+        }
+      }
+
       @Override
       public void close() throws SQLException {
         processWarnings(true);
@@ -521,18 +556,17 @@ public class PostgresReplicationConnection extends JdbcConnection implements Rep
 
       @Override
       public void flushLsn(Lsn lsn) throws SQLException {
-        doFlushLsn(lsn);
+        // sent asynchronously by the status feedback while the keep alive is running
+        statusFeedback.confirm(lsn);
       }
 
-      private void doFlushLsn(Lsn lsn) throws SQLException {
-        stream.setFlushedLSN(lsn.asLogSequenceNumber());
-        stream.setAppliedLSN(lsn.asLogSequenceNumber());
-
-        stream.forceUpdateStatus();
+      @Override
+      public Lsn lastReceivedLsn() {
+        return Lsn.fromPrimitive(lastReceivedLsn);
       }
 
       @Override
-      public Lsn lastReceivedLsn() {
+      public long lastReceivedLsnAsLong() {
         return lastReceivedLsn;
       }
 
@@ -540,28 +574,14 @@ public class PostgresReplicationConnection extends JdbcConnection implements Rep
       public void startKeepAlive(ExecutorService service) {
         if (keepAliveExecutor == null) {
           keepAliveExecutor = service;
-          keepAliveRunning = new AtomicBoolean(true);
-          keepAliveExecutor.submit(
-              () -> {
-                while (keepAliveRunning.get()) {
-                  try {
-                    LOGGER.trace("Forcing status update with replication stream");
-                    stream.forceUpdateStatus();
-
-                    metronome.pause();
-                  } catch (Exception exp) {
-                    throw new RuntimeException(
-                        "received unexpected exception will perform keep alive", exp);
-                  }
-                }
-              });
+          statusFeedback.start(keepAliveExecutor);
         }
       }
 
       @Override
       public void stopKeepAlive() {
         if (keepAliveExecutor != null) {
-          keepAliveRunning.set(false);
+          statusFeedback.stop();
           keepAliveExecutor.shutdownNow();
           keepAliveExecutor = null;
         }
@@ -0,0 +1,211 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees.connection;
+
+import io.debezium.util.DelayStrategy;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits the consumption of a {@link ReplicationStream} into three stages:
+ * <ol>
+ * <li>a reader thread pulling raw frames with their LSN off the stream into a bounded buffer,</li>
+ * <li>a pool of decoder threads parsing the frames and resolving column values in parallel,</li>
+ * <li>the caller of {@link #next(long, TimeUnit)}, which receives the decoded frames strictly in the order they were read.</li>
+ * </ol>
+ * The buffer bounds the number of frames read ahead of the consumer, so a slow consumer applies back-pressure to the reader.
+ */
+public class ReplicationDecodingPipeline implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationDecodingPipeline.class);
+
+    // same throttling as the single threaded streaming loop
+    private static final int THROTTLE_NO_MESSAGE_BEFORE_PAUSE = 5;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000L;
+
+    private final ReplicationStream stream;
+    private final boolean includeUnknownDatatypes;
+    private final DelayStrategy pauseNoMessage;
+    private final BlockingQueue<DecodedFrame> ordered;
+    private final ExecutorService decoders;
+    private final Thread reader;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile Throwable readerFailure;
+    private DecodedFrame head;
+
+    public ReplicationDecodingPipeline(ReplicationStream stream, int decoderThreads, int bufferSize, DelayStrategy pauseNoMessage,
+                                       boolean includeUnknownDatatypes) {
+        this.stream = stream;
+        this.includeUnknownDatatypes = includeUnknownDatatypes;
+        this.pauseNoMessage = pauseNoMessage;
+        this.ordered = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+
+        final AtomicInteger decoderIndex = new AtomicInteger();
+        this.decoders = Executors.newFixedThreadPool(Math.max(1, decoderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "kingbase-wal-decoder-" + decoderIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reader = new Thread(this::readLoop, "kingbase-wal-reader");
+        this.reader.setDaemon(true);
+    }
+
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            reader.start();
+        }
+    }
+
+    /**
+     * Returns the next decoded frame in LSN order.
+     *
+     * @return the frame or {@code null} if no frame has been decoded within the timeout
+     * @throws SQLException if reading or decoding of the frame failed
+     */
+    public DecodedFrame next(long timeout, TimeUnit unit) throws SQLException, InterruptedException {
+        if (head == null) {
+            head = ordered.poll(timeout, unit);
+            if (head == null) {
+                final Throwable failure = readerFailure;
+                if (failure != null) {
+                    rethrow(failure);
+                }
+                return null;
+            }
+        }
+        if (!head.done.await(timeout, unit)) {
+            return null;
+        }
+        final DecodedFrame frame = head;
+        head = null;
+        if (frame.failure != null) {
+            rethrow(frame.failure);
+        }
+        return frame;
+    }
+
+    @Override
+    public void close() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        reader.interrupt();
+        try {
+            reader.join(SHUTDOWN_TIMEOUT_MS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        decoders.shutdownNow();
+        ordered.clear();
+        head = null;
+    }
+
+    private void readLoop() {
+        int noMessageIterations = 0;
+        try {
+            while (running.get()) {
+                final ReplicationFrame frame = stream.readPendingFrame();
+                if (frame == null) {
+                    noMessageIterations++;
+                    if (noMessageIterations >= THROTTLE_NO_MESSAGE_BEFORE_PAUSE) {
+                        noMessageIterations = 0;
+                        pauseNoMessage.sleepWhen(true);
+                    }
+                    continue;
+                }
+                noMessageIterations = 0;
+                pauseNoMessage.sleepWhen(false);
+                if (frame == ReplicationFrame.SKIPPED) {
+                    continue;
+                }
+                final DecodedFrame decoded = new DecodedFrame(frame.lsn());
+                // enqueue before decoding so that the consumer sees frames in the order they were read
+                ordered.put(decoded);
+                decoders.execute(() -> decode(frame, decoded));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (Throwable e) {
+            if (running.get()) {
+                LOGGER.error("Reading from the replication stream failed", e);
+                readerFailure = e;
+            }
+        }
+    }
+
+    private void decode(ReplicationFrame frame, DecodedFrame decoded) {
+        try {
+            stream.decodeFrame(frame, message -> {
+                if (message != null) {
+                    message.resolveEagerly(includeUnknownDatatypes);
+                }
+                decoded.messages.add(message);
+            });
+            decoded.complete(null);
+        }
+        catch (Throwable e) {
+            decoded.complete(e);
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws SQLException, InterruptedException {
+        if (failure instanceof SQLException) {
+            throw (SQLException) failure;
+        }
+        if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        throw new ConnectException(failure);
+    }
+
+    /**
+     * The messages decoded from a single frame.
+     */
+    public static final class DecodedFrame {
+
+        private final long lsn;
+        private final List<ReplicationMessage> messages = new ArrayList<>(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Throwable failure;
+
+        private DecodedFrame(long lsn) {
+            this.lsn = lsn;
+        }
+
+        private void complete(Throwable failure) {
+            this.failure = failure;
+            done.countDown();
+        }
+
+        public long lsn() {
+            return lsn;
+        }
+
+        public List<ReplicationMessage> messages() {
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees.connection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A raw, not yet decoded message received over the replication connection together with the LSN it was received at.
+ *
+ * @see ReplicationStream#readPendingFrame()
+ */
+public final class ReplicationFrame {
+
+    /**
+     * Marker for a frame that was received but filtered out as already processed.
+     */
+    public static final ReplicationFrame SKIPPED = new ReplicationFrame(null, Lsn.NO_LSN);
+
+    private final ByteBuffer buffer;
+    private final long lsn;
+
+    public ReplicationFrame(ByteBuffer buffer, long lsn) {
+        this.buffer = buffer;
+        this.lsn = lsn;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the LSN the frame was received at as a primitive value, see {@link Lsn#fromPrimitive(long)}
+     */
+    public long lsn() {
+        return lsn;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplicationFrame [lsn=" + Lsn.fromPrimitive(lsn) + ", size=" + (buffer == null ? 0 : buffer.remaining()) + "]";
+    }
+}
@@ -184,6 +184,16 @@ public interface ReplicationMessage {
         return getOperation() == Operation.BEGIN || getOperation() == Operation.COMMIT;
     }
 
+    /**
+     * Materializes the columns and resolves the values that do not need a database connection ahead of dispatching,
+     * so that this work can be moved off the streaming thread. Messages may ignore this, values are then resolved
+     * lazily as usual.
+     *
+     * @param includeUnknownDatatypes the same flag that will be passed to {@link Column#getValue}
+     */
+    default void resolveEagerly(boolean includeUnknownDatatypes) {
+    }
+
     public class TransactionMessage implements ReplicationMessage {
 
         private final long transationId;
@@ -15,6 +15,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
  * @author Chris Cranford
@@ -24,6 +27,17 @@ public class ReplicationMessageColumnValueResolver {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationMessageColumnValueResolver.class);
     private static final boolean DEBUG_DATUM = isDebugDatumEnabled();
 
+    /**
+     * Resolves values of a column of one particular type; compiled once per type by
+     * {@link #resolverFor(ResolverCache, PostgresType, String, ColumnValue)} so that the type name does not need to be
+     * normalized and matched for every value.
+     */
+    @FunctionalInterface
+    public interface ValueResolver {
+        Object resolve(ColumnValue<?> value, String columnName, String fullType, PgConnectionSupplier connection, boolean includeUnknownDatatypes,
+                       TypeRegistry typeRegistry);
+    }
+
     /**
      * Resolve the value of a {@link ColumnValue}.
      *
@@ -38,6 +52,16 @@ public class ReplicationMessageColumnValueResolver {
      */
     public static Object resolveValue(String columnName, PostgresType type, String fullType, ColumnValue value, final PgConnectionSupplier connection,
                                       boolean includeUnknownDatatypes, TypeRegistry typeRegistry) {
+        return resolveValue(null, columnName, type, fullType, value, connection, includeUnknownDatatypes, typeRegistry);
+    }
+
+    /**
+     * Resolve the value of a {@link ColumnValue} with the resolver compiled for its type.
+     *
+     * @param cache the resolvers compiled so far, may be null to compile the resolver for this value only
+     */
+    public static Object resolveValue(ResolverCache cache, String columnName, PostgresType type, String fullType, ColumnValue value,
+                                      final PgConnectionSupplier connection, boolean includeUnknownDatatypes, TypeRegistry typeRegistry) {
         if (value.isNull()) {
             // nulls are null
             return null;
@@ -49,31 +73,54 @@ public class ReplicationMessageColumnValueResolver {
             LOGGER.info(msg);
         }
 
-        if (!type.isRootType()) {
-            return resolveValue(columnName, type.getParentType(), fullType, value, connection, includeUnknownDatatypes, typeRegistry);
-        }
+        return resolverFor(cache, type, fullType, value).resolve(value, columnName, fullType, connection, includeUnknownDatatypes, typeRegistry);
+    }
 
-        if (value.isArray(type)) {
-            return value.asArray(columnName, type, fullType, connection);
+    /**
+     * Returns the resolver cached for the type, compiling it on first use. Domain types resolve as their root type.
+     * Whether the type is handled as an array is decided by the first value, as column values of one decoder
+     * implementation decide it by the type alone.
+     */
+    static ValueResolver resolverFor(ResolverCache cache, PostgresType type, String fullType, ColumnValue<?> value) {
+        final ValueResolver cached = cache == null ? null : cache.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        final PostgresType rootType = type.getRootType();
+        final String typeName = normalizeTypeName(rootType.getName());
+        if (typeName.isEmpty() || "unknown".equals(typeName)) {
+            final String key = fullType == null ? "" : fullType;
+            if (cache == null) {
+                return compile(rootType, normalizeTypeName(key), value);
+            }
+            return cache.forFullType(key, k -> compile(rootType, normalizeTypeName(k), value));
+        }
+        final ValueResolver resolver = compile(rootType, typeName, value);
+        if (cache != null) {
+            cache.put(type, resolver);
         }
+        return resolver;
+    }
 
-        if (type.isEnumType()) {
-            return value.asString();
+    private static ValueResolver compile(PostgresType rootType, String effectiveTypeName, ColumnValue<?> sample) {
+        if (sample.isArray(rootType)) {
+            return (value, columnName, fullType, connection, includeUnknownDatatypes, typeRegistry) -> value.asArray(columnName, rootType, fullType,
+                    connection);
         }
 
-        final String typeName = normalizeTypeName(type.getName());
-        final String fullTypeName = normalizeTypeName(fullType);
-        final String effectiveTypeName = getEffectiveTypeName(typeName, fullTypeName);
+        if (rootType.isEnumType()) {
+            return simple(ColumnValue::asString);
+        }
 
         switch (effectiveTypeName) {
             // include all types from https://www.postgresql.org/docs/current/static/datatype.html#DATATYPE-TABLE
             // plus aliases from the shorter names produced by older wal2json
             case "boolean":
             case "bool":
-                return value.asBoolean();
+                return simple(ColumnValue::asBoolean);
 
             case "hstore":
-                return value.asString();
+                return simple(ColumnValue::asString);
 
             case "integer":
             case "int":
@@ -90,30 +137,30 @@ public class ReplicationMessageColumnValueResolver {
             case "tinyint":
             case "mediumint":
             case "middleint":
-                return value.asInteger();
+                return simple(ColumnValue::asInteger);
 
             case "bigint":
             case "bigserial":
             case "int8":
             case "oid":
-                return value.asLong();
+                return simple(ColumnValue::asLong);
 
             case "real":
             case "float4":
             case "float":
             case "binary_float":
-                return value.asFloat();
+                return simple(ColumnValue::asFloat);
 
             case "double precision":
             case "float8":
             case "binary_double":
-                return value.asDouble();
+                return simple(ColumnValue::asDouble);
 
             case "numeric":
             case "decimal":
             case "dec":
             case "number":
-                return value.asDecimal();
+                return simple(ColumnValue::asDecimal);
 
             case "character":
             case "char":
@@ -128,34 +175,34 @@ public class ReplicationMessageColumnValueResolver {
             case "tinytext":
             case "mediumtext":
             case "longtext":
-            return value.asString();
+                return simple(ColumnValue::asString);
 
             case "date":
-                return value.asLocalDate();
+                return simple(ColumnValue::asLocalDate);
 
             case "timestamp with time zone":
             case "timestamptz":
             case "datetimetz":
             case "timestampltz":
             case "timestamp with local time zone":
-                return value.asOffsetDateTimeAtUtc();
+                return simple(ColumnValue::asOffsetDateTimeAtUtc);
 
             case "timestamp":
             case "timestamp without time zone":
             case "datetime":
             case "datetime2":
             case "smalldatetime":
-                return value.asInstant();
+                return simple(ColumnValue::asInstant);
 
             case "time":
-                return value.asTime();
+                return simple(ColumnValue::asTime);
 
             case "time without time zone":
-                return value.asLocalTime();
+                return simple(ColumnValue::asLocalTime);
 
             case "time with time zone":
             case "timetz":
-                return value.asOffsetTimeUtc();
+                return simple(ColumnValue::asOffsetTimeUtc);
 
             case "bytea":
             case "blob":
@@ -164,36 +211,38 @@ public class ReplicationMessageColumnValueResolver {
             case "tinyblob":
             case "mediumblob":
             case "longblob":
-                return value.asByteArray();
+                return simple(ColumnValue::asByteArray);
 
             // these are all PG-specific types and we use the JDBC representations
             // note that, with the exception of point, no converters for these types are implemented yet,
             // i.e. those values won't actually be propagated to the outbound message until that's the case
             case "box":
-                return value.asBox();
+                return simple(ColumnValue::asBox);
             case "circle":
-                return value.asCircle();
+                return simple(ColumnValue::asCircle);
             case "interval":
-                return value.asInterval();
+                return simple(ColumnValue::asInterval);
             case "line":
-                return value.asLine();
+                return simple(ColumnValue::asLine);
             case "lseg":
-                return value.asLseg();
+                return simple(ColumnValue::asLseg);
             case "money":
-                final Object v = value.asMoney();
-                return (v instanceof KBmoney) ? ((KBmoney) v).value : v;
+                return simple(value -> {
+                    final Object v = value.asMoney();
+                    return (v instanceof KBmoney) ? ((KBmoney) v).value : v;
+                });
             case "path":
-                return value.asPath();
+                return simple(ColumnValue::asPath);
             case "point":
-                return value.asPoint();
+                return simple(ColumnValue::asPoint);
             case "polygon":
-                return value.asPolygon();
+                return simple(ColumnValue::asPolygon);
 
             // PostGIS types are HexEWKB strings
             // ValueConverter turns them into the correct types
             case "geometry":
             case "geography":
-                return value.asString();
+                return simple(ColumnValue::asString);
 
             case "citext":
             case "bit":
@@ -213,7 +262,7 @@ public class ReplicationMessageColumnValueResolver {
             case "int4range":
             case "numrange":
             case "int8range":
-                return value.asString();
+                return simple(ColumnValue::asString);
 
             // catch-all for other known/builtin PG types
             // TODO: improve with more specific/useful classes here?
@@ -226,14 +275,12 @@ public class ReplicationMessageColumnValueResolver {
                 break;
         }
 
-        return value.asDefault(typeRegistry, type.getOid(), columnName, fullType, includeUnknownDatatypes, connection);
+        return (value, columnName, fullType, connection, includeUnknownDatatypes, typeRegistry) -> value.asDefault(typeRegistry, rootType.getOid(),
+                columnName, fullType, includeUnknownDatatypes, connection);
     }
 
-    private static String getEffectiveTypeName(String typeName, String fullTypeName) {
-        if (typeName == null || typeName.isEmpty() || "unknown".equals(typeName)) {
-            return fullTypeName;
-        }
-        return typeName;
+    private static ValueResolver simple(Function<ColumnValue<?>, Object> resolver) {
+        return (value, columnName, fullType, connection, includeUnknownDatatypes, typeRegistry) -> resolver.apply(value);
     }
 
     private static String normalizeTypeName(String value) {
@@ -295,4 +342,58 @@ public class ReplicationMessageColumnValueResolver {
                 return "not_set";
         }
     }
+
+    /**
+     * The resolvers compiled for the types of one decoder. Resolvers are looked up by the type, which equals by OID,
+     * and only reused for the same type instance, so types replaced by the {@link TypeRegistry} get a new resolver;
+     * resolvers of types without a usable name are looked up by the full type name of the column. Both are bounded,
+     * once full further resolvers are compiled per value.
+     */
+    public static final class ResolverCache {
+
+        static final int MAX_ENTRIES = 1024;
+
+        private final ConcurrentMap<PostgresType, TypeResolver> byType = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, ValueResolver> byFullType = new ConcurrentHashMap<>();
+
+        /**
+         * @return the resolver compiled for this very type instance, or null
+         */
+        ValueResolver get(PostgresType type) {
+            final TypeResolver cached = byType.get(type);
+            return cached != null && cached.type == type ? cached.resolver : null;
+        }
+
+        void put(PostgresType type, ValueResolver resolver) {
+            if (byType.size() < MAX_ENTRIES || byType.containsKey(type)) {
+                byType.put(type, new TypeResolver(type, resolver));
+            }
+        }
+
+        ValueResolver forFullType(String fullType, Function<String, ValueResolver> compiler) {
+            final ValueResolver cached = byFullType.get(fullType);
+            if (cached != null) {
+                return cached;
+            }
+            if (byFullType.size() >= MAX_ENTRIES) {
+                return compiler.apply(fullType);
+            }
+            return byFullType.computeIfAbsent(fullType, compiler);
+        }
+
+        int size() {
+            return byType.size() + byFullType.size();
+        }
+    }
+
+    private static final class TypeResolver {
+
+        private final PostgresType type;
+        private final ValueResolver resolver;
+
+        private TypeResolver(PostgresType type, ValueResolver resolver) {
+            this.type = type;
+            this.resolver = resolver;
+        }
+    }
 }
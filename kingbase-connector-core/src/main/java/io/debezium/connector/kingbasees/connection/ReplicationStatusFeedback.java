@@ -0,0 +1,164 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees.connection;
+
+import com.kingbase8.replication.KBReplicationStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single source of standby status updates for a replication stream. Confirmed LSNs are only recorded by
+ * {@link #confirm(Lsn)}; a background sender applies the latest of them to the stream and sends a status update,
+ * at most once per {@link #MIN_FEEDBACK_INTERVAL_MS} so that a burst of offset commits results in a single update.
+ * Without confirmations the sender still sends an update every status interval to keep the slot alive.
+ * <p>
+ * Status updates the server explicitly asks for are answered by the driver while reading, with the positions
+ * last applied by the sender.
+ * <p>
+ * A failed status update is retried every status interval and reported to the streaming thread via
+ * {@link #checkFailure()} right away, so the stream is restarted before the server times out the walsender.
+ */
+final class ReplicationStatusFeedback {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationStatusFeedback.class);
+
+    private static final long MIN_FEEDBACK_INTERVAL_MS = 1_000L;
+    private static final long DEFAULT_KEEP_ALIVE_INTERVAL_MS = 10_000L;
+
+    private final KBReplicationStream stream;
+    private final long keepAliveIntervalMs;
+    private final long minFeedbackIntervalMs;
+    private final AtomicLong confirmedLsn = new AtomicLong(Lsn.NO_LSN);
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final Object signal = new Object();
+
+    private volatile boolean running;
+    private volatile SQLException failure;
+    private Future<?> sender;
+    private long appliedLsn = Lsn.NO_LSN;
+
+    ReplicationStatusFeedback(KBReplicationStream stream, Duration statusUpdateInterval) {
+        this.stream = stream;
+        this.keepAliveIntervalMs = statusUpdateInterval == null || statusUpdateInterval.isZero() || statusUpdateInterval.isNegative()
+                ? DEFAULT_KEEP_ALIVE_INTERVAL_MS
+                : statusUpdateInterval.toMillis();
+        this.minFeedbackIntervalMs = Math.min(MIN_FEEDBACK_INTERVAL_MS, keepAliveIntervalMs);
+    }
+
+    synchronized void start(ExecutorService executor) {
+        if (running) {
+            return;
+        }
+        running = true;
+        sender = executor.submit(this::sendLoop);
+    }
+
+    /**
+     * Stops the sender and sends the last confirmed LSN, if it has not been sent yet.
+     */
+    synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        sender.cancel(true);
+        sender = null;
+        if (confirmedLsn.get() == appliedLsn || stream.isClosed()) {
+            return;
+        }
+        try {
+            send();
+        }
+        catch (SQLException e) {
+            LOGGER.warn("Sending the last confirmed LSN {} to the replication stream failed", Lsn.valueOf(confirmedLsn.get()), e);
+        }
+    }
+
+    /**
+     * @throws SQLException if the last status update has failed
+     */
+    void checkFailure() throws SQLException {
+        final SQLException error = failure;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Records the LSN up to which changes have been processed. Does not perform any I/O while the sender is running,
+     * otherwise the position is sent right away.
+     *
+     * @throws SQLException if sending a previous status update has failed
+     */
+    void confirm(Lsn lsn) throws SQLException {
+        checkFailure();
+        confirmedLsn.set(lsn.asLong());
+        if (!running) {
+            send();
+            return;
+        }
+        pending.set(true);
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void sendLoop() {
+        try {
+            while (running) {
+                synchronized (signal) {
+                    if (!pending.get()) {
+                        signal.wait(keepAliveIntervalMs);
+                    }
+                }
+                pending.set(false);
+                try {
+                    send();
+                    failure = null;
+                }
+                catch (SQLException e) {
+                    if (!running) {
+                        return;
+                    }
+                    if (failure == null) {
+                        LOGGER.warn("Sending status update to the replication stream failed, retrying every {} ms", keepAliveIntervalMs, e);
+                    }
+                    failure = e;
+                    pending.set(true);
+                    Thread.sleep(keepAliveIntervalMs);
+                    continue;
+                }
+                // confirmations arriving in the meantime are coalesced into the next update
+                Thread.sleep(minFeedbackIntervalMs);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void send() throws SQLException {
+        final long lsn = confirmedLsn.get();
+        if (lsn != Lsn.NO_LSN && lsn != appliedLsn) {
+            final Lsn confirmed = Lsn.valueOf(lsn);
+            LOGGER.debug("Confirming LSN {} to the server", confirmed);
+            stream.setFlushedLSN(confirmed.asLogSequenceNumber());
+            stream.setAppliedLSN(confirmed.asLogSequenceNumber());
+            appliedLsn = lsn;
+        }
+        else {
+            LOGGER.trace("Forcing status update with replication stream");
+        }
+        stream.forceUpdateStatus();
+    }
+}
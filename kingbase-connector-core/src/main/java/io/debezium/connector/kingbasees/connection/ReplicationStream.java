@@ -50,6 +50,27 @@ public interface ReplicationStream extends AutoCloseable {
      */
     boolean readPending(ReplicationMessageProcessor processor) throws SQLException, InterruptedException;
 
+    /**
+     * Attempts to read a replication message without decoding it, so that decoding can be performed on another thread
+     * via {@link #decodeFrame(ReplicationFrame, ReplicationMessageProcessor)}. Messages identified as already processed
+     * are reported as {@link ReplicationFrame#SKIPPED}.
+     *
+     * @return the raw frame, {@link ReplicationFrame#SKIPPED} or {@code null} if nothing is available
+     * @throws SQLException if anything unexpected fails
+     * @see KBReplicationStream#readPending()
+     */
+    ReplicationFrame readPendingFrame() throws SQLException, InterruptedException;
+
+    /**
+     * Decodes a frame obtained from {@link #readPendingFrame()}. Unlike the reading methods, this may be called
+     * concurrently from multiple threads and does not update the {@link #lastReceivedLsn() last received LSN}.
+     *
+     * @param frame the frame to decode, never {@code null}
+     * @param processor - a callback to which the decoded messages are passed
+     * @throws SQLException if anything unexpected fails
+     */
+    void decodeFrame(ReplicationFrame frame, ReplicationMessageProcessor processor) throws SQLException, InterruptedException;
+
     /**
      * Sends a message to the server informing it about that latest position in the WAL that has successfully been
      * processed. Due to the internal buffering the messages sent to Kafka (and thus committed offsets) will usually
@@ -60,6 +81,8 @@ public interface ReplicationStream extends AutoCloseable {
      * and so the server is free to discard older segments with earlier LSNs. It also affects the catch-up behavior once a slot
      * is restarted and the server attempt to bring it up-to-date.
      * </p>
+     * While the {@link #startKeepAlive(ExecutorService) keep alive} is running, the position is only recorded and sent by
+     * its background thread, coalescing frequent calls into a single status update.
      *
      * @throws SQLException if anything goes wrong
      */
@@ -74,6 +97,13 @@ public interface ReplicationStream extends AutoCloseable {
      */
     Lsn lastReceivedLsn();
 
+    /**
+     * Primitive variant of {@link #lastReceivedLsn()} for the streaming loop, which queries the position for every message.
+     *
+     * @return the latest server received LSN or {@link Lsn#NO_LSN} if this is called before anything has been read
+     */
+    long lastReceivedLsnAsLong();
+
     /**
      * Returns the value for the LSN form which the streaming is executed.
      *
@@ -83,7 +113,8 @@ public interface ReplicationStream extends AutoCloseable {
 
     /**
      * Starts a background thread to ensure the slot is kept alive, useful for when temporarily
-     * stopping reads from the stream such as querying metadata, etc
+     * stopping reads from the stream such as querying metadata, etc. The same thread sends the
+     * positions passed to {@link #flushLsn(Lsn)}.
      */
     void startKeepAlive(ExecutorService service);
 
@@ -121,21 +121,24 @@ public class WalPositionLocator {
 
     /**
      * Decides whether the message with given LSN should be removed or not based on
-     * previously located LSN point.
+     * previously located LSN point. Called for every received message, so the LSN
+     * is passed as a primitive value.
      *
      * @param lsn
      * @return true if the message should be skipped, false otherwise
      */
-    public boolean skipMessage(Lsn lsn) {
+    public boolean skipMessage(long lsn) {
         if (passMessages) {
             return false;
         }
-        if (startStreamingLsn == null || startStreamingLsn.equals(lsn)) {
-            LOGGER.info("Message with LSN '{}' arrived, switching off the filtering", lsn);
+        if (startStreamingLsn == null || startStreamingLsn.asLong() == lsn) {
+            LOGGER.info("Message with LSN '{}' arrived, switching off the filtering", Lsn.valueOf(lsn));
             passMessages = true;
             return false;
         }
-        LOGGER.debug("Message with LSN '{}' filtered", lsn);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Message with LSN '{}' filtered", Lsn.valueOf(lsn));
+        }
         return true;
     }
 
@@ -0,0 +1,140 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.connector.kingbasees.connection.pgproto;
+
+import io.debezium.connector.kingbasees.PostgresSchema;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Applies the column include/exclude lists while decoding decoderbufs messages, so that values of excluded
+ * columns are never resolved or converted. Columns are still surfaced to the emitter (with a {@code null} value)
+ * to keep the column count in line with the table schema, otherwise each message would trigger a schema refresh.
+ */
+final class PgProtoColumnProjection {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PgProtoColumnProjection.class);
+    private static final long REPORT_INTERVAL_MS = 60_000L;
+
+    private final Function<TableId, Table> tableLookup;
+    private final BiPredicate<Table, String> columnExcluded;
+    private final ConcurrentMap<String, TableProjection> tables = new ConcurrentHashMap<>();
+    private volatile long lastReportAt = System.currentTimeMillis();
+
+    PgProtoColumnProjection(PostgresSchema schema) {
+        this(schema == null ? null : schema::tableFor, schema == null ? null : schema::isColumnExcluded);
+    }
+
+    /**
+     * @param tableLookup the current definition of a table, returning {@code null} for unknown tables
+     * @param columnExcluded whether a column of a table is dropped by the column filter
+     */
+    PgProtoColumnProjection(Function<TableId, Table> tableLookup, BiPredicate<Table, String> columnExcluded) {
+        this.tableLookup = tableLookup;
+        this.columnExcluded = columnExcluded;
+    }
+
+    /**
+     * @param table the table name as delivered by the plugin
+     * @return the projection of the table or {@code null} if every column is to be resolved
+     */
+    TableProjection forTable(String table) {
+        if (tableLookup == null || table == null || table.isEmpty()) {
+            return null;
+        }
+        TableProjection projection = tables.get(table);
+        if (projection == null) {
+            final TableId tableId = PostgresSchema.parse(table);
+            if (tableId == null) {
+                return null;
+            }
+            projection = tables.computeIfAbsent(table, t -> new TableProjection(tableLookup, columnExcluded, tableId));
+        }
+        return projection.refresh() ? projection : null;
+    }
+
+    /**
+     * Periodically logs skipped values and bytes per table; cheap enough to be called per message.
+     */
+    void reportIfDue() {
+        final long now = System.currentTimeMillis();
+        if (now - lastReportAt < REPORT_INTERVAL_MS) {
+            return;
+        }
+        lastReportAt = now;
+        for (TableProjection projection : tables.values()) {
+            final long values = projection.skippedValues();
+            if (values > 0) {
+                LOGGER.info("[列裁剪] 表={}，累计跳过列值={}，累计跳过字节={}", projection.tableId, values, projection.skippedBytes());
+            }
+        }
+    }
+
+    static final class TableProjection {
+
+        private final Function<TableId, Table> tableLookup;
+        private final BiPredicate<Table, String> columnExcluded;
+        private final TableId tableId;
+        private final LongAdder skippedValues = new LongAdder();
+        private final LongAdder skippedBytes = new LongAdder();
+
+        private Table table;
+        private Map<String, Boolean> excluded = new HashMap<>();
+
+        private TableProjection(Function<TableId, Table> tableLookup, BiPredicate<Table, String> columnExcluded, TableId tableId) {
+            this.tableLookup = tableLookup;
+            this.columnExcluded = columnExcluded;
+            this.tableId = tableId;
+        }
+
+        /**
+         * Tables are immutable in the schema, so the per-column decisions are kept until the table is replaced
+         * by a schema refresh.
+         *
+         * @return {@code true} if the table is known to the schema and the projection can be applied
+         */
+        private synchronized boolean refresh() {
+            final Table current = tableLookup.apply(tableId);
+            if (current != table) {
+                table = current;
+                excluded = new HashMap<>();
+            }
+            return table != null;
+        }
+
+        synchronized boolean isExcluded(String columnName) {
+            Boolean result = excluded.get(columnName);
+            if (result == null) {
+                result = columnExcluded.test(table, columnName);
+                excluded.put(columnName, result);
+            }
+            return result;
+        }
+
+        void recordSkipped(int bytes) {
+            skippedValues.increment();
+            skippedBytes.add(bytes);
+        }
+
+        long skippedValues() {
+            return skippedValues.sum();
+        }
+
+        long skippedBytes() {
+            return skippedBytes.sum();
+        }
+    }
+}
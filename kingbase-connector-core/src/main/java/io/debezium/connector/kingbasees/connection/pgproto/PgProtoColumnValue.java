@@ -14,6 +14,7 @@ import io.debezium.connector.kingbasees.PostgresType;
 import io.debezium.connector.kingbasees.PostgresValueConverter;
 import io.debezium.connector.kingbasees.TypeRegistry;
 import io.debezium.connector.kingbasees.connection.AbstractColumnValue;
+import io.debezium.connector.kingbasees.connection.ArrayLiteralParser;
 import io.debezium.connector.kingbasees.proto.PgProto;
 import io.debezium.data.SpecialValueDecimal;
 import io.debezium.time.Conversions;
@@ -27,6 +28,8 @@ import java.sql.SQLException;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Replication message column sent by <a href="https://github.com/debezium/postgres-decoderbufs">Postgres Decoderbufs</>
@@ -49,6 +52,11 @@ public class PgProtoColumnValue extends AbstractColumnValue<PgProto.DatumMessage
      */
     private static final long TIMESTAMP_MAX = 9223371331200000000L;
 
+    /**
+     * Array types whose literals the native parser failed on, so the fallback is only logged once per type.
+     */
+    private static final Set<String> UNPARSEABLE_ARRAY_TYPES = ConcurrentHashMap.newKeySet();
+
     private PgProto.DatumMessage value;
 
     public PgProtoColumnValue(PgProto.DatumMessage value) {
@@ -307,20 +315,31 @@ public class PgProtoColumnValue extends AbstractColumnValue<PgProto.DatumMessage
     @Override
     public Object asArray(String columnName, PostgresType type, String fullType, PgConnectionSupplier connection) {
         // Currently the logical decoding plugin sends unhandled types as a byte array containing the string
-        // representation (in Postgres) of the array value.
-        // The approach to decode this is sub-optimal but the only way to improve this is to update the plugin.
-        // Reasons for it being sub-optimal include:
-        // 1. It requires a Postgres JDBC connection to deserialize
-        // 2. The byte-array is a serialised string but we make the assumption its UTF-8 encoded (which it will
-        // be in most cases)
-        // 3. For larger arrays and especially 64-bit integers and the like it is less efficient sending string
-        // representations over the wire.
-        try {
-            byte[] data = asByteArray();
-            if (data == null) {
-                return null;
+        // representation (in Postgres) of the array value. Arrays of the common element types are parsed natively,
+        // everything else is left to the driver, which is sub-optimal as it requires a JDBC connection.
+        // In both cases the byte-array is a serialised string and we make the assumption its UTF-8 encoded
+        // (which it will be in most cases).
+        final String dataString = asString();
+        if (dataString == null) {
+            return null;
+        }
+        final PostgresType elementType = ArrayLiteralParser.elementTypeOf(type);
+        if (ArrayLiteralParser.supports(elementType)) {
+            try {
+                return ArrayLiteralParser.parse(dataString, elementType);
+            }
+            catch (IllegalArgumentException e) {
+                if (UNPARSEABLE_ARRAY_TYPES.add(fullType)) {
+                    LOGGER.warn("[Proto解析] 数组字面量解析失败，该类型回退为 KbArray：column={}，type={}，原因={}", value.getColumnName(), fullType, e.getMessage());
+                }
+                LOGGER.debug("[Proto解析] 数组字面量解析失败：column={}，type={}", value.getColumnName(), fullType, e);
+                if (connection == null) {
+                    // decoded off the streaming thread, the column is resolved through the connection on access
+                    throw e;
+                }
             }
-            String dataString = new String(data, Charset.forName("UTF-8"));
+        }
+        try {
             KbArray arrayData = new KbArray(connection.get(), (int) value.getColumnType(), dataString);
             Object deserializedArray = arrayData.getArray();
             return Arrays.asList((Object[]) deserializedArray);
@@ -7,14 +7,18 @@ package io.debezium.connector.kingbasees.connection.pgproto;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.kingbase8.replication.fluent.logical.ChainedLogicalStreamBuilder;
+import io.debezium.connector.kingbasees.PostgresSchema;
 import io.debezium.connector.kingbasees.TypeRegistry;
 import io.debezium.connector.kingbasees.connection.AbstractMessageDecoder;
 import io.debezium.connector.kingbasees.connection.MessageDecoderConfig;
+import io.debezium.connector.kingbasees.connection.ReplicationMessageColumnValueResolver;
 import io.debezium.connector.kingbasees.connection.ReplicationStream.ReplicationMessageProcessor;
 import io.debezium.connector.kingbasees.proto.PgProto;
 import io.debezium.connector.kingbasees.proto.PgProto.Op;
 import io.debezium.connector.kingbasees.proto.PgProto.RowMessage;
 import io.debezium.connector.kingbasees.proto.PgProtoOfficial;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables.TableFilter;
 import io.debezium.util.Collect;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.slf4j.Logger;
@@ -26,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * ProtoBuf deserialization of message sent by <a href="https://github.com/debezium/postgres-decoderbufs">Postgres Decoderbufs</a>.
@@ -42,10 +48,16 @@ public class PgProtoMessageDecoder extends AbstractMessageDecoder {
     private static final boolean DEBUG_PROTO_PARSE = isDebugProtoParseEnabled();
     private static final boolean STRICT_PROTO_PARSE = isStrictProtoParseEnabled();
 
+    private final PgProtoColumnProjection columnProjection;
+    private final TableFilter tableFilter;
+    private final ConcurrentMap<String, Boolean> capturedTables = new ConcurrentHashMap<>();
+    private final ReplicationMessageColumnValueResolver.ResolverCache valueResolvers = new ReplicationMessageColumnValueResolver.ResolverCache();
     private boolean warnedOnUnknownOp = false;
 
     public PgProtoMessageDecoder(MessageDecoderConfig config) {
         super(config);
+        this.columnProjection = new PgProtoColumnProjection(config.getSchema());
+        this.tableFilter = config.getTableFilter();
     }
 
     @Override
@@ -96,7 +108,9 @@ public class PgProtoMessageDecoder extends AbstractMessageDecoder {
                 }
                 return;
             }
-            processor.process(new PgProtoReplicationMessage(message, typeRegistry));
+            processor.process(new PgProtoReplicationMessage(message, typeRegistry, columnProjection,
+                    isCaptured(PgProtoReplicationMessage.tableName(message)), valueResolvers));
+            columnProjection.reportIfDue();
         }
         catch (InvalidProtocolBufferException e) {
             if (STRICT_PROTO_PARSE) {
@@ -112,6 +126,23 @@ public class PgProtoMessageDecoder extends AbstractMessageDecoder {
         }
     }
 
+    /**
+     * decoderbufs has no server-side table filter, so a slot decodes the changes of all tables; changes of tables
+     * that are not captured are still passed on for the position tracking, but their columns are never decoded.
+     */
+    private boolean isCaptured(String table) {
+        if (tableFilter == null || table == null || table.isEmpty()) {
+            return true;
+        }
+        Boolean captured = capturedTables.get(table);
+        if (captured == null) {
+            final TableId tableId = PostgresSchema.parse(table);
+            captured = tableId == null || tableFilter.isIncluded(tableId);
+            capturedTables.put(table, captured);
+        }
+        return captured;
+    }
+
     @Override
     public ChainedLogicalStreamBuilder optionsWithMetadata(ChainedLogicalStreamBuilder builder) {
         return builder;
@@ -11,6 +11,7 @@ import io.debezium.connector.kingbasees.PostgresType;
 import io.debezium.connector.kingbasees.TypeRegistry;
 import io.debezium.connector.kingbasees.UnchangedToastedReplicationMessageColumn;
 import io.debezium.connector.kingbasees.connection.AbstractReplicationMessageColumn;
+import io.debezium.connector.kingbasees.connection.ArrayLiteralParser;
 import io.debezium.connector.kingbasees.connection.ReplicationMessage;
 import io.debezium.connector.kingbasees.connection.ReplicationMessageColumnValueResolver;
 import io.debezium.connector.kingbasees.proto.PgProto;
@@ -35,10 +36,29 @@ class PgProtoReplicationMessage implements ReplicationMessage {
 
     private final PgProto.RowMessage rawMessage;
     private final TypeRegistry typeRegistry;
+    private final PgProtoColumnProjection columnProjection;
+    private final boolean captured;
+    private final ReplicationMessageColumnValueResolver.ResolverCache valueResolvers;
+
+    private List<ReplicationMessage.Column> oldTupleList;
+    private List<ReplicationMessage.Column> newTupleList;
 
     public PgProtoReplicationMessage(PgProto.RowMessage rawMessage, TypeRegistry typeRegistry) {
+        this(rawMessage, typeRegistry, null, true, null);
+    }
+
+    /**
+     * @param captured whether the table of the message is captured; messages of other tables are dropped by the
+     *            dispatcher, so their columns are not decoded ahead of time
+     * @param valueResolvers the value resolvers of the decoder, may be null
+     */
+    PgProtoReplicationMessage(PgProto.RowMessage rawMessage, TypeRegistry typeRegistry, PgProtoColumnProjection columnProjection, boolean captured,
+                              ReplicationMessageColumnValueResolver.ResolverCache valueResolvers) {
         this.rawMessage = rawMessage;
         this.typeRegistry = typeRegistry;
+        this.columnProjection = columnProjection;
+        this.captured = captured;
+        this.valueResolvers = valueResolvers;
     }
 
     @Override
@@ -72,6 +92,10 @@ class PgProtoReplicationMessage implements ReplicationMessage {
 
     @Override
     public String getTable() {
+        return tableName(rawMessage);
+    }
+
+    static String tableName(PgProto.RowMessage rawMessage) {
         if (rawMessage.hasSchema() && rawMessage.getSchema() != null && !rawMessage.getSchema().isEmpty()) {
             return rawMessage.getSchema() + "." + rawMessage.getTable();
         }
@@ -80,12 +104,51 @@ class PgProtoReplicationMessage implements ReplicationMessage {
 
     @Override
     public List<ReplicationMessage.Column> getOldTupleList() {
-        return transform(rawMessage.getOldTupleList(), null);
+        if (oldTupleList == null) {
+            oldTupleList = transform(rawMessage.getOldTupleList(), null);
+        }
+        return oldTupleList;
     }
 
     @Override
     public List<ReplicationMessage.Column> getNewTupleList() {
-        return transform(rawMessage.getNewTupleList(), rawMessage.getNewTypeinfoList());
+        if (newTupleList == null) {
+            newTupleList = transform(rawMessage.getNewTupleList(), rawMessage.getNewTypeinfoList());
+        }
+        return newTupleList;
+    }
+
+    @Override
+    public void resolveEagerly(boolean includeUnknownDatatypes) {
+        if (typeRegistry == null || !captured || isTransactionalMessage()) {
+            return;
+        }
+        // unknown types are looked up in the background and the message is left to the streaming thread, which waits for the lookup
+        if (!allTypesKnown(rawMessage.getOldTupleList()) || !allTypesKnown(rawMessage.getNewTupleList())) {
+            return;
+        }
+        resolveEagerly(getOldTupleList(), includeUnknownDatatypes);
+        resolveEagerly(getNewTupleList(), includeUnknownDatatypes);
+    }
+
+    private boolean allTypesKnown(List<PgProto.DatumMessage> datums) {
+        for (int i = 0; i < datums.size(); i++) {
+            final int oid = (int) datums.get(i).getColumnType();
+            if (!typeRegistry.isKnown(oid)) {
+                typeRegistry.resolveInBackground(oid);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void resolveEagerly(List<ReplicationMessage.Column> columns, boolean includeUnknownDatatypes) {
+        for (int i = 0; i < columns.size(); i++) {
+            final ReplicationMessage.Column column = columns.get(i);
+            if (column instanceof ProtoColumn) {
+                ((ProtoColumn) column).resolveWithoutConnection(includeUnknownDatatypes);
+            }
+        }
     }
 
     @Override
@@ -94,6 +157,7 @@ class PgProtoReplicationMessage implements ReplicationMessage {
     }
 
     private List<ReplicationMessage.Column> transform(List<PgProto.DatumMessage> messageList, List<PgProto.TypeInfo> typeInfoList) {
+        final PgProtoColumnProjection.TableProjection projection = columnProjection == null ? null : columnProjection.forTable(getTable());
         return IntStream.range(0, messageList.size())
                 .mapToObj(index -> {
                     final PgProto.DatumMessage datum = messageList.get(index);
@@ -106,19 +170,9 @@ class PgProtoReplicationMessage implements ReplicationMessage {
                     }
 
                     final String fullType = typeInfo.map(PgProto.TypeInfo::getModifier).orElse(null);
-                    return new AbstractReplicationMessageColumn(columnName, type, fullType,
-                            typeInfo.map(PgProto.TypeInfo::getValueOptional).orElse(Boolean.FALSE), hasTypeMetadata()) {
-
-                        @Override
-                        public Object getValue(PgConnectionSupplier connection, boolean includeUnknownDatatypes) {
-                            return PgProtoReplicationMessage.this.getValue(columnName, type, fullType, datum, connection, includeUnknownDatatypes);
-                        }
-
-                        @Override
-                        public String toString() {
-                            return datum.toString();
-                        }
-                    };
+                    final boolean excluded = projection != null && projection.isExcluded(columnName);
+                    return new ProtoColumn(columnName, type, fullType, typeInfo.map(PgProto.TypeInfo::getValueOptional).orElse(Boolean.FALSE),
+                            datum, excluded ? projection : null);
                 })
                 .collect(Collectors.toList());
     }
@@ -128,9 +182,73 @@ class PgProtoReplicationMessage implements ReplicationMessage {
         return true;
     }
 
+    /**
+     * A column whose value is resolved at most once, either by the decoding pipeline or on first access.
+     */
+    private final class ProtoColumn extends AbstractReplicationMessageColumn {
+
+        private final String fullType;
+        private final PgProto.DatumMessage datum;
+        private final PgProtoColumnProjection.TableProjection excludedBy;
+
+        private boolean resolved;
+        private boolean resolvedWithUnknownDatatypes;
+        private Object value;
+
+        ProtoColumn(String columnName, PostgresType type, String fullType, boolean optional, PgProto.DatumMessage datum,
+                    PgProtoColumnProjection.TableProjection excludedBy) {
+            super(columnName, type, fullType, optional, hasTypeMetadata());
+            this.fullType = fullType;
+            this.datum = datum;
+            this.excludedBy = excludedBy;
+        }
+
+        @Override
+        public Object getValue(PgConnectionSupplier connection, boolean includeUnknownDatatypes) {
+            if (excludedBy != null) {
+                // dropped by the column filter anyway, don't pay for decoding and conversion
+                excludedBy.recordSkipped(datum.getSerializedSize());
+                return null;
+            }
+            if (resolved && resolvedWithUnknownDatatypes == includeUnknownDatatypes) {
+                return value;
+            }
+            value = PgProtoReplicationMessage.this.getValue(getName(), getType(), fullType, datum, connection, includeUnknownDatatypes);
+            resolvedWithUnknownDatatypes = includeUnknownDatatypes;
+            resolved = true;
+            return value;
+        }
+
+        /**
+         * Arrays the native parser cannot handle are parsed through the JDBC connection and are left to be resolved on access,
+         * as are array literals the native parser rejects.
+         */
+        void resolveWithoutConnection(boolean includeUnknownDatatypes) {
+            if (excludedBy != null || resolved) {
+                return;
+            }
+            final PostgresType type = getType();
+            if ((type.isArrayType() || type.getRootType().isArrayType()) && !ArrayLiteralParser.supports(ArrayLiteralParser.elementTypeOf(type))) {
+                return;
+            }
+            try {
+                getValue(null, includeUnknownDatatypes);
+            }
+            catch (IllegalArgumentException e) {
+                // left unresolved, the streaming thread falls back to the driver with its connection
+            }
+        }
+
+        @Override
+        public String toString() {
+            return datum.toString();
+        }
+    }
+
     public Object getValue(String columnName, PostgresType type, String fullType, PgProto.DatumMessage datumMessage, final PgConnectionSupplier connection,
                            boolean includeUnknownDatatypes) {
         final PgProtoColumnValue columnValue = new PgProtoColumnValue(datumMessage);
-        return ReplicationMessageColumnValueResolver.resolveValue(columnName, type, fullType, columnValue, connection, includeUnknownDatatypes, typeRegistry);
+        return ReplicationMessageColumnValueResolver.resolveValue(valueResolvers, columnName, type, fullType, columnValue, connection, includeUnknownDatatypes,
+                typeRegistry);
     }
 }
@@ -0,0 +1,415 @@
+package io.debezium.connector.kingbasees.sink;
+
+import com.kingbase8.KBConnection;
+import com.kingbase8.copy.CopyOut;
+import io.debezium.connector.kingbasees.TableGroups;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 批量全量导入：不经过 Debezium 事件管道，源端 COPY 导出直接转为 Stream Load 写入 Doris。
+ * <p>
+ * 每个表分组先以复制协议创建复制槽并导出快照，各表在独立连接上导入该快照，
+ * 因此导入的数据与复制槽的起始位点一致，随后引擎以 never 快照模式从复制槽接续增量。
+ * 导入中断时快照标记仍在，下次启动重建复制槽并整体重新导入（Doris 按主键覆盖写入）。
+ * <p>
+ * catalog 模式下改由 Doris 经 JDBC Catalog 按主键区间并发执行 INSERT INTO ... SELECT 拉取，本进程只负责编排。
+ * Doris 的读取不在导出快照内，读到的是复制槽创建之后某一时刻的数据，从复制槽起始位点回放的增量按主键覆盖后与源端一致；
+ * 需要类型转换或配置了行过滤条件的表仍走 COPY 导出。
+ */
+final class BulkLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoader.class);
+
+    private static final int MAX_LABEL_LENGTH = 128;
+    /**
+     * 单表拉取语句数上限为并发数的倍数，既能均衡各语句耗时，又不会因主键稀疏产生海量语句
+     */
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final SyncConfig config;
+    private final SourceAdmin sourceAdmin;
+    private final DorisAdmin dorisAdmin;
+    private final DorisStreamLoader streamLoader;
+    private final SnapshotMarker snapshotMarker;
+    private final SnapshotMetrics snapshotMetrics;
+    private final PartitionHierarchy partitions;
+    private final Map<SourceTableId, SnapshotOverride> snapshotOverrides;
+    private final long runId = System.currentTimeMillis();
+    private final String catalog;
+
+    BulkLoader(SyncConfig config, SourceAdmin sourceAdmin, DorisAdmin dorisAdmin, SnapshotMetrics snapshotMetrics) {
+        this.config = config;
+        this.sourceAdmin = sourceAdmin;
+        this.dorisAdmin = dorisAdmin;
+        this.streamLoader = new DorisStreamLoader(config);
+        this.snapshotMarker = new SnapshotMarker(Paths.get(config.workDir));
+        this.snapshotMetrics = snapshotMetrics;
+        this.partitions = sourceAdmin.partitions();
+        this.snapshotOverrides = partitions.expandKeys(config.kbSnapshotOverrides);
+        this.catalog = config.isCatalogBulkLoad() ? "sync_src_" + runId : null;
+    }
+
+    /**
+     * 已开启批量导入、快照模式为 initial，且尚无增量位点或上次全量未完成时执行。
+     */
+    static boolean shouldRun(SyncConfig config) {
+        if (!config.bulkLoadEnabled || !"initial".equalsIgnoreCase(config.kbSnapshotMode)) {
+            return false;
+        }
+        if (config.tableIncludeList.isEmpty() && config.schemaIncludeList.isEmpty()) {
+            LOGGER.warn("[批量导入] 未配置源表或 schema 范围，改由 Debezium 执行全量快照");
+            return false;
+        }
+        if (SnapshotMarker.isPresent(Paths.get(config.workDir))) {
+            return true;
+        }
+        for (Path offsetFile : offsetFiles(config)) {
+            if (Files.exists(offsetFile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void run() throws Exception {
+        if (catalog != null) {
+            dorisAdmin.createSourceCatalog(catalog);
+        }
+        try {
+            Map<String, String> groups = config.tableGroups();
+            if (groups.isEmpty()) {
+                load(null, config.kbSlotName, sourceAdmin.listIncludedTables());
+                return;
+            }
+            for (Map.Entry<String, String> group : groups.entrySet()) {
+                load(group.getKey(), TableGroups.slotName(config.kbSlotName, group.getKey()),
+                        SinkSupport.parseTableList(group.getValue()));
+            }
+        }
+        finally {
+            if (catalog != null) {
+                dorisAdmin.dropCatalog(catalog);
+            }
+        }
+    }
+
+    private void load(String group, String slotName, List<SourceTableId> tables) throws Exception {
+        long start = System.currentTimeMillis();
+        // 目标表在主连接上串行准备，导入线程只使用各自的连接；分区表按叶子分区并行导入到根表的目标表
+        List<SourceTableMeta> metas = new ArrayList<SourceTableMeta>();
+        Set<SourceTableId> prepared = new HashSet<SourceTableId>();
+        for (SourceTableId table : partitions.expand(tables)) {
+            SourceTableId root = partitions.rootOf(table);
+            if (prepared.add(root)) {
+                dorisAdmin.ensureTargetTable(config.route(root), sourceAdmin.loadTableMeta(root));
+            }
+            metas.add(sourceAdmin.loadTableMeta(table));
+        }
+
+        // catalog 模式按估算行数切分主键区间
+        Map<SourceTableId, Long> estimatedRows = catalog == null
+                ? Collections.<SourceTableId, Long>emptyMap() : sourceAdmin.estimateRowCounts(partitions.expand(tables));
+
+        // 重新导入时旧位点已失效，由新复制槽的起始位点接续增量
+        Files.deleteIfExists(Paths.get(config.offsetFile + (group == null ? "" : "." + group)));
+        sourceAdmin.dropSlotIfExists(slotName);
+        long rows = 0;
+        try (Connection replication = openReplicationConnection()) {
+            // 导出的快照仅在创建它的连接保持空闲期间有效
+            String snapshot = createSlot(replication, slotName);
+            snapshotMarker.started(group);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.bulkLoadThreads));
+            try {
+                List<Future<Long>> futures = new ArrayList<Future<Long>>();
+                for (SourceTableMeta meta : metas) {
+                    if (catalog != null && canPullViaCatalog(meta)) {
+                        // 主键区间在主连接上串行计算，各区间语句由 Doris 并发拉取
+                        for (String sql : catalogStatements(meta, estimatedRows.getOrDefault(meta.getId(), 0L))) {
+                            futures.add(executor.submit(() -> executeOnDoris(meta.getId(), sql)));
+                        }
+                    }
+                    else {
+                        futures.add(executor.submit(() -> loadTable(snapshot, meta)));
+                    }
+                }
+                for (Future<Long> future : futures) {
+                    rows += future.get();
+                }
+            }
+            catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+            finally {
+                executor.shutdownNow();
+            }
+        }
+        snapshotMarker.completed(group);
+        snapshotMetrics.completed(group);
+        LOGGER.info("[批量导入] 复制槽 {} 对应的 {} 张表导入完成，共 {} 行，耗时 {} ms",
+                slotName, metas.size(), rows, System.currentTimeMillis() - start);
+    }
+
+    private String createSlot(Connection replication, String slotName) throws SQLException {
+        try (Statement stmt = replication.createStatement()) {
+            stmt.execute("CREATE_REPLICATION_SLOT " + slotName + " LOGICAL " + config.kbPlugin);
+            try (ResultSet rs = stmt.getResultSet()) {
+                if (rs == null || !rs.next()) {
+                    throw new SQLException("创建复制槽未返回快照信息：" + slotName);
+                }
+                LOGGER.info("[批量导入] 已创建复制槽：{}，起始位点={}，导出快照={}",
+                        slotName, rs.getString("consistent_point"), rs.getString("snapshot_name"));
+                return rs.getString("snapshot_name");
+            }
+        }
+    }
+
+    private long loadTable(String snapshot, SourceTableMeta meta) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        TargetTable target = config.route(partitions.rootOf(meta.getId()));
+        SnapshotOverride override = snapshotOverrides.get(meta.getId());
+        List<String> columnNames = new ArrayList<String>();
+        StringJoiner select = new StringJoiner(", ");
+        for (SourceColumn column : selectedColumns(meta)) {
+            columnNames.add(column.getName());
+            select.add(columnExpression(column));
+        }
+        String sql = "COPY (SELECT " + select + " FROM " + meta.getId().toQuotedName()
+                + (override == null || override.getWhere() == null ? "" : " WHERE (" + override.getWhere() + ")") + ") TO STDOUT";
+        CopyRowJsonEncoder encoder = new CopyRowJsonEncoder(columnNames);
+
+        try (Connection connection = DriverManager.getConnection(config.sourceJdbcUrl(), config.kbUser, config.kbPassword)) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+                stmt.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+                stmt.execute("SET datestyle = 'ISO'");
+            }
+            CopyOut copyOut = connection.unwrap(KBConnection.class).getCopyAPI().copyOut(sql);
+            DorisStreamLoader.StreamLoad streamLoad = null;
+            long rows = 0;
+            int batch = 0;
+            long batchBytes = 0;
+            long batchStartNanos = 0;
+            try {
+                byte[] row;
+                while ((row = copyOut.readFromCopy()) != null) {
+                    if (streamLoad == null) {
+                        streamLoad = streamLoader.begin(target, label(meta.getId(), batch++));
+                        batchStartNanos = System.nanoTime();
+                    }
+                    batchBytes += encoder.encode(row, streamLoad.output());
+                    if (batchBytes >= config.bulkLoadBatchBytes) {
+                        rows += finish(meta.getId(), streamLoad, batchBytes, batchStartNanos);
+                        streamLoad = null;
+                        batchBytes = 0;
+                    }
+                }
+                if (streamLoad != null) {
+                    rows += finish(meta.getId(), streamLoad, batchBytes, batchStartNanos);
+                    streamLoad = null;
+                }
+            }
+            finally {
+                if (streamLoad != null) {
+                    streamLoad.abort();
+                }
+                if (copyOut.isActive()) {
+                    copyOut.cancelCopy();
+                }
+            }
+            connection.commit();
+            LOGGER.info("[批量导入] 表 {} -> {} 导入完成：{} 行，{} 次 Stream Load，耗时 {} ms",
+                    meta.getId(), target, rows, batch, System.currentTimeMillis() - start);
+            return rows;
+        }
+    }
+
+    private long finish(SourceTableId table, DorisStreamLoader.StreamLoad streamLoad, long bytes, long startNanos) throws IOException {
+        long rows = streamLoad.finish();
+        snapshotMetrics.recordWritten(table, rows, bytes, System.nanoTime() - startNanos);
+        return rows;
+    }
+
+    /**
+     * Doris 按自身的类型映射读取源列，只有无需转换的列可直接拉取；行过滤条件为源端 SQL，不能交给 Doris 执行。
+     * 拉取不在导出快照内，复制槽创建后的变更会被拉取与增量回放各写入一次，只有主键表（UNIQUE KEY 目标表）能按主键覆盖去重。
+     */
+    private boolean canPullViaCatalog(SourceTableMeta meta) {
+        if (meta.getPrimaryKeys().isEmpty()) {
+            LOGGER.info("[批量导入] 表 {} 无主键，拉取与增量回放会产生重复行，改用 COPY 导出导入", meta.getId());
+            return false;
+        }
+        SnapshotOverride override = snapshotOverrides.get(meta.getId());
+        boolean pullable = override == null || override.getWhere() == null;
+        for (SourceColumn column : selectedColumns(meta)) {
+            String name = SinkSupport.quoteIdentifier(column.getName());
+            pullable &= name.equals(columnExpression(column)) || (name + "::int").equals(columnExpression(column));
+        }
+        if (!pullable) {
+            LOGGER.info("[批量导入] 表 {} 含需转换类型的列或行过滤条件，改用 COPY 导出导入", meta.getId());
+        }
+        return pullable;
+    }
+
+    private List<String> catalogStatements(SourceTableMeta meta, long estimatedRows) throws SQLException {
+        TargetTable target = config.route(partitions.rootOf(meta.getId()));
+        List<String> columns = new ArrayList<String>();
+        for (SourceColumn column : selectedColumns(meta)) {
+            columns.add(column.getName());
+        }
+        List<String> statements = new ArrayList<String>();
+        String keyColumn = integerKey(meta);
+        if (keyColumn == null) {
+            statements.add(DorisAdmin.catalogInsertSql(target, label(meta.getId(), 0), catalog, meta.getId(), columns, null, 0, 0));
+            return statements;
+        }
+        long[] bounds = sourceAdmin.keyBounds(meta.getId(), keyColumn);
+        if (bounds == null) {
+            LOGGER.info("[批量导入] 表 {} 为空，跳过拉取", meta.getId());
+            return statements;
+        }
+        int batch = 0;
+        int maxRanges = Math.max(1, config.bulkLoadThreads) * RANGES_PER_THREAD;
+        for (long[] range : keyRanges(bounds[0], bounds[1], estimatedRows, config.bulkLoadRangeRows, maxRanges)) {
+            statements.add(DorisAdmin.catalogInsertSql(target, label(meta.getId(), batch++), catalog, meta.getId(), columns,
+                    keyColumn, range[0], range[1]));
+        }
+        LOGGER.info("[批量导入] 表 {} 按主键 {} 区间 [{}, {}]（估算 {} 行）切分为 {} 条拉取语句",
+                meta.getId(), keyColumn, bounds[0], bounds[1], estimatedRows, batch);
+        return statements;
+    }
+
+    private long executeOnDoris(SourceTableId table, String sql) throws SQLException {
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(config.dorisJdbcUrl(), config.dorisUser, config.dorisPassword);
+             Statement stmt = connection.createStatement()) {
+            long rows = stmt.executeUpdate(sql);
+            // 数据不经过本进程，字节数无从统计
+            snapshotMetrics.recordWritten(table, rows, 0, System.nanoTime() - startNanos);
+            LOGGER.info("[批量导入] 表 {} 经 JDBC Catalog 拉取完成：{} 行，耗时 {} ms，语句={}",
+                    table, rows, System.currentTimeMillis() - start, sql);
+            return rows;
+        }
+    }
+
+    private List<SourceColumn> selectedColumns(SourceTableMeta meta) {
+        SnapshotOverride override = snapshotOverrides.get(meta.getId());
+        List<SourceColumn> columns = new ArrayList<SourceColumn>();
+        for (SourceColumn column : meta.getColumns()) {
+            if (override == null || override.getColumns().isEmpty() || override.getColumns().contains(column.getName())) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @return 单列整数主键的列名，否则为 null
+     */
+    private static String integerKey(SourceTableMeta meta) {
+        if (meta.getPrimaryKeys().size() != 1) {
+            return null;
+        }
+        SourceColumn column = meta.getColumnMap().get(meta.getPrimaryKeys().get(0));
+        String type = column == null ? "" : SinkSupport.lower(column.getSourceUdtName());
+        return "int2".equals(type) || "int4".equals(type) || "int8".equals(type) ? column.getName() : null;
+    }
+
+    /**
+     * 将闭区间 [min, max] 均分为相邻的闭区间，区间数按估算行数每 rowsPerRange 行一个，且不超过 maxRanges 与键值个数。
+     * 没有估算行数时按键值个数计；跨度以 BigInteger 计算，[Long.MIN_VALUE, Long.MAX_VALUE] 也不会溢出。
+     */
+    static List<long[]> keyRanges(long min, long max, long estimatedRows, long rowsPerRange, int maxRanges) {
+        BigInteger span = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min)).add(BigInteger.ONE);
+        BigInteger rows = estimatedRows > 0 ? BigInteger.valueOf(estimatedRows) : span;
+        BigInteger step = BigInteger.valueOf(Math.max(1, rowsPerRange));
+        int count = rows.add(step).subtract(BigInteger.ONE).divide(step)
+                .min(span).min(BigInteger.valueOf(Math.max(1, maxRanges))).max(BigInteger.ONE).intValue();
+        List<long[]> ranges = new ArrayList<long[]>(count);
+        long from = min;
+        for (int i = 1; i < count; i++) {
+            long next = BigInteger.valueOf(min).add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count))).longValue();
+            ranges.add(new long[]{from, next - 1});
+            from = next;
+        }
+        ranges.add(new long[]{from, max});
+        return ranges;
+    }
+
+    private Connection openReplicationConnection() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", config.kbUser);
+        props.setProperty("password", config.kbPassword);
+        props.setProperty("replication", "database");
+        // 复制协议只支持简单查询模式
+        props.setProperty("preferQueryMode", "simple");
+        return DriverManager.getConnection(config.sourceJdbcUrl(), props);
+    }
+
+    /**
+     * 标签按源表区分：同一分区表的各叶子分区写入同一目标表，标签不能只取决于目标表。
+     */
+    private String label(SourceTableId table, int batch) {
+        String label = ("bulk_" + runId + "_" + batch + "_" + table.getSchema() + "_" + table.getTable())
+                .replaceAll("[^A-Za-z0-9_-]", "_");
+        return label.length() > MAX_LABEL_LENGTH ? label.substring(0, MAX_LABEL_LENGTH) : label;
+    }
+
+    /**
+     * COPY 文本与 Doris 列类型不兼容的源类型在查询中先行转换。
+     */
+    private static String columnExpression(SourceColumn column) {
+        String name = SinkSupport.quoteIdentifier(column.getName());
+        String type = SinkSupport.lower(SinkSupport.isBlank(column.getSourceUdtName()) ? column.getSourceDataType() : column.getSourceUdtName());
+        if (type.startsWith("bool")) {
+            return name + "::int";
+        }
+        if ("bytea".equals(type)) {
+            return "translate(encode(" + name + ", 'base64'), E'\\n', '')";
+        }
+        if ("timestamptz".equals(type) || "timestamp with time zone".equals(type)) {
+            return name + " AT TIME ZONE 'UTC'";
+        }
+        if ("money".equals(type)) {
+            return name + "::numeric";
+        }
+        return name;
+    }
+
+    static List<Path> offsetFiles(SyncConfig config) {
+        List<Path> files = new ArrayList<Path>();
+        Map<String, String> groups = config.tableGroups();
+        if (groups.isEmpty()) {
+            files.add(Paths.get(config.offsetFile));
+        }
+        for (String group : groups.keySet()) {
+            files.add(Paths.get(config.offsetFile + "." + group));
+        }
+        return files;
+    }
+}
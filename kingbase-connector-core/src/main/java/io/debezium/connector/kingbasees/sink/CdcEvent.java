@@ -16,6 +16,8 @@ final class CdcEvent {
     private final JSONObject before;
     private final JSONObject after;
     private final boolean tombstone;
+    // source.snapshot：快照事件为 true/last，其余为 false 或缺省
+    private final String snapshot;
 
     private CdcEvent(SourceTableId tableId,
                      String destination,
@@ -23,7 +25,8 @@ final class CdcEvent {
                      JSONObject key,
                      JSONObject before,
                      JSONObject after,
-                     boolean tombstone) {
+                     boolean tombstone,
+                     String snapshot) {
         this.tableId = tableId;
         this.destination = destination;
         this.op = op;
@@ -31,6 +34,7 @@ final class CdcEvent {
         this.before = before;
         this.after = after;
         this.tombstone = tombstone;
+        this.snapshot = snapshot;
     }
 
     static CdcEvent parse(ChangeEvent<String, String> event) {
@@ -43,7 +47,7 @@ final class CdcEvent {
 
         // Kafka Tombstone: value 和 valueSchema 可能同时为 null。
         if (event.value() == null || event.value().trim().isEmpty()) {
-            return new CdcEvent(parseTableIdFromDestination(destination), destination, "t", keyPayload, null, null, true);
+            return new CdcEvent(parseTableIdFromDestination(destination), destination, "t", keyPayload, null, null, true, null);
         }
 
         JSONObject valueRoot = JSON.parseObject(event.value());
@@ -74,7 +78,14 @@ final class CdcEvent {
             return null;
         }
 
-        return new CdcEvent(tableId, destination, op, keyPayload, before, after, false);
+        return new CdcEvent(tableId, destination, op, keyPayload, before, after, false, SinkSupport.text(source, "snapshot"));
+    }
+
+    /**
+     * 替换 before/after 镜像，其余字段保持不变。
+     */
+    CdcEvent withImages(JSONObject before, JSONObject after) {
+        return new CdcEvent(tableId, destination, op, key, before, after, tombstone, snapshot);
     }
 
     private static JSONObject parsePayloadObject(String raw) {
@@ -141,4 +152,18 @@ final class CdcEvent {
     boolean isTombstone() {
         return tombstone;
     }
+
+    /**
+     * @return 是否为全量快照读取的事件
+     */
+    boolean isSnapshot() {
+        return "true".equals(snapshot) || "last".equals(snapshot);
+    }
+
+    /**
+     * @return 是否为全量快照的最后一条事件
+     */
+    boolean isLastSnapshotRecord() {
+        return "last".equals(snapshot);
+    }
 }
@@ -0,0 +1,168 @@
+package io.debezium.connector.kingbasees.sink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 把 COPY TEXT 格式的一行转为一行 JSON（Stream Load 的 read_json_by_line 格式）。
+ * 直接按字节转换，不为单元格创建字符串对象；UTF-8 多字节字符原样透传。
+ * <p>
+ * COPY TEXT 格式：字段以制表符分隔、以换行结尾，\N 表示 NULL，其余反斜杠为转义序列。
+ * 所有非 NULL 值都输出为 JSON 字符串，由 Doris 按目标列类型转换。
+ */
+final class CopyRowJsonEncoder {
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // 预编码的 {"列名": 与 ,"列名":
+    private final byte[][] keys;
+    private byte[] buffer = new byte[8192];
+    private int count;
+
+    CopyRowJsonEncoder(List<String> columnNames) {
+        keys = new byte[columnNames.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            count = 0;
+            append(i == 0 ? (byte) '{' : (byte) ',');
+            append((byte) '"');
+            for (byte b : columnNames.get(i).getBytes(StandardCharsets.UTF_8)) {
+                appendEscaped(b);
+            }
+            append((byte) '"');
+            append((byte) ':');
+            keys[i] = Arrays.copyOf(buffer, count);
+        }
+        count = 0;
+    }
+
+    /**
+     * @param row COPY 输出的一行，可带结尾换行
+     * @return 写出的字节数
+     */
+    int encode(byte[] row, OutputStream out) throws IOException {
+        count = 0;
+        int end = row.length;
+        if (end > 0 && row[end - 1] == '\n') {
+            end--;
+        }
+        int i = 0;
+        for (int field = 0; field < keys.length; field++) {
+            append(keys[field]);
+            if (i > end) {
+                // 行内字段数少于列数
+                append(NULL);
+                continue;
+            }
+            if (i + 1 < end && row[i] == '\\' && row[i + 1] == 'N' && (i + 2 == end || row[i + 2] == '\t')) {
+                append(NULL);
+                i += 3;
+                continue;
+            }
+            append((byte) '"');
+            while (i < end && row[i] != '\t') {
+                byte b = row[i++];
+                if (b == '\\' && i < end) {
+                    b = row[i++];
+                    switch (b) {
+                        case 'b':
+                            b = '\b';
+                            break;
+                        case 'f':
+                            b = '\f';
+                            break;
+                        case 'n':
+                            b = '\n';
+                            break;
+                        case 'r':
+                            b = '\r';
+                            break;
+                        case 't':
+                            b = '\t';
+                            break;
+                        case 'v':
+                            b = 11;
+                            break;
+                        case 'x':
+                            int hex = 0;
+                            int hexDigits = 0;
+                            while (hexDigits < 2 && i < end && Character.digit(row[i], 16) >= 0) {
+                                hex = hex * 16 + Character.digit(row[i++], 16);
+                                hexDigits++;
+                            }
+                            b = hexDigits == 0 ? (byte) 'x' : (byte) hex;
+                            break;
+                        default:
+                            if (b >= '0' && b <= '7') {
+                                int octal = b - '0';
+                                for (int digits = 1; digits < 3 && i < end && row[i] >= '0' && row[i] <= '7'; digits++) {
+                                    octal = octal * 8 + (row[i++] - '0');
+                                }
+                                b = (byte) octal;
+                            }
+                    }
+                }
+                appendEscaped(b);
+            }
+            append((byte) '"');
+            i++;
+        }
+        append((byte) '}');
+        append((byte) '\n');
+        out.write(buffer, 0, count);
+        return count;
+    }
+
+    private void appendEscaped(byte b) {
+        switch (b) {
+            case '"':
+            case '\\':
+                append((byte) '\\');
+                append(b);
+                return;
+            case '\n':
+                append((byte) '\\');
+                append((byte) 'n');
+                return;
+            case '\r':
+                append((byte) '\\');
+                append((byte) 'r');
+                return;
+            case '\t':
+                append((byte) '\\');
+                append((byte) 't');
+                return;
+            default:
+                if (b >= 0 && b < 0x20) {
+                    append((byte) '\\');
+                    append((byte) 'u');
+                    append((byte) '0');
+                    append((byte) '0');
+                    append(HEX[b >> 4]);
+                    append(HEX[b & 0xF]);
+                    return;
+                }
+                append(b);
+        }
+    }
+
+    private void append(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void append(byte b) {
+        ensure(1);
+        buffer[count++] = b;
+    }
+
+    private void ensure(int extra) {
+        if (count + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + extra));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.debezium.connector.kingbasees.sink;
 
 import io.debezium.connector.kingbasees.PostgresConnector;
+import io.debezium.connector.kingbasees.TableGroups;
 import io.debezium.engine.ChangeEvent;
 import io.debezium.engine.DebeziumEngine;
 import io.debezium.engine.format.Json;
@@ -9,7 +10,10 @@ import org.apache.kafka.connect.storage.FileOffsetBackingStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.Properties;
+import java.util.StringJoiner;
 
 /**
  * Debezium 引擎构建工厂。
@@ -21,15 +25,33 @@ final class DebeziumEngineFactory {
     private DebeziumEngineFactory() {
     }
 
-    static DebeziumEngine<ChangeEvent<String, String>> build(SyncConfig config, SyncWriter writer) {
+    static DebeziumEngine<ChangeEvent<String, String>> build(SyncConfig config, SyncWriter writer, PartitionHierarchy partitions,
+                                                             String snapshotMode) {
+        return build(config, writer, partitions, null, config.tableIncludeListRaw, snapshotMode);
+    }
+
+    /**
+     * 构建单个表分组的引擎：独立的复制槽、位点文件与结构缓存，共用同一个写入端。
+     *
+     * @param partitions 纳入同步的分区表层级，根表在采集范围中替换为其叶子分区
+     * @param group 表分组名，未分组时为 null
+     * @param tableIncludeList 该引擎采集的表
+     * @param snapshotMode 快照模式，批量导入后为 never
+     */
+    static DebeziumEngine<ChangeEvent<String, String>> build(SyncConfig config, SyncWriter writer, PartitionHierarchy partitions,
+                                                             String group, String tableIncludeList, String snapshotMode) {
+        String suffix = group == null ? "" : "." + group;
         Properties props = new Properties();
-        props.setProperty("name", config.connectorName);
+        props.setProperty("name", group == null ? config.connectorName : config.connectorName + "-" + group);
         props.setProperty("connector.class", PostgresConnector.class.getName());
         props.setProperty("offset.storage", FileOffsetBackingStore.class.getName());
-        props.setProperty("offset.storage.file.filename", config.offsetFile);
+        props.setProperty("offset.storage.file.filename", config.offsetFile + suffix);
         props.setProperty("offset.flush.interval.ms", String.valueOf(config.offsetFlushMs));
         props.setProperty("database.history", FileDatabaseHistory.class.getCanonicalName());
-        props.setProperty("database.history.file.filename", config.historyFile);
+        props.setProperty("database.history.file.filename", config.historyFile + suffix);
+        if (!config.schemaCacheFile.isEmpty()) {
+            props.setProperty("schema.cache.file", config.schemaCacheFile + suffix);
+        }
 
         props.setProperty("plugin.name", config.kbPlugin);
         props.setProperty("database.hostname", config.kbHost);
@@ -39,16 +61,57 @@ final class DebeziumEngineFactory {
         props.setProperty("database.server.id", config.kbServerId);
         props.setProperty("database.server.name", config.kbServerName);
         props.setProperty("database.dbname", config.kbDb);
-        props.setProperty("snapshot.mode", config.kbSnapshotMode);
-        props.setProperty("slot.name", config.kbSlotName);
+        props.setProperty("snapshot.mode", snapshotMode);
+        props.setProperty("slot.name", group == null ? config.kbSlotName : TableGroups.slotName(config.kbSlotName, group));
+        if (group != null) {
+            props.setProperty("table.group", group);
+        }
         props.setProperty("slot.drop.on.stop", String.valueOf(config.kbSlotDropOnStop));
         props.setProperty("tombstones.on.delete", String.valueOf(config.tombstoneAsDelete || config.outputMode.hasEnhancedJsonOutput()));
         props.setProperty("decimal.handling.mode", "string");
         props.setProperty("binary.handling.mode", "base64");
         props.setProperty("include.schema.changes", "false");
+        if (config.transactionEnabled) {
+            props.setProperty("provide.transaction.metadata", "true");
+        }
+        if (config.kbDecodingThreads > 0) {
+            props.setProperty("decoding.threads", String.valueOf(config.kbDecodingThreads));
+        }
+        props.setProperty("snapshot.resumable", String.valueOf(config.kbSnapshotResumable));
+        props.setProperty("snapshot.fetch.bytes", String.valueOf(config.kbSnapshotFetchBytes));
+        // 各表分组的引擎在同一进程内并行快照，内存上限按分组均分
+        props.setProperty("snapshot.memory.bytes", String.valueOf(config.snapshotMemoryBytes() / Math.max(1, config.tableGroups().size())));
+        if (config.kbSnapshotThreads > 1) {
+            props.setProperty("snapshot.max.threads", String.valueOf(config.kbSnapshotThreads));
+            props.setProperty("snapshot.chunk.size", String.valueOf(config.kbSnapshotChunkSize));
+            if (!config.kbSnapshotThreadsPerTable.isEmpty()) {
+                props.setProperty("snapshot.max.threads.per.table", config.kbSnapshotThreadsPerTable);
+            }
+        }
+        Map<SourceTableId, SnapshotOverride> snapshotOverrides = partitions.expandKeys(config.kbSnapshotOverrides);
+        if (!snapshotOverrides.isEmpty()) {
+            // 快照查询改写为列裁剪与行过滤后的语句，分片读取在其外层按主键范围切分
+            StringJoiner tables = new StringJoiner(",");
+            for (Map.Entry<SourceTableId, SnapshotOverride> entry : snapshotOverrides.entrySet()) {
+                tables.add(entry.getKey().toString());
+                props.setProperty("snapshot.select.statement.overrides." + entry.getKey(), entry.getValue().selectStatement(entry.getKey()));
+            }
+            props.setProperty("snapshot.select.statement.overrides", tables.toString());
+        }
+        if (!config.kbSignalTable.isEmpty()) {
+            props.setProperty("signal.data.collection", config.kbSignalTable);
+            props.setProperty("incremental.snapshot.chunk.size", String.valueOf(config.kbIncrementalSnapshotChunkSize));
+        }
 
-        if (!config.tableIncludeListRaw.isEmpty()) {
-            props.setProperty("table.include.list", config.tableIncludeListRaw);
+        if (!tableIncludeList.isEmpty()) {
+            // 根表不存数据，快照与增量都按叶子分区采集，各分区可由并行快照同时读取
+            props.setProperty("table.include.list", partitions.isEmpty()
+                    ? tableIncludeList
+                    : SinkSupport.joinTables(partitions.expand(SinkSupport.parseTableList(tableIncludeList))));
+        }
+        else if (!partitions.isEmpty()) {
+            // 按 schema 采集时叶子分区已在范围内，排除根表以免快照重复读取
+            props.setProperty("table.exclude.list", SinkSupport.joinTables(new ArrayList<SourceTableId>(partitions.roots())));
         }
         if (!config.schemaIncludeListRaw.isEmpty()) {
             props.setProperty("schema.include.list", config.schemaIncludeListRaw);
@@ -56,7 +119,7 @@ final class DebeziumEngineFactory {
 
         return DebeziumEngine.create(Json.class)
                 .using(props)
-                .notifying(writer::handle)
+                .notifying((records, committer) -> writer.handleBatch(group, records, committer))
                 .using((success, message, error) -> {
                     if (!success && error != null) {
                         LOGGER.error("[同步引擎] Debezium 异常退出：{}", message, error);
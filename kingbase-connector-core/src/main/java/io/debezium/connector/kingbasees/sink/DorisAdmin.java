@@ -4,12 +4,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.stream.Collectors;
@@ -19,6 +22,10 @@ import java.util.stream.Collectors;
  * 1) 启动前 drop/truncate
  * 2) 自动建库建表
  * 3) 自动补列
+ * 4) 以 JDBC Catalog 由 Doris 直接拉取源表全量
+ * <p>
+ * 目标端表和字段信息按库从 information_schema 一次性加载并在本地维护，
+ * 避免逐表执行 SHOW TABLES / SHOW COLUMNS；information_schema 不可用时回退到逐表查询。
  */
 final class DorisAdmin {
 
@@ -28,6 +35,12 @@ final class DorisAdmin {
     private final SyncConfig config;
     private final SourceAdmin sourceAdmin;
 
+    /**
+     * 库名 -> (表名 -> 小写字段名集合)。
+     */
+    private final Map<String, Map<String, Set<String>>> targetColumnsByDatabase = new HashMap<String, Map<String, Set<String>>>();
+    private final Set<String> databasesWithoutMetadata = new HashSet<String>();
+
     DorisAdmin(Connection dorisConnection, SyncConfig config, SourceAdmin sourceAdmin) {
         this.dorisConnection = dorisConnection;
         this.config = config;
@@ -54,6 +67,10 @@ final class DorisAdmin {
             TargetTable target = config.route(table);
             ensureDatabase(target.getDatabase());
             exec("DROP TABLE IF EXISTS " + target.qualifiedName());
+            Map<String, Set<String>> tables = cachedTables(target.getDatabase());
+            if (tables != null) {
+                tables.remove(target.getTable());
+            }
             LOGGER.info("[Doris管理] 已删除目标表：{}", target);
         }
 
@@ -87,14 +104,50 @@ final class DorisAdmin {
         }
     }
 
-    private List<SourceTableId> resolveIncludedTables() throws SQLException {
-        if (!config.tableIncludeList.isEmpty()) {
-            return config.tableIncludeList;
-        }
-        if (!config.schemaIncludeList.isEmpty()) {
-            return sourceAdmin.listTablesBySchemas(config.schemaIncludeList);
+    /**
+     * 注册指向源库的临时 JDBC Catalog（需 Doris 管理权限，驱动包需已放入 FE/BE 的 jdbc_drivers 目录）。
+     */
+    void createSourceCatalog(String catalog) throws SQLException {
+        dropCatalog(catalog);
+        exec("CREATE CATALOG " + SinkSupport.backtick(catalog) + " PROPERTIES (" +
+                "\"type\"=\"jdbc\", " +
+                "\"user\"=" + literal(config.kbUser) + ", " +
+                "\"password\"=" + literal(config.kbPassword) + ", " +
+                "\"jdbc_url\"=" + literal(config.sourceCatalogJdbcUrl()) + ", " +
+                "\"driver_url\"=" + literal(config.bulkLoadCatalogDriverUrl) + ", " +
+                "\"driver_class\"=\"org.postgresql.Driver\")");
+        LOGGER.info("[Doris管理] 已注册源库 JDBC Catalog：{} -> {}", catalog, config.sourceCatalogJdbcUrl());
+    }
+
+    void dropCatalog(String catalog) throws SQLException {
+        exec("DROP CATALOG IF EXISTS " + SinkSupport.backtick(catalog));
+    }
+
+    /**
+     * 由 Doris 经 JDBC Catalog 读取源表并写入目标表的语句。
+     *
+     * @param columns 读取与写入的列，目标表其余列取默认值
+     * @param keyColumn 区间切分的主键列，整表一次读取时为 null
+     */
+    static String catalogInsertSql(TargetTable target, String label, String catalog, SourceTableId source, List<String> columns,
+                                   String keyColumn, long from, long to) {
+        String columnList = columns.stream().map(SinkSupport::backtick).collect(Collectors.joining(", "));
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(target.qualifiedName())
+                .append(" WITH LABEL ").append(label)
+                .append(" (").append(columnList).append(")")
+                .append(" SELECT ").append(columnList)
+                .append(" FROM ").append(SinkSupport.backtick(catalog))
+                .append('.').append(SinkSupport.backtick(source.getSchema()))
+                .append('.').append(SinkSupport.backtick(source.getTable()));
+        if (keyColumn != null) {
+            sql.append(" WHERE ").append(SinkSupport.backtick(keyColumn)).append(" BETWEEN ").append(from).append(" AND ").append(to);
         }
-        return Collections.emptyList();
+        return sql.toString();
+    }
+
+    private List<SourceTableId> resolveIncludedTables() throws SQLException {
+        // 叶子分区与根表写入同一目标表
+        return sourceAdmin.partitions().toRoots(sourceAdmin.listIncludedTables());
     }
 
     private void createTable(TargetTable target, SourceTableMeta sourceMeta) throws SQLException {
@@ -130,6 +183,17 @@ final class DorisAdmin {
                 "PROPERTIES(" + properties + ")";
 
         exec(sql);
+        Map<String, Set<String>> tables = cachedTables(target.getDatabase());
+        if (tables != null) {
+            Set<String> columns = new HashSet<String>();
+            for (SourceColumn column : sourceMeta.getColumns()) {
+                columns.add(SinkSupport.lower(column.getName()));
+            }
+            if (isLogicalDeleteEnabled()) {
+                columns.add(SinkSupport.lower(config.logicalDeleteColumn));
+            }
+            tables.put(target.getTable(), columns);
+        }
         LOGGER.info("[Doris管理] 已创建目标表：{}", target);
     }
 
@@ -142,6 +206,7 @@ final class DorisAdmin {
             String sql = "ALTER TABLE " + target.qualifiedName() + " ADD COLUMN " +
                     SinkSupport.backtick(column.getName()) + " " + column.getDorisType() + (column.isNullable() ? " NULL" : " NOT NULL");
             exec(sql);
+            existing.add(SinkSupport.lower(column.getName()));
             LOGGER.info("[Doris管理] 已补充目标字段：{}.{}", target, column.getName());
         }
 
@@ -151,11 +216,22 @@ final class DorisAdmin {
             String sql = "ALTER TABLE " + target.qualifiedName() + " ADD COLUMN " +
                     SinkSupport.backtick(config.logicalDeleteColumn) + " TINYINT NOT NULL DEFAULT 0";
             exec(sql);
+            existing.add(SinkSupport.lower(config.logicalDeleteColumn));
             LOGGER.info("[Doris管理] 已补充逻辑删除标记字段：{}.{}", target, config.logicalDeleteColumn);
         }
     }
 
+    /**
+     * 返回的集合在有缓存时即缓存本身，补列后由调用方同步更新。
+     */
     private Set<String> listTargetColumns(TargetTable target) throws SQLException {
+        Map<String, Set<String>> tables = cachedTables(target.getDatabase());
+        if (tables != null) {
+            Set<String> cols = tables.get(target.getTable());
+            if (cols != null) {
+                return cols;
+            }
+        }
         String sql = "SHOW COLUMNS FROM " + target.qualifiedName();
         Set<String> cols = new LinkedHashSet<String>();
         try (Statement st = dorisConnection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
@@ -167,6 +243,10 @@ final class DorisAdmin {
     }
 
     private boolean tableExists(TargetTable target) throws SQLException {
+        Map<String, Set<String>> tables = cachedTables(target.getDatabase());
+        if (tables != null) {
+            return tables.containsKey(target.getTable());
+        }
         String db = target.getDatabase();
         String table = target.getTable().replace("'", "''");
         String sql = "SHOW TABLES FROM " + SinkSupport.backtick(db) + " LIKE '" + table + "'";
@@ -175,6 +255,34 @@ final class DorisAdmin {
         }
     }
 
+    /**
+     * 按库一次性加载表与字段；不可用时返回 null，调用方回退到逐表查询。
+     */
+    private synchronized Map<String, Set<String>> cachedTables(String database) {
+        Map<String, Set<String>> tables = targetColumnsByDatabase.get(database);
+        if (tables != null || databasesWithoutMetadata.contains(database)) {
+            return tables;
+        }
+        String sql = "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.columns WHERE TABLE_SCHEMA = ?";
+        tables = new HashMap<String, Set<String>>();
+        try (PreparedStatement ps = dorisConnection.prepareStatement(sql)) {
+            ps.setString(1, database);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tables.computeIfAbsent(rs.getString(1), k -> new LinkedHashSet<String>()).add(SinkSupport.lower(rs.getString(2)));
+                }
+            }
+        }
+        catch (SQLException e) {
+            LOGGER.warn("[Doris管理] 读取 information_schema 失败，库 {} 回退为逐表查询，原因={}", database, e.getMessage());
+            databasesWithoutMetadata.add(database);
+            return null;
+        }
+        targetColumnsByDatabase.put(database, tables);
+        LOGGER.info("[Doris管理] 目标库元数据加载完成：{}，表数={}", database, tables.size());
+        return tables;
+    }
+
     private void ensureDatabase(String database) throws SQLException {
         if (!config.dorisAutoCreateDatabase) {
             return;
@@ -188,6 +296,10 @@ final class DorisAdmin {
         }
     }
 
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
     private boolean isLogicalDeleteEnabled() {
         return config.deleteSyncMode == DeleteSyncMode.LOGICAL_DELETE_SIGN;
     }
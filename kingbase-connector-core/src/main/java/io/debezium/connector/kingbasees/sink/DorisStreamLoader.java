@@ -0,0 +1,144 @@
+package io.debezium.connector.kingbasees.sink;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Doris Stream Load 客户端：以 chunked 方式边读边写请求体，内存占用与导入数据量无关。
+ * <p>
+ * FE 会把导入请求重定向到 BE，而流式请求体无法重放，因此先发送不带数据的探测请求取得 BE 地址，
+ * 再把数据直接写到 BE；FE 未重定向时（如直接配置了 BE 或代理地址）按原地址导入。
+ */
+final class DorisStreamLoader {
+
+    private static final int CHUNK_BYTES = 1 << 16;
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 600_000;
+
+    private final SyncConfig config;
+    private final String authorization;
+
+    DorisStreamLoader(SyncConfig config) {
+        this.config = config;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((config.dorisUser + ":" + config.dorisPassword).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 开始一次 JSON Lines 格式的导入。
+     *
+     * @param label 导入标签，同一标签只会成功导入一次
+     */
+    StreamLoad begin(TargetTable target, String label) throws IOException {
+        URL url = resolveLoadUrl(target);
+        HttpURLConnection connection = open(url);
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(CHUNK_BYTES);
+        connection.setRequestProperty("label", label);
+        connection.setRequestProperty("format", "json");
+        connection.setRequestProperty("read_json_by_line", "true");
+        return new StreamLoad(connection, label);
+    }
+
+    private URL resolveLoadUrl(TargetTable target) throws IOException {
+        URL url = new URL("http://" + config.dorisHost + ":" + config.dorisHttpPort
+                + "/api/" + target.getDatabase() + "/" + target.getTable() + "/_stream_load");
+        HttpURLConnection probe = open(url);
+        try {
+            int code = probe.getResponseCode();
+            String location = probe.getHeaderField("Location");
+            if (code >= 300 && code < 400 && location != null) {
+                return new URL(location);
+            }
+            return url;
+        }
+        finally {
+            probe.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("PUT");
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setRequestProperty("Authorization", authorization);
+        connection.setRequestProperty("Expect", "100-continue");
+        return connection;
+    }
+
+    /**
+     * 一次进行中的导入。
+     */
+    static final class StreamLoad {
+
+        private final HttpURLConnection connection;
+        private final String label;
+        private OutputStream output;
+
+        private StreamLoad(HttpURLConnection connection, String label) {
+            this.connection = connection;
+            this.label = label;
+        }
+
+        OutputStream output() throws IOException {
+            if (output == null) {
+                output = new BufferedOutputStream(connection.getOutputStream(), CHUNK_BYTES);
+            }
+            return output;
+        }
+
+        /**
+         * 结束请求体并等待 Doris 返回导入结果。
+         *
+         * @return 导入行数
+         */
+        long finish() throws IOException {
+            try {
+                output().close();
+                int code = connection.getResponseCode();
+                String body = read(code >= 400 ? connection.getErrorStream() : connection.getInputStream());
+                JSONObject result = body.isEmpty() ? null : JSON.parseObject(body);
+                String status = result == null ? null : result.getString("Status");
+                if (code != HttpURLConnection.HTTP_OK || !("Success".equals(status) || "Publish Timeout".equals(status))) {
+                    throw new IOException("Stream Load 导入失败：label=" + label + "，HTTP " + code + "，响应=" + body);
+                }
+                return result.getLongValue("NumberLoadedRows");
+            }
+            finally {
+                connection.disconnect();
+            }
+        }
+
+        void abort() {
+            SinkSupport.closeQuietly(output);
+            connection.disconnect();
+        }
+
+        private static String read(InputStream input) throws IOException {
+            if (input == null) {
+                return "";
+            }
+            try (InputStream in = input) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    bytes.write(buffer, 0, n);
+                }
+                return new String(bytes.toByteArray(), StandardCharsets.UTF_8).trim();
+            }
+        }
+    }
+}
@@ -5,8 +5,15 @@ import io.debezium.engine.DebeziumEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -34,7 +41,8 @@ public final class KingbaseToDorisSyncApp {
         Connection sourceConnection = null;
         Connection dorisConnection = null;
         SyncWriter writer = null;
-        DebeziumEngine<ChangeEvent<String, String>> engine = null;
+        SnapshotMetrics snapshotMetrics = new SnapshotMetrics(Paths.get(config.workDir), config.kbServerName, config.tableGroups().keySet());
+        List<DebeziumEngine<ChangeEvent<String, String>>> engines = new ArrayList<DebeziumEngine<ChangeEvent<String, String>>>();
         ExecutorService executor = null;
 
         try {
@@ -44,22 +52,74 @@ public final class KingbaseToDorisSyncApp {
             SourceAdmin sourceAdmin = new SourceAdmin(sourceConnection, config);
             DorisAdmin dorisAdmin = new DorisAdmin(dorisConnection, config, sourceAdmin);
 
-            sourceAdmin.initSlotIfNeeded();
+            // 批量导入自行创建复制槽并导出快照
+            boolean bulkLoad = BulkLoader.shouldRun(config);
+            if (!bulkLoad) {
+                sourceAdmin.initSlotIfNeeded();
+            }
+            sourceAdmin.loadPartitionHierarchy();
             sourceAdmin.applyReplicaIdentityFullIfNeeded();
-            dorisAdmin.applyStartupActions();
+            Path workDir = Paths.get(config.workDir);
+            boolean snapshotExpected = bulkLoad || isSnapshotExpected(config, workDir);
+            if (bulkLoad && SnapshotMarker.isPresent(workDir)) {
+                LOGGER.info("[同步引擎] 检测到未完成的批量导入，将重新导入，跳过启动时的删表/清表操作");
+            }
+            else if (config.kbSnapshotResumable && !config.kbSlotRecreate && SnapshotMarker.isPresent(workDir)) {
+                // 上次全量快照未完成：保留已写入的数据，由源端按位点中的快照进度续传
+                LOGGER.info("[同步引擎] 检测到未完成的全量快照，将断点续传，跳过启动时的删表/清表操作");
+            }
+            else {
+                SnapshotMarker.clear(workDir);
+                dorisAdmin.applyStartupActions();
+            }
+            try {
+                sourceAdmin.preloadTableMeta();
+            }
+            catch (SQLException e) {
+                LOGGER.warn("[同步引擎] 源表元数据批量预加载失败，将按表逐个加载，原因={}", e.getMessage());
+            }
+            sourceAdmin.validateSnapshotOverrides();
+            snapshotMetrics.register(config.connectorName);
+            if (snapshotExpected) {
+                try {
+                    snapshotMetrics.estimate(sourceAdmin.estimateRowCounts(sourceAdmin.partitions().expand(sourceAdmin.listIncludedTables())));
+                }
+                catch (SQLException e) {
+                    LOGGER.warn("[同步引擎] 源表行数估算失败，全量进度不显示百分比与剩余时间，原因={}", e.getMessage());
+                }
+            }
+            if (bulkLoad) {
+                new BulkLoader(config, sourceAdmin, dorisAdmin, snapshotMetrics).run();
+            }
+            String snapshotMode = bulkLoad ? "never" : config.kbSnapshotMode;
 
-            writer = new SyncWriter(sourceAdmin, dorisAdmin, dorisConnection, config);
-            engine = DebeziumEngineFactory.build(config, writer);
+            writer = new SyncWriter(sourceAdmin, dorisAdmin, dorisConnection, config, snapshotMetrics);
+            Map<String, String> groups = config.tableGroups();
+            if (groups.isEmpty()) {
+                engines.add(DebeziumEngineFactory.build(config, writer, sourceAdmin.partitions(), snapshotMode));
+            }
+            else {
+                // 每个表分组一个引擎（独立复制槽与位点），共用同一写入端
+                for (Map.Entry<String, String> group : groups.entrySet()) {
+                    engines.add(DebeziumEngineFactory.build(config, writer, sourceAdmin.partitions(), group.getKey(), group.getValue(),
+                            snapshotMode));
+                }
+            }
 
-            executor = Executors.newSingleThreadExecutor();
-            executor.submit(engine);
-            addShutdownHook(engine);
+            executor = Executors.newFixedThreadPool(engines.size());
+            for (DebeziumEngine<ChangeEvent<String, String>> engine : engines) {
+                executor.submit(engine);
+            }
+            addShutdownHook(engines);
             awaitTermination(executor);
             LOGGER.info("[同步引擎] 同步任务执行结束");
         }
         finally {
-            SinkSupport.closeQuietly(engine);
+            for (DebeziumEngine<ChangeEvent<String, String>> engine : engines) {
+                SinkSupport.closeQuietly(engine);
+            }
             SinkSupport.closeQuietly(writer);
+            snapshotMetrics.unregister();
             SinkSupport.closeQuietly(sourceConnection);
             SinkSupport.closeQuietly(dorisConnection);
             if (executor != null) {
@@ -68,10 +128,33 @@ public final class KingbaseToDorisSyncApp {
         }
     }
 
-    private static void addShutdownHook(DebeziumEngine<ChangeEvent<String, String>> engine) {
+    /**
+     * 快照模式为 always，或尚无增量位点、上次全量未完成时，本次启动会执行全量快照。
+     */
+    private static boolean isSnapshotExpected(SyncConfig config, Path workDir) {
+        if ("always".equalsIgnoreCase(config.kbSnapshotMode)) {
+            return true;
+        }
+        if ("never".equalsIgnoreCase(config.kbSnapshotMode)) {
+            return false;
+        }
+        if (SnapshotMarker.isPresent(workDir)) {
+            return true;
+        }
+        for (Path offsetFile : BulkLoader.offsetFiles(config)) {
+            if (Files.exists(offsetFile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addShutdownHook(List<DebeziumEngine<ChangeEvent<String, String>>> engines) {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             LOGGER.info("[同步引擎] 收到进程退出信号，正在关闭 Debezium 引擎");
-            SinkSupport.closeQuietly(engine);
+            for (DebeziumEngine<ChangeEvent<String, String>> engine : engines) {
+                SinkSupport.closeQuietly(engine);
+            }
         }));
     }
 
@@ -0,0 +1,101 @@
+package io.debezium.connector.kingbasees.sink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分区表层级：顶层分区表（根表）到其叶子分区的映射。
+ * <p>
+ * 逻辑解码与快照都以叶子分区为单位产生数据，根表本身不存数据；
+ * 同步时叶子分区写入根表对应的 Doris 表，采集范围中的根表替换为其叶子分区，避免重复读取。
+ */
+final class PartitionHierarchy {
+
+    static final PartitionHierarchy EMPTY = new PartitionHierarchy(Collections.<SourceTableId, List<SourceTableId>>emptyMap());
+
+    private final Map<SourceTableId, List<SourceTableId>> leavesByRoot;
+    private final Map<SourceTableId, SourceTableId> rootByLeaf = new HashMap<SourceTableId, SourceTableId>();
+
+    PartitionHierarchy(Map<SourceTableId, List<SourceTableId>> leavesByRoot) {
+        this.leavesByRoot = leavesByRoot;
+        for (Map.Entry<SourceTableId, List<SourceTableId>> entry : leavesByRoot.entrySet()) {
+            for (SourceTableId leaf : entry.getValue()) {
+                rootByLeaf.put(leaf, entry.getKey());
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return leavesByRoot.isEmpty();
+    }
+
+    Set<SourceTableId> roots() {
+        return leavesByRoot.keySet();
+    }
+
+    /**
+     * @return 叶子分区所属的根表，非分区表返回自身
+     */
+    SourceTableId rootOf(SourceTableId tableId) {
+        SourceTableId root = rootByLeaf.get(tableId);
+        return root == null ? tableId : root;
+    }
+
+    /**
+     * 根表替换为其叶子分区，其余表保持不变，结果去重且保持原有顺序。
+     */
+    List<SourceTableId> expand(List<SourceTableId> tables) {
+        Set<SourceTableId> expanded = new LinkedHashSet<SourceTableId>();
+        for (SourceTableId table : tables) {
+            List<SourceTableId> leaves = leavesByRoot.get(table);
+            if (leaves == null) {
+                expanded.add(table);
+            }
+            else {
+                expanded.addAll(leaves);
+            }
+        }
+        return new ArrayList<SourceTableId>(expanded);
+    }
+
+    /**
+     * 叶子分区替换为其根表，结果去重且保持原有顺序。
+     */
+    List<SourceTableId> toRoots(List<SourceTableId> tables) {
+        Set<SourceTableId> roots = new LinkedHashSet<SourceTableId>();
+        for (SourceTableId table : tables) {
+            roots.add(rootOf(table));
+        }
+        return new ArrayList<SourceTableId>(roots);
+    }
+
+    /**
+     * 按根表配置的表级设置展开到各叶子分区；叶子分区单独配置的优先。
+     */
+    <V> Map<SourceTableId, V> expandKeys(Map<SourceTableId, V> settings) {
+        if (isEmpty()) {
+            return settings;
+        }
+        Map<SourceTableId, V> expanded = new LinkedHashMap<SourceTableId, V>();
+        for (Map.Entry<SourceTableId, V> entry : settings.entrySet()) {
+            if (!leavesByRoot.containsKey(entry.getKey())) {
+                expanded.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<SourceTableId, V> entry : settings.entrySet()) {
+            List<SourceTableId> leaves = leavesByRoot.get(entry.getKey());
+            if (leaves != null) {
+                for (SourceTableId leaf : leaves) {
+                    expanded.putIfAbsent(leaf, entry.getValue());
+                }
+            }
+        }
+        return expanded;
+    }
+}
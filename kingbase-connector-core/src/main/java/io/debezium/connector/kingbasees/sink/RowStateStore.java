@@ -0,0 +1,434 @@
+package io.debezium.connector.kingbasees.sink;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 行状态存储：按（源表，主键）保存每行最近一次的完整镜像，使源端无需开启 REPLICA IDENTITY FULL 即可：
+ * 1) 回填未变更 TOAST 列的占位值
+ * 2) 为逻辑删除补全 before 镜像
+ * 3) 为 changed_fields/deltas 提供变更前镜像
+ *
+ * 内存层为 LRU，被淘汰的行追加写入本地数据文件；磁盘层按行数封顶，超出时丢弃最早写入的行，
+ * 失效记录过多时整体压缩重写。重启时扫描数据文件重建索引，快照阶段的 r 事件负责初始灌入。
+ *
+ * 磁盘层只有行镜像在文件中，键到文件偏移的索引仍在堆内：每行约 100 字节 + 2 倍键长，
+ * 磁盘行数上限需按可用堆内存设置。
+ */
+final class RowStateStore implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RowStateStore.class);
+
+    /**
+     * Debezium toasted.value.placeholder 默认值；bytea 列在 base64 模式下输出其 base64 形式。
+     */
+    static final String TOAST_PLACEHOLDER = "__debezium_unavailable_value";
+    private static final String TOAST_PLACEHOLDER_BASE64 = Base64.getEncoder().encodeToString(TOAST_PLACEHOLDER.getBytes(StandardCharsets.UTF_8));
+
+    private static final String DATA_FILE = "row-state.dat";
+    private static final int REMOVED = -1;
+    private static final long COMPACT_MIN_BYTES = 64L * 1024 * 1024;
+    private static final long STATS_INTERVAL_MS = 60_000L;
+    private static final int INDEX_BYTES_PER_ROW = 100;
+    private static final int ESTIMATED_KEY_LENGTH = 32;
+
+    private final Path dataFile;
+    private final int memoryEntries;
+    private final int diskEntries;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<String, Entry>(1024, 0.75f, true);
+    // 按写入顺序排列，便于超出上限时丢弃最早的行
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<String, Long>();
+    private FileChannel channel;
+    private long deadRecords = 0L;
+
+    private long memoryHits = 0L;
+    private long diskHits = 0L;
+    private long misses = 0L;
+    private long memoryEvictions = 0L;
+    private long diskEvictions = 0L;
+    private long lastStatsAt = System.currentTimeMillis();
+
+    RowStateStore(Path dir, int memoryEntries, int diskEntries) {
+        this.memoryEntries = Math.max(memoryEntries, 1);
+        this.diskEntries = diskEntries;
+        this.dataFile = dir == null ? null : dir.resolve(DATA_FILE);
+        if (dataFile != null && diskEntries > 0) {
+            try {
+                Files.createDirectories(dir);
+                channel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                loadIndex();
+            }
+            catch (IOException e) {
+                LOGGER.warn("[行状态] 打开磁盘存储失败，仅使用内存层：file={}，原因={}", dataFile, e.getMessage());
+                closeChannel();
+            }
+        }
+        LOGGER.info("[行状态] 已启用：内存行数上限={}，磁盘行数上限={}（索引约 {}MB 堆），已恢复磁盘行数={}",
+                this.memoryEntries, channel == null ? 0 : diskEntries, channel == null ? 0 : estimatedIndexMegabytes(diskEntries), diskIndex.size());
+    }
+
+    /**
+     * 用已知行镜像补全事件：回填未变更 TOAST 占位值、补全 before，并把最新镜像写回存储。
+     * 无主键（key 为空）或 tombstone 事件原样返回。
+     */
+    synchronized CdcEvent apply(CdcEvent event) {
+        if (event == null || event.isTombstone() || event.getKey() == null || event.getKey().isEmpty()) {
+            return event;
+        }
+
+        String key = event.getTableId() + "\u0001" + event.getKey().toJSONString();
+        JSONObject previous = get(key);
+        JSONObject before = event.getBefore();
+        JSONObject after = event.getAfter();
+        try {
+            if ("d".equals(SinkSupport.lower(event.getOp()))) {
+                remove(key);
+                return previous == null || covers(before, previous) ? event : event.withImages(merge(previous, before), after);
+            }
+            if (after == null) {
+                return event;
+            }
+
+            JSONObject resolvedAfter = previous == null ? after : fillPlaceholders(after, previous);
+            put(key, resolvedAfter);
+            JSONObject resolvedBefore = before;
+            if ("u".equals(SinkSupport.lower(event.getOp())) && previous != null && !covers(before, previous)) {
+                resolvedBefore = merge(previous, before);
+            }
+            return resolvedAfter == after && resolvedBefore == before ? event : event.withImages(resolvedBefore, resolvedAfter);
+        }
+        finally {
+            logStatsIfDue();
+        }
+    }
+
+    /**
+     * 磁盘索引占用堆内存的粗略估算：每行的 map 节点、键字符串与偏移量约 100 字节，另加 2 倍键长，键长按 32 估算。
+     */
+    static long estimatedIndexMegabytes(int rows) {
+        return (long) rows * (INDEX_BYTES_PER_ROW + 2 * ESTIMATED_KEY_LENGTH) / (1024 * 1024);
+    }
+
+    synchronized long memoryEvictions() {
+        return memoryEvictions;
+    }
+
+    synchronized long diskEvictions() {
+        return diskEvictions;
+    }
+
+    synchronized int diskSize() {
+        return diskIndex.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            // 关闭前把内存层全部落盘，保证重启后可继续回填
+            for (Map.Entry<String, Entry> entry : memory.entrySet()) {
+                if (!entry.getValue().onDisk) {
+                    spill(entry.getKey(), entry.getValue().row);
+                }
+            }
+            try {
+                channel.force(false);
+            }
+            catch (IOException e) {
+                LOGGER.warn("[行状态] 落盘失败：{}", e.getMessage());
+            }
+        }
+        memory.clear();
+        logStats();
+        closeChannel();
+    }
+
+    private JSONObject get(String key) {
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            memoryHits++;
+            return entry.row;
+        }
+        Long offset = diskIndex.get(key);
+        if (offset == null || channel == null) {
+            misses++;
+            return null;
+        }
+        try {
+            JSONObject row = readRow(offset);
+            diskHits++;
+            cache(key, new Entry(row, true));
+            return row;
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.warn("[行状态] 读取磁盘行镜像失败，按未命中处理：原因={}", e.getMessage());
+            diskIndex.remove(key);
+            misses++;
+            return null;
+        }
+    }
+
+    private void put(String key, JSONObject row) {
+        dropFromDisk(key);
+        cache(key, new Entry(row, false));
+    }
+
+    private void remove(String key) {
+        memory.remove(key);
+        dropFromDisk(key);
+    }
+
+    private void cache(String key, Entry entry) {
+        memory.put(key, entry);
+        Iterator<Map.Entry<String, Entry>> eldest = memory.entrySet().iterator();
+        while (memory.size() > memoryEntries && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            memoryEvictions++;
+            if (!evicted.getValue().onDisk) {
+                spill(evicted.getKey(), evicted.getValue().row);
+            }
+        }
+    }
+
+    private void spill(String key, JSONObject row) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            long offset = append(key, JSON.toJSONBytes(row));
+            if (diskIndex.remove(key) != null) {
+                deadRecords++;
+            }
+            diskIndex.put(key, offset);
+            Iterator<String> eldest = diskIndex.keySet().iterator();
+            while (diskIndex.size() > diskEntries && eldest.hasNext()) {
+                String dropped = eldest.next();
+                eldest.remove();
+                append(dropped, null);
+                deadRecords += 2;
+                diskEvictions++;
+            }
+            compactIfNeeded();
+        }
+        catch (IOException e) {
+            LOGGER.warn("[行状态] 写入磁盘失败，后续仅使用内存层：file={}，原因={}", dataFile, e.getMessage());
+            closeChannel();
+        }
+    }
+
+    /**
+     * 行被更新或删除时写入删除标记，避免异常退出后重启读到过期镜像。
+     */
+    private void dropFromDisk(String key) {
+        if (diskIndex.remove(key) == null || channel == null) {
+            return;
+        }
+        try {
+            append(key, null);
+            deadRecords += 2;
+        }
+        catch (IOException e) {
+            LOGGER.warn("[行状态] 写入磁盘失败，后续仅使用内存层：file={}，原因={}", dataFile, e.getMessage());
+            closeChannel();
+        }
+    }
+
+    /**
+     * 记录格式：键长度(int) + 键(UTF-8) + 值长度(int，-1 表示删除) + 值(JSON UTF-8)。
+     */
+    private long append(String key, byte[] value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + keyBytes.length + (value == null ? 0 : value.length));
+        buffer.putInt(keyBytes.length).put(keyBytes);
+        buffer.putInt(value == null ? REMOVED : value.length);
+        if (value != null) {
+            buffer.put(value);
+        }
+        buffer.flip();
+        long offset = channel.size();
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return offset;
+    }
+
+    private JSONObject readRow(long offset) throws IOException {
+        ByteBuffer header = readFully(offset, 4);
+        int keyLength = header.getInt();
+        long valueOffset = offset + 4 + keyLength;
+        int valueLength = readFully(valueOffset, 4).getInt();
+        if (valueLength < 0) {
+            throw new IOException("record at " + offset + " is a removal marker");
+        }
+        ByteBuffer value = readFully(valueOffset + 4, valueLength);
+        return JSON.parseObject(value.array());
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of " + dataFile);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void loadIndex() throws IOException {
+        long size = channel.size();
+        long position = 0L;
+        while (position + 8 <= size) {
+            int keyLength = readFully(position, 4).getInt();
+            if (keyLength < 0 || position + 8 + keyLength > size) {
+                break;
+            }
+            String key = new String(readFully(position + 4, keyLength).array(), StandardCharsets.UTF_8);
+            int valueLength = readFully(position + 4 + keyLength, 4).getInt();
+            long next = position + 8 + keyLength + Math.max(valueLength, 0);
+            if (next > size) {
+                break;
+            }
+            if (diskIndex.remove(key) != null) {
+                deadRecords++;
+            }
+            if (valueLength == REMOVED) {
+                deadRecords++;
+            }
+            else {
+                diskIndex.put(key, position);
+            }
+            position = next;
+        }
+        if (position < size) {
+            // 截掉异常退出时写了一半的尾部记录
+            LOGGER.warn("[行状态] 数据文件尾部不完整，已截断：file={}，有效长度={}，原长度={}", dataFile, position, size);
+            channel.truncate(position);
+        }
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (deadRecords <= diskIndex.size() || channel.size() < COMPACT_MIN_BYTES) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Path tmp = dataFile.resolveSibling(DATA_FILE + ".tmp");
+        LinkedHashMap<String, Long> compacted = new LinkedHashMap<String, Long>();
+        try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, Long> entry : diskIndex.entrySet()) {
+                long offset = entry.getValue();
+                int keyLength = readFully(offset, 4).getInt();
+                int valueLength = readFully(offset + 4 + keyLength, 4).getInt();
+                ByteBuffer record = readFully(offset, 8 + keyLength + valueLength);
+                compacted.put(entry.getKey(), target.position());
+                while (record.hasRemaining()) {
+                    target.write(record);
+                }
+            }
+            target.force(false);
+        }
+        channel.close();
+        Files.move(tmp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        diskIndex.clear();
+        diskIndex.putAll(compacted);
+        deadRecords = 0L;
+        LOGGER.info("[行状态] 数据文件压缩完成：行数={}，文件大小={}，耗时={}ms", diskIndex.size(), channel.size(), System.currentTimeMillis() - started);
+    }
+
+    private void closeChannel() {
+        SinkSupport.closeQuietly(channel);
+        channel = null;
+    }
+
+    private void logStatsIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastStatsAt >= STATS_INTERVAL_MS) {
+            lastStatsAt = now;
+            logStats();
+        }
+    }
+
+    private void logStats() {
+        LOGGER.info("[行状态] 内存命中={}，磁盘命中={}，未命中={}，内存淘汰={}，磁盘淘汰={}，内存行数={}，磁盘行数={}",
+                memoryHits, diskHits, misses, memoryEvictions, diskEvictions, memory.size(), diskIndex.size());
+    }
+
+    /**
+     * before 已包含已知镜像的全部列且无占位值时（如 REPLICA IDENTITY FULL），无需补全。
+     */
+    private static boolean covers(JSONObject image, JSONObject known) {
+        if (image == null || !image.keySet().containsAll(known.keySet())) {
+            return false;
+        }
+        for (Object value : image.values()) {
+            if (isPlaceholder(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static JSONObject merge(JSONObject base, JSONObject overlay) {
+        JSONObject merged = new JSONObject(base);
+        if (overlay != null) {
+            for (Map.Entry<String, Object> entry : overlay.entrySet()) {
+                if (!isPlaceholder(entry.getValue())) {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static JSONObject fillPlaceholders(JSONObject row, JSONObject known) {
+        JSONObject filled = null;
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (!isPlaceholder(entry.getValue())) {
+                continue;
+            }
+            Object value = known.get(entry.getKey());
+            if (value == null || isPlaceholder(value)) {
+                continue;
+            }
+            if (filled == null) {
+                filled = new JSONObject(row);
+            }
+            filled.put(entry.getKey(), value);
+        }
+        return filled == null ? row : filled;
+    }
+
+    private static boolean isPlaceholder(Object value) {
+        return value instanceof String && (TOAST_PLACEHOLDER.equals(value) || TOAST_PLACEHOLDER_BASE64.equals(value));
+    }
+
+    private static final class Entry {
+
+        private final JSONObject row;
+        // 磁盘上已有相同镜像，淘汰时无需重写
+        private final boolean onDisk;
+
+        private Entry(JSONObject row, boolean onDisk) {
+            this.row = row;
+            this.onDisk = onDisk;
+        }
+    }
+}
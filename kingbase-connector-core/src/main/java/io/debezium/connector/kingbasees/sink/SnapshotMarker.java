@@ -0,0 +1,95 @@
+package io.debezium.connector.kingbasees.sink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 全量快照进行中标记：工作目录下的标记文件记录快照尚未写完的表分组。
+ * 收到第一条快照事件时写入，最后一条快照事件写入 Doris 后移除；进程中断后标记仍在，
+ * 下次启动据此判断应断点续传快照（保留位点、跳过启动清表），而不是从头全量。
+ */
+public final class SnapshotMarker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotMarker.class);
+
+    private static final String FILE_NAME = "snapshot.running";
+    private static final String DEFAULT_GROUP = "default";
+
+    private final Path file;
+    private final Set<String> runningGroups = new LinkedHashSet<String>();
+
+    SnapshotMarker(Path workDir) {
+        this.file = workDir.resolve(FILE_NAME);
+        if (Files.isRegularFile(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (!line.trim().isEmpty()) {
+                        runningGroups.add(line.trim());
+                    }
+                }
+            }
+            catch (IOException e) {
+                LOGGER.warn("[全量快照] 读取快照标记失败：{}，原因={}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return 工作目录下是否有未完成的全量快照
+     */
+    public static boolean isPresent(Path workDir) {
+        return Files.isRegularFile(workDir.resolve(FILE_NAME));
+    }
+
+    public static void clear(Path workDir) {
+        try {
+            Files.deleteIfExists(workDir.resolve(FILE_NAME));
+        }
+        catch (IOException e) {
+            LOGGER.warn("[全量快照] 删除快照标记失败：{}，原因={}", workDir.resolve(FILE_NAME), e.getMessage());
+        }
+    }
+
+    /**
+     * @param group 表分组名，未分组时为 null
+     */
+    synchronized void started(String group) {
+        if (runningGroups.add(name(group))) {
+            write();
+            LOGGER.info("[全量快照] 表分组 {} 开始写入快照数据", name(group));
+        }
+    }
+
+    synchronized void completed(String group) {
+        if (runningGroups.remove(name(group))) {
+            write();
+            LOGGER.info("[全量快照] 表分组 {} 快照数据已全部写入", name(group));
+        }
+    }
+
+    private void write() {
+        try {
+            if (runningGroups.isEmpty()) {
+                Files.deleteIfExists(file);
+            }
+            else {
+                Files.write(file, new ArrayList<String>(runningGroups), StandardCharsets.UTF_8);
+            }
+        }
+        catch (IOException e) {
+            LOGGER.warn("[全量快照] 更新快照标记失败：{}，原因={}", file, e.getMessage());
+        }
+    }
+
+    private static String name(String group) {
+        return group == null ? DEFAULT_GROUP : group;
+    }
+}
@@ -0,0 +1,363 @@
+package io.debezium.connector.kingbasees.sink;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import io.debezium.connector.kingbasees.TableGroups;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 全量快照进度：按表统计写入行数、字节数与写入耗时，结合源端统计信息估算完成百分比与剩余时间。
+ * <p>
+ * 进度通过 JMX 暴露，同时定期写入工作目录下的进度文件，供控制台的任务运行状态读取。
+ * 读取行数取自 Debezium 快照指标（各表分组的引擎分别注册，按分组汇总），与写入行数对照可判断积压在转换队列还是源端读取。
+ */
+public final class SnapshotMetrics implements SnapshotMetricsMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotMetrics.class);
+
+    private static final String FILE_NAME = "snapshot-progress.json";
+    private static final long PUBLISH_INTERVAL_MS = 5000L;
+
+    private final Path file;
+    private final List<String> debeziumMetricsNames = new ArrayList<String>();
+    private final Map<SourceTableId, TableProgress> tables = new ConcurrentHashMap<SourceTableId, TableProgress>();
+    private final Set<String> completedGroups = ConcurrentHashMap.newKeySet();
+    private final int groupCount;
+    private final AtomicLong startedAt = new AtomicLong();
+    private final AtomicLong lastPublishedAt = new AtomicLong();
+    private volatile long completedAt;
+    private ObjectName objectName;
+
+    /**
+     * @param serverName Debezium 逻辑服务名，用于读取其快照指标
+     * @param groups 表分组名，未分组时为空
+     */
+    SnapshotMetrics(Path workDir, String serverName, Collection<String> groups) {
+        this.file = workDir.resolve(FILE_NAME);
+        if (groups.isEmpty()) {
+            debeziumMetricsNames.add(debeziumMetricsName(serverName, null));
+        }
+        for (String group : groups) {
+            debeziumMetricsNames.add(debeziumMetricsName(serverName, group));
+        }
+        this.groupCount = debeziumMetricsNames.size();
+    }
+
+    static String debeziumMetricsName(String serverName, String group) {
+        return "debezium.postgres:type=connector-metrics,context=snapshot,server=" + TableGroups.metricsName(serverName, group);
+    }
+
+    /**
+     * @return 工作目录下最近一次全量的进度（JSON），没有进度文件时返回 null
+     */
+    public static String readProgress(Path workDir) {
+        Path path = workDir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            LOGGER.warn("[全量快照] 读取进度文件失败：{}，原因={}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    void register(String connectorName) {
+        try {
+            objectName = new ObjectName("io.debezium.connector.kingbasees.sink:type=SnapshotProgress,name=" + ObjectName.quote(connectorName));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        }
+        catch (Exception e) {
+            LOGGER.warn("[全量快照] 注册快照进度 JMX 指标失败，原因={}", e.getMessage());
+        }
+    }
+
+    void unregister() {
+        try {
+            if (objectName != null && ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+        }
+        catch (Exception e) {
+            LOGGER.warn("[全量快照] 注销快照进度 JMX 指标失败，原因={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量开始前按源端统计信息设置各表的估算行数，并清除上次的进度。
+     */
+    void estimate(Map<SourceTableId, Long> estimatedRows) {
+        for (Map.Entry<SourceTableId, Long> entry : estimatedRows.entrySet()) {
+            table(entry.getKey()).estimatedRows = entry.getValue();
+        }
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            LOGGER.warn("[全量快照] 删除进度文件失败：{}，原因={}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * @param writeNanos 转换与写入这些行的耗时
+     */
+    void recordWritten(SourceTableId tableId, long rows, long bytes, long writeNanos) {
+        long now = System.currentTimeMillis();
+        startedAt.compareAndSet(0, now);
+        TableProgress progress = table(tableId);
+        progress.rowsWritten.add(rows);
+        progress.bytesWritten.add(bytes);
+        progress.writeNanos.add(writeNanos);
+        long last = lastPublishedAt.get();
+        if (now - last >= PUBLISH_INTERVAL_MS && lastPublishedAt.compareAndSet(last, now)) {
+            publish();
+        }
+    }
+
+    /**
+     * 表分组的全量写入完成，全部分组完成后整体进度才完成。
+     *
+     * @param group 表分组名，未分组时为 null
+     */
+    synchronized void completed(String group) {
+        completedGroups.add(group == null ? "" : group);
+        if (completedGroups.size() < groupCount || startedAt.get() == 0 || completedAt != 0) {
+            return;
+        }
+        completedAt = System.currentTimeMillis();
+        publish();
+        LOGGER.info("[全量快照] 全量写入完成：{} 行，{} 字节，耗时 {} 秒，平均 {} 行/秒",
+                getRowsWritten(), getBytesWritten(), getElapsedSeconds(), Math.round(getRowsPerSecond()));
+    }
+
+    @Override
+    public boolean isCompleted() {
+        return completedAt != 0;
+    }
+
+    @Override
+    public long getElapsedSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(elapsedMillis());
+    }
+
+    @Override
+    public long getEstimatedRows() {
+        long total = -1;
+        for (TableProgress progress : tables.values()) {
+            if (progress.estimatedRows >= 0) {
+                total = Math.max(total, 0) + progress.estimatedRows;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return 各表分组已读取行数之和，尚无分组开始快照时返回 -1
+     */
+    @Override
+    public long getRowsRead() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        long total = -1;
+        for (String name : debeziumMetricsNames) {
+            try {
+                Object rowsScanned = server.getAttribute(new ObjectName(name), "RowsScanned");
+                if (!(rowsScanned instanceof TabularData)) {
+                    continue;
+                }
+                long rows = 0;
+                for (Object row : ((TabularData) rowsScanned).values()) {
+                    rows += ((Number) ((CompositeData) row).get("value")).longValue();
+                }
+                total = Math.max(total, 0) + rows;
+            }
+            catch (Exception e) {
+                // 分组的引擎尚未启动或已结束快照，不计入
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long getRowsWritten() {
+        long total = 0;
+        for (TableProgress progress : tables.values()) {
+            total += progress.rowsWritten.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        long total = 0;
+        for (TableProgress progress : tables.values()) {
+            total += progress.bytesWritten.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public double getRowsPerSecond() {
+        long elapsed = elapsedMillis();
+        return elapsed <= 0 ? 0 : getRowsWritten() * 1000.0 / elapsed;
+    }
+
+    @Override
+    public double getProgressPercent() {
+        return isCompleted() ? 100 : percent(getRowsWritten(), getEstimatedRows());
+    }
+
+    @Override
+    public long getEtaSeconds() {
+        if (isCompleted()) {
+            return 0;
+        }
+        long estimated = getEstimatedRows();
+        double rate = getRowsPerSecond();
+        if (estimated < 0 || rate <= 0) {
+            return -1;
+        }
+        return Math.round(Math.max(0, estimated - getRowsWritten()) / rate);
+    }
+
+    @Override
+    public double getWriteBusyPercent() {
+        long elapsed = elapsedMillis();
+        if (elapsed <= 0) {
+            return -1;
+        }
+        long writeNanos = 0;
+        for (TableProgress progress : tables.values()) {
+            writeNanos += progress.writeNanos.sum();
+        }
+        // 批量导入多线程写入时累计耗时会超过已用时间
+        return Math.min(100, TimeUnit.NANOSECONDS.toMillis(writeNanos) * 100.0 / elapsed);
+    }
+
+    @Override
+    public Map<String, Long> getRowsWrittenByTable() {
+        Map<String, Long> rows = new TreeMap<String, Long>();
+        for (Map.Entry<SourceTableId, TableProgress> entry : tables.entrySet()) {
+            rows.put(entry.getKey().toString(), entry.getValue().rowsWritten.sum());
+        }
+        return rows;
+    }
+
+    @Override
+    public Map<String, Long> getEstimatedRowsByTable() {
+        Map<String, Long> rows = new TreeMap<String, Long>();
+        for (Map.Entry<SourceTableId, TableProgress> entry : tables.entrySet()) {
+            rows.put(entry.getKey().toString(), entry.getValue().estimatedRows);
+        }
+        return rows;
+    }
+
+    JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("completed", isCompleted());
+        json.put("startedAt", startedAt.get() == 0 ? null : startedAt.get());
+        json.put("updatedAt", System.currentTimeMillis());
+        json.put("elapsedSeconds", getElapsedSeconds());
+        json.put("estimatedRows", getEstimatedRows());
+        json.put("rowsRead", getRowsRead());
+        json.put("rowsWritten", getRowsWritten());
+        json.put("bytesWritten", getBytesWritten());
+        json.put("rowsPerSecond", Math.round(getRowsPerSecond()));
+        json.put("progressPercent", round(getProgressPercent()));
+        json.put("etaSeconds", getEtaSeconds());
+        json.put("writeBusyPercent", round(getWriteBusyPercent()));
+        JSONArray tableArray = new JSONArray();
+        for (Map.Entry<SourceTableId, TableProgress> entry : byName().values()) {
+            TableProgress progress = entry.getValue();
+            long rowsWritten = progress.rowsWritten.sum();
+            JSONObject table = new JSONObject();
+            table.put("table", entry.getKey().toString());
+            table.put("estimatedRows", progress.estimatedRows);
+            table.put("rowsWritten", rowsWritten);
+            table.put("bytesWritten", progress.bytesWritten.sum());
+            table.put("progressPercent", round(percent(rowsWritten, progress.estimatedRows)));
+            tableArray.add(table);
+        }
+        json.put("tables", tableArray);
+        return json;
+    }
+
+    private void publish() {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            Files.write(temp, toJson().toJSONString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            LOGGER.warn("[全量快照] 写入进度文件失败：{}，原因={}", file, e.getMessage());
+        }
+    }
+
+    private Map<String, Map.Entry<SourceTableId, TableProgress>> byName() {
+        Map<String, Map.Entry<SourceTableId, TableProgress>> byName = new TreeMap<String, Map.Entry<SourceTableId, TableProgress>>();
+        for (Map.Entry<SourceTableId, TableProgress> entry : tables.entrySet()) {
+            byName.put(entry.getKey().toString(), entry);
+        }
+        return byName;
+    }
+
+    private TableProgress table(SourceTableId tableId) {
+        return tables.computeIfAbsent(tableId, k -> new TableProgress());
+    }
+
+    private long elapsedMillis() {
+        long start = startedAt.get();
+        if (start == 0) {
+            return 0;
+        }
+        return (completedAt != 0 ? completedAt : System.currentTimeMillis()) - start;
+    }
+
+    /**
+     * 统计信息只是估算，未完成时百分比最高按 99.9 显示。
+     */
+    static double percent(long rows, long estimatedRows) {
+        if (estimatedRows <= 0) {
+            return -1;
+        }
+        return Math.min(99.9, rows * 100.0 / estimatedRows);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static final class TableProgress {
+
+        private volatile long estimatedRows = -1;
+        private final LongAdder rowsWritten = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder writeNanos = new LongAdder();
+    }
+}
@@ -0,0 +1,43 @@
+package io.debezium.connector.kingbasees.sink;
+
+import java.util.Map;
+
+/**
+ * 全量快照进度的 JMX 视图，对象名为 {@code io.debezium.connector.kingbasees.sink:type=SnapshotProgress,name=<连接器名>}。
+ * 估算值无法得出时返回 -1。
+ */
+public interface SnapshotMetricsMXBean {
+
+    boolean isCompleted();
+
+    long getElapsedSeconds();
+
+    /**
+     * @return 源端按统计信息估算的总行数
+     */
+    long getEstimatedRows();
+
+    /**
+     * @return Debezium 快照已读取的行数（批量导入时不经过 Debezium，为 -1）
+     */
+    long getRowsRead();
+
+    long getRowsWritten();
+
+    long getBytesWritten();
+
+    double getRowsPerSecond();
+
+    double getProgressPercent();
+
+    long getEtaSeconds();
+
+    /**
+     * @return 写入端（转换与写入 Doris）耗时占已用时间的百分比；接近 100 表示瓶颈在写入端，偏低表示在源端读取
+     */
+    double getWriteBusyPercent();
+
+    Map<String, Long> getRowsWrittenByTable();
+
+    Map<String, Long> getEstimatedRowsByTable();
+}
@@ -0,0 +1,115 @@
+package io.debezium.connector.kingbasees.sink;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 单表全量快照的列裁剪与行过滤，只影响全量读取，增量变更仍按整行同步。
+ * 配置为 JSON 对象，键为 schema.table，columns 可写数组或逗号分隔的列名，例如：
+ * {"public.orders":{"columns":"id,amount,created_at","where":"created_at >= '2024-01-01'"}}
+ */
+final class SnapshotOverride {
+
+    private final List<String> columns;
+    private final String where;
+
+    SnapshotOverride(List<String> columns, String where) {
+        this.columns = columns;
+        this.where = SinkSupport.isBlank(where) ? null : where.trim();
+    }
+
+    static Map<SourceTableId, SnapshotOverride> parse(String json) {
+        if (SinkSupport.isBlank(json)) {
+            return Collections.emptyMap();
+        }
+        JSONObject root;
+        try {
+            root = JSON.parseObject(json);
+        }
+        catch (RuntimeException e) {
+            throw new IllegalArgumentException("快照裁剪配置不是合法的 JSON 对象：" + json, e);
+        }
+        Map<SourceTableId, SnapshotOverride> overrides = new LinkedHashMap<SourceTableId, SnapshotOverride>();
+        for (Map.Entry<String, Object> entry : root.entrySet()) {
+            List<SourceTableId> tables = SinkSupport.parseTableList(entry.getKey());
+            if (tables.size() != 1 || !(entry.getValue() instanceof JSONObject)) {
+                throw new IllegalArgumentException("快照裁剪配置项非法（键必须是 schema.table，值必须是对象）：" + entry.getKey());
+            }
+            JSONObject node = (JSONObject) entry.getValue();
+            Object rawColumns = node.get("columns");
+            List<String> columns = rawColumns instanceof JSONArray
+                    ? ((JSONArray) rawColumns).toJavaList(String.class)
+                    : SinkSupport.parseStringList(rawColumns == null ? null : rawColumns.toString());
+            overrides.put(tables.get(0), new SnapshotOverride(columns, node.getString("where")));
+        }
+        return overrides;
+    }
+
+    /**
+     * @return 快照读取的列，为空表示全部列
+     */
+    List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return 行过滤条件，未配置时为 null
+     */
+    String getWhere() {
+        return where;
+    }
+
+    /**
+     * 按源表结构校验：裁剪后的列必须存在且包含全部主键，否则 Doris 无法按主键写入；
+     * 未读取的列写入 Doris 时为 NULL，因此必须允许为空。
+     */
+    void validate(SourceTableMeta meta) {
+        List<String> unknown = new ArrayList<String>();
+        for (String column : columns) {
+            if (!meta.getColumnMap().containsKey(column)) {
+                unknown.add(column);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("快照裁剪配置引用了不存在的列：" + meta.getId() + " " + unknown);
+        }
+        if (!columns.isEmpty() && !columns.containsAll(meta.getPrimaryKeys())) {
+            throw new IllegalArgumentException("快照裁剪配置必须包含全部主键列：" + meta.getId() + " " + meta.getPrimaryKeys());
+        }
+        for (SourceColumn column : meta.getColumns()) {
+            if (!columns.isEmpty() && !columns.contains(column.getName()) && !column.isNullable()) {
+                throw new IllegalArgumentException("快照裁剪配置不能省略非空列：" + meta.getId() + "." + column.getName());
+            }
+        }
+    }
+
+    /**
+     * @return 读取该表快照的查询语句
+     */
+    String selectStatement(SourceTableId tableId) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (columns.isEmpty()) {
+            sql.append('*');
+        }
+        else {
+            StringJoiner select = new StringJoiner(", ");
+            for (String column : columns) {
+                select.add(SinkSupport.quoteIdentifier(column));
+            }
+            sql.append(select);
+        }
+        sql.append(" FROM ").append(tableId.toQuotedName());
+        if (where != null) {
+            sql.append(" WHERE (").append(where).append(')');
+        }
+        return sql.toString();
+    }
+}
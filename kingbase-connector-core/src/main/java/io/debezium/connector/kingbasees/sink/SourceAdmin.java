@@ -10,16 +10,22 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * 源端管理职责：
  * 1) 复制槽管理
  * 2) REPLICA IDENTITY FULL 设置
- * 3) 源表结构元数据加载
+ * 3) 源表结构元数据加载（启动时批量预加载，运行期按表补充）
+ * 4) 分区表层级识别
  */
 final class SourceAdmin {
 
@@ -28,6 +34,7 @@ final class SourceAdmin {
     private final Connection connection;
     private final SyncConfig config;
     private final Map<SourceTableId, SourceTableMeta> metaCache = new ConcurrentHashMap<SourceTableId, SourceTableMeta>();
+    private PartitionHierarchy partitions = PartitionHierarchy.EMPTY;
 
     SourceAdmin(Connection connection, SyncConfig config) {
         this.connection = connection;
@@ -39,19 +46,33 @@ final class SourceAdmin {
             return;
         }
 
-        boolean exists = slotExists(config.kbSlotName);
+        // 表分组时每组一个复制槽
+        for (String slotName : config.slotNames()) {
+            initSlot(slotName);
+        }
+    }
+
+    private void initSlot(String slotName) throws SQLException {
+        boolean exists = slotExists(slotName);
         if (exists && config.kbSlotRecreate) {
-            execSingleValue("SELECT sys_drop_replication_slot(?)", config.kbSlotName);
+            execSingleValue("SELECT sys_drop_replication_slot(?)", slotName);
             exists = false;
-            LOGGER.info("[源端管理] 已删除复制槽：{}", config.kbSlotName);
+            LOGGER.info("[源端管理] 已删除复制槽：{}", slotName);
         }
 
         if (!exists) {
-            execSingleValue("SELECT * FROM sys_create_logical_replication_slot(?, ?)", config.kbSlotName, config.kbPlugin);
-            LOGGER.info("[源端管理] 已创建复制槽：{}，插件={}", config.kbSlotName, config.kbPlugin);
+            execSingleValue("SELECT * FROM sys_create_logical_replication_slot(?, ?)", slotName, config.kbPlugin);
+            LOGGER.info("[源端管理] 已创建复制槽：{}，插件={}", slotName, config.kbPlugin);
         }
         else {
-            LOGGER.info("[源端管理] 复制槽已存在：{}", config.kbSlotName);
+            LOGGER.info("[源端管理] 复制槽已存在：{}", slotName);
+        }
+    }
+
+    void dropSlotIfExists(String slotName) throws SQLException {
+        if (slotExists(slotName)) {
+            execSingleValue("SELECT sys_drop_replication_slot(?)", slotName);
+            LOGGER.info("[源端管理] 已删除复制槽：{}", slotName);
         }
     }
 
@@ -99,15 +120,7 @@ final class SourceAdmin {
             ps.setString(2, tableId.getTable());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    String name = rs.getString("column_name");
-                    String dataType = SinkSupport.lower(rs.getString("data_type"));
-                    String udtName = SinkSupport.lower(rs.getString("udt_name"));
-                    Integer precision = SinkSupport.toInteger(rs, "numeric_precision");
-                    Integer scale = SinkSupport.toInteger(rs, "numeric_scale");
-                    Integer length = SinkSupport.toInteger(rs, "character_maximum_length");
-                    boolean nullable = "YES".equalsIgnoreCase(rs.getString("is_nullable"));
-                    String dorisType = SinkSupport.mapToDorisType(dataType, udtName, precision, scale, length);
-                    columns.add(new SourceColumn(name, dataType, udtName, dorisType, nullable));
+                    columns.add(readColumn(rs));
                 }
             }
         }
@@ -144,6 +157,214 @@ final class SourceAdmin {
         return meta;
     }
 
+    /**
+     * 启动时批量预加载全部纳入同步表的元数据：按 schema 一次查询字段、一次查询主键，
+     * 替代逐表两次 information_schema 查询；未能预加载的表仍由 {@link #loadTableMeta} 按需加载。
+     */
+    void preloadTableMeta() throws SQLException {
+        List<SourceTableId> tables = listIncludedTables();
+        if (tables.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        Map<String, Set<String>> wanted = new LinkedHashMap<String, Set<String>>();
+        for (SourceTableId tableId : tables) {
+            if (!metaCache.containsKey(tableId)) {
+                wanted.computeIfAbsent(tableId.getSchema(), k -> new HashSet<String>()).add(tableId.getTable());
+            }
+        }
+        if (wanted.isEmpty()) {
+            return;
+        }
+        List<String> schemas = new ArrayList<String>(wanted.keySet());
+        String placeholders = schemas.stream().map(s -> "?").collect(Collectors.joining(", "));
+
+        // 字段类型沿用 information_schema 的 data_type/udt_name 口径，保证与逐表加载映射出的 Doris 类型一致
+        String colSql = "SELECT table_schema, table_name, column_name, data_type, udt_name, numeric_precision, numeric_scale, " +
+                "character_maximum_length, is_nullable " +
+                "FROM information_schema.columns " +
+                "WHERE table_schema IN (" + placeholders + ") " +
+                "ORDER BY table_schema, table_name, ordinal_position";
+        Map<SourceTableId, List<SourceColumn>> columnsByTable = new LinkedHashMap<SourceTableId, List<SourceColumn>>();
+        try (PreparedStatement ps = connection.prepareStatement(colSql)) {
+            bindSchemas(ps, schemas);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    SourceTableId tableId = wantedTable(wanted, rs.getString("table_schema"), rs.getString("table_name"));
+                    if (tableId != null) {
+                        columnsByTable.computeIfAbsent(tableId, k -> new ArrayList<SourceColumn>()).add(readColumn(rs));
+                    }
+                }
+            }
+        }
+
+        String pkSql = "SELECT n.nspname AS table_schema, c.relname AS table_name, a.attname AS column_name " +
+                "FROM pg_catalog.pg_index i " +
+                "JOIN pg_catalog.pg_class c ON c.oid = i.indrelid " +
+                "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace " +
+                "JOIN pg_catalog.pg_attribute a ON a.attrelid = c.oid AND a.attnum = ANY(i.indkey) " +
+                "WHERE i.indisprimary AND n.nspname IN (" + placeholders + ") " +
+                "ORDER BY n.nspname, c.relname, array_position(i.indkey::int2[], a.attnum)";
+        Map<SourceTableId, List<String>> primaryKeysByTable = new HashMap<SourceTableId, List<String>>();
+        try (PreparedStatement ps = connection.prepareStatement(pkSql)) {
+            bindSchemas(ps, schemas);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    SourceTableId tableId = wantedTable(wanted, rs.getString("table_schema"), rs.getString("table_name"));
+                    if (tableId != null) {
+                        primaryKeysByTable.computeIfAbsent(tableId, k -> new ArrayList<String>()).add(rs.getString("column_name"));
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<SourceTableId, List<SourceColumn>> entry : columnsByTable.entrySet()) {
+            List<String> primaryKeys = primaryKeysByTable.getOrDefault(entry.getKey(), Collections.<String>emptyList());
+            metaCache.put(entry.getKey(), new SourceTableMeta(entry.getKey(), entry.getValue(), primaryKeys));
+        }
+        LOGGER.info("[源端管理] 源表元数据批量预加载完成：表数={}，耗时={}ms", columnsByTable.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * 纳入同步的表：显式表清单优先，其次按 schema 清单展开。
+     */
+    List<SourceTableId> listIncludedTables() throws SQLException {
+        if (!config.tableIncludeList.isEmpty()) {
+            return config.tableIncludeList;
+        }
+        if (!config.schemaIncludeList.isEmpty()) {
+            return listTablesBySchemas(config.schemaIncludeList);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 按源表结构校验快照裁剪配置，并以不返回数据的查询检查过滤条件能否执行。
+     */
+    void validateSnapshotOverrides() throws SQLException {
+        for (Map.Entry<SourceTableId, SnapshotOverride> entry : config.kbSnapshotOverrides.entrySet()) {
+            entry.getValue().validate(loadTableMeta(entry.getKey()));
+            String sql = entry.getValue().selectStatement(entry.getKey()) + " LIMIT 0";
+            try (Statement stmt = connection.createStatement();
+                 ResultSet ignored = stmt.executeQuery(sql)) {
+                LOGGER.info("[源端管理] 快照裁剪配置校验通过：{}", sql);
+            }
+            catch (SQLException e) {
+                throw new IllegalArgumentException("快照裁剪配置无法执行：" + entry.getKey() + "，原因=" + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 从系统表识别纳入同步范围的顶层分区表及其叶子分区（多级分区递归展开），启动时调用一次。
+     * 数据库不支持声明式分区或查询失败时，分区按普通表处理。
+     */
+    void loadPartitionHierarchy() {
+        if (!config.kbPartitionRouteToRoot) {
+            return;
+        }
+        String sql = "WITH RECURSIVE tree AS (" +
+                "  SELECT c.oid AS root_oid, c.oid AS rel_oid, c.relkind " +
+                "  FROM pg_catalog.pg_class c " +
+                "  WHERE c.relkind = 'p' AND NOT c.relispartition " +
+                "  UNION ALL " +
+                "  SELECT t.root_oid, i.inhrelid, c.relkind " +
+                "  FROM tree t " +
+                "  JOIN pg_catalog.pg_inherits i ON i.inhparent = t.rel_oid " +
+                "  JOIN pg_catalog.pg_class c ON c.oid = i.inhrelid" +
+                ") " +
+                "SELECT rn.nspname AS root_schema, rc.relname AS root_table, ln.nspname AS leaf_schema, lc.relname AS leaf_table " +
+                "FROM tree t " +
+                "JOIN pg_catalog.pg_class rc ON rc.oid = t.root_oid " +
+                "JOIN pg_catalog.pg_namespace rn ON rn.oid = rc.relnamespace " +
+                "JOIN pg_catalog.pg_class lc ON lc.oid = t.rel_oid " +
+                "JOIN pg_catalog.pg_namespace ln ON ln.oid = lc.relnamespace " +
+                "WHERE t.relkind <> 'p' AND rn.nspname NOT IN ('pg_catalog', 'information_schema') " +
+                "ORDER BY rn.nspname, rc.relname, ln.nspname, lc.relname";
+        Map<SourceTableId, List<SourceTableId>> leavesByRoot = new LinkedHashMap<SourceTableId, List<SourceTableId>>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                SourceTableId root = new SourceTableId(rs.getString("root_schema"), rs.getString("root_table"));
+                if (isPartitionRootIncluded(root)) {
+                    leavesByRoot.computeIfAbsent(root, k -> new ArrayList<SourceTableId>())
+                            .add(new SourceTableId(rs.getString("leaf_schema"), rs.getString("leaf_table")));
+                }
+            }
+        }
+        catch (SQLException e) {
+            LOGGER.warn("[源端管理] 分区表层级查询失败，分区按普通表同步，原因={}", e.getMessage());
+            return;
+        }
+        partitions = new PartitionHierarchy(leavesByRoot);
+        for (Map.Entry<SourceTableId, List<SourceTableId>> entry : leavesByRoot.entrySet()) {
+            LOGGER.info("[源端管理] 识别到分区表：{}，叶子分区数={}，各分区写入同一目标表", entry.getKey(), entry.getValue().size());
+        }
+    }
+
+    /**
+     * @return 纳入同步的分区表层级，未识别时为空
+     */
+    PartitionHierarchy partitions() {
+        return partitions;
+    }
+
+    private boolean isPartitionRootIncluded(SourceTableId root) {
+        if (!config.tableIncludeList.isEmpty()) {
+            return config.tableIncludeList.contains(root);
+        }
+        return config.schemaIncludeList.isEmpty() || config.schemaIncludeList.contains(root.getSchema());
+    }
+
+    /**
+     * 按统计信息（pg_class.reltuples）估算各表行数，用于全量进度与剩余时间估算；
+     * 从未分析过（或统计为空）的表没有估算值，不在结果中。
+     */
+    Map<SourceTableId, Long> estimateRowCounts(List<SourceTableId> tables) throws SQLException {
+        Map<SourceTableId, Long> estimates = new HashMap<SourceTableId, Long>();
+        if (tables.isEmpty()) {
+            return estimates;
+        }
+        Map<String, Set<String>> wanted = new LinkedHashMap<String, Set<String>>();
+        for (SourceTableId tableId : tables) {
+            wanted.computeIfAbsent(tableId.getSchema(), k -> new HashSet<String>()).add(tableId.getTable());
+        }
+        List<String> schemas = new ArrayList<String>(wanted.keySet());
+        String sql = "SELECT n.nspname AS table_schema, c.relname AS table_name, c.reltuples::bigint AS estimated_rows " +
+                "FROM pg_catalog.pg_class c " +
+                "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE c.relkind IN ('r', 'f') AND n.nspname IN (" + schemas.stream().map(s -> "?").collect(Collectors.joining(", ")) + ")";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            bindSchemas(ps, schemas);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    SourceTableId tableId = wantedTable(wanted, rs.getString("table_schema"), rs.getString("table_name"));
+                    long rows = rs.getLong("estimated_rows");
+                    if (tableId != null && rows > 0) {
+                        estimates.put(tableId, rows);
+                    }
+                }
+            }
+        }
+        return estimates;
+    }
+
+    /**
+     * @return 整数列的最小值与最大值，表为空时返回 null
+     */
+    long[] keyBounds(SourceTableId tableId, String column) throws SQLException {
+        String name = SinkSupport.quoteIdentifier(column);
+        String sql = "SELECT min(" + name + "), max(" + name + ") FROM " + tableId.toQuotedName();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (!rs.next() || rs.getObject(1) == null) {
+                return null;
+            }
+            return new long[]{rs.getLong(1), rs.getLong(2)};
+        }
+    }
+
     List<SourceTableId> listTablesBySchemas(List<String> schemas) throws SQLException {
         if (schemas.isEmpty()) {
             return Collections.emptyList();
@@ -172,16 +393,35 @@ final class SourceAdmin {
     }
 
     private List<SourceTableId> resolveReplicaIdentityTargets() throws SQLException {
+        // 分区表的 REPLICA IDENTITY 不会传递到已有分区，需逐个叶子分区设置
         if (!config.kbReplicaIdentityFullTables.isEmpty()) {
-            return config.kbReplicaIdentityFullTables;
+            return partitions.expand(config.kbReplicaIdentityFullTables);
         }
-        if (!config.tableIncludeList.isEmpty()) {
-            return config.tableIncludeList;
-        }
-        if (!config.schemaIncludeList.isEmpty()) {
-            return listTablesBySchemas(config.schemaIncludeList);
+        return partitions.expand(listIncludedTables());
+    }
+
+    private static SourceColumn readColumn(ResultSet rs) throws SQLException {
+        String name = rs.getString("column_name");
+        String dataType = SinkSupport.lower(rs.getString("data_type"));
+        String udtName = SinkSupport.lower(rs.getString("udt_name"));
+        Integer precision = SinkSupport.toInteger(rs, "numeric_precision");
+        Integer scale = SinkSupport.toInteger(rs, "numeric_scale");
+        Integer length = SinkSupport.toInteger(rs, "character_maximum_length");
+        boolean nullable = "YES".equalsIgnoreCase(rs.getString("is_nullable"));
+        String dorisType = SinkSupport.mapToDorisType(dataType, udtName, precision, scale, length);
+        return new SourceColumn(name, dataType, udtName, dorisType, nullable);
+    }
+
+    private static SourceTableId wantedTable(Map<String, Set<String>> wanted, String schema, String table) {
+        Set<String> tables = wanted.get(schema);
+        return tables != null && tables.contains(table) ? new SourceTableId(schema, table) : null;
+    }
+
+    private static void bindSchemas(PreparedStatement ps, List<String> schemas) throws SQLException {
+        int i = 1;
+        for (String schema : schemas) {
+            ps.setString(i++, schema);
         }
-        return Collections.emptyList();
     }
 
     private boolean slotExists(String slotName) throws SQLException {
@@ -1,8 +1,11 @@
 package io.debezium.connector.kingbasees.sink;
 
+import io.debezium.connector.kingbasees.TableGroups;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 同步任务运行配置。
@@ -15,6 +18,7 @@ final class SyncConfig {
     final String workDir;
     final String offsetFile;
     final String historyFile;
+    final String schemaCacheFile;
     final long offsetFlushMs;
 
     // Kingbase 源端参数
@@ -34,6 +38,27 @@ final class SyncConfig {
     final boolean kbReplicaIdentityFull;
     final boolean kbReplicaIdentityFullFailFast;
     final List<SourceTableId> kbReplicaIdentityFullTables;
+    final int kbDecodingThreads;
+    final String kbTableGroups;
+    final int kbTableGroupCount;
+    final int kbSnapshotThreads;
+    final String kbSnapshotThreadsPerTable;
+    final long kbSnapshotChunkSize;
+    final long kbSnapshotFetchBytes;
+    final long kbSnapshotMemoryBytes;
+    final boolean kbSnapshotResumable;
+    final boolean kbPartitionRouteToRoot;
+    final Map<SourceTableId, SnapshotOverride> kbSnapshotOverrides;
+    final String kbSignalTable;
+    final int kbIncrementalSnapshotChunkSize;
+
+    // COPY 直连批量全量导入（绕过事件管道，经 Stream Load 写入 Doris）
+    final boolean bulkLoadEnabled;
+    final int bulkLoadThreads;
+    final long bulkLoadBatchBytes;
+    final String bulkLoadMode;
+    final long bulkLoadRangeRows;
+    final String bulkLoadCatalogDriverUrl;
 
     // 过滤范围
     final String tableIncludeListRaw;
@@ -44,6 +69,7 @@ final class SyncConfig {
     // Doris 目标端参数
     final String dorisHost;
     final String dorisPort;
+    final String dorisHttpPort;
     final String dorisUser;
     final String dorisPassword;
     final String dorisDatabase;
@@ -74,11 +100,24 @@ final class SyncConfig {
     final boolean includeDeltas;
     final boolean tombstoneAsDelete;
 
+    // 行状态存储（未开启 REPLICA IDENTITY FULL 时回填 TOAST 列与 before 镜像）
+    final boolean rowStateEnabled;
+    final String rowStateDir;
+    final int rowStateMemoryRows;
+    // 磁盘层的行索引常驻堆内，每行约 100 字节 + 2 倍键长（源表名 + 主键 JSON），默认 100 万行约占 150MB 堆
+    final int rowStateDiskRows;
+
+    // 事务级缓冲（大事务超过阈值后溢写磁盘）
+    final boolean transactionEnabled;
+    final String transactionSpillDir;
+    final long transactionSpillBytes;
+
     private SyncConfig(
             String connectorName,
             String workDir,
             String offsetFile,
             String historyFile,
+            String schemaCacheFile,
             long offsetFlushMs,
             String kbHost,
             String kbPort,
@@ -96,12 +135,32 @@ final class SyncConfig {
             boolean kbReplicaIdentityFull,
             boolean kbReplicaIdentityFullFailFast,
             List<SourceTableId> kbReplicaIdentityFullTables,
+            int kbDecodingThreads,
+            String kbTableGroups,
+            int kbTableGroupCount,
+            int kbSnapshotThreads,
+            String kbSnapshotThreadsPerTable,
+            long kbSnapshotChunkSize,
+            long kbSnapshotFetchBytes,
+            long kbSnapshotMemoryBytes,
+            boolean kbSnapshotResumable,
+            boolean kbPartitionRouteToRoot,
+            Map<SourceTableId, SnapshotOverride> kbSnapshotOverrides,
+            String kbSignalTable,
+            int kbIncrementalSnapshotChunkSize,
+            boolean bulkLoadEnabled,
+            int bulkLoadThreads,
+            long bulkLoadBatchBytes,
+            String bulkLoadMode,
+            long bulkLoadRangeRows,
+            String bulkLoadCatalogDriverUrl,
             String tableIncludeListRaw,
             String schemaIncludeListRaw,
             List<SourceTableId> tableIncludeList,
             List<String> schemaIncludeList,
             String dorisHost,
             String dorisPort,
+            String dorisHttpPort,
             String dorisUser,
             String dorisPassword,
             String dorisDatabase,
@@ -128,11 +187,19 @@ final class SyncConfig {
             DeltaNullStrategy deltaNullStrategy,
             boolean includeChangedFields,
             boolean includeDeltas,
-            boolean tombstoneAsDelete) {
+            boolean tombstoneAsDelete,
+            boolean rowStateEnabled,
+            String rowStateDir,
+            int rowStateMemoryRows,
+            int rowStateDiskRows,
+            boolean transactionEnabled,
+            String transactionSpillDir,
+            long transactionSpillBytes) {
         this.connectorName = connectorName;
         this.workDir = workDir;
         this.offsetFile = offsetFile;
         this.historyFile = historyFile;
+        this.schemaCacheFile = schemaCacheFile;
         this.offsetFlushMs = offsetFlushMs;
 
         this.kbHost = kbHost;
@@ -151,6 +218,25 @@ final class SyncConfig {
         this.kbReplicaIdentityFull = kbReplicaIdentityFull;
         this.kbReplicaIdentityFullFailFast = kbReplicaIdentityFullFailFast;
         this.kbReplicaIdentityFullTables = kbReplicaIdentityFullTables;
+        this.kbDecodingThreads = kbDecodingThreads;
+        this.kbTableGroups = kbTableGroups;
+        this.kbTableGroupCount = kbTableGroupCount;
+        this.kbSnapshotThreads = kbSnapshotThreads;
+        this.kbSnapshotThreadsPerTable = kbSnapshotThreadsPerTable;
+        this.kbSnapshotChunkSize = kbSnapshotChunkSize;
+        this.kbSnapshotFetchBytes = kbSnapshotFetchBytes;
+        this.kbSnapshotMemoryBytes = kbSnapshotMemoryBytes;
+        this.kbSnapshotResumable = kbSnapshotResumable;
+        this.kbPartitionRouteToRoot = kbPartitionRouteToRoot;
+        this.kbSnapshotOverrides = kbSnapshotOverrides;
+        this.kbSignalTable = kbSignalTable;
+        this.kbIncrementalSnapshotChunkSize = kbIncrementalSnapshotChunkSize;
+        this.bulkLoadEnabled = bulkLoadEnabled;
+        this.bulkLoadThreads = bulkLoadThreads;
+        this.bulkLoadBatchBytes = bulkLoadBatchBytes;
+        this.bulkLoadMode = bulkLoadMode;
+        this.bulkLoadRangeRows = bulkLoadRangeRows;
+        this.bulkLoadCatalogDriverUrl = bulkLoadCatalogDriverUrl;
 
         this.tableIncludeListRaw = tableIncludeListRaw;
         this.schemaIncludeListRaw = schemaIncludeListRaw;
@@ -159,6 +245,7 @@ final class SyncConfig {
 
         this.dorisHost = dorisHost;
         this.dorisPort = dorisPort;
+        this.dorisHttpPort = dorisHttpPort;
         this.dorisUser = dorisUser;
         this.dorisPassword = dorisPassword;
         this.dorisDatabase = dorisDatabase;
@@ -187,12 +274,24 @@ final class SyncConfig {
         this.includeChangedFields = includeChangedFields;
         this.includeDeltas = includeDeltas;
         this.tombstoneAsDelete = tombstoneAsDelete;
+        this.rowStateEnabled = rowStateEnabled;
+        this.rowStateDir = rowStateDir;
+        this.rowStateMemoryRows = rowStateMemoryRows;
+        this.rowStateDiskRows = rowStateDiskRows;
+        this.transactionEnabled = transactionEnabled;
+        this.transactionSpillDir = transactionSpillDir;
+        this.transactionSpillBytes = transactionSpillBytes;
     }
 
     static SyncConfig load() {
         String workDir = SinkSupport.getSetting("sync.work.dir", "SYNC_WORK_DIR", "/tmp/debezium/kingbase-doris");
         String offsetFile = SinkSupport.getSetting("sync.offset.file", "SYNC_OFFSET_FILE", workDir + "/offset.dat");
         String historyFile = SinkSupport.getSetting("sync.history.file", "SYNC_HISTORY_FILE", workDir + "/history.dat");
+        // 表结构缓存文件，配置为 none 时关闭
+        String schemaCacheFile = SinkSupport.getSetting("sync.schema.cache.file", "SYNC_SCHEMA_CACHE_FILE", workDir + "/schema-cache.json");
+        if ("none".equalsIgnoreCase(schemaCacheFile)) {
+            schemaCacheFile = "";
+        }
 
         String tableIncludeRaw = SinkSupport.normalizeCsvList(SinkSupport.getSetting("kb.tables", "KB_TABLES", ""));
         String schemaIncludeRaw = SinkSupport.normalizeCsvList(SinkSupport.getSetting("kb.schemas", "KB_SCHEMAS", ""));
@@ -202,6 +301,7 @@ final class SyncConfig {
                 workDir,
                 offsetFile,
                 historyFile,
+                schemaCacheFile,
                 SinkSupport.parseLong(SinkSupport.getSetting("sync.offset.flush.ms", "SYNC_OFFSET_FLUSH_MS", "10000"), 10000L),
                 SinkSupport.getSetting("kb.host", "KB_HOST", "127.0.0.1"),
                 SinkSupport.getSetting("kb.port", "KB_PORT", "54321"),
@@ -219,12 +319,32 @@ final class SyncConfig {
                 SinkSupport.parseBoolean(SinkSupport.getSetting("kb.replica.identity.full", "KB_REPLICA_IDENTITY_FULL", "false")),
                 SinkSupport.parseBoolean(SinkSupport.getSetting("kb.replica.identity.full.fail-fast", "KB_REPLICA_IDENTITY_FULL_FAIL_FAST", "false")),
                 SinkSupport.parseTableList(SinkSupport.normalizeCsvList(SinkSupport.getSetting("kb.replica.identity.full.tables", "KB_REPLICA_IDENTITY_FULL_TABLES", ""))),
+                SinkSupport.parseInt(SinkSupport.getSetting("kb.decoding.threads", "KB_DECODING_THREADS", "0"), 0),
+                SinkSupport.getSetting("kb.table.groups", "KB_TABLE_GROUPS", ""),
+                SinkSupport.parseInt(SinkSupport.getSetting("kb.table.group.count", "KB_TABLE_GROUP_COUNT", "1"), 1),
+                SinkSupport.parseInt(SinkSupport.getSetting("kb.snapshot.threads", "KB_SNAPSHOT_THREADS", "1"), 1),
+                SinkSupport.getSetting("kb.snapshot.threads.per.table", "KB_SNAPSHOT_THREADS_PER_TABLE", ""),
+                SinkSupport.parseLong(SinkSupport.getSetting("kb.snapshot.chunk.size", "KB_SNAPSHOT_CHUNK_SIZE", "100000"), 100000L),
+                SinkSupport.parseLong(SinkSupport.getSetting("kb.snapshot.fetch.bytes", "KB_SNAPSHOT_FETCH_BYTES", "16777216"), 16777216L),
+                SinkSupport.parseLong(SinkSupport.getSetting("kb.snapshot.memory.bytes", "KB_SNAPSHOT_MEMORY_BYTES", "0"), 0L),
+                SinkSupport.parseBoolean(SinkSupport.getSetting("kb.snapshot.resumable", "KB_SNAPSHOT_RESUMABLE", "true")),
+                SinkSupport.parseBoolean(SinkSupport.getSetting("kb.partition.route.to.root", "KB_PARTITION_ROUTE_TO_ROOT", "true")),
+                SnapshotOverride.parse(SinkSupport.getSetting("kb.snapshot.overrides", "KB_SNAPSHOT_OVERRIDES", "")),
+                SinkSupport.getSetting("kb.signal.table", "KB_SIGNAL_TABLE", ""),
+                SinkSupport.parseInt(SinkSupport.getSetting("kb.incremental.snapshot.chunk.size", "KB_INCREMENTAL_SNAPSHOT_CHUNK_SIZE", "1024"), 1024),
+                SinkSupport.parseBoolean(SinkSupport.getSetting("sync.bulk.load.enabled", "SYNC_BULK_LOAD_ENABLED", "false")),
+                SinkSupport.parseInt(SinkSupport.getSetting("sync.bulk.load.threads", "SYNC_BULK_LOAD_THREADS", "4"), 4),
+                SinkSupport.parseLong(SinkSupport.getSetting("sync.bulk.load.batch.bytes", "SYNC_BULK_LOAD_BATCH_BYTES", "536870912"), 536870912L),
+                SinkSupport.lower(SinkSupport.getSetting("sync.bulk.load.mode", "SYNC_BULK_LOAD_MODE", "stream")),
+                SinkSupport.parseLong(SinkSupport.getSetting("sync.bulk.load.range.rows", "SYNC_BULK_LOAD_RANGE_ROWS", "1000000"), 1000000L),
+                SinkSupport.getSetting("sync.bulk.load.catalog.driver.url", "SYNC_BULK_LOAD_CATALOG_DRIVER_URL", "postgresql-42.5.1.jar"),
                 tableIncludeRaw,
                 schemaIncludeRaw,
                 SinkSupport.parseTableList(tableIncludeRaw),
                 SinkSupport.parseStringList(schemaIncludeRaw),
                 SinkSupport.getSetting("doris.host", "DORIS_HOST", "127.0.0.1"),
                 SinkSupport.getSetting("doris.port", "DORIS_PORT", "9030"),
+                SinkSupport.getSetting("doris.http.port", "DORIS_HTTP_PORT", "8030"),
                 SinkSupport.getSetting("doris.user", "DORIS_USER", "root"),
                 SinkSupport.getSetting("doris.password", "DORIS_PASSWORD", ""),
                 SinkSupport.getSetting("doris.database", "DORIS_DATABASE", "cdc"),
@@ -251,14 +371,60 @@ final class SyncConfig {
                 DeltaNullStrategy.fromCode(SinkSupport.getSetting("sync.delta.null.strategy", "SYNC_DELTA_NULL_STRATEGY", "skip")),
                 SinkSupport.parseBoolean(SinkSupport.getSetting("sync.changed.fields.enabled", "SYNC_CHANGED_FIELDS_ENABLED", "true")),
                 SinkSupport.parseBoolean(SinkSupport.getSetting("sync.deltas.enabled", "SYNC_DELTAS_ENABLED", "true")),
-                SinkSupport.parseBoolean(SinkSupport.getSetting("sync.tombstone.as.delete", "SYNC_TOMBSTONE_AS_DELETE", "false"))
+                SinkSupport.parseBoolean(SinkSupport.getSetting("sync.tombstone.as.delete", "SYNC_TOMBSTONE_AS_DELETE", "false")),
+                SinkSupport.parseBoolean(SinkSupport.getSetting("sync.row.state.enabled", "SYNC_ROW_STATE_ENABLED", "false")),
+                SinkSupport.getSetting("sync.row.state.dir", "SYNC_ROW_STATE_DIR", workDir + "/row-state"),
+                SinkSupport.parseInt(SinkSupport.getSetting("sync.row.state.memory.rows", "SYNC_ROW_STATE_MEMORY_ROWS", "100000"), 100000),
+                SinkSupport.parseInt(SinkSupport.getSetting("sync.row.state.disk.rows", "SYNC_ROW_STATE_DISK_ROWS", "1000000"), 1000000),
+                SinkSupport.parseBoolean(SinkSupport.getSetting("sync.transaction.enabled", "SYNC_TRANSACTION_ENABLED", "false")),
+                SinkSupport.getSetting("sync.transaction.spill.dir", "SYNC_TRANSACTION_SPILL_DIR", workDir + "/txn-spill"),
+                SinkSupport.parseLong(SinkSupport.getSetting("sync.transaction.spill.bytes", "SYNC_TRANSACTION_SPILL_BYTES", "67108864"), 67108864L)
         );
     }
 
+    /**
+     * 表分组：每组使用独立复制槽与 Debezium 引擎并行采集，未分组时返回空。
+     */
+    Map<String, String> tableGroups() {
+        Map<String, String> groups = TableGroups.split(kbTableGroups, kbTableGroupCount, tableIncludeListRaw);
+        TableGroups.checkNameLength(kbSlotName, groups.keySet());
+        return groups;
+    }
+
+    List<String> slotNames() {
+        List<String> slotNames = new ArrayList<String>();
+        Map<String, String> groups = tableGroups();
+        if (groups.isEmpty()) {
+            slotNames.add(kbSlotName);
+        }
+        for (String group : groups.keySet()) {
+            slotNames.add(TableGroups.slotName(kbSlotName, group));
+        }
+        return slotNames;
+    }
+
     String sourceJdbcUrl() {
         return "jdbc:kingbase8://" + kbHost + ":" + kbPort + "/" + kbDb;
     }
 
+    /**
+     * Doris JDBC Catalog 按 PostgreSQL 协议访问源库。
+     */
+    String sourceCatalogJdbcUrl() {
+        return "jdbc:postgresql://" + kbHost + ":" + kbPort + "/" + kbDb;
+    }
+
+    /**
+     * 全量快照读取端可占用的内存：未配置时取最大堆的四分之一，为 Doris 写入与转换留出余量。
+     */
+    long snapshotMemoryBytes() {
+        return kbSnapshotMemoryBytes > 0 ? kbSnapshotMemoryBytes : Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    boolean isCatalogBulkLoad() {
+        return "catalog".equals(bulkLoadMode);
+    }
+
     String dorisJdbcUrl() {
         return "jdbc:mysql://" + dorisHost + ":" + dorisPort +
                 "/?useUnicode=true&characterEncoding=utf8&useSSL=false&allowPublicKeyRetrieval=true";
@@ -280,6 +446,34 @@ final class SyncConfig {
     void printSummary(Logger logger) {
         logger.info("[同步引擎] ===== Kingbase 到 Doris 同步配置 =====");
         logger.info("[同步引擎] 源端地址={}:{}/{}, 复制槽={}, 快照模式={}", kbHost, kbPort, kbDb, kbSlotName, kbSnapshotMode);
+        if (kbDecodingThreads > 0) {
+            logger.info("[同步引擎] 并行解码线程数={}", kbDecodingThreads);
+        }
+        if (kbSnapshotThreads > 1) {
+            logger.info("[同步引擎] 并行分片快照：连接数={}，分片行数={}，单表并发={}",
+                    kbSnapshotThreads, kbSnapshotChunkSize, kbSnapshotThreadsPerTable.isEmpty() ? "<不限>" : kbSnapshotThreadsPerTable);
+        }
+        logger.info("[同步引擎] 全量快照断点续传={}", kbSnapshotResumable);
+        logger.info("[同步引擎] 全量快照每次拉取约 {} 字节，读取端内存上限约 {} 字节", kbSnapshotFetchBytes, snapshotMemoryBytes());
+        logger.info("[同步引擎] 分区表按根表路由={}", kbPartitionRouteToRoot);
+        if (!kbSnapshotOverrides.isEmpty()) {
+            logger.info("[同步引擎] 全量快照列裁剪/行过滤的表={}", SinkSupport.joinTables(new ArrayList<SourceTableId>(kbSnapshotOverrides.keySet())));
+        }
+        if (!kbSignalTable.isEmpty()) {
+            logger.info("[同步引擎] 增量快照已启用：信号表={}，分片行数={}", kbSignalTable, kbIncrementalSnapshotChunkSize);
+        }
+        if (bulkLoadEnabled && isCatalogBulkLoad()) {
+            logger.info("[同步引擎] 批量全量导入已启用（Doris JDBC Catalog 拉取）：并发语句数={}，单条语句约 {} 行，驱动={}",
+                    bulkLoadThreads, bulkLoadRangeRows, bulkLoadCatalogDriverUrl);
+        }
+        else if (bulkLoadEnabled) {
+            logger.info("[同步引擎] 批量全量导入已启用：并发表数={}，单次导入字节上限={}，Stream Load 端口={}",
+                    bulkLoadThreads, bulkLoadBatchBytes, dorisHttpPort);
+        }
+        Map<String, String> groups = tableGroups();
+        if (!groups.isEmpty()) {
+            logger.info("[同步引擎] 表分组数={}，各组独立复制槽并行采集：{}", groups.size(), groups);
+        }
         logger.info("[同步引擎] 源表范围={}", tableIncludeListRaw.isEmpty() ? "<全部>" : tableIncludeListRaw);
         logger.info("[同步引擎] 源 schema 范围={}", schemaIncludeListRaw.isEmpty() ? "<全部>" : schemaIncludeListRaw);
         logger.info("[同步引擎] 目标端地址={}:{}, 路由模式={}", dorisHost, dorisPort, describeRouteMode(dorisRouteMode));
@@ -296,6 +490,12 @@ final class SyncConfig {
                 SinkSupport.isBlank(enhancedOutputFile) ? "<未配置>" : enhancedOutputFile);
         logger.info("[同步引擎] changed_fields={}，deltas={}，delta空值策略={}，tombstone按删除处理={}",
                 includeChangedFields, includeDeltas, deltaNullStrategy.getCode(), tombstoneAsDelete);
+        if (rowStateEnabled) {
+            logger.info("[同步引擎] 行状态存储目录={}，内存行数上限={}，磁盘行数上限={}", rowStateDir, rowStateMemoryRows, rowStateDiskRows);
+        }
+        if (transactionEnabled) {
+            logger.info("[同步引擎] 事务缓冲已开启，溢写阈值={} 字节，溢写目录={}", transactionSpillBytes, transactionSpillDir);
+        }
     }
 
     private static String describeRouteMode(RouteMode mode) {
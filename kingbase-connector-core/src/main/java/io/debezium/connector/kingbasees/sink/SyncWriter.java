@@ -4,15 +4,21 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Paths;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
@@ -30,23 +36,90 @@ final class SyncWriter implements Closeable {
 
     private final SourceAdmin sourceAdmin;
     private final DorisAdmin dorisAdmin;
-    private final Connection dorisConnection;
     private final SyncConfig config;
     private final DebeziumRecordTransformer transformer;
     private final EnhancedJsonBatchEmitter enhancedEmitter;
+    private final RowStateStore rowStateStore;
+    // 每个表分组（引擎）一个写入通道，未分组时键为 ""
+    private final Map<String, GroupSink> groupSinks = new HashMap<String, GroupSink>();
+    // 表路由初始化经由共用的源端与 Doris 管理连接
+    private final Object runtimeLock = new Object();
+    private final String transactionTopic;
+    private final SnapshotMarker snapshotMarker;
+    private final SnapshotMetrics snapshotMetrics;
 
     private final Map<SourceTableId, TableRuntime> tableCache = new ConcurrentHashMap<SourceTableId, TableRuntime>();
 
-    SyncWriter(SourceAdmin sourceAdmin, DorisAdmin dorisAdmin, Connection dorisConnection, SyncConfig config) {
+    SyncWriter(SourceAdmin sourceAdmin, DorisAdmin dorisAdmin, Connection dorisConnection, SyncConfig config,
+               SnapshotMetrics snapshotMetrics) throws SQLException {
         this.sourceAdmin = sourceAdmin;
         this.dorisAdmin = dorisAdmin;
-        this.dorisConnection = dorisConnection;
         this.config = config;
         this.transformer = new DebeziumRecordTransformer(config.deltaNullStrategy, config.includeChangedFields, config.includeDeltas);
         this.enhancedEmitter = config.outputMode.hasEnhancedJsonOutput() ? new EnhancedJsonBatchEmitter(config) : null;
+        this.rowStateStore = config.rowStateEnabled
+                ? new RowStateStore(Paths.get(config.rowStateDir), config.rowStateMemoryRows, config.rowStateDiskRows)
+                : null;
+        List<String> groups = new ArrayList<String>(config.tableGroups().keySet());
+        try {
+            if (groups.isEmpty()) {
+                groupSinks.put("", new GroupSink(dorisConnection, false, newTransactionBuffer()));
+            }
+            // 各分组使用独立的 Doris 连接，大事务回放时不阻塞其他分组
+            for (String group : groups) {
+                Connection connection = DriverManager.getConnection(config.dorisJdbcUrl(), config.dorisUser, config.dorisPassword);
+                groupSinks.put(group, new GroupSink(connection, true, newTransactionBuffer()));
+            }
+        }
+        catch (SQLException e) {
+            close();
+            throw e;
+        }
+        this.transactionTopic = config.kbServerName + ".transaction";
+        this.snapshotMarker = config.kbSnapshotResumable ? new SnapshotMarker(Paths.get(config.workDir)) : null;
+        this.snapshotMetrics = snapshotMetrics;
+    }
+
+    private TransactionBuffer newTransactionBuffer() {
+        return config.transactionEnabled ? new TransactionBuffer(Paths.get(config.transactionSpillDir), config.transactionSpillBytes) : null;
     }
 
-    void handle(ChangeEvent<String, String> event) {
+    /**
+     * 批量处理入口。开启事务缓冲时，事务内事件在收到 END 后才整体写入，
+     * 位点也只在事务写完后推进，重启时未完成的事务会从源端重新投递。
+     * 各表分组的引擎按分组串行处理，不同分组经各自的 Doris 连接并行写入。
+     *
+     * @param group 表分组名，未分组时为 null
+     */
+    void handleBatch(String group, List<ChangeEvent<String, String>> records,
+                     DebeziumEngine.RecordCommitter<ChangeEvent<String, String>> committer)
+            throws InterruptedException {
+        GroupSink sink = groupSinks.get(group == null ? "" : group);
+        if (sink == null) {
+            throw new IllegalStateException("未知的表分组：" + group);
+        }
+        synchronized (sink) {
+            for (ChangeEvent<String, String> record : records) {
+                boolean applied;
+                if (sink.transactionBuffer == null) {
+                    handle(group, sink, record);
+                    applied = true;
+                }
+                else {
+                    applied = handleTransactional(group, sink, record);
+                }
+                if (applied) {
+                    committer.markProcessed(record);
+                }
+            }
+            committer.markBatchFinished();
+        }
+    }
+
+    /**
+     * @param group 表分组名，未分组时为 null
+     */
+    private void handle(String group, GroupSink sink, ChangeEvent<String, String> event) {
         CdcEvent rawEvent;
         try {
             rawEvent = CdcEvent.parse(event);
@@ -63,6 +136,31 @@ final class SyncWriter implements Closeable {
             LOGGER.warn("[同步写入] 无法解析源表，已跳过。destination={}", rawEvent.getDestination());
             return;
         }
+        if (snapshotMarker != null && rawEvent.isSnapshot()) {
+            snapshotMarker.started(group);
+        }
+        if (rawEvent.isSnapshot()) {
+            long startNanos = System.nanoTime();
+            apply(sink.dorisConnection, rawEvent);
+            snapshotMetrics.recordWritten(rawEvent.getTableId(), 1, event.value() == null ? 0 : event.value().length(),
+                    System.nanoTime() - startNanos);
+        }
+        else {
+            apply(sink.dorisConnection, rawEvent);
+        }
+        // 最后一条快照事件写入后才移除标记，中途退出时下次启动仍按断点续传处理
+        if (rawEvent.isLastSnapshotRecord()) {
+            snapshotMetrics.completed(group);
+            if (snapshotMarker != null) {
+                snapshotMarker.completed(group);
+            }
+        }
+    }
+
+    private void apply(Connection dorisConnection, CdcEvent rawEvent) {
+        if (rowStateStore != null) {
+            rawEvent = rowStateStore.apply(rawEvent);
+        }
 
         EnhancedCdcRecord record = transformer.transform(rawEvent, config.tombstoneAsDelete);
         if (record == null) {
@@ -84,10 +182,15 @@ final class SyncWriter implements Closeable {
             if (config.outputMode.hasJdbcOutput()) {
                 TableRuntime runtime = tableCache.get(record.getTableId());
                 if (runtime == null) {
-                    runtime = initRuntime(record.getTableId());
-                    tableCache.put(record.getTableId(), runtime);
+                    synchronized (runtimeLock) {
+                        runtime = tableCache.get(record.getTableId());
+                        if (runtime == null) {
+                            runtime = initRuntime(record.getTableId());
+                            tableCache.put(record.getTableId(), runtime);
+                        }
+                    }
                 }
-                applyToDoris(runtime, record);
+                applyToDoris(dorisConnection, runtime, record);
             }
 
             if (enhancedEmitter != null) {
@@ -104,30 +207,83 @@ final class SyncWriter implements Closeable {
         }
     }
 
+    /**
+     * @return 是否已写入（位点可推进）；事务内事件仅缓存时返回 false
+     */
+    private boolean handleTransactional(String group, GroupSink sink, ChangeEvent<String, String> record) {
+        TransactionBuffer transactionBuffer = sink.transactionBuffer;
+        if (transactionTopic.equals(record.destination())) {
+            JSONObject payload = SinkSupport.isBlank(record.value()) ? null : JSON.parseObject(record.value());
+            if (payload != null && payload.containsKey("payload")) {
+                payload = payload.getJSONObject("payload");
+            }
+            String status = SinkSupport.text(payload, "status");
+            String id = SinkSupport.text(payload, "id");
+            if ("BEGIN".equalsIgnoreCase(status)) {
+                transactionBuffer.begin(id);
+                return false;
+            }
+            if ("END".equalsIgnoreCase(status) && transactionBuffer.isOpen()) {
+                try {
+                    transactionBuffer.commit(id, event -> handle(group, sink, event));
+                }
+                catch (IOException e) {
+                    throw new IllegalStateException("事务缓冲回放失败：transaction=" + id, e);
+                }
+            }
+            return true;
+        }
+
+        if (!transactionBuffer.isOpen()) {
+            handle(group, sink, record);
+            return true;
+        }
+        try {
+            transactionBuffer.add(record);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("事务缓冲溢写失败", e);
+        }
+        return false;
+    }
+
     @Override
     public void close() {
         if (enhancedEmitter != null) {
             enhancedEmitter.close();
         }
+        if (rowStateStore != null) {
+            rowStateStore.close();
+        }
+        for (GroupSink sink : groupSinks.values()) {
+            if (sink.transactionBuffer != null) {
+                sink.transactionBuffer.close();
+            }
+            if (sink.ownsConnection) {
+                SinkSupport.closeQuietly(sink.dorisConnection);
+            }
+        }
     }
 
-    private void applyToDoris(TableRuntime runtime, EnhancedCdcRecord record) throws SQLException {
+    private void applyToDoris(Connection dorisConnection, TableRuntime runtime, EnhancedCdcRecord record) throws SQLException {
         if (record.isDeleted()) {
             if (runtime.isLogicalDeleteEnabled()) {
-                logicalDelete(runtime, record);
+                logicalDelete(dorisConnection, runtime, record);
             }
             else {
-                physicalDelete(runtime, record);
+                physicalDelete(dorisConnection, runtime, record);
             }
             return;
         }
 
-        upsert(runtime, record.getData(), 0);
+        upsert(dorisConnection, runtime, record.getData(), 0);
     }
 
     private TableRuntime initRuntime(SourceTableId tableId) throws SQLException {
-        SourceTableMeta sourceMeta = sourceAdmin.loadTableMeta(tableId);
-        TargetTable targetTable = config.route(tableId);
+        // 叶子分区按根表的结构与路由写入
+        SourceTableId routedId = sourceAdmin.partitions().rootOf(tableId);
+        SourceTableMeta sourceMeta = sourceAdmin.loadTableMeta(routedId);
+        TargetTable targetTable = config.route(routedId);
 
         dorisAdmin.ensureTargetTable(targetTable, sourceMeta);
 
@@ -137,11 +293,16 @@ final class SyncWriter implements Closeable {
                 logicalDeleteEnabled ? config.logicalDeleteColumn : null);
         String deleteSql = buildDeleteSql(targetTable, sourceMeta.getPrimaryKeys());
 
-        LOGGER.info("[同步写入] 已完成表路由初始化：{} -> {}，logicalDelete={}", tableId, targetTable, logicalDeleteEnabled);
+        if (routedId.equals(tableId)) {
+            LOGGER.info("[同步写入] 已完成表路由初始化：{} -> {}，logicalDelete={}", tableId, targetTable, logicalDeleteEnabled);
+        }
+        else {
+            LOGGER.info("[同步写入] 已完成表路由初始化：{}（分区表 {}）-> {}，logicalDelete={}", tableId, routedId, targetTable, logicalDeleteEnabled);
+        }
         return new TableRuntime(sourceMeta, targetTable, upsertSql, deleteSql, logicalDeleteEnabled);
     }
 
-    private void upsert(TableRuntime runtime, JSONObject row, int logicalDeleteSign) throws SQLException {
+    private void upsert(Connection dorisConnection, TableRuntime runtime, JSONObject row, int logicalDeleteSign) throws SQLException {
         if (row == null) {
             return;
         }
@@ -158,24 +319,24 @@ final class SyncWriter implements Closeable {
         }
     }
 
-    private void logicalDelete(TableRuntime runtime, EnhancedCdcRecord record) throws SQLException {
+    private void logicalDelete(Connection dorisConnection, TableRuntime runtime, EnhancedCdcRecord record) throws SQLException {
         JSONObject row = record.getData();
         if (row == null || row.isEmpty()) {
             LOGGER.warn("[同步写入] 逻辑删除缺少 before/after，回退物理删除：table={}", runtime.getTargetTable());
-            physicalDelete(runtime, record);
+            physicalDelete(dorisConnection, runtime, record);
             return;
         }
 
         if (!containsAllSourceColumns(row, runtime.getSourceMeta().getColumns())) {
             LOGGER.warn("[同步写入] 逻辑删除字段不完整，回退物理删除：table={}", runtime.getTargetTable());
-            physicalDelete(runtime, record);
+            physicalDelete(dorisConnection, runtime, record);
             return;
         }
 
-        upsert(runtime, row, 1);
+        upsert(dorisConnection, runtime, row, 1);
     }
 
-    private void physicalDelete(TableRuntime runtime, EnhancedCdcRecord record) throws SQLException {
+    private void physicalDelete(Connection dorisConnection, TableRuntime runtime, EnhancedCdcRecord record) throws SQLException {
         if (SinkSupport.isBlank(runtime.getDeleteSql())) {
             if (config.skipDeleteWithoutPk) {
                 LOGGER.warn("[同步写入] 目标表无主键映射，DELETE 事件已跳过：{}", runtime.getTargetTable());
@@ -290,4 +451,20 @@ final class SyncWriter implements Closeable {
         }
         return true;
     }
+
+    /**
+     * 单个表分组的写入通道：事件按分组串行写入，不同分组互不阻塞。
+     */
+    private static final class GroupSink {
+
+        private final Connection dorisConnection;
+        private final boolean ownsConnection;
+        private final TransactionBuffer transactionBuffer;
+
+        private GroupSink(Connection dorisConnection, boolean ownsConnection, TransactionBuffer transactionBuffer) {
+            this.dorisConnection = dorisConnection;
+            this.ownsConnection = ownsConnection;
+            this.transactionBuffer = transactionBuffer;
+        }
+    }
 }
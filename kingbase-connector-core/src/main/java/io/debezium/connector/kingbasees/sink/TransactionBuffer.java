@@ -0,0 +1,232 @@
+package io.debezium.connector.kingbasees.sink;
+
+import io.debezium.engine.ChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 事务级缓冲：BEGIN 与 END 之间的事件先缓存，收到 END 后按原顺序回放给写入端。
+ * 小事务只保存在内存；超过字节阈值后，已缓存与后续事件顺序写入工作目录下的临时文件，避免大事务撑爆堆内存。
+ * 未收到 END 的事务（重连重放、进程重启）直接丢弃，由源端从上次提交位点重新投递。
+ */
+final class TransactionBuffer implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionBuffer.class);
+
+    private static final String SPILL_FILE_PREFIX = "txn-";
+    // 每个事件除字符串外的估算开销
+    private static final int EVENT_OVERHEAD_BYTES = 64;
+    private static final int NULL_LENGTH = -1;
+
+    private final Path spillDir;
+    private final long spillThresholdBytes;
+    private final List<BufferedEvent> events = new ArrayList<BufferedEvent>();
+
+    private String transactionId;
+    private long bufferedBytes = 0L;
+    private long eventCount = 0L;
+    private Path spillFile;
+    private DataOutputStream spillOutput;
+
+    TransactionBuffer(Path spillDir, long spillThresholdBytes) {
+        this.spillDir = spillDir;
+        this.spillThresholdBytes = spillThresholdBytes;
+        cleanSpillDir();
+        LOGGER.info("[事务缓冲] 已启用：内存阈值={} 字节，溢写目录={}", spillThresholdBytes, spillDir);
+    }
+
+    boolean isOpen() {
+        return transactionId != null;
+    }
+
+    void begin(String id) {
+        if (isOpen()) {
+            LOGGER.warn("[事务缓冲] 事务 {} 未收到 END 即开始新事务 {}，已丢弃 {} 条缓存事件", transactionId, id, eventCount);
+            discard();
+        }
+        transactionId = id;
+    }
+
+    void add(ChangeEvent<String, String> event) throws IOException {
+        BufferedEvent buffered = new BufferedEvent(event.key(), event.value(), event.destination());
+        eventCount++;
+        if (spillOutput != null) {
+            write(spillOutput, buffered);
+            return;
+        }
+        events.add(buffered);
+        bufferedBytes += buffered.estimatedBytes();
+        if (bufferedBytes > spillThresholdBytes) {
+            spill();
+        }
+    }
+
+    /**
+     * 按原顺序回放当前事务的全部事件并清空缓冲。
+     */
+    void commit(String id, Consumer<ChangeEvent<String, String>> consumer) throws IOException {
+        if (id != null && transactionId != null && !id.equals(transactionId)) {
+            LOGGER.warn("[事务缓冲] END 事务号 {} 与缓存事务号 {} 不一致，仍按缓存顺序回放", id, transactionId);
+        }
+        try {
+            if (spillOutput == null) {
+                for (BufferedEvent event : events) {
+                    consumer.accept(event);
+                }
+                return;
+            }
+            spillOutput.close();
+            spillOutput = null;
+            long started = System.currentTimeMillis();
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile), 1 << 16))) {
+                for (long i = 0; i < eventCount; i++) {
+                    consumer.accept(read(input));
+                }
+            }
+            LOGGER.info("[事务缓冲] 大事务 {} 回放完成：事件数={}，耗时={}ms", transactionId, eventCount, System.currentTimeMillis() - started);
+        }
+        finally {
+            discard();
+        }
+    }
+
+    void discard() {
+        events.clear();
+        bufferedBytes = 0L;
+        eventCount = 0L;
+        transactionId = null;
+        SinkSupport.closeQuietly(spillOutput);
+        spillOutput = null;
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            }
+            catch (IOException e) {
+                LOGGER.warn("[事务缓冲] 删除溢写文件失败：{}，原因={}", spillFile, e.getMessage());
+            }
+            spillFile = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (isOpen()) {
+            LOGGER.info("[事务缓冲] 退出时事务 {} 未完成，已丢弃 {} 条缓存事件，重启后由源端重新投递", transactionId, eventCount);
+        }
+        discard();
+    }
+
+    private void spill() throws IOException {
+        Files.createDirectories(spillDir);
+        spillFile = Files.createTempFile(spillDir, SPILL_FILE_PREFIX, ".spill");
+        spillOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile), 1 << 16));
+        for (BufferedEvent event : events) {
+            write(spillOutput, event);
+        }
+        LOGGER.info("[事务缓冲] 事务 {} 超过内存阈值，转为溢写磁盘：已缓存事件数={}，文件={}", transactionId, events.size(), spillFile);
+        events.clear();
+        bufferedBytes = 0L;
+    }
+
+    /**
+     * 启动时清理上次进程遗留的溢写文件，这些事务的位点未提交，会被重新投递。
+     */
+    private void cleanSpillDir() {
+        if (!Files.isDirectory(spillDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir, SPILL_FILE_PREFIX + "*.spill")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                LOGGER.info("[事务缓冲] 已清理遗留溢写文件：{}", file);
+            }
+        }
+        catch (IOException e) {
+            LOGGER.warn("[事务缓冲] 清理溢写目录失败：{}，原因={}", spillDir, e.getMessage());
+        }
+    }
+
+    private static void write(DataOutputStream output, BufferedEvent event) throws IOException {
+        writeString(output, event.key);
+        writeString(output, event.value);
+        writeString(output, event.destination);
+    }
+
+    private static BufferedEvent read(DataInputStream input) throws IOException {
+        return new BufferedEvent(readString(input), readString(input), readString(input));
+    }
+
+    private static void writeString(DataOutputStream output, String text) throws IOException {
+        if (text == null) {
+            output.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new EOFException("溢写文件已损坏");
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class BufferedEvent implements ChangeEvent<String, String> {
+
+        private final String key;
+        private final String value;
+        private final String destination;
+
+        private BufferedEvent(String key, String value, String destination) {
+            this.key = key;
+            this.value = value;
+            this.destination = destination;
+        }
+
+        private long estimatedBytes() {
+            return EVENT_OVERHEAD_BYTES + 2L * (length(key) + length(value) + length(destination));
+        }
+
+        private static int length(String text) {
+            return text == null ? 0 : text.length();
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public String destination() {
+            return destination;
+        }
+    }
+}
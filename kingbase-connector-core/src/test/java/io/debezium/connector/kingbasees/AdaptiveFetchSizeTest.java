@@ -0,0 +1,67 @@
+package io.debezium.connector.kingbasees;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class AdaptiveFetchSizeTest {
+
+    @Test
+    public void shouldSizeFetchByRowWidth() {
+        Assert.assertEquals(1024, AdaptiveFetchSize.fetchSize(1024 * 1024, 1024));
+        Assert.assertEquals(AdaptiveFetchSize.MIN_FETCH_SIZE, AdaptiveFetchSize.fetchSize(1024 * 1024, 10 * 1024 * 1024));
+        Assert.assertEquals(AdaptiveFetchSize.MAX_FETCH_SIZE, AdaptiveFetchSize.fetchSize(1024 * 1024, 1));
+        Assert.assertEquals(500, new AdaptiveFetchSize(1000 * 1000, -1, 500).fetchSize());
+    }
+
+    @Test
+    public void shouldAdjustToObservedRowSize() {
+        AdaptiveFetchSize fetchSize = new AdaptiveFetchSize(100 * 1000, 100, 10_240);
+        Assert.assertEquals(1000, fetchSize.fetchSize());
+
+        // rows four times as wide as estimated: the next fetch is a quarter of the rows
+        boolean changed = false;
+        for (int i = 0; i < 1000; i++) {
+            changed = fetchSize.rowRead(400);
+        }
+        Assert.assertTrue(changed);
+        Assert.assertEquals(250, fetchSize.fetchSize());
+
+        // small deviations keep the fetch size
+        for (int i = 0; i < 250; i++) {
+            Assert.assertFalse(fetchSize.rowRead(380));
+        }
+        Assert.assertEquals(250, fetchSize.fetchSize());
+    }
+
+    @Test
+    public void shouldCountTextAndBinaryValues() {
+        Object[] row = new Object[]{ 1L, "abcd", new byte[10], null };
+        Assert.assertEquals(24 + 4 * 16 + 8 + 4 + 10, AdaptiveFetchSize.sizeOf(row));
+    }
+
+    @Test
+    public void shouldCountOtherValuesByLength() {
+        final String json = "{\"name\":\"kingbase\",\"tags\":[\"a\",\"b\"]}";
+        Object[] row = new Object[]{ new BigDecimal("12345.678"), new Object[]{ "ab", null }, new JsonValue(json) };
+        Assert.assertEquals(24 + 3 * 16 + 8 + (8 + 2 + 8) + json.length(), AdaptiveFetchSize.sizeOf(row));
+    }
+
+    /**
+     * Holds its value as text, as the driver objects for json or geometry columns do.
+     */
+    private static class JsonValue {
+
+        private final String value;
+
+        JsonValue(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
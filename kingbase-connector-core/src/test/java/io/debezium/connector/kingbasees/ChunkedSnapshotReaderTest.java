@@ -0,0 +1,35 @@
+package io.debezium.connector.kingbasees;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ChunkedSnapshotReaderTest {
+
+    @Test
+    public void shouldSplitKeyRangeByRowEstimate() {
+        List<Long> boundaries = ChunkedSnapshotReader.boundaries(1, 1000, 400, 100);
+
+        Assert.assertEquals(Arrays.asList(251L, 501L, 751L), boundaries);
+    }
+
+    @Test
+    public void shouldAssumeDenseKeysWithoutEstimate() {
+        Assert.assertEquals(Arrays.asList(11L), ChunkedSnapshotReader.boundaries(1, 20, -1, 10));
+        Assert.assertTrue(ChunkedSnapshotReader.boundaries(1, 20, 0, 100).isEmpty());
+    }
+
+    @Test
+    public void shouldNotSplitBeyondKeyRange() {
+        Assert.assertEquals(Arrays.asList(6L, 7L), ChunkedSnapshotReader.boundaries(5, 7, 1_000_000, 10));
+    }
+
+    @Test
+    public void shouldSplitFullLongRange() {
+        List<Long> boundaries = ChunkedSnapshotReader.boundaries(Long.MIN_VALUE, Long.MAX_VALUE, 4, 2);
+
+        Assert.assertEquals(Arrays.asList(0L), boundaries);
+    }
+}
@@ -0,0 +1,52 @@
+package io.debezium.connector.kingbasees;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ColumnLayoutTest {
+
+    @Test
+    public void shouldResolvePositionsInAnyMessageOrder() {
+        Table table = table();
+        ColumnLayout layout = new ColumnLayout(table, Collections.singletonList("payload"));
+
+        Assert.assertEquals(0, layout.positionOf(0, "id"));
+        Assert.assertEquals(2, layout.positionOf(2, "payload"));
+        // e.g. REPLICA IDENTITY DEFAULT messages only carry some of the columns
+        Assert.assertEquals(2, layout.positionOf(0, "payload"));
+        Assert.assertEquals(-1, layout.positionOf(1, "missing"));
+        Assert.assertEquals(-1, layout.positionOf(7, "missing"));
+        Assert.assertEquals(3, layout.columnCount());
+        Assert.assertTrue(layout.toastablePositions().get(2));
+        Assert.assertEquals(1, layout.toastablePositions().cardinality());
+    }
+
+    @Test
+    public void shouldBeStaleAfterSchemaChange() {
+        Table table = table();
+        List<String> toastable = Collections.singletonList("payload");
+        ColumnLayout layout = new ColumnLayout(table, toastable);
+
+        Assert.assertTrue(layout.isFor(table, toastable));
+        Assert.assertFalse(layout.isFor(table.edit().create(), toastable));
+        Assert.assertFalse(layout.isFor(table, Arrays.asList("payload", "name")));
+    }
+
+    private static Table table() {
+        return Table.editor()
+                .tableId(new TableId("db", "public", "events"))
+                .addColumn(Column.editor().name("id").position(1).jdbcType(Types.BIGINT).type("int8").create())
+                .addColumn(Column.editor().name("name").position(2).jdbcType(Types.VARCHAR).type("varchar").create())
+                .addColumn(Column.editor().name("payload").position(3).jdbcType(Types.VARCHAR).type("text").create())
+                .setPrimaryKeyNames(Collections.singletonList("id"))
+                .create();
+    }
+}
@@ -0,0 +1,77 @@
+package io.debezium.connector.kingbasees;
+
+import io.debezium.relational.TableId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class IncrementalSnapshotContextTest {
+
+    private static final TableId ORDERS = new TableId(null, "public", "orders");
+    private static final TableId ITEMS = new TableId(null, "public", "items");
+
+    @Test
+    public void shouldDropRowsChangedWhileWindowIsOpen() {
+        IncrementalSnapshotContext context = new IncrementalSnapshotContext();
+        context.addTables(Arrays.asList(ORDERS, ITEMS));
+        context.chunkStarted("c1");
+        context.rowRead(1, new Object[]{ 1, "a" });
+        context.rowRead(2, new Object[]{ 2, "b" });
+        context.rowRead(3, new Object[]{ 3, "c" });
+        context.chunkRead(new String[]{ "3" }, false);
+
+        // changes streamed before the low watermark are older than the rows read
+        context.deduplicate(ORDERS, 1);
+        Assert.assertFalse(context.openWindow("stale"));
+        Assert.assertTrue(context.openWindow("c1"));
+        context.deduplicate(ORDERS, 2);
+        context.deduplicate(ITEMS, 3);
+
+        List<Object[]> rows = context.closeWindow("c1");
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals(1, rows.get(0)[0]);
+        Assert.assertEquals(3, rows.get(1)[0]);
+        Assert.assertFalse(context.isChunkInProgress());
+        Assert.assertEquals(ORDERS, context.currentTable());
+        Assert.assertArrayEquals(new String[]{ "3" }, context.lastKey());
+    }
+
+    @Test
+    public void shouldMoveToNextTableAfterLastChunk() {
+        IncrementalSnapshotContext context = new IncrementalSnapshotContext();
+        context.addTables(Arrays.asList(ORDERS, ITEMS));
+        context.chunkStarted("c1");
+        context.rowRead(1, new Object[]{ 1 });
+        context.chunkRead(new String[]{ "1" }, true);
+
+        Assert.assertNull(context.closeWindow("c1"));
+        context.openWindow("c1");
+        context.truncated(ORDERS);
+
+        Assert.assertEquals(Collections.emptyList(), context.closeWindow("c1"));
+        Assert.assertEquals(ITEMS, context.currentTable());
+        Assert.assertNull(context.lastKey());
+    }
+
+    @Test
+    public void shouldEncodeTablesAndLastKey() {
+        IncrementalSnapshotContext context = new IncrementalSnapshotContext();
+        Assert.assertNull(context.encoded());
+        Assert.assertEquals(Arrays.asList(ORDERS, ITEMS), context.addTables(Arrays.asList(ORDERS, ITEMS, ORDERS)));
+        context.chunkStarted("c1");
+        context.chunkRead(new String[]{ "2024-01-01 10:00:00", "a,b" }, false);
+        context.openWindow("c1");
+        context.closeWindow("c1");
+
+        String encoded = context.encoded();
+        Assert.assertEquals("public.orders,public.items\n2024-01-01+10%3A00%3A00,a%2Cb", encoded);
+
+        IncrementalSnapshotContext parsed = IncrementalSnapshotContext.parse(encoded);
+        Assert.assertEquals(ORDERS, parsed.currentTable());
+        Assert.assertArrayEquals(new String[]{ "2024-01-01 10:00:00", "a,b" }, parsed.lastKey());
+        Assert.assertEquals(encoded, parsed.encoded());
+    }
+}
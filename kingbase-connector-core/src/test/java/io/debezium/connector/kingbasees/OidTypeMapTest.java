@@ -0,0 +1,44 @@
+package io.debezium.connector.kingbasees;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Types;
+
+public class OidTypeMapTest {
+
+    @Test
+    public void shouldFindTypesAcrossResizes() {
+        OidTypeMap map = new OidTypeMap();
+        for (int oid = 1; oid <= 5_000; oid++) {
+            map.put(type(oid));
+        }
+        // OIDs above 2^31 are stored as negative ints
+        map.put(type(-5));
+
+        Assert.assertEquals(5_001, map.size());
+        for (int oid = 1; oid <= 5_000; oid++) {
+            Assert.assertEquals(oid, map.get(oid).getOid());
+        }
+        Assert.assertEquals(-5, map.get(-5).getOid());
+        Assert.assertNull(map.get(5_001));
+        Assert.assertNull(map.get(0));
+    }
+
+    @Test
+    public void shouldLeaveOriginalUntouchedWhenCopyIsUpdated() {
+        OidTypeMap map = new OidTypeMap();
+        map.put(type(PgOid.INT4));
+
+        OidTypeMap copy = map.copy();
+        copy.put(type(PgOid.INT8));
+
+        Assert.assertNull(map.get(PgOid.INT8));
+        Assert.assertNotNull(copy.get(PgOid.INT8));
+        Assert.assertNotNull(copy.get(PgOid.INT4));
+    }
+
+    private static PostgresType type(int oid) {
+        return new PostgresType.Builder(null, "t" + oid, oid, Types.OTHER, -1, null).build();
+    }
+}
@@ -0,0 +1,103 @@
+package io.debezium.connector.kingbasees;
+
+import io.debezium.config.Configuration;
+import io.debezium.connector.kingbasees.connection.Lsn;
+import io.debezium.connector.kingbasees.connection.RecordedReplicationStream;
+import io.debezium.connector.kingbasees.connection.ReplicationFrame;
+import io.debezium.connector.kingbasees.connection.WalPositionLocator;
+import io.debezium.relational.RelationalDatabaseConnectorConfig;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PostgresOffsetContextTest {
+
+    private static final int FRAMES = 500_000;
+
+    // keeps the Lsn instances of the object based variant reachable, as the offset context used to
+    private Lsn lastProcessedLsn;
+
+    @Test
+    public void shouldTrackPrimitivePositionsInOffset() {
+        PostgresOffsetContext offsetContext = newOffsetContext();
+        Assert.assertFalse(offsetContext.hasCompletelyProcessedPosition());
+
+        offsetContext.updateWalPosition(2000L, Lsn.NO_LSN, null, 7L, null, null);
+        Assert.assertEquals(Lsn.valueOf(2000L), offsetContext.lsn());
+        Assert.assertNull(offsetContext.lastCompletelyProcessedLsn());
+        Assert.assertFalse(offsetContext.getOffset().containsKey(PostgresOffsetContext.LAST_COMPLETELY_PROCESSED_LSN_KEY));
+
+        offsetContext.updateCommitPosition(2010L, 2010L, null, null, null, null);
+        Map<String, ?> offset = offsetContext.getOffset();
+        Assert.assertEquals(2010L, offset.get(SourceInfo.LSN_KEY));
+        Assert.assertEquals(2010L, offset.get(PostgresOffsetContext.LAST_COMPLETELY_PROCESSED_LSN_KEY));
+        Assert.assertEquals(2010L, offset.get(PostgresOffsetContext.LAST_COMMIT_LSN_KEY));
+        Assert.assertEquals(Lsn.valueOf(2010L), offsetContext.lastCommitLsn());
+    }
+
+    /**
+     * Bytes allocated per message by the LSN and offset bookkeeping of the streaming loop, run with {@code -Dkb.benchmark=true}.
+     * Decoding is left out as it allocates the same in both variants; the object variant replays the former
+     * per message {@link Lsn} instances.
+     */
+    @Test
+    public void benchmarkLsnTrackingAllocation() {
+        Assume.assumeTrue(Boolean.getBoolean("kb.benchmark"));
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        // warm up so that the JIT has settled before measuring
+        measure(true);
+        measure(false);
+        System.out.println("primitive LSN tracking: " + measure(true) + " bytes/message");
+        System.out.println("Lsn object tracking: " + measure(false) + " bytes/message");
+    }
+
+    private long measure(boolean primitive) {
+        final RecordedReplicationStream stream = RecordedReplicationStream.inserts(FRAMES, 2);
+        final PostgresOffsetContext offsetContext = newOffsetContext();
+        final WalPositionLocator walPosition = new WalPositionLocator();
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        long txId = 0;
+        ReplicationFrame frame;
+        while ((frame = stream.readPendingFrame()) != null) {
+            txId++;
+            if (primitive) {
+                final long lsn = stream.lastReceivedLsnAsLong();
+                if (walPosition.skipMessage(lsn)) {
+                    continue;
+                }
+                offsetContext.updateWalPosition(lsn, lsn, null, txId, null, null);
+                offsetContext.updateCommitPosition(lsn, lsn, null, null, null, null);
+            }
+            else {
+                // readPending and deserializeMessages each created an instance
+                final Lsn received = Lsn.valueOf(frame.lsn());
+                final Lsn lsn = Lsn.valueOf(stream.lastReceivedLsnAsLong());
+                if (walPosition.skipMessage(received.asLong())) {
+                    continue;
+                }
+                lastProcessedLsn = lsn;
+                offsetContext.updateWalPosition(lsn, lastProcessedLsn, null, txId, null, null);
+                offsetContext.updateCommitPosition(lsn, lastProcessedLsn, null, null, null, null);
+            }
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / stream.size();
+    }
+
+    private static PostgresOffsetContext newOffsetContext() {
+        final Configuration config = Configuration.create()
+                .with(RelationalDatabaseConnectorConfig.SERVER_NAME, "bench")
+                .with(PostgresConnectorConfig.DATABASE_NAME, "bench")
+                .build();
+        final Map<String, Object> offset = new HashMap<>();
+        offset.put(SourceInfo.TIMESTAMP_USEC_KEY, 0L);
+        return (PostgresOffsetContext) new PostgresOffsetContext.Loader(new PostgresConnectorConfig(config)).load(offset);
+    }
+}
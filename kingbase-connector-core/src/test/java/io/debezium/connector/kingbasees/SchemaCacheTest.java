@@ -0,0 +1,250 @@
+package io.debezium.connector.kingbasees;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SchemaCacheTest {
+
+    private static final TableId ORDERS = new TableId("db", "public", "orders");
+    private static final Tables.TableFilter PUBLIC_ONLY = tableId -> "public".equals(tableId.schema());
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreTableDefinition() {
+        Table table = Table.editor()
+                .tableId(new TableId("db", "public", "orders"))
+                .addColumn(Column.editor().name("id").position(1).jdbcType(Types.BIGINT).nativeType(PgOid.INT8).type("int8").optional(false).create())
+                .addColumn(Column.editor().name("amount").position(2).jdbcType(Types.NUMERIC).nativeType(PgOid.NUMERIC)
+                        .type("numeric", "numeric(10,2)").length(10).scale(2).optional(true).create())
+                .addColumn(Column.editor().name("note").position(3).jdbcType(Types.VARCHAR).nativeType(PgOid.TEXT).type("text").create())
+                .setPrimaryKeyNames(Collections.singletonList("id"))
+                .create();
+
+        // round trip through the serialized form, as on the next start
+        Table restored = SchemaCache.readTable(JSON.parseObject(SchemaCache.writeTable(table).toJSONString()));
+
+        Assert.assertEquals(table, restored);
+        Assert.assertEquals(Integer.valueOf(2), restored.columnWithName("amount").scale().get());
+        Assert.assertFalse(restored.columnWithName("note").scale().isPresent());
+    }
+
+    @Test
+    public void shouldRestoreTypes() throws Exception {
+        FakeCatalog catalog = new FakeCatalog();
+        Path file = folder.getRoot().toPath().resolve("schema.json");
+
+        SchemaCache cache = new SchemaCache(file, "key");
+        Assert.assertNull(cache.loadTypes(catalog.connection()));
+        cache.storeTypes(Arrays.asList(
+                new TypeRegistry.TypeDescriptor(PgOid.INT4, "int4", Types.INTEGER, -1, "N", 0, 0, null),
+                new TypeRegistry.TypeDescriptor(90001, "mood", Types.VARCHAR, -1, "E", 0, 0, Arrays.asList("sad", "happy"))));
+
+        List<TypeRegistry.TypeDescriptor> types = new SchemaCache(file, "key").loadTypes(catalog.connection());
+        Assert.assertEquals(2, types.size());
+        Assert.assertEquals(PgOid.INT4, types.get(0).oid);
+        Assert.assertEquals("int4", types.get(0).name);
+        Assert.assertEquals(Types.INTEGER, types.get(0).jdbcId);
+        Assert.assertNull(types.get(0).enumValues);
+        Assert.assertEquals("E", types.get(1).category);
+        Assert.assertEquals(Arrays.asList("sad", "happy"), types.get(1).enumValues);
+    }
+
+    @Test
+    public void shouldDiscardTypesWhenFingerprintChanges() throws Exception {
+        FakeCatalog catalog = new FakeCatalog();
+        Path file = folder.getRoot().toPath().resolve("schema.json");
+        storeTypes(file, catalog);
+
+        catalog.typeHash++;
+        Assert.assertNull(new SchemaCache(file, "key").loadTypes(catalog.connection()));
+    }
+
+    @Test
+    public void shouldDiscardFileOfOtherFormatVersion() throws Exception {
+        FakeCatalog catalog = new FakeCatalog();
+        Path file = folder.getRoot().toPath().resolve("schema.json");
+        storeTypes(file, catalog);
+
+        JSONObject content = JSON.parseObject(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        content.put("version", SchemaCache.FORMAT_VERSION - 1);
+        Files.write(file, content.toJSONString().getBytes(StandardCharsets.UTF_8));
+        Assert.assertNull(new SchemaCache(file, "key").loadTypes(catalog.connection()));
+    }
+
+    @Test
+    public void shouldValidateTablesByCapturedRelationsOnly() throws Exception {
+        FakeCatalog catalog = new FakeCatalog();
+        catalog.relation(16384L, "public", "orders");
+        catalog.relation(16390L, "audit", "log");
+        Path file = folder.getRoot().toPath().resolve("schema.json");
+
+        SchemaCache cache = new SchemaCache(file, "key");
+        Assert.assertFalse(cache.loadTables(catalog.connection(), new Tables(), new HashMap<>(), PUBLIC_ONLY));
+        Tables tables = new Tables();
+        tables.overwriteTable(Table.editor().tableId(ORDERS)
+                .addColumn(Column.editor().name("id").position(1).jdbcType(Types.BIGINT).nativeType(PgOid.INT8).type("int8").create())
+                .setPrimaryKeyNames(Collections.singletonList("id"))
+                .create());
+        cache.storeTables(tables, Collections.singletonMap(ORDERS, Collections.singletonList("id")));
+
+        // DDL on a table that is not captured keeps the cached tables
+        catalog.alter(16390L);
+        Tables restored = new Tables();
+        Map<TableId, List<String>> toastable = new HashMap<>();
+        Assert.assertTrue(new SchemaCache(file, "key").loadTables(catalog.connection(), restored, toastable, PUBLIC_ONLY));
+        Assert.assertEquals(tables.forTable(ORDERS), restored.forTable(ORDERS));
+        Assert.assertEquals(Collections.singletonList("id"), toastable.get(ORDERS));
+
+        // another filter configuration, a changed and a new captured table all make them stale
+        Assert.assertFalse(new SchemaCache(file, "other").loadTables(catalog.connection(), new Tables(), new HashMap<>(), PUBLIC_ONLY));
+        catalog.alter(16384L);
+        Assert.assertFalse(new SchemaCache(file, "key").loadTables(catalog.connection(), new Tables(), new HashMap<>(), PUBLIC_ONLY));
+        storeTablesAgain(file, catalog, tables);
+        catalog.relation(16400L, "public", "items");
+        Assert.assertFalse(new SchemaCache(file, "key").loadTables(catalog.connection(), new Tables(), new HashMap<>(), PUBLIC_ONLY));
+    }
+
+    private static void storeTypes(Path file, FakeCatalog catalog) {
+        SchemaCache cache = new SchemaCache(file, "key");
+        Assert.assertNull(cache.loadTypes(catalog.connection()));
+        cache.storeTypes(Collections.singletonList(new TypeRegistry.TypeDescriptor(PgOid.INT4, "int4", Types.INTEGER, -1, "N", 0, 0, null)));
+        Assert.assertNotNull(new SchemaCache(file, "key").loadTypes(catalog.connection()));
+    }
+
+    private static void storeTablesAgain(Path file, FakeCatalog catalog, Tables tables) {
+        SchemaCache cache = new SchemaCache(file, "key");
+        Assert.assertFalse(cache.loadTables(catalog.connection(), new Tables(), new HashMap<>(), PUBLIC_ONLY));
+        cache.storeTables(tables, Collections.emptyMap());
+        Assert.assertTrue(new SchemaCache(file, "key").loadTables(catalog.connection(), new Tables(), new HashMap<>(), PUBLIC_ONLY));
+    }
+
+    /**
+     * Answers the fingerprint queries of {@link SchemaCache}; the table hashes are the sum of the row versions of the
+     * relations asked for.
+     */
+    private static final class FakeCatalog {
+
+        private long typeHash = 7L;
+        private final Map<Long, TableId> relations = new LinkedHashMap<>();
+        private final Map<Long, Long> versions = new HashMap<>();
+
+        void relation(long oid, String schema, String table) {
+            relations.put(oid, new TableId(null, schema, table));
+            versions.put(oid, 1L);
+        }
+
+        void alter(long oid) {
+            versions.put(oid, versions.get(oid) + 1);
+        }
+
+        Connection connection() {
+            return proxy(Connection.class, (method, args) -> {
+                switch (method) {
+                    case "createStatement":
+                        return proxy(Statement.class, (statementMethod, statementArgs) -> {
+                            if (statementMethod.equals("executeQuery")) {
+                                return query((String) statementArgs[0], null);
+                            }
+                            return null;
+                        });
+                    case "prepareStatement":
+                        final Object[][] parameter = new Object[1][];
+                        return proxy(PreparedStatement.class, (statementMethod, statementArgs) -> {
+                            if (statementMethod.equals("setArray")) {
+                                parameter[0] = (Object[]) ((Array) statementArgs[1]).getArray();
+                            }
+                            else if (statementMethod.equals("executeQuery")) {
+                                return query((String) args[0], parameter[0]);
+                            }
+                            return null;
+                        });
+                    case "createArrayOf":
+                        return proxy(Array.class, (arrayMethod, arrayArgs) -> args[1]);
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        private ResultSet query(String sql, Object[] oids) {
+            final List<Object[]> rows = new ArrayList<>();
+            if (sql.equals(SchemaCache.SQL_TYPES_FINGERPRINT)) {
+                rows.add(new Object[]{ "db", 2L, 90001L, typeHash, 2L });
+            }
+            else if (sql.equals(SchemaCache.SQL_RELATIONS)) {
+                for (Map.Entry<Long, TableId> relation : relations.entrySet()) {
+                    rows.add(new Object[]{ relation.getKey(), relation.getValue().schema(), relation.getValue().table() });
+                }
+            }
+            else if (sql.equals(SchemaCache.SQL_TABLES_FINGERPRINT)) {
+                long hash = 0;
+                for (Object oid : oids) {
+                    hash += oid.hashCode() * versions.get(oid);
+                }
+                rows.add(new Object[]{ "db", hash, hash, hash });
+            }
+            else {
+                throw new IllegalArgumentException(sql);
+            }
+            return resultSet(rows);
+        }
+
+        private static ResultSet resultSet(List<Object[]> rows) {
+            final int[] row = { -1 };
+            return proxy(ResultSet.class, (method, args) -> {
+                switch (method) {
+                    case "next":
+                        return ++row[0] < rows.size();
+                    case "getString":
+                        return (String) rows.get(row[0])[(Integer) args[0] - 1];
+                    case "getLong":
+                        return ((Number) rows.get(row[0])[(Integer) args[0] - 1]).longValue();
+                    case "getMetaData":
+                        return proxy(ResultSetMetaData.class, (metaDataMethod, metaDataArgs) -> rows.get(0).length);
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(SchemaCacheTest.class.getClassLoader(), new Class<?>[]{ type },
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,127 @@
+package io.debezium.connector.kingbasees;
+
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SchemaReconcilerTest {
+
+    private static final TableId ORDERS = new TableId(null, "public", "orders");
+
+    @Test
+    public void shouldCoalesceRepeatedRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger lookups = new AtomicInteger();
+        try (SchemaReconciler reconciler = new SchemaReconciler(tableId -> {
+            lookups.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new SchemaReconciler.Reconciliation(catalogTable(), null);
+        })) {
+            reconciler.schedule(ORDERS);
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            // a burst of column changes while the first lookup is in flight
+            for (int i = 0; i < 5; i++) {
+                reconciler.schedule(ORDERS);
+            }
+            release.countDown();
+
+            List<Table> applied = awaitApplied(reconciler, 2);
+            Thread.sleep(100);
+            reconciler.applyCompleted((table, toastableColumns) -> applied.add(table));
+            Assert.assertEquals(2, lookups.get());
+            Assert.assertEquals(2, applied.size());
+        }
+    }
+
+    @Test
+    public void shouldApplyNothingWhenLookupFails() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        try (SchemaReconciler reconciler = new SchemaReconciler(tableId -> {
+            if (lookups.incrementAndGet() == 1) {
+                throw new SQLException("connection reset");
+            }
+            return new SchemaReconciler.Reconciliation(catalogTable(), Collections.singletonList("note"));
+        })) {
+            reconciler.schedule(ORDERS);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lookups.get() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            List<Table> applied = new ArrayList<>();
+            reconciler.applyCompleted((table, toastableColumns) -> applied.add(table));
+            Assert.assertTrue(applied.isEmpty());
+
+            // the reconciler keeps working after a failure
+            reconciler.schedule(ORDERS);
+            Assert.assertEquals(1, awaitApplied(reconciler, 1).size());
+        }
+    }
+
+    @Test
+    public void shouldKeepMessageColumnsAndAdoptCatalogPrimaryKey() {
+        Table current = messageTable();
+        Table reconciled = PostgresSchema.reconcile(current, catalogTable());
+
+        Assert.assertNotSame(current, reconciled);
+        Assert.assertEquals(Arrays.asList("id", "amount", "note"), reconciled.retrieveColumnNames());
+        // the catalog knows region as part of the key, but the stream has not seen the column yet
+        Assert.assertEquals(Collections.singletonList("id"), reconciled.primaryKeyColumnNames());
+        Assert.assertSame(reconciled, PostgresSchema.reconcile(reconciled, catalogTable()));
+    }
+
+    private static List<Table> awaitApplied(SchemaReconciler reconciler, int count) throws InterruptedException {
+        List<Table> applied = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (applied.size() < count && System.currentTimeMillis() < deadline) {
+            reconciler.applyCompleted((table, toastableColumns) -> applied.add(table));
+            Thread.sleep(10);
+        }
+        return applied;
+    }
+
+    /**
+     * The table as derived from decoder messages, which carry no primary key.
+     */
+    private static Table messageTable() {
+        return Table.editor()
+                .tableId(ORDERS)
+                .addColumn(column("id", 1, Types.BIGINT, "int8"))
+                .addColumn(column("amount", 2, Types.NUMERIC, "numeric"))
+                .addColumn(column("note", 3, Types.VARCHAR, "text"))
+                .create();
+    }
+
+    private static Table catalogTable() {
+        return Table.editor()
+                .tableId(ORDERS)
+                .addColumn(column("id", 1, Types.BIGINT, "int8"))
+                .addColumn(column("region", 2, Types.VARCHAR, "varchar"))
+                .addColumn(column("amount", 3, Types.NUMERIC, "numeric"))
+                .setPrimaryKeyNames(Arrays.asList("id", "region"))
+                .create();
+    }
+
+    private static Column column(String name, int position, int jdbcType, String typeName) {
+        return Column.editor().name(name).position(position).jdbcType(jdbcType).type(typeName).create();
+    }
+}
@@ -0,0 +1,125 @@
+package io.debezium.connector.kingbasees;
+
+import io.debezium.connector.kingbasees.PostgresSnapshotChangeEventSource.ColumnReader;
+import io.debezium.data.SpecialValueDecimal;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SnapshotColumnReadersTest {
+
+    private static final String OBJECT_VALUE = "read as object";
+    private static final Map<String, PostgresType> TYPES = new HashMap<>();
+
+    static {
+        addType("int4", PgOid.INT4);
+        addType("money", PgOid.MONEY);
+        addType("numeric", PgOid.NUMERIC);
+        addType("time", PgOid.TIME);
+    }
+
+    private final List<String> lookups = new ArrayList<>();
+
+    @Test
+    public void shouldReadNegativeMoney() throws SQLException {
+        ColumnReader[] readers = readers("money");
+
+        Assert.assertEquals(-1234.5, (Double) readers[0].read(resultSet("-$1,234.50"), 1), 0.0);
+        Assert.assertEquals(12.0, (Double) readers[0].read(resultSet("$12.00"), 1), 0.0);
+        Assert.assertNull(readers[0].read(resultSet((Object) null), 1));
+    }
+
+    @Test
+    public void shouldReadNumericSpecialValues() throws SQLException {
+        ColumnReader[] readers = readers("numeric");
+
+        Assert.assertSame(SpecialValueDecimal.NOT_A_NUMBER, readers[0].read(resultSet("NaN"), 1));
+        SpecialValueDecimal value = (SpecialValueDecimal) readers[0].read(resultSet(new BigDecimal("10.25")), 1);
+        Assert.assertEquals(new BigDecimal("10.25"), value.getDecimalValue().get());
+    }
+
+    @Test
+    public void shouldFallBackToObjectIfTypedReadFails() throws SQLException {
+        ColumnReader[] readers = readers("time", "int4");
+        ResultSet rs = resultSet(new SQLException("cannot convert"), 7);
+
+        Assert.assertEquals(OBJECT_VALUE, readers[0].read(rs, 1));
+        Assert.assertEquals(7, readers[1].read(rs, 2));
+    }
+
+    @Test
+    public void shouldResolveReadersInResultSetColumnOrder() throws SQLException {
+        // a projected snapshot query selects the columns in a different order than the table defines them
+        ColumnReader[] readers = readers("numeric", "int4", "money");
+        ResultSet rs = resultSet("NaN", 42, "-$5.00");
+
+        Assert.assertEquals(3, readers.length);
+        Assert.assertEquals(3, lookups.size());
+        Assert.assertEquals("numeric", lookups.get(0));
+        Assert.assertEquals("money", lookups.get(2));
+        Assert.assertSame(SpecialValueDecimal.NOT_A_NUMBER, readers[0].read(rs, 1));
+        Assert.assertEquals(42, readers[1].read(rs, 2));
+        Assert.assertEquals(-5.0, (Double) readers[2].read(rs, 3), 0.0);
+    }
+
+    private ColumnReader[] readers(String... columnTypeNames) throws SQLException {
+        return PostgresSnapshotChangeEventSource.columnReaders(metaData(columnTypeNames), typeName -> {
+            lookups.add(typeName);
+            return TYPES.get(typeName);
+        });
+    }
+
+    private static void addType(String name, int oid) {
+        TYPES.put(name, new PostgresType.Builder(null, name, oid, 0, TypeRegistry.NO_TYPE_MODIFIER, null).build());
+    }
+
+    private static ResultSetMetaData metaData(String... columnTypeNames) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(SnapshotColumnReadersTest.class.getClassLoader(), new Class<?>[]{ ResultSetMetaData.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return columnTypeNames.length;
+                        case "getColumnTypeName":
+                            return columnTypeNames[(Integer) args[0] - 1];
+                        case "getColumnName":
+                            return "c" + args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * A single row; a column given as an exception fails every typed read and is returned by getObject as
+     * {@link #OBJECT_VALUE}.
+     */
+    private static ResultSet resultSet(Object... row) {
+        return (ResultSet) Proxy.newProxyInstance(SnapshotColumnReadersTest.class.getClassLoader(), new Class<?>[]{ ResultSet.class },
+                (proxy, method, args) -> {
+                    final Object value = row[(Integer) args[0] - 1];
+                    if (method.getName().equals("getObject")) {
+                        return value instanceof SQLException ? OBJECT_VALUE : value;
+                    }
+                    if (value instanceof SQLException) {
+                        throw (SQLException) value;
+                    }
+                    switch (method.getName()) {
+                        case "getString":
+                            return value == null ? null : value.toString();
+                        case "getBigDecimal":
+                            return value;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,58 @@
+package io.debezium.connector.kingbasees;
+
+import io.debezium.connector.kingbasees.SnapshotProgress.KeyRange;
+import io.debezium.relational.TableId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SnapshotProgressTest {
+
+    private static final TableId ORDERS = new TableId(null, "public", "orders");
+    private static final TableId ITEMS = new TableId(null, "public", "items");
+
+    private static final List<KeyRange> PLANNED = Arrays.asList(
+            new KeyRange(null, 100L), new KeyRange(100L, 200L), new KeyRange(200L, 300L), new KeyRange(300L, null));
+
+    @Test
+    public void shouldMergeAdjacentRanges() {
+        SnapshotProgress progress = new SnapshotProgress();
+        progress.rangeCompleted(ORDERS, new KeyRange(100L, 200L));
+        progress.rangeCompleted(ORDERS, new KeyRange(null, 100L));
+        progress.rangeCompleted(ORDERS, new KeyRange(300L, null));
+
+        Assert.assertEquals("public.orders\t:200,300:", progress.encoded());
+        Assert.assertFalse(progress.isTableCompleted(ORDERS));
+
+        progress.rangeCompleted(ORDERS, new KeyRange(200L, 300L));
+        Assert.assertTrue(progress.isTableCompleted(ORDERS));
+    }
+
+    @Test
+    public void shouldReturnOnlyMissingRanges() {
+        SnapshotProgress progress = new SnapshotProgress();
+        progress.rangeCompleted(ORDERS, new KeyRange(null, 150L));
+        progress.rangeCompleted(ORDERS, new KeyRange(300L, null));
+
+        Assert.assertEquals(Arrays.asList(new KeyRange(150L, 200L), new KeyRange(200L, 300L)), progress.remaining(ORDERS, PLANNED));
+        Assert.assertEquals(PLANNED, progress.remaining(ITEMS, PLANNED));
+    }
+
+    @Test
+    public void shouldRoundTripEncodedProgress() {
+        SnapshotProgress progress = new SnapshotProgress();
+        progress.tableCompleted(ITEMS);
+        progress.rangeCompleted(ORDERS, new KeyRange(100L, 200L));
+
+        SnapshotProgress parsed = SnapshotProgress.parse(progress.encoded());
+
+        Assert.assertEquals(progress.encoded(), parsed.encoded());
+        Assert.assertTrue(parsed.isTableCompleted(ITEMS));
+        Assert.assertEquals(Collections.emptyList(), parsed.remaining(ITEMS, PLANNED));
+        Assert.assertEquals(Arrays.asList(new KeyRange(null, 100L), new KeyRange(200L, 300L), new KeyRange(300L, null)),
+                parsed.remaining(ORDERS, PLANNED));
+    }
+}
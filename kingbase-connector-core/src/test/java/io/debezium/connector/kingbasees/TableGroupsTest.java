@@ -0,0 +1,72 @@
+package io.debezium.connector.kingbasees;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+public class TableGroupsTest {
+
+    @Test
+    public void shouldParseExplicitGroups() {
+        Map<String, String> groups = TableGroups.split(" orders: public.orders, public.order_items ;audit:public.audit_log", 1, "");
+
+        Assert.assertEquals(2, groups.size());
+        Assert.assertEquals("public.orders,public.order_items", groups.get("orders"));
+        Assert.assertEquals("public.audit_log", groups.get("audit"));
+        Assert.assertEquals("dbz_slot_audit", TableGroups.slotName("dbz_slot", "audit"));
+    }
+
+    @Test
+    public void shouldSplitIncludeListByHashDeterministically() {
+        String includeList = "public.a,public.b,public.c,public.d,public.e,public.f";
+        Map<String, String> groups = TableGroups.split("", 3, includeList);
+
+        Assert.assertEquals(groups, TableGroups.split(null, 3, includeList));
+        int tables = 0;
+        for (String tablesOfGroup : groups.values()) {
+            tables += tablesOfGroup.split(",").length;
+        }
+        Assert.assertEquals(6, tables);
+    }
+
+    @Test
+    public void shouldNotGroupSingleGroup() {
+        Assert.assertTrue(TableGroups.split("", 1, "public.a,public.b").isEmpty());
+        Assert.assertTrue(TableGroups.split("all:public.a,public.b", 1, "").isEmpty());
+    }
+
+    @Test
+    public void shouldRejectGroupsSharingSlotName() {
+        assertRejected("a-b:public.a;a_b:public.b");
+        assertRejected("G1:public.a;g1:public.b");
+        TableGroups.split("g1:public.a;g2:public.b", 1, "");
+    }
+
+    @Test
+    public void shouldRejectDerivedNamesOverMaximumLength() {
+        String group = "orders_of_the_last_business_year_by_region";
+        String slotName = "debezium_" + group;
+        TableGroups.checkNameLength("debezium", Collections.singleton(group));
+        Assert.assertEquals(TableGroups.MAX_NAME_LENGTH + 1, TableGroups.slotName(slotName, "abcdefghijkl").length());
+        try {
+            TableGroups.checkNameLength(slotName, Arrays.asList("a", "abcdefghijkl"));
+            Assert.fail("derived slot name is too long");
+        }
+        catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("abcdefghijkl"));
+        }
+    }
+
+    private static void assertRejected(String explicitGroups) {
+        try {
+            TableGroups.split(explicitGroups, 1, "");
+            Assert.fail("groups should collide: " + explicitGroups);
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.debezium.connector.kingbasees.connection;
+
+import com.kingbase8.core.BaseConnection;
+import com.kingbase8.jdbc.KbArray;
+import io.debezium.connector.kingbasees.PgOid;
+import io.debezium.connector.kingbasees.PostgresType;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ArrayLiteralParserTest {
+
+    private static final PostgresType INT4 = type("int4", PgOid.INT4, Types.INTEGER);
+    private static final PostgresType INT8 = type("int8", PgOid.INT8, Types.BIGINT);
+    private static final PostgresType FLOAT8 = type("float8", PgOid.FLOAT8, Types.DOUBLE);
+    private static final PostgresType TEXT = type("text", PgOid.TEXT, Types.VARCHAR);
+    private static final PostgresType UUID = type("uuid", PgOid.UUID, Types.OTHER);
+
+    @Test
+    public void shouldParseIntegerArrayWithNulls() {
+        Assert.assertEquals(Arrays.asList(1, -2, null, 3), ArrayLiteralParser.parse("{1,-2,NULL,3}", INT4));
+        Assert.assertEquals(Arrays.asList(Long.MAX_VALUE, Long.MIN_VALUE), ArrayLiteralParser.parse("{9223372036854775807,-9223372036854775808}", INT8));
+    }
+
+    @Test
+    public void shouldParseNestedArraysAndDimensions() {
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Arrays.asList(3L, 4L)), ArrayLiteralParser.parse("{{1,2},{3,4}}", INT8));
+        Assert.assertEquals(Arrays.asList(1, 2), ArrayLiteralParser.parse("[0:1]={ 1 , 2 }", INT4));
+        Assert.assertTrue(ArrayLiteralParser.parse("{}", TEXT).isEmpty());
+    }
+
+    @Test
+    public void shouldParseQuotedAndEscapedText() {
+        List<Object> values = ArrayLiteralParser.parse("{\"a b\",\"c\\\"d\",NULL,\"NULL\",e\\,f,  x y  }", TEXT);
+        Assert.assertEquals(Arrays.asList("a b", "c\"d", null, "NULL", "e,f", "x y"), values);
+    }
+
+    @Test
+    public void shouldParseSpecialFloatValues() {
+        Assert.assertEquals(Arrays.asList(1.5d, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN),
+                ArrayLiteralParser.parse("{1.5,Infinity,-Infinity,NaN}", FLOAT8));
+    }
+
+    @Test
+    public void shouldRejectMalformedLiterals() {
+        for (String literal : new String[]{ "{1,2", "1,2}", "{1,,2}", "{1}x", "{\"a}", "{3000000000}" }) {
+            try {
+                ArrayLiteralParser.parse(literal, INT4);
+                Assert.fail("accepted " + literal);
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void shouldLeaveOtherElementTypesToDriver() {
+        Assert.assertFalse(ArrayLiteralParser.supports(UUID));
+        Assert.assertFalse(ArrayLiteralParser.supports(null));
+        Assert.assertTrue(ArrayLiteralParser.supports(TEXT));
+    }
+
+    /**
+     * Native parser against {@link KbArray}, run with {@code -Dkb.benchmark=true}; the {@code KbArray} side additionally
+     * needs a database given by {@code -Dkb.benchmark.url}, {@code -Dkb.benchmark.user} and {@code -Dkb.benchmark.password}.
+     */
+    @Test
+    public void benchmarkAgainstKbArray() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("kb.benchmark"));
+
+        final int rounds = 20_000;
+        final String ints = literal(1_000, false);
+        final String texts = literal(1_000, true);
+        System.out.println("native int8[1000]: " + measure(rounds, () -> ArrayLiteralParser.parse(ints, INT8)) + " arrays/s");
+        System.out.println("native text[1000]: " + measure(rounds, () -> ArrayLiteralParser.parse(texts, TEXT)) + " arrays/s");
+
+        final String url = System.getProperty("kb.benchmark.url");
+        if (url == null) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(url, System.getProperty("kb.benchmark.user"), System.getProperty("kb.benchmark.password"))) {
+            final BaseConnection baseConnection = connection.unwrap(BaseConnection.class);
+            System.out.println("KbArray int8[1000]: " + measure(rounds, () -> new KbArray(baseConnection, PgOid.INT8_ARRAY, ints).getArray()) + " arrays/s");
+            System.out.println("KbArray text[1000]: " + measure(rounds, () -> new KbArray(baseConnection, PgOid.TEXT_ARRAY, texts).getArray()) + " arrays/s");
+        }
+    }
+
+    private interface Parse {
+        Object run() throws Exception;
+    }
+
+    private static long measure(int rounds, Parse parse) throws Exception {
+        for (int i = 0; i < rounds / 10; i++) {
+            parse.run();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            parse.run();
+        }
+        return rounds * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+    }
+
+    private static String literal(int size, boolean quoted) {
+        final StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(quoted ? "\"value " + i + "\"" : Long.toString(1_000_000_000_000L + i));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static PostgresType type(String name, int oid, int jdbcType) {
+        return new PostgresType.Builder(null, name, oid, jdbcType, -1, null).build();
+    }
+}
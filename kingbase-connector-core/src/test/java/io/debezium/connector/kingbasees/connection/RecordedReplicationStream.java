@@ -0,0 +1,125 @@
+package io.debezium.connector.kingbasees.connection;
+
+import io.debezium.connector.kingbasees.connection.pgproto.PgProtoMessageDecoder;
+import io.debezium.connector.kingbasees.proto.PgProto;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Replays recorded decoderbufs frames instead of reading from a replication connection.
+ */
+public class RecordedReplicationStream implements ReplicationStream {
+
+    private final List<byte[]> frames;
+    private final long[] lsns;
+    private final MessageDecoder decoder = new PgProtoMessageDecoder(new MessageDecoderConfig(null, null, null, false, false, null));
+    private int position;
+    private volatile long lastReceivedLsn = Lsn.NO_LSN;
+
+    RecordedReplicationStream(List<byte[]> frames, long[] lsns) {
+        this.frames = frames;
+        this.lsns = lsns;
+    }
+
+    /**
+     * Records {@code count} single row inserts with {@code columns} integer and text columns each.
+     */
+    public static RecordedReplicationStream inserts(int count, int columns) {
+        List<byte[]> frames = new ArrayList<>(count);
+        long[] lsns = new long[count];
+        for (int i = 0; i < count; i++) {
+            PgProto.RowMessage.Builder row = PgProto.RowMessage.newBuilder()
+                    .setTransactionId(i + 1)
+                    .setCommitTime(i)
+                    .setSchema("form")
+                    .setTable("t_bench")
+                    .setOp(PgProto.Op.INSERT);
+            for (int c = 0; c < columns; c++) {
+                PgProto.DatumMessage.Builder datum = PgProto.DatumMessage.newBuilder().setColumnName("c" + c);
+                if (c % 2 == 0) {
+                    datum.setColumnType(23).setDatumInt32(i);
+                }
+                else {
+                    datum.setColumnType(25).setDatumString("value-" + i + "-" + c);
+                }
+                row.addNewTuple(datum.build());
+            }
+            frames.add(row.build().toByteArray());
+            lsns[i] = 1000L + i;
+        }
+        return new RecordedReplicationStream(frames, lsns);
+    }
+
+    public int size() {
+        return frames.size();
+    }
+
+    boolean exhausted() {
+        return position >= frames.size();
+    }
+
+    @Override
+    public void read(ReplicationMessageProcessor processor) throws SQLException, InterruptedException {
+        readPending(processor);
+    }
+
+    @Override
+    public boolean readPending(ReplicationMessageProcessor processor) throws SQLException, InterruptedException {
+        ReplicationFrame frame = readPendingFrame();
+        if (frame == null) {
+            return false;
+        }
+        decodeFrame(frame, processor);
+        return true;
+    }
+
+    @Override
+    public ReplicationFrame readPendingFrame() {
+        if (exhausted()) {
+            return null;
+        }
+        final int index = position++;
+        lastReceivedLsn = lsns[index];
+        return new ReplicationFrame(ByteBuffer.wrap(frames.get(index)), lastReceivedLsn);
+    }
+
+    @Override
+    public void decodeFrame(ReplicationFrame frame, ReplicationMessageProcessor processor) throws SQLException, InterruptedException {
+        decoder.processMessage(frame.buffer(), processor, null);
+    }
+
+    @Override
+    public void flushLsn(Lsn lsn) {
+    }
+
+    @Override
+    public Lsn lastReceivedLsn() {
+        return Lsn.fromPrimitive(lastReceivedLsn);
+    }
+
+    @Override
+    public long lastReceivedLsnAsLong() {
+        return lastReceivedLsn;
+    }
+
+    @Override
+    public Lsn startLsn() {
+        return lsns.length == 0 ? null : Lsn.valueOf(lsns[0]);
+    }
+
+    @Override
+    public void startKeepAlive(ExecutorService service) {
+    }
+
+    @Override
+    public void stopKeepAlive() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
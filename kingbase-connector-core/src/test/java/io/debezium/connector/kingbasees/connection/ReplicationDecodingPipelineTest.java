@@ -0,0 +1,66 @@
+package io.debezium.connector.kingbasees.connection;
+
+import io.debezium.util.DelayStrategy;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ReplicationDecodingPipelineTest {
+
+    @Test
+    public void shouldDispatchFramesInLsnOrder() throws Exception {
+        RecordedReplicationStream stream = RecordedReplicationStream.inserts(5_000, 8);
+
+        long expectedLsn = 1000L;
+        long expectedTx = 1L;
+        try (ReplicationDecodingPipeline pipeline = new ReplicationDecodingPipeline(stream, 4, 64, DelayStrategy.constant(1), false)) {
+            pipeline.start();
+            while (expectedTx <= stream.size()) {
+                ReplicationDecodingPipeline.DecodedFrame frame = pipeline.next(5, TimeUnit.SECONDS);
+                Assert.assertNotNull("pipeline stalled at LSN " + expectedLsn, frame);
+                Assert.assertEquals(expectedLsn++, frame.lsn());
+                Assert.assertEquals(1, frame.messages().size());
+                ReplicationMessage message = frame.messages().get(0);
+                Assert.assertEquals(expectedTx++, message.getTransactionId());
+                Assert.assertEquals("form.t_bench", message.getTable());
+            }
+        }
+    }
+
+    /**
+     * Decode throughput over recorded frames, run with {@code -Dkb.benchmark=true}.
+     */
+    @Test
+    public void benchmarkDecodeThroughput() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("kb.benchmark"));
+
+        final int frames = 200_000;
+        final int columns = 20;
+        System.out.println("single thread: " + measureSingleThread(RecordedReplicationStream.inserts(frames, columns)) + " frames/s");
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            System.out.println(threads + " decoder threads: " + measurePipeline(RecordedReplicationStream.inserts(frames, columns), threads) + " frames/s");
+        }
+    }
+
+    private long measureSingleThread(RecordedReplicationStream stream) throws Exception {
+        final long start = System.nanoTime();
+        while (stream.readPending(message -> message.getOperation())) {
+            // drain
+        }
+        return stream.size() * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+    }
+
+    private long measurePipeline(RecordedReplicationStream stream, int threads) throws Exception {
+        final long start = System.nanoTime();
+        try (ReplicationDecodingPipeline pipeline = new ReplicationDecodingPipeline(stream, threads, 1024, DelayStrategy.constant(1), false)) {
+            pipeline.start();
+            for (int i = 0; i < stream.size(); i++) {
+                ReplicationDecodingPipeline.DecodedFrame frame = pipeline.next(5, TimeUnit.SECONDS);
+                frame.messages().get(0).getOperation();
+            }
+        }
+        return stream.size() * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,58 @@
+package io.debezium.connector.kingbasees.connection;
+
+import io.debezium.connector.kingbasees.PgOid;
+import io.debezium.connector.kingbasees.PostgresType;
+import io.debezium.connector.kingbasees.connection.pgproto.PgProtoColumnValue;
+import io.debezium.connector.kingbasees.proto.PgProto;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Types;
+
+public class ReplicationMessageColumnValueResolverTest {
+
+    @Test
+    public void shouldCompileResolverOncePerType() {
+        ReplicationMessageColumnValueResolver.ResolverCache cache = new ReplicationMessageColumnValueResolver.ResolverCache();
+        PostgresType int4 = new PostgresType.Builder(null, "int4", PgOid.INT4, Types.INTEGER, -1, null).build();
+
+        Assert.assertEquals(7, resolve(cache, int4, "integer", PgProto.DatumMessage.newBuilder().setDatumInt32(7).build()));
+        ReplicationMessageColumnValueResolver.ValueResolver resolver = resolverFor(cache, int4, "integer");
+        Assert.assertEquals(1, cache.size());
+
+        Assert.assertEquals(8, resolve(cache, int4, "integer", PgProto.DatumMessage.newBuilder().setDatumString("8").build()));
+        Assert.assertSame(resolver, resolverFor(cache, int4, "integer"));
+
+        // a type replaced by the registry gets a resolver of its own
+        PostgresType refreshed = new PostgresType.Builder(null, "int4", PgOid.INT4, Types.INTEGER, -1, null).build();
+        Assert.assertNotSame(resolver, resolverFor(cache, refreshed, "integer"));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldResolveUnknownTypesByFullType() {
+        ReplicationMessageColumnValueResolver.ResolverCache cache = new ReplicationMessageColumnValueResolver.ResolverCache();
+        Assert.assertEquals("abc", resolve(cache, PostgresType.UNKNOWN, "character varying(10)", PgProto.DatumMessage.newBuilder().setDatumString("abc").build()));
+        Assert.assertEquals(3L, resolve(cache, PostgresType.UNKNOWN, "bigint", PgProto.DatumMessage.newBuilder().setDatumInt64(3L).build()));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(4L, resolve(null, PostgresType.UNKNOWN, "bigint", PgProto.DatumMessage.newBuilder().setDatumInt64(4L).build()));
+    }
+
+    @Test
+    public void shouldBoundCachedResolvers() {
+        ReplicationMessageColumnValueResolver.ResolverCache cache = new ReplicationMessageColumnValueResolver.ResolverCache();
+        for (int i = 0; i < ReplicationMessageColumnValueResolver.ResolverCache.MAX_ENTRIES + 10; i++) {
+            Assert.assertEquals("v", resolve(cache, PostgresType.UNKNOWN, "varchar(" + i + ")", PgProto.DatumMessage.newBuilder().setDatumString("v").build()));
+        }
+        Assert.assertEquals(ReplicationMessageColumnValueResolver.ResolverCache.MAX_ENTRIES, cache.size());
+    }
+
+    private static ReplicationMessageColumnValueResolver.ValueResolver resolverFor(ReplicationMessageColumnValueResolver.ResolverCache cache, PostgresType type,
+                                                                                   String fullType) {
+        return ReplicationMessageColumnValueResolver.resolverFor(cache, type, fullType, new PgProtoColumnValue(PgProto.DatumMessage.newBuilder().setDatumInt32(0).build()));
+    }
+
+    private static Object resolve(ReplicationMessageColumnValueResolver.ResolverCache cache, PostgresType type, String fullType, PgProto.DatumMessage datum) {
+        return ReplicationMessageColumnValueResolver.resolveValue(cache, "c", type, fullType, new PgProtoColumnValue(datum), null, false, null);
+    }
+}
@@ -0,0 +1,177 @@
+package io.debezium.connector.kingbasees.connection;
+
+import com.kingbase8.replication.KBReplicationStream;
+import com.kingbase8.replication.LogSequenceNumber;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicationStatusFeedbackTest {
+
+    @Test
+    public void shouldCoalesceConfirmationsIntoFewStatusUpdates() throws Exception {
+        CountingStream stream = new CountingStream();
+        ReplicationStatusFeedback feedback = new ReplicationStatusFeedback(stream, Duration.ofSeconds(10));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            feedback.start(executor);
+            for (long lsn = 1000L; lsn < 11_000L; lsn++) {
+                feedback.confirm(Lsn.valueOf(lsn));
+            }
+            final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+            while (stream.flushed == null || stream.flushed.asLong() != 10_999L) {
+                Assert.assertTrue("latest LSN was not sent", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(10_999L, stream.applied.asLong());
+            Assert.assertTrue("too many status updates: " + stream.updates.get(), stream.updates.get() <= 5);
+        }
+        finally {
+            feedback.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldSendSynchronouslyWhenNotStarted() throws Exception {
+        CountingStream stream = new CountingStream();
+        ReplicationStatusFeedback feedback = new ReplicationStatusFeedback(stream, Duration.ofSeconds(10));
+
+        feedback.confirm(Lsn.valueOf(2000L));
+
+        Assert.assertEquals(2000L, stream.flushed.asLong());
+        Assert.assertEquals(1, stream.updates.get());
+    }
+
+    @Test
+    public void shouldSendLastConfirmationOnStop() throws Exception {
+        CountingStream stream = new CountingStream();
+        ReplicationStatusFeedback feedback = new ReplicationStatusFeedback(stream, Duration.ofSeconds(10));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            feedback.start(executor);
+            feedback.confirm(Lsn.valueOf(3000L));
+            awaitFlushed(stream, 3000L);
+            // confirmed within the minimum feedback interval, so still pending when stopping
+            feedback.confirm(Lsn.valueOf(3100L));
+            feedback.stop();
+            Assert.assertEquals(3100L, stream.flushed.asLong());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReportFailedStatusUpdateAndRetry() throws Exception {
+        CountingStream stream = new CountingStream();
+        stream.failing = true;
+        ReplicationStatusFeedback feedback = new ReplicationStatusFeedback(stream, Duration.ofMillis(50));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            feedback.start(executor);
+            feedback.confirm(Lsn.valueOf(4000L));
+            final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+            while (!hasFailed(feedback)) {
+                Assert.assertTrue("failure was not reported", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+
+            stream.failing = false;
+            awaitFlushed(stream, 4000L);
+            while (hasFailed(feedback)) {
+                Assert.assertTrue("failure was not cleared", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+        }
+        finally {
+            feedback.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean hasFailed(ReplicationStatusFeedback feedback) {
+        try {
+            feedback.checkFailure();
+            return false;
+        }
+        catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void awaitFlushed(CountingStream stream, long lsn) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (stream.flushed == null || stream.flushed.asLong() != lsn) {
+            Assert.assertTrue("LSN " + lsn + " was not sent", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class CountingStream implements KBReplicationStream {
+
+        private final AtomicInteger updates = new AtomicInteger();
+        private volatile boolean failing;
+        private volatile LogSequenceNumber flushed;
+        private volatile LogSequenceNumber applied;
+
+        @Override
+        public LogSequenceNumber getLastReceiveLSN() {
+            return null;
+        }
+
+        @Override
+        public void setAppliedLSN(LogSequenceNumber lsn) {
+            applied = lsn;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public ByteBuffer readPending() {
+            return null;
+        }
+
+        @Override
+        public LogSequenceNumber getLastAppliedLSN() {
+            return applied;
+        }
+
+        @Override
+        public void forceUpdateStatus() throws SQLException {
+            if (failing) {
+                throw new SQLException("connection reset");
+            }
+            updates.incrementAndGet();
+        }
+
+        @Override
+        public LogSequenceNumber getLastFlushedLSN() {
+            return flushed;
+        }
+
+        @Override
+        public ByteBuffer read() {
+            return null;
+        }
+
+        @Override
+        public void setFlushedLSN(LogSequenceNumber lsn) {
+            flushed = lsn;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.debezium.connector.kingbasees.connection.pgproto;
+
+import io.debezium.connector.kingbasees.PostgresSchema;
+import io.debezium.relational.Column;
+import io.debezium.relational.Table;
+import io.debezium.relational.TableId;
+import io.debezium.relational.Tables;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PgProtoColumnProjectionTest {
+
+    private static final TableId EVENTS = new TableId(null, "public", "events");
+
+    /**
+     * Excludes every column named payload or id; id is the primary key.
+     */
+    private static final Tables.ColumnNameFilter FILTER = (catalog, schema, table, column) -> !column.equals("payload") && !column.equals("id");
+
+    private final Map<TableId, Table> tables = new HashMap<>();
+    private final AtomicInteger filterCalls = new AtomicInteger();
+    private final PgProtoColumnProjection projection = new PgProtoColumnProjection(tables::get, (table, column) -> {
+        filterCalls.incrementAndGet();
+        return PostgresSchema.isColumnExcluded(table, column, FILTER, null);
+    });
+
+    @Test
+    public void shouldExcludeFilteredColumnsButNeverKeyColumns() {
+        tables.put(EVENTS, table());
+        PgProtoColumnProjection.TableProjection events = projection.forTable("public.events");
+
+        Assert.assertTrue(events.isExcluded("payload"));
+        Assert.assertFalse(events.isExcluded("name"));
+        Assert.assertFalse(events.isExcluded("id"));
+        Assert.assertFalse(PostgresSchema.isColumnExcluded(table(), "payload", null, null));
+    }
+
+    @Test
+    public void shouldNotProjectUnknownTables() {
+        Assert.assertNull(projection.forTable("public.events"));
+        Assert.assertNull(projection.forTable(""));
+        Assert.assertNull(new PgProtoColumnProjection((PostgresSchema) null).forTable("public.events"));
+        Assert.assertEquals(0, filterCalls.get());
+    }
+
+    @Test
+    public void shouldCacheDecisionsUntilTableIsReplaced() {
+        tables.put(EVENTS, table());
+        PgProtoColumnProjection.TableProjection events = projection.forTable("public.events");
+        events.isExcluded("payload");
+        events.isExcluded("name");
+        Assert.assertSame(events, projection.forTable("public.events"));
+        events.isExcluded("payload");
+        events.isExcluded("name");
+        Assert.assertEquals(2, filterCalls.get());
+
+        // a schema refresh replaces the table, e.g. after a column was added
+        tables.put(EVENTS, table().edit().create());
+        Assert.assertSame(events, projection.forTable("public.events"));
+        Assert.assertTrue(events.isExcluded("payload"));
+        Assert.assertEquals(3, filterCalls.get());
+    }
+
+    @Test
+    public void shouldCountSkippedValuesAndBytes() {
+        tables.put(EVENTS, table());
+        PgProtoColumnProjection.TableProjection events = projection.forTable("public.events");
+        events.recordSkipped(120);
+        events.recordSkipped(30);
+
+        Assert.assertEquals(2, events.skippedValues());
+        Assert.assertEquals(150, events.skippedBytes());
+    }
+
+    private static Table table() {
+        return Table.editor()
+                .tableId(EVENTS)
+                .addColumn(Column.editor().name("id").position(1).jdbcType(Types.BIGINT).type("int8").create())
+                .addColumn(Column.editor().name("name").position(2).jdbcType(Types.VARCHAR).type("varchar").create())
+                .addColumn(Column.editor().name("payload").position(3).jdbcType(Types.VARCHAR).type("text").create())
+                .setPrimaryKeyNames(Collections.singletonList("id"))
+                .create();
+    }
+}
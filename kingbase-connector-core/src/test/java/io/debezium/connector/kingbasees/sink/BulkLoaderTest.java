@@ -0,0 +1,65 @@
+package io.debezium.connector.kingbasees.sink;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class BulkLoaderTest {
+
+    @Test
+    public void shouldSplitKeyRangeIntoAdjacentRanges() {
+        List<long[]> ranges = BulkLoader.keyRanges(1, 30, 25, 10, 16);
+        Assert.assertEquals(3, ranges.size());
+        Assert.assertArrayEquals(new long[]{1, 10}, ranges.get(0));
+        Assert.assertArrayEquals(new long[]{11, 20}, ranges.get(1));
+        Assert.assertArrayEquals(new long[]{21, 30}, ranges.get(2));
+    }
+
+    @Test
+    public void shouldCoverSingleKeyAndNegativeKeys() {
+        List<long[]> single = BulkLoader.keyRanges(7, 7, 0, 1000, 16);
+        Assert.assertEquals(1, single.size());
+        Assert.assertArrayEquals(new long[]{7, 7}, single.get(0));
+
+        List<long[]> ranges = BulkLoader.keyRanges(-5, 4, 0, 5, 16);
+        Assert.assertEquals(2, ranges.size());
+        Assert.assertArrayEquals(new long[]{-5, -1}, ranges.get(0));
+        Assert.assertArrayEquals(new long[]{0, 4}, ranges.get(1));
+    }
+
+    @Test
+    public void shouldSizeSparseKeyRangesByEstimatedRows() {
+        // 1000 行分布在整个 bigint 值域上
+        List<long[]> ranges = BulkLoader.keyRanges(1, Long.MAX_VALUE, 1000, 100, 16);
+        Assert.assertEquals(10, ranges.size());
+        assertAdjacent(ranges, 1, Long.MAX_VALUE);
+
+        // 估算行数过多时区间数受并发上限约束
+        Assert.assertEquals(16, BulkLoader.keyRanges(1, Long.MAX_VALUE, 1000000000L, 100, 16).size());
+
+        List<long[]> fullDomain = BulkLoader.keyRanges(Long.MIN_VALUE, Long.MAX_VALUE, 0, 1000000, 16);
+        Assert.assertEquals(16, fullDomain.size());
+        assertAdjacent(fullDomain, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private static void assertAdjacent(List<long[]> ranges, long min, long max) {
+        Assert.assertEquals(min, ranges.get(0)[0]);
+        for (int i = 0; i < ranges.size(); i++) {
+            Assert.assertTrue(ranges.get(i)[0] <= ranges.get(i)[1]);
+            if (i > 0) {
+                Assert.assertEquals(ranges.get(i - 1)[1] + 1, ranges.get(i)[0]);
+            }
+        }
+        Assert.assertEquals(max, ranges.get(ranges.size() - 1)[1]);
+    }
+
+    @Test
+    public void shouldPullKeyRangeThroughCatalog() {
+        String sql = DorisAdmin.catalogInsertSql(new TargetTable("ods", "public_orders"), "bulk_1_0_public_orders", "sync_src_1",
+                new SourceTableId("public", "orders"), Arrays.asList("id", "amount"), "id", 1, 1000);
+        Assert.assertEquals("INSERT INTO `ods`.`public_orders` WITH LABEL bulk_1_0_public_orders (`id`, `amount`)"
+                + " SELECT `id`, `amount` FROM `sync_src_1`.`public`.`orders` WHERE `id` BETWEEN 1 AND 1000", sql);
+    }
+}
@@ -0,0 +1,44 @@
+package io.debezium.connector.kingbasees.sink;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class CopyRowJsonEncoderTest {
+
+    private final CopyRowJsonEncoder encoder = new CopyRowJsonEncoder(Arrays.asList("id", "name", "remark"));
+
+    @Test
+    public void shouldEncodeNullsAndEmptyValues() throws IOException {
+        Assert.assertEquals("{\"id\":\"1\",\"name\":null,\"remark\":\"\"}\n", encode("1\t\\N\t\n"));
+        Assert.assertEquals("{\"id\":\"2\",\"name\":\"a\",\"remark\":null}\n", encode("2\ta\t\\N\n"));
+        Assert.assertEquals("{\"id\":\"\\\\N1\",\"name\":\"b\",\"remark\":null}\n", encode("\\\\N1\tb\t\\N"));
+    }
+
+    @Test
+    public void shouldUnescapeCopyTextAndEscapeJson() throws IOException {
+        Assert.assertEquals("{\"id\":\"3\",\"name\":\"a\\tb\\nc\\\\d\\\"e\",\"remark\":\"\\u0001A\"}\n",
+                encode("3\ta\\tb\\nc\\\\d\"e\t\\001\\x41\n"));
+    }
+
+    @Test
+    public void shouldKeepMultiByteCharacters() throws IOException {
+        Assert.assertEquals("{\"id\":\"4\",\"name\":\"金仓\",\"remark\":\"数据库\"}\n", encode("4\t金仓\t数据库\n"));
+    }
+
+    @Test
+    public void shouldFillMissingFieldsWithNull() throws IOException {
+        Assert.assertEquals("{\"id\":\"5\",\"name\":null,\"remark\":null}\n", encode("5\n"));
+    }
+
+    private String encode(String row) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = encoder.encode(row.getBytes(StandardCharsets.UTF_8), out);
+        Assert.assertEquals(out.size(), written);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
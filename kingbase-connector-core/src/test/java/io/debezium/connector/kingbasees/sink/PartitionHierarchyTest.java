@@ -0,0 +1,52 @@
+package io.debezium.connector.kingbasees.sink;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PartitionHierarchyTest {
+
+    private static final SourceTableId ORDERS = new SourceTableId("public", "orders");
+    private static final SourceTableId ORDERS_2024 = new SourceTableId("public", "orders_2024");
+    private static final SourceTableId ORDERS_2025 = new SourceTableId("public", "orders_2025");
+    private static final SourceTableId ITEMS = new SourceTableId("public", "items");
+
+    private final PartitionHierarchy hierarchy = new PartitionHierarchy(
+            Collections.singletonMap(ORDERS, Arrays.asList(ORDERS_2024, ORDERS_2025)));
+
+    @Test
+    public void shouldRouteLeavesToRoot() {
+        Assert.assertEquals(ORDERS, hierarchy.rootOf(ORDERS_2024));
+        Assert.assertEquals(ORDERS, hierarchy.rootOf(ORDERS));
+        Assert.assertEquals(ITEMS, hierarchy.rootOf(ITEMS));
+        Assert.assertEquals(Arrays.asList(ORDERS, ITEMS), hierarchy.toRoots(Arrays.asList(ORDERS_2024, ORDERS, ITEMS, ORDERS_2025)));
+    }
+
+    @Test
+    public void shouldReplaceRootWithLeaves() {
+        Assert.assertEquals(Arrays.asList(ITEMS, ORDERS_2024, ORDERS_2025), hierarchy.expand(Arrays.asList(ITEMS, ORDERS)));
+        // 按 schema 展开的清单同时包含根表与叶子分区
+        List<SourceTableId> schemaTables = Arrays.asList(ITEMS, ORDERS, ORDERS_2024, ORDERS_2025);
+        Assert.assertEquals(Arrays.asList(ITEMS, ORDERS_2024, ORDERS_2025), hierarchy.expand(schemaTables));
+    }
+
+    @Test
+    public void shouldExpandRootSettingsToLeaves() {
+        Map<SourceTableId, String> settings = new LinkedHashMap<SourceTableId, String>();
+        settings.put(ORDERS, "root");
+        settings.put(ORDERS_2025, "leaf");
+        settings.put(ITEMS, "items");
+
+        Map<SourceTableId, String> expanded = hierarchy.expandKeys(settings);
+        Assert.assertEquals(3, expanded.size());
+        Assert.assertEquals("root", expanded.get(ORDERS_2024));
+        Assert.assertEquals("leaf", expanded.get(ORDERS_2025));
+        Assert.assertEquals("items", expanded.get(ITEMS));
+        Assert.assertSame(settings, PartitionHierarchy.EMPTY.expandKeys(settings));
+    }
+}
@@ -0,0 +1,87 @@
+package io.debezium.connector.kingbasees.sink;
+
+import io.debezium.engine.ChangeEvent;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+
+public class RowStateStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldFillUnchangedToastAndBeforeImage() throws Exception {
+        try (RowStateStore store = new RowStateStore(folder.getRoot().toPath(), 10, 100)) {
+            store.apply(event("r", "null", "{\"id\":1,\"amount\":10,\"doc\":\"large text\"}"));
+
+            CdcEvent update = store.apply(event("u", "null", "{\"id\":1,\"amount\":15,\"doc\":\"" + RowStateStore.TOAST_PLACEHOLDER + "\"}"));
+            Assert.assertEquals("large text", update.getAfter().getString("doc"));
+            Assert.assertEquals(10, update.getBefore().getIntValue("amount"));
+
+            CdcEvent delete = store.apply(event("d", "{\"id\":1}", "null"));
+            Assert.assertEquals(15, delete.getBefore().getIntValue("amount"));
+            Assert.assertEquals("large text", delete.getBefore().getString("doc"));
+        }
+    }
+
+    @Test
+    public void shouldServeEvictedRowsFromDiskAcrossRestarts() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        try (RowStateStore store = new RowStateStore(dir, 2, 3)) {
+            for (int id = 1; id <= 5; id++) {
+                store.apply(event("r", id, "null", "{\"id\":" + id + ",\"doc\":\"doc" + id + "\"}"));
+            }
+            Assert.assertEquals(3, store.memoryEvictions());
+        }
+
+        try (RowStateStore store = new RowStateStore(dir, 2, 3)) {
+            // 磁盘层只保留最近写入的 3 行
+            Assert.assertEquals(3, store.diskSize());
+            CdcEvent kept = store.apply(event("u", 5, "null", "{\"id\":5,\"doc\":\"" + RowStateStore.TOAST_PLACEHOLDER + "\"}"));
+            Assert.assertEquals("doc5", kept.getAfter().getString("doc"));
+            CdcEvent dropped = store.apply(event("u", 1, "null", "{\"id\":1,\"doc\":\"" + RowStateStore.TOAST_PLACEHOLDER + "\"}"));
+            Assert.assertEquals(RowStateStore.TOAST_PLACEHOLDER, dropped.getAfter().getString("doc"));
+        }
+    }
+
+    private static CdcEvent event(String op, String before, String after) {
+        return event(op, 1, before, after);
+    }
+
+    private static CdcEvent event(String op, int id, String before, String after) {
+        String value = "{\"payload\":{\"source\":{\"schema\":\"form\",\"table\":\"t_doc\"},\"op\":\"" + op + "\",\"before\":" + before + ",\"after\":" + after + "}}";
+        return CdcEvent.parse(new SimpleEvent("{\"payload\":{\"id\":" + id + "}}", value, "kb.form.t_doc"));
+    }
+
+    private static final class SimpleEvent implements ChangeEvent<String, String> {
+
+        private final String key;
+        private final String value;
+        private final String destination;
+
+        private SimpleEvent(String key, String value, String destination) {
+            this.key = key;
+            this.value = value;
+            this.destination = destination;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public String destination() {
+            return destination;
+        }
+    }
+}
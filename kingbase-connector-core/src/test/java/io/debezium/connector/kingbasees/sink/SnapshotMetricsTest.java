@@ -0,0 +1,116 @@
+package io.debezium.connector.kingbasees.sink;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SnapshotMetricsTest {
+
+    private static final SourceTableId ORDERS = new SourceTableId("public", "orders");
+    private static final SourceTableId ITEMS = new SourceTableId("public", "items");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldEstimateProgressFromStatistics() {
+        SnapshotMetrics metrics = new SnapshotMetrics(folder.getRoot().toPath(), "kingbase-server", Collections.<String>emptyList());
+        Map<SourceTableId, Long> estimates = new HashMap<SourceTableId, Long>();
+        estimates.put(ORDERS, 300L);
+        estimates.put(ITEMS, 100L);
+        metrics.estimate(estimates);
+
+        Assert.assertEquals(-1, metrics.getEtaSeconds());
+        metrics.recordWritten(ORDERS, 100, 4096, 1000L);
+        metrics.recordWritten(ITEMS, 100, 1024, 1000L);
+
+        Assert.assertEquals(400, metrics.getEstimatedRows());
+        Assert.assertEquals(200, metrics.getRowsWritten());
+        Assert.assertEquals(5120, metrics.getBytesWritten());
+        Assert.assertEquals(50.0, metrics.getProgressPercent(), 0.001);
+        Assert.assertEquals(Long.valueOf(100), metrics.getRowsWrittenByTable().get("public.items"));
+        Assert.assertFalse(metrics.isCompleted());
+    }
+
+    @Test
+    public void shouldPublishProgressOnceAllGroupsComplete() {
+        Path workDir = folder.getRoot().toPath();
+        SnapshotMetrics metrics = new SnapshotMetrics(workDir, "kingbase-server", Arrays.asList("g1", "g2"));
+        metrics.recordWritten(ORDERS, 10, 100, 1000L);
+
+        metrics.completed("g1");
+        Assert.assertFalse(metrics.isCompleted());
+        metrics.completed("g2");
+        Assert.assertTrue(metrics.isCompleted());
+
+        JSONObject progress = JSON.parseObject(SnapshotMetrics.readProgress(workDir));
+        Assert.assertTrue(progress.getBooleanValue("completed"));
+        Assert.assertEquals(10L, progress.getLongValue("rowsWritten"));
+        Assert.assertEquals(100.0, progress.getDoubleValue("progressPercent"), 0.001);
+        Assert.assertEquals(-1L, progress.getLongValue("estimatedRows"));
+        Assert.assertEquals(1, progress.getJSONArray("tables").size());
+    }
+
+    @Test
+    public void shouldSumRowsReadAcrossGroups() throws Exception {
+        SnapshotMetrics metrics = new SnapshotMetrics(folder.getRoot().toPath(), "rows-read-server", Arrays.asList("g1", "g2", "g3"));
+        Assert.assertEquals(-1, metrics.getRowsRead());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName g1 = new ObjectName(SnapshotMetrics.debeziumMetricsName("rows-read-server", "g1"));
+        ObjectName g2 = new ObjectName(SnapshotMetrics.debeziumMetricsName("rows-read-server", "g2"));
+        server.registerMBean(new RowsScanned("public.orders", 30L, "public.items", 5L), g1);
+        server.registerMBean(new RowsScanned("public.users", 7L), g2);
+        try {
+            // g3 has not started its snapshot yet
+            Assert.assertEquals(42, metrics.getRowsRead());
+        }
+        finally {
+            server.unregisterMBean(g1);
+            server.unregisterMBean(g2);
+        }
+    }
+
+    @Test
+    public void shouldCapPercentWhileRunning() {
+        Assert.assertEquals(-1.0, SnapshotMetrics.percent(10, 0), 0.001);
+        Assert.assertEquals(25.0, SnapshotMetrics.percent(25, 100), 0.001);
+        Assert.assertEquals(99.9, SnapshotMetrics.percent(150, 100), 0.001);
+    }
+
+    public interface RowsScannedMXBean {
+
+        Map<String, Long> getRowsScanned();
+    }
+
+    /**
+     * Debezium 快照指标中按表统计的读取行数。
+     */
+    public static final class RowsScanned implements RowsScannedMXBean {
+
+        private final Map<String, Long> rows = new HashMap<String, Long>();
+
+        RowsScanned(Object... tableRows) {
+            for (int i = 0; i < tableRows.length; i += 2) {
+                rows.put((String) tableRows[i], (Long) tableRows[i + 1]);
+            }
+        }
+
+        @Override
+        public Map<String, Long> getRowsScanned() {
+            return rows;
+        }
+    }
+}
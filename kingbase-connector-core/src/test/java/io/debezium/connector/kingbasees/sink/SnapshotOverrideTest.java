@@ -0,0 +1,66 @@
+package io.debezium.connector.kingbasees.sink;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class SnapshotOverrideTest {
+
+    private static final SourceTableId ORDERS = new SourceTableId("public", "orders");
+
+    @Test
+    public void shouldBuildProjectedAndFilteredSelect() {
+        Map<SourceTableId, SnapshotOverride> overrides = SnapshotOverride.parse(
+                "{\"public.orders\":{\"columns\":\"id, amount\",\"where\":\"created_at >= '2024-01-01'\"},"
+                        + "\"public.items\":{\"columns\":[\"id\"]}}");
+
+        Assert.assertEquals(2, overrides.size());
+        Assert.assertEquals("SELECT \"id\", \"amount\" FROM \"public\".\"orders\" WHERE (created_at >= '2024-01-01')",
+                overrides.get(ORDERS).selectStatement(ORDERS));
+        SourceTableId items = new SourceTableId("public", "items");
+        Assert.assertEquals("SELECT \"id\" FROM \"public\".\"items\"", overrides.get(items).selectStatement(items));
+    }
+
+    @Test
+    public void shouldSelectAllColumnsWithOnlyAFilter() {
+        SnapshotOverride override = SnapshotOverride.parse("{\"public.orders\":{\"where\":\"id > 10\"}}").get(ORDERS);
+        Assert.assertTrue(override.getColumns().isEmpty());
+        Assert.assertEquals("SELECT * FROM \"public\".\"orders\" WHERE (id > 10)", override.selectStatement(ORDERS));
+    }
+
+    @Test
+    public void shouldRejectInvalidTableKey() {
+        try {
+            SnapshotOverride.parse("{\"orders\":{\"where\":\"id > 10\"}}");
+            Assert.fail("expected a key without schema to be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldValidateAgainstSourceColumns() {
+        SourceTableMeta meta = new SourceTableMeta(ORDERS, Arrays.asList(
+                new SourceColumn("id", "integer", "int4", "INT", false),
+                new SourceColumn("amount", "numeric", "numeric", "DECIMAL(38,4)", true),
+                new SourceColumn("status", "text", "text", "STRING", false)), Arrays.asList("id"));
+
+        new SnapshotOverride(Arrays.asList("id", "amount", "status"), null).validate(meta);
+        assertInvalid(new SnapshotOverride(Arrays.asList("id", "missing", "status"), null), meta);
+        assertInvalid(new SnapshotOverride(Arrays.asList("amount", "status"), null), meta);
+        assertInvalid(new SnapshotOverride(Arrays.asList("id", "amount"), null), meta);
+    }
+
+    private static void assertInvalid(SnapshotOverride override, SourceTableMeta meta) {
+        try {
+            override.validate(meta);
+            Assert.fail("expected " + override.getColumns() + " to be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.debezium.connector.kingbasees.sink;
+
+import io.debezium.engine.ChangeEvent;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransactionBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReplaySpilledTransactionInOrder() throws Exception {
+        TransactionBuffer buffer = new TransactionBuffer(folder.getRoot().toPath(), 1024);
+        buffer.begin("571");
+        for (int i = 0; i < 200; i++) {
+            buffer.add(new SimpleEvent(i % 10 == 0 ? null : "{\"id\":" + i + "}", "{\"seq\":" + i + ",\"name\":\"订单\"}"));
+        }
+        Assert.assertEquals(1, folder.getRoot().list().length);
+
+        List<ChangeEvent<String, String>> replayed = new ArrayList<ChangeEvent<String, String>>();
+        buffer.commit("571", replayed::add);
+
+        Assert.assertEquals(200, replayed.size());
+        Assert.assertNull(replayed.get(0).key());
+        Assert.assertEquals("{\"seq\":199,\"name\":\"订单\"}", replayed.get(199).value());
+        Assert.assertFalse(buffer.isOpen());
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void shouldDiscardTransactionWithoutEnd() throws Exception {
+        TransactionBuffer buffer = new TransactionBuffer(folder.getRoot().toPath(), 1 << 20);
+        buffer.begin("1");
+        buffer.add(new SimpleEvent("{\"id\":1}", "{\"seq\":1}"));
+        buffer.begin("2");
+        buffer.add(new SimpleEvent("{\"id\":2}", "{\"seq\":2}"));
+
+        List<ChangeEvent<String, String>> replayed = new ArrayList<ChangeEvent<String, String>>();
+        buffer.commit("2", replayed::add);
+
+        Assert.assertEquals(1, replayed.size());
+        Assert.assertEquals("{\"seq\":2}", replayed.get(0).value());
+    }
+
+    private static final class SimpleEvent implements ChangeEvent<String, String> {
+
+        private final String key;
+        private final String value;
+
+        private SimpleEvent(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public String destination() {
+            return "kb.form.t_order";
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class TaskUpsertRequest {
     private Boolean replicaIdentityFull;
     private Boolean replicaIdentityFullFailFast;
     private String replicaIdentityFullTables;
+    private String snapshotOverrides;
 
     private String routeMode;
     private String dorisDatabase;
@@ -99,6 +100,7 @@ public class TaskUpsertRequest {
             task.setReplicaIdentityFullFailFast(replicaIdentityFullFailFast.booleanValue());
         }
         task.setReplicaIdentityFullTables(replicaIdentityFullTables);
+        task.setSnapshotOverrides(snapshotOverrides);
 
         task.setRouteMode(routeMode);
         task.setDorisDatabase(dorisDatabase);
@@ -0,0 +1,36 @@
+package io.debezium.connector.kingbasees.console.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 全量快照进度，由同步引擎定期写入任务工作目录。估算值无法得出时为 -1。
+ */
+@Data
+public class SnapshotProgressInfo {
+
+    private boolean completed;
+    private Long startedAt;
+    private Long updatedAt;
+    private long elapsedSeconds;
+    private long estimatedRows;
+    private long rowsRead;
+    private long rowsWritten;
+    private long bytesWritten;
+    private long rowsPerSecond;
+    private double progressPercent;
+    private long etaSeconds;
+    private double writeBusyPercent;
+    private List<TableProgress> tables;
+
+    @Data
+    public static class TableProgress {
+
+        private String table;
+        private long estimatedRows;
+        private long rowsWritten;
+        private long bytesWritten;
+        private double progressPercent;
+    }
+}
@@ -27,6 +27,7 @@ public class SyncTaskConfig {
     private boolean replicaIdentityFull = false;
     private boolean replicaIdentityFullFailFast = false;
     private String replicaIdentityFullTables;
+    private String snapshotOverrides;
 
     private String routeMode = "schema_table";
     private String dorisDatabase = "cdc";
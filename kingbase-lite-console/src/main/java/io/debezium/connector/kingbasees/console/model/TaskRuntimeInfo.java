@@ -13,4 +13,5 @@ public class TaskRuntimeInfo {
     private Long lastStopAt;
     private Integer lastExitCode;
     private String message;
+    private SnapshotProgressInfo snapshotProgress;
 }
@@ -1,12 +1,16 @@
 package io.debezium.connector.kingbasees.console.service;
 
+import com.alibaba.fastjson2.JSON;
 import io.debezium.connector.kingbasees.console.LiteConsoleApplication;
 import io.debezium.connector.kingbasees.console.config.ConsoleProperties;
 import io.debezium.connector.kingbasees.console.model.DataSourceConfig;
 import io.debezium.connector.kingbasees.console.model.DataSourceType;
 import io.debezium.connector.kingbasees.console.model.RunMode;
+import io.debezium.connector.kingbasees.console.model.SnapshotProgressInfo;
 import io.debezium.connector.kingbasees.console.model.SyncTaskConfig;
 import io.debezium.connector.kingbasees.console.model.TaskRuntimeInfo;
+import io.debezium.connector.kingbasees.sink.SnapshotMarker;
+import io.debezium.connector.kingbasees.sink.SnapshotMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.support.CronSequenceGenerator;
@@ -57,6 +61,7 @@ public class TaskRunnerService {
     private final Map<String, ManagedProcess> runningMap = new ConcurrentHashMap<String, ManagedProcess>();
     private final Map<String, TaskRuntimeInfo> runtimeMap = new ConcurrentHashMap<String, TaskRuntimeInfo>();
     private final Map<String, ScheduledFuture<?>> scheduleMap = new ConcurrentHashMap<String, ScheduledFuture<?>>();
+    private final Map<String, Path> workDirMap = new ConcurrentHashMap<String, Path>();
 
     public TaskRunnerService(ConsoleProperties properties, DataSourceService dataSourceService) {
         this.properties = properties;
@@ -135,6 +140,7 @@ public class TaskRunnerService {
         stopTask(taskId);
         runningMap.remove(taskId);
         runtimeMap.remove(taskId);
+        workDirMap.remove(taskId);
     }
 
     public synchronized TaskRuntimeInfo runTask(SyncTaskConfig task, RunMode runMode, String trigger) {
@@ -159,6 +165,7 @@ public class TaskRunnerService {
         Path offsetFile = workDir.resolve("offset.dat");
         Path historyFile = workDir.resolve("history.dat");
         prepareWorkFiles(runMode, offsetFile, historyFile);
+        workDirMap.put(taskId, workDir);
 
         List<String> command = buildCommand(task, source, target, runMode, workDir, offsetFile, historyFile);
         ProcessBuilder processBuilder = new ProcessBuilder(command);
@@ -237,6 +244,7 @@ public class TaskRunnerService {
     public TaskRuntimeInfo runtime(String taskId) {
         TaskRuntimeInfo info = runtimeMap.get(taskId);
         if (info != null) {
+            info.setSnapshotProgress(readSnapshotProgress(taskId));
             return info;
         }
         TaskRuntimeInfo created = new TaskRuntimeInfo();
@@ -252,10 +260,34 @@ public class TaskRunnerService {
      */
     public List<TaskRuntimeInfo> listAllRuntime() {
         List<TaskRuntimeInfo> list = new ArrayList<TaskRuntimeInfo>(runtimeMap.values());
+        for (TaskRuntimeInfo info : list) {
+            info.setSnapshotProgress(readSnapshotProgress(info.getTaskId()));
+        }
         Collections.sort(list, Comparator.comparing(TaskRuntimeInfo::getTaskId, Comparator.nullsLast(String::compareTo)));
         return list;
     }
 
+    /**
+     * 读取任务工作目录下引擎写入的全量进度，任务未启动过或未做过全量时返回 null。
+     */
+    private SnapshotProgressInfo readSnapshotProgress(String taskId) {
+        Path workDir = workDirMap.get(taskId);
+        if (workDir == null) {
+            return null;
+        }
+        String json = SnapshotMetrics.readProgress(workDir);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return JSON.parseObject(json, SnapshotProgressInfo.class);
+        }
+        catch (Exception e) {
+            log.warn("[任务调度] 解析全量进度失败 taskId={}，原因={}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
     public List<String> logs(String taskId, Integer tail) {
         ManagedProcess managed = runningMap.get(taskId);
         if (managed == null) {
@@ -298,12 +330,13 @@ public class TaskRunnerService {
         props.put("kb.slot.init", String.valueOf(task.isInitSlot()));
         props.put("kb.slot.recreate", String.valueOf(resolveSlotRecreate(task, mode)));
         props.put("kb.slot.drop.on.stop", String.valueOf(task.isSlotDropOnStop()));
-        props.put("kb.snapshot.mode", resolveSnapshotMode(mode));
+        props.put("kb.snapshot.mode", resolveSnapshotMode(mode, workDir));
         props.put("kb.replica.identity.full", String.valueOf(task.isReplicaIdentityFull()));
         props.put("kb.replica.identity.full.fail-fast", String.valueOf(task.isReplicaIdentityFullFailFast()));
         props.put("kb.replica.identity.full.tables", normalizeCsv(task.getReplicaIdentityFullTables()));
         props.put("kb.tables", normalizeCsv(task.getIncludeTables()));
         props.put("kb.schemas", normalizeCsv(task.getIncludeSchemas()));
+        props.put("kb.snapshot.overrides", defaultString(task.getSnapshotOverrides(), ""));
 
         props.put("doris.host", target.getHost());
         props.put("doris.port", String.valueOf(target.getPort()));
@@ -394,9 +427,15 @@ public class TaskRunnerService {
     private void prepareWorkFiles(RunMode runMode, Path offsetFile, Path historyFile) {
         try {
             Files.createDirectories(offsetFile.getParent());
+            if (runMode == RunMode.FULL_THEN_CDC && SnapshotMarker.isPresent(offsetFile.getParent())) {
+                // 上次全量未完成：保留位点中的快照进度，从断点续传
+                log.info("[任务调度] 检测到未完成的全量快照，保留位点文件断点续传：{}", offsetFile);
+                return;
+            }
             if (runMode == RunMode.FULL_THEN_CDC || runMode == RunMode.FORCE_FULL_THEN_CDC) {
                 Files.deleteIfExists(offsetFile);
                 Files.deleteIfExists(historyFile);
+                SnapshotMarker.clear(offsetFile.getParent());
             }
         }
         catch (IOException e) {
@@ -424,10 +463,14 @@ public class TaskRunnerService {
         }
     }
 
-    private String resolveSnapshotMode(RunMode mode) {
+    private String resolveSnapshotMode(RunMode mode, Path workDir) {
         if (mode == RunMode.FULL_THEN_CDC || mode == RunMode.FORCE_FULL_THEN_CDC) {
             return "initial";
         }
+        // 断点续传时上次全量未完成，需继续快照，否则剩余数据不会再同步
+        if (mode == RunMode.RESUME_CDC && SnapshotMarker.isPresent(workDir)) {
+            return "initial";
+        }
         return "never";
     }
 
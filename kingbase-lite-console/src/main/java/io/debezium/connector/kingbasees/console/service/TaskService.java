@@ -148,6 +148,7 @@ public class TaskService {
         task.setReplicaIdentityFull(input.isReplicaIdentityFull());
         task.setReplicaIdentityFullFailFast(input.isReplicaIdentityFullFailFast());
         task.setReplicaIdentityFullTables(normalizeCsv(input.getReplicaIdentityFullTables()));
+        task.setSnapshotOverrides(trimToNull(input.getSnapshotOverrides()));
 
         task.setRouteMode(RouteMode.fromCode(defaultString(input.getRouteMode(), "schema_table")).getCode());
         task.setDorisDatabase(defaultString(input.getDorisDatabase(), "cdc"));
@@ -207,6 +208,10 @@ public class TaskService {
 
         RunMode.fromText(task.getScheduleRunMode());
 
+        if (task.getSnapshotOverrides() != null && !JSON.isValidObject(task.getSnapshotOverrides())) {
+            throw new IllegalArgumentException("snapshotOverrides 必须是 JSON 对象，例如 {\"public.orders\":{\"columns\":\"id,amount\",\"where\":\"id > 0\"}}");
+        }
+
         if (task.getDorisBuckets() < 1) {
             throw new IllegalArgumentException("dorisBuckets 必须 >= 1");
         }